@@ -68,7 +68,6 @@ import de.ovgu.featureide.core.fstmodel.preprocessor.FSTDirective;
 import de.ovgu.featureide.core.signature.documentation.base.ADocumentationCommentParser;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.editing.NodeCreator;
 
 /**
@@ -554,7 +553,7 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 			featureList.deleteCharAt(length - 1);
 		}
 
-		featureModel = AdvancedNodeCreator.createNodes(configuration.getFeatureModel());
+		setFeatureModelFormula(configuration.getFeatureModel());
 
 		// add source files
 		try {
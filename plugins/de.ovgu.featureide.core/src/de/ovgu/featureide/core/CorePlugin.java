@@ -842,6 +842,7 @@ public class CorePlugin extends AbstractCorePlugin {
 	public static Node removeFeatures(IFeatureModel featureModel, Collection<String> removeFeatures) throws TimeoutException, UnkownLiteralException {
 		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(featureModel, removeFeatures);
 		nodeCreator.setCnfType(AdvancedNodeCreator.CNFType.Regular);
+		nodeCreator.setUseVariableElimination(true);
 		return nodeCreator.createNodes();
 	}
 
@@ -25,12 +25,13 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.IS_NOT_DEFINED
 import static de.ovgu.featureide.fm.core.localization.StringTable.PREPROCESSOR;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Stack;
 import java.util.Vector;
@@ -42,13 +43,11 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
-import org.prop4j.And;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.NodeReader;
-import org.prop4j.Not;
-import org.prop4j.SatSolver;
-import org.sat4j.specs.TimeoutException;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SelectorSolver;
 
 import de.ovgu.featureide.core.CorePlugin;
 import de.ovgu.featureide.core.builder.ComposerExtensionClass;
@@ -56,6 +55,8 @@ import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.FormulaCache;
 import de.ovgu.featureide.fm.core.explanations.preprocessors.InvariantExpressionExplanation;
 import de.ovgu.featureide.fm.core.explanations.preprocessors.InvariantExpressionExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.preprocessors.PreprocessorExplanationCreatorFactory;
@@ -87,10 +88,29 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 		PreprocessorExplanationCreatorFactory.getDefault().getInvariantExpressionExplanationCreator();
 
 	/**
-	 * Feature model node generated in {@link #performFullBuild(IFile)} and used for expression checking.
+	 * Feature model node (in CNF) generated in {@link #prepareFullBuild(IFile)} and used for expression checking. Set by
+	 * {@link #setFeatureModelFormula(IFeatureModel)}.
 	 */
 	protected Node featureModel;
 
+	/**
+	 * The {@link IFeatureModel#getId() identifier} and the {@link IFeatureModel#getModificationCount() modification counter} of the feature model from
+	 * which {@link #featureModel} was created.
+	 */
+	private long featureModelId, featureModelModificationCount;
+
+	/**
+	 * Solver for {@link #featureModel} that is shared by all expression checks of one build. Expressions are enabled by assumptions, such that the feature
+	 * model is only loaded once. Reset in {@link #setFeatureModelFormula(IFeatureModel)}.
+	 */
+	private SelectorSolver expressionSolver;
+
+	/**
+	 * Results of {@link #isContradictionOrTautology()} for all checked expression stacks (from bottom to top). Reset in
+	 * {@link #setFeatureModelFormula(IFeatureModel)}.
+	 */
+	private final Map<List<Node>, Integer> expressionResults = new HashMap<>();
+
 	/**
 	 * Preprocessor name used for messages in build markers (must set in subclass).
 	 */
@@ -186,58 +206,85 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 		}
 
 		// create expression of feature model
-		featureModel = AdvancedNodeCreator.createNodes(fm);
+		setFeatureModelFormula(fm);
 
 		featureList = Functional.toList(FeatureUtils.extractFeatureNames(fm.getFeatures()));
 
 		return true;
 	}
 
+	/**
+	 * Sets the formula of the given feature model for expression checking. The solver and the results of all previous checks are discarded, unless the
+	 * formula was already created from the same state of the feature model.<br> Synchronized with the expression checks, since products may be built in
+	 * parallel.
+	 *
+	 * @param fm the feature model
+	 */
+	protected synchronized void setFeatureModelFormula(IFeatureModel fm) {
+		final long modificationCount = fm.getModificationCount();
+		if ((featureModel != null) && (featureModelId == fm.getId()) && (featureModelModificationCount == modificationCount)) {
+			return;
+		}
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Tseitin);
+		featureModel = FormulaCache.getInstance().getCnf(nodeCreator);
+		featureModelId = fm.getId();
+		featureModelModificationCount = modificationCount;
+		expressionSolver = null;
+		expressionResults.clear();
+	}
+
 	/**
 	 * Checks the expression on top of the expression stack for a contradiction or a tautology. Does not set any markers.
 	 *
 	 * @return {@link #SAT_CONTRADICTION}, {@link #SAT_TAUTOLOGY}, or {@link #SAT_NONE}
 	 */
-	protected int isContradictionOrTautology() {
-		final Node expression = expressionStack.peek();
-
-		Node nestedExpressions = null;
-		if (expressionStack.size() > 1) {
-			Node[] children = expressionStack.toArray(new Node[expressionStack.size()]);
-			children = Arrays.copyOfRange(children, 0, children.length - 1); // Exclude the topmost expression because it is examined separately.
-			nestedExpressions = new And(children);
+	protected synchronized int isContradictionOrTautology() {
+		final List<Node> expressions = new ArrayList<>(expressionStack);
+		final Integer cachedResult = expressionResults.get(expressions);
+		if (cachedResult != null) {
+			return cachedResult;
 		}
 
-		try {
-			return isContradictionOrTautology(expression, featureModel, nestedExpressions);
-		} catch (final TimeoutException e) {
-			CorePlugin.getDefault().logError(e);
-			return SAT_NONE;
+		if (expressionSolver == null) {
+			expressionSolver = new SelectorSolver(featureModel);
 		}
-	}
-
-	private int isContradictionOrTautology(Node expression, Node featureModel, Node nestedExpressions) throws TimeoutException {
-		Node context = featureModel;
-		if (nestedExpressions != null) {
-			context = new And(context, nestedExpressions);
+		// The topmost expression is examined separately, all other expressions are its nesting context.
+		final int[] assumptions = new int[expressions.size()];
+		for (int i = 0; i < assumptions.length; i++) {
+			assumptions[i] = expressionSolver.getSelector(expressions.get(i));
 		}
 
+		int result = SAT_NONE;
 		/*
 		 * -SAT(FM & nestedExpressions & expression)
 		 */
-		if (!new SatSolver(new And(context, expression), 1000).isSatisfiable()) {
-			return SAT_CONTRADICTION;
+		SatResult satResult = expressionSolver.isSatisfiable(assumptions);
+		if (satResult == SatResult.FALSE) {
+			result = SAT_CONTRADICTION;
+		} else if (satResult == SatResult.TRUE) {
+			/*
+			 * TAUT(FM & nestedExpressions => expression) = -SAT(-(FM & nestedExpressions => expression)) = -SAT(-(-(FM & nestedExpressions) | expression)) =
+			 * -SAT(-(-FM | -nestedExpressions | expression)) = -SAT(FM & nestedExpressions & -expression)
+			 */
+			assumptions[assumptions.length - 1] = -assumptions[assumptions.length - 1];
+			satResult = expressionSolver.isSatisfiable(assumptions);
+			if (satResult == SatResult.FALSE) {
+				result = SAT_TAUTOLOGY;
+			}
 		}
-
-		/*
-		 * TAUT(FM & nestedExpressions => expression) = -SAT(-(FM & nestedExpressions => expression)) = -SAT(-(-(FM & nestedExpressions) | expression)) =
-		 * -SAT(-(-FM | -nestedExpressions | expression)) = -SAT(FM & nestedExpressions & -expression)
-		 */
-		if (!new SatSolver(new And(context, new Not(expression)), 1000).isSatisfiable()) {
-			return SAT_TAUTOLOGY;
+		if (satResult == SatResult.TIMEOUT) {
+			// results are not cached, as another check might succeed
+			CorePlugin.getDefault().logWarning("Timeout while checking the preprocessor expression " + expressions.get(expressions.size() - 1));
+			return SAT_NONE;
 		}
 
-		return SAT_NONE;
+		final List<Node> key = new ArrayList<>(expressions.size());
+		for (final Node expression : expressions) {
+			key.add(expression.clone());
+		}
+		expressionResults.put(key, result);
+		return result;
 	}
 
 	/**
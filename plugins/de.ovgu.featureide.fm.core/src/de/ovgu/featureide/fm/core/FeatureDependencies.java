@@ -20,26 +20,29 @@
  */
 package de.ovgu.featureide.fm.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
-import org.prop4j.And;
-import org.prop4j.Implies;
-import org.prop4j.Literal;
 import org.prop4j.Node;
-import org.prop4j.Not;
-import org.prop4j.SatSolver;
-import org.sat4j.specs.TimeoutException;
+import org.prop4j.analyses.CoreDeadAnalysis;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ISatSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
 
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 
 /**
- * Calculates dependencies of features
+ * Calculates dependencies of features.</br> All dependencies are computed with one solver. For each feature <i>X</i> one backbone computation under the
+ * assumption <i>X</i> yields all features that are always or never selected together with <i>X</i>. The results are stored in a bit matrix.
  *
  * @author Soenke Holthusen
  * @author Marcus Pinnecke (Feature Interface) *
@@ -51,11 +54,23 @@ public class FeatureDependencies {
 		+ "X NEVER  Y := If X is selected then Y cannot be selected in any valid configuration." + "\n";
 
 	private final IFeatureModel fm;
-	private final Node rootNode;
+	private final List<IFeature> features;
+	private final SatInstance satInstance;
+	private final ISatSolver solver;
 
-	private final Map<IFeature, Set<IFeature>> always = new HashMap<IFeature, Set<IFeature>>();
-	private final Map<IFeature, Set<IFeature>> never = new HashMap<IFeature, Set<IFeature>>();
-	private final Map<IFeature, Set<IFeature>> maybe = new HashMap<IFeature, Set<IFeature>>();
+	/** Number of {@code long} words per row of a matrix. */
+	private final int rowLength;
+	/** Bit (X, Y) is set iff X ALWAYS Y. */
+	private final long[] always;
+	/** Bit (X, Y) is set iff X NEVER Y. */
+	private final long[] never;
+	/** Bit X is set iff the row of X has been calculated. */
+	private final long[] calculated;
+
+	/** Variables of all features that are neither core nor dead in the whole model. */
+	private int[] variableFeatures = null;
+	/** Core and dead features of the whole model. */
+	private int[] coreDeadFeatures = null;
 
 	/**
 	 * @param fm
@@ -72,7 +87,22 @@ public class FeatureDependencies {
 	 */
 	public FeatureDependencies(IFeatureModel fm, boolean calculateDependencies) {
 		this.fm = fm;
-		rootNode = createRootNode(fm);
+		features = new ArrayList<>(fm.getNumberOfFeatures());
+		final List<String> featureNames = new ArrayList<>(fm.getNumberOfFeatures());
+		for (final IFeature feature : fm.getFeatures()) {
+			features.add(feature);
+			featureNames.add(feature.getName());
+		}
+
+		satInstance = new SatInstance(createRootNode(fm), featureNames);
+		solver = createSolver(satInstance);
+
+		final int size = features.size();
+		rowLength = (size >>> 6) + 1;
+		always = new long[size * rowLength];
+		never = new long[size * rowLength];
+		calculated = new long[rowLength];
+
 		if (calculateDependencies) {
 			calculateDependencies();
 		}
@@ -82,29 +112,112 @@ public class FeatureDependencies {
 	 * calculates feature dependencies
 	 */
 	private void calculateDependencies() {
-		for (final IFeature feature : fm.getFeatures()) {
-			always.put(feature, new HashSet<IFeature>());
-			never.put(feature, new HashSet<IFeature>());
-			maybe.put(feature, new HashSet<IFeature>());
-
-			final Node nodeSel = new And(rootNode, new Literal(feature.getName()));
-
-			for (final IFeature current_feature : fm.getFeatures()) {
-				if (!current_feature.equals(feature)) {
-					try {
-						if (nodeImpliesFeature(nodeSel, current_feature.getName(), true)) {
-							always.get(feature).add(current_feature);
-						} else if (nodeImpliesFeature(nodeSel, current_feature.getName(), false)) {
-							never.get(feature).add(current_feature);
-						} else {
-							maybe.get(feature).add(current_feature);
-						}
-					} catch (final TimeoutException e) {
-						Logger.logError(e);
-					}
+		for (int i = 0; i < features.size(); i++) {
+			calculateRow(i);
+		}
+	}
+
+	/**
+	 * Calculates all dependencies of the given feature, if not already done.
+	 *
+	 * @param index index of the feature
+	 */
+	private void calculateRow(int index) {
+		if (isSet(calculated, 0, index)) {
+			return;
+		}
+		set(calculated, 0, index);
+
+		final int rowOffset = index * rowLength;
+		final int variable = index + 1;
+		if ((solver == null) || !isSatisfiable(variable)) {
+			// X cannot be selected, hence every other feature is implied
+			for (int j = 0; j < features.size(); j++) {
+				if (j != index) {
+					set(always, rowOffset, j);
 				}
 			}
+			return;
 		}
+
+		if (variableFeatures == null) {
+			calculateCoreDeadFeatures();
+		}
+		for (final int literal : coreDeadFeatures) {
+			set(literal > 0 ? always : never, rowOffset, Math.abs(literal) - 1);
+		}
+		final CoreDeadAnalysis analysis = new CoreDeadAnalysis(solver, variableFeatures);
+		analysis.setAssumptions(new int[] { variable });
+		final int[] impliedLiterals = LongRunningWrapper.runMethod(analysis);
+		if (impliedLiterals != null) {
+			for (final int literal : impliedLiterals) {
+				final int otherIndex = Math.abs(literal) - 1;
+				if (otherIndex != index) {
+					set(literal > 0 ? always : never, rowOffset, otherIndex);
+				}
+			}
+		}
+		clear(always, rowOffset, index);
+		clear(never, rowOffset, index);
+	}
+
+	/**
+	 * Computes the core and dead features of the whole model once. They are shared by all rows and excluded from the backbone computation of each feature.
+	 */
+	private void calculateCoreDeadFeatures() {
+		final int[] result = LongRunningWrapper.runMethod(new CoreDeadAnalysis(solver));
+		coreDeadFeatures = result == null ? new int[0] : result;
+
+		final boolean[] fixed = new boolean[features.size() + 1];
+		for (final int literal : coreDeadFeatures) {
+			fixed[Math.abs(literal)] = true;
+		}
+		final int[] variables = new int[features.size() - coreDeadFeatures.length];
+		int i = 0;
+		for (int variable = 1; variable < fixed.length; variable++) {
+			if (!fixed[variable]) {
+				variables[i++] = variable;
+			}
+		}
+		variableFeatures = variables;
+	}
+
+	private boolean isSatisfiable(int variable) {
+		solver.assignmentPush(variable);
+		try {
+			final SatResult result = solver.isSatisfiable();
+			if (result == SatResult.TIMEOUT) {
+				Logger.logWarning("Timeout while calculating the dependencies of " + satInstance.getVariableObject(variable));
+			}
+			return result != SatResult.FALSE;
+		} finally {
+			solver.assignmentClear(0);
+		}
+	}
+
+	private static ISatSolver createSolver(SatInstance satInstance) {
+		try {
+			return new BasicSolver(satInstance);
+		} catch (final ContradictionException e) {
+			// the feature model is void
+			return null;
+		}
+	}
+
+	private boolean isSet(long[] matrix, int rowOffset, int column) {
+		return (matrix[rowOffset + (column >>> 6)] & (1L << (column & 63))) != 0;
+	}
+
+	private void set(long[] matrix, int rowOffset, int column) {
+		matrix[rowOffset + (column >>> 6)] |= (1L << (column & 63));
+	}
+
+	private void clear(long[] matrix, int rowOffset, int column) {
+		matrix[rowOffset + (column >>> 6)] &= ~(1L << (column & 63));
+	}
+
+	private int getIndex(IFeature feature) {
+		return satInstance.getVariable(feature.getName()) - 1;
 	}
 
 	/**
@@ -114,24 +227,7 @@ public class FeatureDependencies {
 	 * @return all implied features
 	 */
 	public Collection<IFeature> getImpliedFeatures(IFeature feature) {
-		if (always.containsKey(feature)) {
-			return always.get(feature);
-		}
-		always.put(feature, new HashSet<IFeature>());
-		final Node nodeSel = new And(rootNode, new Literal(feature.getName()));
-		final Collection<IFeature> impliedFeatures = always.get(feature);
-		try {
-			for (final IFeature f : fm.getFeatures()) {
-				if (!f.equals(feature)) {
-					if (nodeImpliesFeature(nodeSel, f.getName(), true)) {
-						impliedFeatures.add(f);
-					}
-				}
-			}
-		} catch (final TimeoutException e) {
-			Logger.logError(e);
-		}
-		return impliedFeatures;
+		return always(feature);
 	}
 
 	/**
@@ -140,16 +236,9 @@ public class FeatureDependencies {
 	 * @return <code>true</code> if A implies B
 	 */
 	public boolean isAlways(IFeature A, IFeature B) {
-		if (always.containsKey(A)) {
-			return always.get(A).contains(B);
-		}
-		final Node nodeSel = new And(rootNode, new Literal(A.getName()));
-		try {
-			return nodeImpliesFeature(nodeSel, B.getName(), true);
-		} catch (final TimeoutException e) {
-			Logger.logError(e);
-		}
-		return false;
+		final int index = getIndex(A);
+		calculateRow(index);
+		return isSet(always, index * rowLength, getIndex(B));
 	}
 
 	/**
@@ -159,24 +248,24 @@ public class FeatureDependencies {
 	 * @return Node representing the featureModel
 	 */
 	private Node createRootNode(IFeatureModel fm) {
-		return AdvancedNodeCreator.createCNF(fm);
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setIncludeBooleanValues(false);
+		nodeCreator.setUseOldNames(false);
+		return nodeCreator.createNodes();
 	}
 
-	/**
-	 * @param node
-	 * @param s
-	 * @param positive if false, the feature is negated
-	 * @return true if the given feature is selected in every valid configuration for the featureModel represented by node
-	 * @throws TimeoutException
-	 */
-	private boolean nodeImpliesFeature(Node node, String featureName, boolean positive) throws TimeoutException {
-		Node nodeNeg = null;
-		if (positive) {
-			nodeNeg = new Not((new Implies(node, new Literal(featureName))));
-		} else {
-			nodeNeg = new Not((new Implies(node, new Not(featureName))));
+	private Set<IFeature> getFeatures(long[] matrix, IFeature feature) {
+		final int index = getIndex(feature);
+		calculateRow(index);
+		final int rowOffset = index * rowLength;
+		final Set<IFeature> result = new LinkedHashSet<>();
+		for (int j = 0; j < features.size(); j++) {
+			if (isSet(matrix, rowOffset, j)) {
+				result.add(features.get(j));
+			}
 		}
-		return !new SatSolver(nodeNeg, 2500).isSatisfiable();
+		return result;
 	}
 
 	/**
@@ -184,7 +273,7 @@ public class FeatureDependencies {
 	 * @return
 	 */
 	public Set<IFeature> always(IFeature feature) {
-		return always.get(feature);
+		return getFeatures(always, feature);
 	}
 
 	/**
@@ -192,7 +281,7 @@ public class FeatureDependencies {
 	 * @return
 	 */
 	public Set<IFeature> never(IFeature feature) {
-		return never.get(feature);
+		return getFeatures(never, feature);
 	}
 
 	/**
@@ -200,7 +289,16 @@ public class FeatureDependencies {
 	 * @return
 	 */
 	public Set<IFeature> maybe(IFeature feature) {
-		return maybe.get(feature);
+		final int index = getIndex(feature);
+		calculateRow(index);
+		final int rowOffset = index * rowLength;
+		final Set<IFeature> result = new LinkedHashSet<>();
+		for (int j = 0; j < features.size(); j++) {
+			if ((j != index) && !isSet(always, rowOffset, j) && !isSet(never, rowOffset, j)) {
+				result.add(features.get(j));
+			}
+		}
+		return result;
 	}
 
 	@Override
@@ -208,13 +306,13 @@ public class FeatureDependencies {
 		final StringBuilder builder = new StringBuilder();
 		for (final IFeature feature : fm.getFeatures()) {
 			builder.append("\n");
-			for (final IFeature f : always.get(feature)) {
+			for (final IFeature f : always(feature)) {
 				builder.append(feature.getName() + " ALWAYS " + f.getName() + "\n");
 			}
-			for (final IFeature f : never.get(feature)) {
+			for (final IFeature f : never(feature)) {
 				builder.append(feature.getName() + " NEVER " + f.getName() + "\n");
 			}
-			for (final IFeature f : maybe.get(feature)) {
+			for (final IFeature f : maybe(feature)) {
 				builder.append(feature.getName() + " MAYBE " + f.getName() + "\n");
 			}
 		}
@@ -31,6 +31,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +46,8 @@ import org.prop4j.Not;
 import org.prop4j.Or;
 import org.prop4j.SatSolver;
 import org.prop4j.analyses.FeatureModelAnalysis;
+import org.prop4j.analyses.IncrementalFeatureModelAnalysis;
+import org.prop4j.analyses.WhatIfAnalysis;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
@@ -58,12 +61,15 @@ import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent;
 import de.ovgu.featureide.fm.core.base.event.IEventListener;
 import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.FormulaCache;
 import de.ovgu.featureide.fm.core.editing.NodeCreator;
 import de.ovgu.featureide.fm.core.explanations.Explanation;
 import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.fm.FalseOptionalFeatureExplanationCreator;
 import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCreatorFactory;
 import de.ovgu.featureide.fm.core.explanations.fm.RedundantConstraintExplanationCreator;
+import de.ovgu.featureide.fm.core.explanations.fm.impl.mus.MusBatchExplanationCreator;
 import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.functional.Functional.IFunction;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
@@ -150,6 +156,19 @@ public class FeatureModelAnalyzer implements IEventListener {
 	public boolean calculateFOConstraints = true;
 
 	public boolean calculateDeadConstraints = true;
+	/**
+	 * Defines how many threads are used for the analysis of the feature model. With a value of 1 the analysis runs sequentially.
+	 *
+	 * @see FeatureModelAnalysis#setParallelism(int)
+	 */
+	public int analysisParallelism = 1;
+	/**
+	 * Defines whether core, dead, and false-optional features are computed incrementally. In this mode, the analyzer keeps a solver for the feature model
+	 * and only checks the features that are affected by the changes since the last analysis. The changes are taken from the events of the feature model.
+	 *
+	 * @see IncrementalFeatureModelAnalysis
+	 */
+	public boolean incrementalAnalysis = false;
 	/**
 	 * Defines whether analysis should be performed automatically.
 	 */
@@ -164,6 +183,19 @@ public class FeatureModelAnalyzer implements IEventListener {
 
 	private FeatureDependencies dependencies;
 
+	private IncrementalFeatureModelAnalysis incrementalFeatureModelAnalysis = null;
+
+	private WhatIfAnalysis whatIfAnalysis = null;
+	/**
+	 * The {@link IFeatureModel#getModificationCount() modification counter} of the feature model the {@link #whatIfAnalysis} belongs to.
+	 */
+	private long whatIfModificationCount = 0;
+
+	/**
+	 * The {@link IFeatureModel#getModificationCount() modification counter} of the feature model the stored explanations belong to.
+	 */
+	private long explanationModificationCount = 0;
+
 	/**
 	 * Returns the value calculated during the last call of updateFeatureModel().
 	 *
@@ -205,6 +237,32 @@ public class FeatureModelAnalyzer implements IEventListener {
 		return new SatSolver(getCnf(), 1000, false).isSatisfiable();
 	}
 
+	/**
+	 * Computes the effect of a candidate constraint on the feature model (e.g., newly dead and false-optional features) without modifying the feature model.
+	 * The solver of the analysis is kept until the feature model changes, so that repeated calls for the same replaced constraint are fast.
+	 *
+	 * @param constraint the candidate constraint over the feature names of the feature model
+	 * @param replacedConstraint a constraint of the feature model that is replaced by the candidate (e.g., while it is edited); {@code null} for a new
+	 *        constraint
+	 * @param timeout the timeout of each satisfiability query in milliseconds
+	 * @return the effect of the candidate constraint
+	 *
+	 * @see WhatIfAnalysis
+	 */
+	public WhatIfAnalysis.Result analyzeConstraint(Node constraint, IConstraint replacedConstraint, int timeout) {
+		WhatIfAnalysis analysis;
+		synchronized (this) {
+			analysis = whatIfAnalysis;
+			final long modificationCount = fm.getModificationCount();
+			if ((analysis == null) || (analysis.getReplacedConstraint() != replacedConstraint) || (whatIfModificationCount != modificationCount)) {
+				analysis = new WhatIfAnalysis(fm, replacedConstraint);
+				whatIfAnalysis = analysis;
+				whatIfModificationCount = modificationCount;
+			}
+		}
+		return analysis.analyze(constraint, timeout);
+	}
+
 	/**
 	 * <p> Returns whether the conjunction of A always implies the disjunction of B in the current feature model. </p>
 	 *
@@ -566,12 +624,15 @@ public class FeatureModelAnalyzer implements IEventListener {
 	public HashMap<Object, Object> analyzeFeatureModel(IMonitor monitor) {
 		this.monitor = monitor == null ? new NullMonitor() : monitor;
 		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setFormulaCache(FormulaCache.getInstance());
 		analysis.setCalculateFeatures(calculateFeatures);
 		analysis.setCalculateConstraints(calculateConstraints);
 		analysis.setCalculateRedundantConstraints(calculateRedundantConstraints);
 		analysis.setCalculateTautologyConstraints(calculateTautologyConstraints);
 		analysis.setCalculateDeadConstraints(calculateDeadConstraints);
 		analysis.setCalculateFOConstraints(calculateFOConstraints);
+		analysis.setParallelism(analysisParallelism);
+		analysis.setIncrementalAnalysis(getIncrementalAnalysis());
 		final HashMap<Object, Object> newAttributes = LongRunningWrapper.runMethod(analysis, this.monitor);
 		cachedValidity = analysis.isValid();
 		cachedCoreFeatures = analysis.getCoreFeatures();
@@ -588,16 +649,27 @@ public class FeatureModelAnalyzer implements IEventListener {
 
 	public void updateConstraints() {
 		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setFormulaCache(FormulaCache.getInstance());
 		analysis.setCalculateFeatures(false);
 		analysis.setCalculateConstraints(true);
 		analysis.setCalculateRedundantConstraints(calculateRedundantConstraints);
 		analysis.setCalculateTautologyConstraints(calculateTautologyConstraints);
 		analysis.setCalculateDeadConstraints(calculateDeadConstraints);
 		analysis.setCalculateFOConstraints(calculateFOConstraints);
+		analysis.setParallelism(analysisParallelism);
 		analysis.updateConstraints();
 		cachedValidity = analysis.isValid();
 	}
 
+	private IncrementalFeatureModelAnalysis getIncrementalAnalysis() {
+		if (!incrementalAnalysis) {
+			incrementalFeatureModelAnalysis = null;
+		} else if (incrementalFeatureModelAnalysis == null) {
+			incrementalFeatureModelAnalysis = new IncrementalFeatureModelAnalysis(fm);
+		}
+		return incrementalFeatureModelAnalysis;
+	}
+
 	private boolean canceled() {
 		monitor.checkCancel();
 		return cancel;
@@ -609,8 +681,11 @@ public class FeatureModelAnalyzer implements IEventListener {
 
 	public void updateFeatures() {
 		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setFormulaCache(FormulaCache.getInstance());
 		analysis.setCalculateFeatures(true);
 		analysis.setCalculateConstraints(false);
+		analysis.setParallelism(analysisParallelism);
+		analysis.setIncrementalAnalysis(getIncrementalAnalysis());
 		analysis.updateFeatures();
 		cachedValidity = analysis.isValid();
 		cachedCoreFeatures = analysis.getCoreFeatures();
@@ -810,6 +885,76 @@ public class FeatureModelAnalyzer implements IEventListener {
 		default:
 			break;
 		}
+		if (incrementalFeatureModelAnalysis != null) {
+			updateIncrementalAnalysis(event);
+		}
+	}
+
+	private void updateIncrementalAnalysis(FeatureIDEEvent event) {
+		switch (event.getEventType()) {
+		case CONSTRAINT_ADD:
+			if (event.getNewValue() instanceof IConstraint) {
+				incrementalFeatureModelAnalysis.addConstraint((IConstraint) event.getNewValue());
+			} else {
+				incrementalFeatureModelAnalysis.reset();
+			}
+			break;
+		case CONSTRAINT_DELETE:
+			if (event.getOldValue() instanceof IConstraint) {
+				incrementalFeatureModelAnalysis.removeConstraint((IConstraint) event.getOldValue());
+			} else {
+				incrementalFeatureModelAnalysis.reset();
+			}
+			break;
+		case CONSTRAINT_MODIFY:
+			if (event.getSource() instanceof IConstraint) {
+				incrementalFeatureModelAnalysis.modifyConstraint((IConstraint) event.getSource());
+			} else {
+				incrementalFeatureModelAnalysis.reset();
+			}
+			break;
+		case GROUP_TYPE_CHANGED:
+			final IFeature groupFeature = getFeature(event.getSource());
+			if (groupFeature != null) {
+				incrementalFeatureModelAnalysis.changeGroup(groupFeature);
+			} else {
+				incrementalFeatureModelAnalysis.reset();
+			}
+			break;
+		case MANDATORY_CHANGED:
+			final IFeature mandatoryFeature = getFeature(event.getSource());
+			final IFeature parent = mandatoryFeature == null ? null : FeatureUtils.getParent(mandatoryFeature);
+			if (parent != null) {
+				incrementalFeatureModelAnalysis.changeGroup(parent);
+			} else {
+				incrementalFeatureModelAnalysis.reset();
+			}
+			break;
+		case ALL_FEATURES_CHANGED_NAME_TYPE:
+		case CHILDREN_CHANGED:
+		case FEATURE_ADD:
+		case FEATURE_ADD_ABOVE:
+		case FEATURE_DELETE:
+		case FEATURE_NAME_CHANGED:
+		case MODEL_DATA_CHANGED:
+		case MODEL_DATA_LOADED:
+		case MODEL_DATA_OVERRIDDEN:
+		case PARENT_CHANGED:
+		case STRUCTURE_CHANGED:
+			incrementalFeatureModelAnalysis.reset();
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static IFeature getFeature(Object source) {
+		if (source instanceof IFeature) {
+			return (IFeature) source;
+		} else if (source instanceof IFeatureStructure) {
+			return ((IFeatureStructure) source).getFeature();
+		}
+		return null;
 	}
 
 	/**
@@ -834,7 +979,10 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @return the feature model as a formula in conjunctive normal form; not null
 	 */
 	private Node createCnf() {
-		return AdvancedNodeCreator.createRegularCNF(fm);
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setIncludeBooleanValues(false);
+		return FormulaCache.getInstance().getCnf(nodeCreator);
 	}
 
 	/**
@@ -855,6 +1003,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @return an explanation; null if it cannot be explained
 	 */
 	public Explanation getExplanation(IFeatureModel fm, IFeatureModelElement modelElement) {
+		checkModificationCount();
 		Explanation explanation = null;
 		if (modelElement instanceof IFeature) {
 			final IFeature feature = (IFeature) modelElement;
@@ -883,6 +1032,78 @@ public class FeatureModelAnalyzer implements IEventListener {
 		return explanation;
 	}
 
+	/**
+	 * Returns explanations why the given feature model elements are defect. In contrast to {@link #getExplanation(IFeatureModelElement)}, the formula of the
+	 * feature model is created only once and the explanations are computed in parallel (see {@link #analysisParallelism}). Explanations that are already
+	 * known for the current state of the feature model are not computed again.
+	 *
+	 * @param modelElements potentially defect feature model elements; not null
+	 * @param monitor the monitor; not null
+	 * @return an explanation for each given element; the value is null if the element cannot be explained
+	 *
+	 * @see MusBatchExplanationCreator
+	 */
+	public Map<IFeatureModelElement, Explanation> getExplanations(Collection<? extends IFeatureModelElement> modelElements, IMonitor monitor) {
+		checkModificationCount();
+		final List<IFeature> deadFeatures = new ArrayList<>();
+		final List<IFeature> falseOptionalFeatures = new ArrayList<>();
+		final List<IConstraint> redundantConstraints = new ArrayList<>();
+		for (final IFeatureModelElement modelElement : modelElements) {
+			if (modelElement instanceof IFeature) {
+				final IFeature feature = (IFeature) modelElement;
+				switch (feature.getProperty().getFeatureStatus()) {
+				case DEAD:
+					if (!deadFeatureExplanations.containsKey(feature)) {
+						deadFeatures.add(feature);
+					}
+					break;
+				case FALSE_OPTIONAL:
+					if (!falseOptionalFeatureExplanations.containsKey(feature)) {
+						falseOptionalFeatures.add(feature);
+					}
+					break;
+				default:
+					break;
+				}
+			} else if (modelElement instanceof IConstraint) {
+				final IConstraint constraint = (IConstraint) modelElement;
+				switch (constraint.getConstraintAttribute()) {
+				case REDUNDANT:
+				case TAUTOLOGY:
+				case IMPLICIT:
+					if (!redundantConstraintExplanations.containsKey(constraint)) {
+						redundantConstraints.add(constraint);
+					}
+					break;
+				default:
+					break;
+				}
+			}
+		}
+
+		if (!(deadFeatures.isEmpty() && falseOptionalFeatures.isEmpty() && redundantConstraints.isEmpty())) {
+			final int parallelism = analysisParallelism > 1 ? analysisParallelism : Runtime.getRuntime().availableProcessors();
+			final MusBatchExplanationCreator creator = new MusBatchExplanationCreator(fm, parallelism);
+			final Map<IFeatureModelElement, Explanation> explanations =
+				creator.getExplanations(deadFeatures, falseOptionalFeatures, redundantConstraints, monitor);
+			for (final IFeature feature : deadFeatures) {
+				deadFeatureExplanations.put(feature, explanations.get(feature));
+			}
+			for (final IFeature feature : falseOptionalFeatures) {
+				falseOptionalFeatureExplanations.put(feature, explanations.get(feature));
+			}
+			for (final IConstraint constraint : redundantConstraints) {
+				redundantConstraintExplanations.put(constraint, explanations.get(constraint));
+			}
+		}
+
+		final Map<IFeatureModelElement, Explanation> result = new LinkedHashMap<>();
+		for (final IFeatureModelElement modelElement : modelElements) {
+			result.put(modelElement, getExplanation(modelElement));
+		}
+		return result;
+	}
+
 	/**
 	 * Returns an explanation why the feature model is void. That is the same explanation for why its root feature is dead.
 	 *
@@ -920,6 +1141,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @return an explanation; null if it cannot be explained
 	 */
 	public Explanation getDeadFeatureExplanation(IFeatureModel fm, IFeature feature) {
+		checkModificationCount();
 		if (!deadFeatureExplanations.containsKey(feature)) {
 			addDeadFeatureExplanation(fm, feature);
 		}
@@ -962,6 +1184,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @return an explanation; null if it cannot be explained
 	 */
 	public Explanation getFalseOptionalFeatureExplanation(IFeatureModel fm, IFeature feature) {
+		checkModificationCount();
 		if (!falseOptionalFeatureExplanations.containsKey(feature)) {
 			addFalseOptionalFeatureExplanation(fm, feature);
 		}
@@ -1003,6 +1226,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * @return an explanation; null if it cannot be explained
 	 */
 	public Explanation getRedundantConstraintExplanation(IFeatureModel fm, IConstraint constraint) {
+		checkModificationCount();
 		if (!redundantConstraintExplanations.containsKey(constraint)) {
 			addRedundantConstraintExplanation(fm, constraint);
 		}
@@ -1030,6 +1254,17 @@ public class FeatureModelAnalyzer implements IEventListener {
 		redundantConstraintExplanations.put(constraint, creator.getExplanation());
 	}
 
+	/**
+	 * Clears all explanations if the feature model has changed since they were created.
+	 */
+	private void checkModificationCount() {
+		final long modificationCount = fm.getModificationCount();
+		if (modificationCount != explanationModificationCount) {
+			clearExplanations();
+			explanationModificationCount = modificationCount;
+		}
+	}
+
 	/**
 	 * Clears all explanations.
 	 */
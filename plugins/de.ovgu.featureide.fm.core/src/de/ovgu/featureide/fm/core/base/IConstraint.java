@@ -203,6 +203,13 @@ public interface IConstraint extends IFeatureModelElement {
 	 */
 	Node getNode();
 
+	/**
+	 * Returns the underlying propositional formula in regular conjunctive normal form. The result is cached as long as the formula is not changed.
+	 *
+	 * @return the formula as {@link org.prop4j.And And} of clauses; must not be modified
+	 */
+	Node getCNF();
+
 	/**
 	 * Overwrites the underlying propositional formula <code>node</code> for this constraint.
 	 *
@@ -109,6 +109,26 @@ public interface IFeatureModel extends Cloneable, IEventManager {
 	 */
 	long getId();
 
+	/**
+	 * Returns a counter that is changed whenever this feature model is modified. The counter is changed by every {@link #fireEvent(FeatureIDEEvent) event},
+	 * by the methods of the feature model that add, remove, or replace features and constraints, and by all methods of its features, feature structures,
+	 * and constraints that change the formula of the feature model (e.g., {@link IFeatureStructure#setAnd()} or {@link IConstraint#setNode(org.prop4j.Node)}).
+	 * The counter of a clone differs from the counter of the original feature model, although both have the same {@link #getId() identifier}.<br> The
+	 * counter can be used to invalidate data that was derived from a certain state of the feature model (e.g., see
+	 * {@link de.ovgu.featureide.fm.core.editing.FormulaCache}).
+	 *
+	 * @return the modification counter
+	 *
+	 * @see #incModificationCount()
+	 */
+	long getModificationCount();
+
+	/**
+	 * Changes the {@link #getModificationCount() modification counter}. Has to be called by the elements of this feature model whenever they are modified
+	 * without the feature model.
+	 */
+	void incModificationCount();
+
 	/**
 	 * A feature model is created via a feature model {@link IFeatureModelFactory factory}. This methods returns the identifier of the factory used to create
 	 * this feature model. The factory can be used to create more feature models, features, or constraint from the same type as this feature model.
@@ -56,12 +56,19 @@ public abstract class AConstraint extends AFeatureModelElement implements IConst
 	protected final Collection<IFeature> falseOptionalFeatures = new LinkedList<>();
 
 	protected Node propNode;
+
+	/**
+	 * A copy of the formula, for which {@link #cnf} was computed, and its CNF.
+	 */
+	private volatile Node[] cnf = null;
+
 	boolean featureSelected;
 	boolean isImplicit;
 
 	protected AConstraint(AConstraint oldConstraint, IFeatureModel featureModel) {
 		super(oldConstraint, featureModel);
 		propNode = oldConstraint.propNode;
+		cnf = oldConstraint.cnf;
 		featureSelected = oldConstraint.featureSelected;
 		isImplicit = oldConstraint.isImplicit;
 	}
@@ -125,6 +132,18 @@ public abstract class AConstraint extends AFeatureModelElement implements IConst
 		return propNode;
 	}
 
+	@Override
+	public Node getCNF() {
+		final Node[] cnf = this.cnf;
+		// the formula may have been changed in place (e.g., by renaming a feature)
+		if ((cnf != null) && cnf[0].equals(propNode)) {
+			return cnf[1];
+		}
+		final Node newCnf = propNode.toRegularCNF();
+		this.cnf = new Node[] { propNode.clone(), newCnf };
+		return newCnf;
+	}
+
 	@Override
 	public String getDisplayName() {
 		return propNode.toString();
@@ -184,6 +203,8 @@ public abstract class AConstraint extends AFeatureModelElement implements IConst
 	@Override
 	public void setNode(Node node) {
 		propNode = node;
+		cnf = null;
+		featureModel.incModificationCount();
 	}
 
 	@Override
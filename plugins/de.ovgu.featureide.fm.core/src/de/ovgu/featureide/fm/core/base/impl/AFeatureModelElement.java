@@ -75,6 +75,7 @@ public abstract class AFeatureModelElement implements IFeatureModelElement {
 	@Override
 	public void setName(String name) {
 		this.name = name;
+		featureModel.incModificationCount();
 	}
 
 	@Override
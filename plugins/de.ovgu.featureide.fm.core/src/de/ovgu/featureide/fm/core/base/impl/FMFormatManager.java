@@ -24,6 +24,7 @@ import de.ovgu.featureide.fm.core.CoreExtensionLoader;
 import de.ovgu.featureide.fm.core.IExtensionLoader;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.io.IFeatureModelFormat;
+import de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat;
 import de.ovgu.featureide.fm.core.io.dimacs.DIMACSFormat;
 import de.ovgu.featureide.fm.core.io.guidsl.GuidslFormat;
 import de.ovgu.featureide.fm.core.io.sxfm.SXFMFormat;
@@ -39,7 +40,7 @@ public final class FMFormatManager extends FormatManager<IFeatureModelFormat> {
 
 	private FMFormatManager() {
 		setExtensionLoaderInternal(new CoreExtensionLoader<>(new XmlFeatureModelFormat(), new SimpleVelvetFeatureModelFormat(), new DIMACSFormat(),
-				new SXFMFormat(), new GuidslFormat()));
+				new SXFMFormat(), new GuidslFormat(), new BinaryFeatureModelFormat()));
 	}
 
 	private static FMFormatManager instance = new FMFormatManager();
@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.prop4j.NodeWriter;
 
@@ -67,6 +68,13 @@ public class FeatureModel implements IFeatureModel {
 
 	private long id;
 
+	/**
+	 * Source of all modification counters. Thus, two feature model instances never have the same counter.
+	 */
+	private static final AtomicLong NEXT_MODIFICATION_COUNT = new AtomicLong();
+
+	private volatile long modificationCount = NEXT_MODIFICATION_COUNT.incrementAndGet();
+
 	private long nextElementId = 0;
 
 	@Override
@@ -154,11 +162,13 @@ public class FeatureModel implements IFeatureModel {
 	@Override
 	public void addConstraint(IConstraint constraint) {
 		constraints.add(constraint);
+		incModificationCount();
 	}
 
 	@Override
 	public void addConstraint(IConstraint constraint, int index) {
 		constraints.add(index, constraint);
+		incModificationCount();
 	}
 
 	@Override
@@ -168,6 +178,7 @@ public class FeatureModel implements IFeatureModel {
 			return false;
 		}
 		featureTable.put(name.toString(), feature);
+		incModificationCount();
 		return true;
 	}
 
@@ -241,16 +252,19 @@ public class FeatureModel implements IFeatureModel {
 		parent.removeChild(feature.getStructure());
 		featureTable.remove(name);
 		featureOrderList.remove(name);
+		incModificationCount();
 		return true;
 	}
 
 	@Override
 	public void deleteFeatureFromTable(IFeature feature) {
 		featureTable.remove(feature.getName());
+		incModificationCount();
 	}
 
 	@Override
 	public void fireEvent(FeatureIDEEvent event) {
+		incModificationCount();
 		for (final IEventListener listener : listenerList) {
 			try {
 				listener.propertyChange(event);
@@ -383,12 +397,13 @@ public class FeatureModel implements IFeatureModel {
 	@Override
 	public void removeConstraint(IConstraint constraint) {
 		constraints.remove(constraint);
+		incModificationCount();
 	}
 
 	@Override
 	public void removeConstraint(int index) {
 		constraints.remove(index);
-
+		incModificationCount();
 	}
 
 	@Override
@@ -402,6 +417,7 @@ public class FeatureModel implements IFeatureModel {
 			throw new NullPointerException();
 		}
 		constraints.set(index, constraint);
+		incModificationCount();
 	}
 
 	@Override
@@ -415,12 +431,14 @@ public class FeatureModel implements IFeatureModel {
 
 		property.reset();
 		nextElementId = 0;
+		incModificationCount();
 	}
 
 	@Override
 	public void setConstraints(Iterable<IConstraint> constraints) {
 		this.constraints.clear();
 		this.constraints.addAll(Functional.toList(constraints));
+		incModificationCount();
 	}
 
 	@Override
@@ -442,6 +460,7 @@ public class FeatureModel implements IFeatureModel {
 	public void setFeatureTable(Hashtable<String, IFeature> featureTable) {
 		this.featureTable.clear();
 		this.featureTable.putAll(featureTable);
+		incModificationCount();
 	}
 
 	@Override
@@ -515,6 +534,16 @@ public class FeatureModel implements IFeatureModel {
 		return id;
 	}
 
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	@Override
+	public void incModificationCount() {
+		modificationCount = NEXT_MODIFICATION_COUNT.incrementAndGet();
+	}
+
 	@Override
 	public int hashCode() {
 		return (int) (37 * id);
@@ -535,6 +564,7 @@ public class FeatureModel implements IFeatureModel {
 	@Override
 	public void setConstraint(int index, IConstraint constraint) {
 		constraints.set(index, constraint);
+		incModificationCount();
 	}
 
 	@Override
@@ -251,11 +251,13 @@ public class FeatureModelStructure implements IFeatureModelStructure {
 
 		feature.setParent(null);
 		rootFeature = feature;
+		correspondingFeatureModel.incModificationCount();
 	}
 
 	@Override
 	public void setRoot(IFeatureStructure root) {
 		rootFeature = root;
+		correspondingFeatureModel.incModificationCount();
 	}
 
 	private boolean existsFeatureWithStatus(FeatureStatus status) {
@@ -98,11 +98,13 @@ public class FeatureStructure implements IFeatureStructure {
 			children.add(index, newChild);
 		}
 		newChild.setParent(this);
+		modified();
 	}
 
 	protected void addNewChild(IFeatureStructure newChild) {
 		children.add(newChild);
 		newChild.setParent(this);
+		modified();
 	}
 
 	@Override
@@ -112,6 +114,7 @@ public class FeatureStructure implements IFeatureStructure {
 		}
 		and = false;
 		multiple = false;
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -119,6 +122,7 @@ public class FeatureStructure implements IFeatureStructure {
 	public void changeToAnd() {
 		and = true;
 		multiple = false;
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -129,6 +133,7 @@ public class FeatureStructure implements IFeatureStructure {
 		}
 		and = false;
 		multiple = true;
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -137,6 +142,13 @@ public class FeatureStructure implements IFeatureStructure {
 		return new FeatureStructure(this, newFeatureModel);
 	}
 
+	/**
+	 * Changes the {@link IFeatureModel#getModificationCount() modification counter} of the feature model.
+	 */
+	protected void modified() {
+		correspondingFeature.getFeatureModel().incModificationCount();
+	}
+
 	protected void fireAttributeChanged() {
 		final FeatureIDEEvent event = new FeatureIDEEvent(this, EventType.ATTRIBUTE_CHANGED);
 		correspondingFeature.fireEvent(event);
@@ -336,6 +348,7 @@ public class FeatureStructure implements IFeatureStructure {
 			throw new NoSuchElementException();
 		}
 		child.setParent(null);
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -343,6 +356,7 @@ public class FeatureStructure implements IFeatureStructure {
 	public IFeatureStructure removeLastChild() {
 		final IFeatureStructure child = children.removeLast();
 		child.setParent(null);
+		modified();
 		fireChildrenChanged();
 		return child;
 	}
@@ -353,12 +367,14 @@ public class FeatureStructure implements IFeatureStructure {
 		children.set(index, newChild);
 		oldChild.setParent(null);
 		newChild.setParent(this);
+		modified();
 		fireChildrenChanged();
 	}
 
 	@Override
 	public void setAbstract(boolean value) {
 		concrete = !value;
+		modified();
 		fireAttributeChanged();
 	}
 
@@ -366,16 +382,19 @@ public class FeatureStructure implements IFeatureStructure {
 	public void setAlternative() {
 		and = false;
 		multiple = false;
+		modified();
 	}
 
 	@Override
 	public void setAnd() {
 		and = true;
+		modified();
 	}
 
 	@Override
 	public void setAND(boolean and) {
 		this.and = and;
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -385,6 +404,7 @@ public class FeatureStructure implements IFeatureStructure {
 		for (final IFeatureStructure child : children) {
 			addNewChild(child);
 		}
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -397,12 +417,14 @@ public class FeatureStructure implements IFeatureStructure {
 	@Override
 	public void setMandatory(boolean mandatory) {
 		this.mandatory = mandatory;
+		modified();
 		fireMandatoryChanged();
 	}
 
 	@Override
 	public void setMultiple(boolean multiple) {
 		this.multiple = multiple;
+		modified();
 		fireChildrenChanged();
 	}
 
@@ -410,6 +432,7 @@ public class FeatureStructure implements IFeatureStructure {
 	public void setOr() {
 		and = false;
 		multiple = true;
+		modified();
 	}
 
 	@Override
@@ -418,6 +441,7 @@ public class FeatureStructure implements IFeatureStructure {
 			return;
 		}
 		parent = newParent;
+		modified();
 	}
 
 	@Override
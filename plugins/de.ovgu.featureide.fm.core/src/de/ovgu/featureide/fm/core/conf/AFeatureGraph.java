@@ -59,6 +59,71 @@ public abstract class AFeatureGraph implements IFeatureGraph {
 		return isEdge(edge, EDGE_00) || isEdge(edge, EDGE_01) || isEdge(edge, EDGE_10) || isEdge(edge, EDGE_11);
 	}
 
+	/**
+	 * Computes the new value of an edge when the given edge type is added.
+	 *
+	 * @param oldValue the current value of the edge
+	 * @param edgeType the edge type to add (or {@link #EDGE_NONE} to remove all edges)
+	 * @return the new value of the edge
+	 */
+	protected static byte mergeEdge(byte oldValue, byte edgeType) {
+		final int newValue;
+		switch (edgeType) {
+		case EDGE_NONE:
+			newValue = EDGE_NONE;
+			break;
+		case EDGE_00Q:
+			if (!isEdge(oldValue, (byte) (EDGE_00 | EDGE_01))) {
+				newValue = oldValue | EDGE_00Q;
+			} else {
+				newValue = oldValue;
+			}
+			break;
+		case EDGE_00:
+			assert !isEdge(oldValue, EDGE_01);
+			newValue = (oldValue & MASK_0_CLEAR) | EDGE_00;
+			break;
+		case EDGE_01Q:
+			if (!isEdge(oldValue, (byte) (EDGE_00 | EDGE_01))) {
+				newValue = oldValue | EDGE_01Q;
+			} else {
+				newValue = oldValue;
+			}
+			break;
+		case EDGE_01:
+			assert !isEdge(oldValue, EDGE_00);
+			newValue = (oldValue & MASK_0_CLEAR) | EDGE_01;
+			break;
+
+		case EDGE_10Q:
+			if (!isEdge(oldValue, (byte) (EDGE_10 | EDGE_11))) {
+				newValue = oldValue | EDGE_10Q;
+			} else {
+				newValue = oldValue;
+			}
+			break;
+		case EDGE_10:
+			assert !isEdge(oldValue, EDGE_11);
+			newValue = (oldValue & MASK_1_CLEAR) | EDGE_10;
+			break;
+		case EDGE_11Q:
+			if (!isEdge(oldValue, (byte) (EDGE_10 | EDGE_11))) {
+				newValue = oldValue | EDGE_11Q;
+			} else {
+				newValue = oldValue;
+			}
+			break;
+		case EDGE_11:
+			assert !isEdge(oldValue, EDGE_10);
+			newValue = (oldValue & MASK_1_CLEAR) | EDGE_11;
+			break;
+		default:
+			newValue = oldValue;
+			break;
+		}
+		return (byte) (0x000000ff & newValue);
+	}
+
 	public AFeatureGraph(SatInstance satInstance, int[] index) {
 		int count = 0;
 		for (int i = 0; i < index.length; i++) {
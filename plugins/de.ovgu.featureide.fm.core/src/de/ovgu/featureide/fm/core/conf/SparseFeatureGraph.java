@@ -0,0 +1,347 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.conf;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.prop4j.solver.SatInstance;
+
+/**
+ * Feature graph that only stores existing edges.<br> Each row is a sorted list of the target features and their edge values. A row that has edges to more
+ * than a fifth of all features is stored as dense array instead. Thus, the graph never needs more memory than a {@link MatrixFeatureGraph}, but much less
+ * for sparse graphs.<br> The rows can also be read from a buffer, e.g., the content of a file (see
+ * {@link de.ovgu.featureide.fm.core.io.binary.BinaryFeatureGraphFormat}). The buffer starts with a table of the offsets of all rows (one int per row). A sparse row
+ * consists of the number of edges, the sorted target indices (ints), and the edge values (bytes). A dense row consists of -1 followed by the edge values of
+ * all features. Such a graph is copied to the heap on the first modification.
+ */
+public class SparseFeatureGraph extends AFeatureGraph {
+
+	private static final long serialVersionUID = -2393612337596271946L;
+
+	private static final int INITIAL_ROW_CAPACITY = 4;
+
+	/**
+	 * Sorted target indices of each row, {@code null} for dense rows.
+	 */
+	private int[][] columns;
+	private byte[][] values;
+	private int[] counts;
+
+	private transient ByteBuffer rows;
+
+	public SparseFeatureGraph(SatInstance satInstance, int[] index) {
+		super(satInstance, index);
+		initRows();
+	}
+
+	/**
+	 * Creates a feature graph that reads its edges from the given buffer.
+	 *
+	 * @param rows the buffer containing the offset table and the rows
+	 */
+	public SparseFeatureGraph(SatInstance satInstance, int[] index, ByteBuffer rows) {
+		super(satInstance, index);
+		this.rows = rows;
+	}
+
+	public SparseFeatureGraph() {
+		super();
+	}
+
+	/**
+	 * Returns whether a row with the given number of edges is stored as dense array.
+	 */
+	public static boolean isDense(int count, int size) {
+		return (5L * count) > size;
+	}
+
+	private void initRows() {
+		columns = new int[size][];
+		values = new byte[size][];
+		counts = new int[size];
+		for (int i = 0; i < size; i++) {
+			columns[i] = new int[INITIAL_ROW_CAPACITY];
+			values[i] = new byte[INITIAL_ROW_CAPACITY];
+		}
+	}
+
+	/**
+	 * Copies all rows from the buffer to the heap.
+	 */
+	private void load() {
+		final ByteBuffer rows = this.rows.duplicate();
+		initRows();
+		for (int i = 0; i < size; i++) {
+			final int offset = rows.getInt(4 * i);
+			final int count = rows.getInt(offset);
+			rows.position(offset + 4);
+			if (count < 0) {
+				columns[i] = null;
+				values[i] = new byte[size];
+				rows.get(values[i]);
+			} else {
+				final int capacity = Math.max(INITIAL_ROW_CAPACITY, count);
+				columns[i] = new int[capacity];
+				values[i] = new byte[capacity];
+				rows.asIntBuffer().get(columns[i], 0, count);
+				rows.position(offset + 4 + (4 * count));
+				rows.get(values[i], 0, count);
+				counts[i] = count;
+			}
+		}
+		this.rows = null;
+	}
+
+	/**
+	 * @return {@code true} if the edges are read from a buffer
+	 */
+	public boolean isMapped() {
+		return rows != null;
+	}
+
+	@Override
+	public void copyValues(IFeatureGraph otherGraph) {
+		super.copyValues(otherGraph);
+		if (otherGraph instanceof SparseFeatureGraph) {
+			final SparseFeatureGraph sparseGraph = (SparseFeatureGraph) otherGraph;
+			if (sparseGraph.rows != null) {
+				rows = sparseGraph.rows;
+				columns = null;
+				values = null;
+				counts = null;
+			} else {
+				rows = null;
+				columns = new int[size][];
+				values = new byte[size][];
+				counts = Arrays.copyOf(sparseGraph.counts, size);
+				for (int i = 0; i < size; i++) {
+					columns[i] = sparseGraph.columns[i] == null ? null : Arrays.copyOf(sparseGraph.columns[i], sparseGraph.columns[i].length);
+					values[i] = Arrays.copyOf(sparseGraph.values[i], sparseGraph.values[i].length);
+				}
+			}
+		} else {
+			rows = null;
+			initRows();
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					final byte value = otherGraph.getEdge(i, j);
+					if (value != EDGE_NONE) {
+						if (columns[i] == null) {
+							values[i][j] = value;
+						} else {
+							insert(i, counts[i], j, value);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean setEdge(int from, int to, byte edgeType) {
+		if (from == to) {
+			return false;
+		}
+		if (rows != null) {
+			load();
+		}
+		final int[] rowColumns = columns[from];
+		final byte[] rowValues = values[from];
+		if (rowColumns == null) {
+			final byte oldValue = rowValues[to];
+			final byte newValue = mergeEdge(oldValue, edgeType);
+			rowValues[to] = newValue;
+			return oldValue != newValue;
+		}
+
+		final int count = counts[from];
+		final int position = Arrays.binarySearch(rowColumns, 0, count, to);
+		if (position >= 0) {
+			final byte oldValue = rowValues[position];
+			final byte newValue = mergeEdge(oldValue, edgeType);
+			if (newValue == EDGE_NONE) {
+				System.arraycopy(rowColumns, position + 1, rowColumns, position, count - position - 1);
+				System.arraycopy(rowValues, position + 1, rowValues, position, count - position - 1);
+				counts[from]--;
+			} else {
+				rowValues[position] = newValue;
+			}
+			return oldValue != newValue;
+		} else {
+			final byte newValue = mergeEdge(EDGE_NONE, edgeType);
+			if (newValue == EDGE_NONE) {
+				return false;
+			}
+			insert(from, -position - 1, to, newValue);
+			return true;
+		}
+	}
+
+	/**
+	 * Inserts a new edge into a sparse row at the given position.
+	 */
+	private void insert(int from, int position, int to, byte value) {
+		final int count = counts[from];
+		if (isDense(count + 1, size)) {
+			final byte[] denseValues = new byte[size];
+			for (int i = 0; i < count; i++) {
+				denseValues[columns[from][i]] = values[from][i];
+			}
+			denseValues[to] = value;
+			columns[from] = null;
+			values[from] = denseValues;
+			return;
+		}
+		int[] rowColumns = columns[from];
+		byte[] rowValues = values[from];
+		if (count == rowColumns.length) {
+			final int capacity = Math.min(2 * count, size);
+			rowColumns = Arrays.copyOf(rowColumns, capacity);
+			rowValues = Arrays.copyOf(rowValues, capacity);
+			columns[from] = rowColumns;
+			values[from] = rowValues;
+		}
+		System.arraycopy(rowColumns, position, rowColumns, position + 1, count - position);
+		System.arraycopy(rowValues, position, rowValues, position + 1, count - position);
+		rowColumns[position] = to;
+		rowValues[position] = value;
+		counts[from] = count + 1;
+	}
+
+	@Override
+	public byte getEdge(int fromIndex, int toIndex) {
+		if (rows != null) {
+			return getMappedEdge(fromIndex, toIndex);
+		}
+		final int[] rowColumns = columns[fromIndex];
+		if (rowColumns == null) {
+			return values[fromIndex][toIndex];
+		}
+		final int position = Arrays.binarySearch(rowColumns, 0, counts[fromIndex], toIndex);
+		return position >= 0 ? values[fromIndex][position] : EDGE_NONE;
+	}
+
+	private byte getMappedEdge(int fromIndex, int toIndex) {
+		final int offset = rows.getInt(4 * fromIndex);
+		final int count = rows.getInt(offset);
+		final int columnsOffset = offset + 4;
+		if (count < 0) {
+			return rows.get(columnsOffset + toIndex);
+		}
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int column = rows.getInt(columnsOffset + (4 * mid));
+			if (column < toIndex) {
+				low = mid + 1;
+			} else if (column > toIndex) {
+				high = mid - 1;
+			} else {
+				return rows.get(columnsOffset + (4 * count) + mid);
+			}
+		}
+		return EDGE_NONE;
+	}
+
+	@Override
+	public byte getValue(int fromIndex, int toIndex, boolean fromSelected) {
+		final byte edge = getEdge(fromIndex, toIndex);
+		return (byte) (((fromSelected ? (edge >>> 4) : edge)) & 0x0000000f);
+	}
+
+	@Override
+	public byte getValueInternal(int fromIndex, int toIndex, boolean fromSelected) {
+		final int internalFrom = index[fromIndex];
+		final int internalTo = index[toIndex];
+		if ((internalFrom < 0) || (internalTo < 0)) {
+			return -1;
+		}
+		return getValue(internalFrom, internalTo, fromSelected);
+	}
+
+	/**
+	 * Copies all edges of a row into the given arrays.
+	 *
+	 * @param fromIndex the index of the row
+	 * @param rowColumns receives the target indices in ascending order (length of at least {@link #getSize()})
+	 * @param rowValues receives the edge values (length of at least {@link #getSize()})
+	 * @return the number of edges
+	 */
+	public int getRow(int fromIndex, int[] rowColumns, byte[] rowValues) {
+		int count = 0;
+		if (rows != null) {
+			final int offset = rows.getInt(4 * fromIndex);
+			final int mappedCount = rows.getInt(offset);
+			if (mappedCount >= 0) {
+				for (int i = 0; i < mappedCount; i++) {
+					rowColumns[i] = rows.getInt(offset + 4 + (4 * i));
+					rowValues[i] = rows.get(offset + 4 + (4 * mappedCount) + i);
+				}
+				return mappedCount;
+			}
+			for (int j = 0; j < size; j++) {
+				final byte value = rows.get(offset + 4 + j);
+				if (value != EDGE_NONE) {
+					rowColumns[count] = j;
+					rowValues[count++] = value;
+				}
+			}
+		} else if (columns[fromIndex] == null) {
+			final byte[] denseValues = values[fromIndex];
+			for (int j = 0; j < size; j++) {
+				if (denseValues[j] != EDGE_NONE) {
+					rowColumns[count] = j;
+					rowValues[count++] = denseValues[j];
+				}
+			}
+		} else {
+			count = counts[fromIndex];
+			System.arraycopy(columns[fromIndex], 0, rowColumns, 0, count);
+			System.arraycopy(values[fromIndex], 0, rowValues, 0, count);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of (directed) edges in this graph
+	 */
+	public long getNumberOfEdges() {
+		final int[] rowColumns = new int[size];
+		final byte[] rowValues = new byte[size];
+		long count = 0;
+		for (int i = 0; i < size; i++) {
+			count += getRow(i, rowColumns, rowValues);
+		}
+		return count;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		if (rows != null) {
+			load();
+		}
+		out.defaultWriteObject();
+	}
+
+}
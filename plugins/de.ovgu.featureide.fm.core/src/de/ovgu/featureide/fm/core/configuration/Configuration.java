@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -320,13 +321,24 @@ public class Configuration implements Cloneable {
 	/**
 	 * Counts the number of possible solutions.
 	 *
-	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value (if a timeout occured) that
-	 *         indicates that there are more solutions than the absolute value
+	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value {@code n} (if a timeout occured
+	 *         or the number exceeds {@link Long#MAX_VALUE}) that indicates that there are more than {@code -1 - n} solutions
 	 */
 	public long number(long timeout) {
 		return LongRunningWrapper.runMethod(propagator.number(timeout));
 	}
 
+	/**
+	 * Counts the exact number of possible solutions by compiling the feature model into a binary decision diagram.
+	 *
+	 * @param timeout the maximal time for compiling the feature model in milliseconds
+	 * @return the number of solutions or {@code null} if the feature model could not be compiled in time
+	 * @see #number(long)
+	 */
+	public BigInteger numberExact(long timeout) {
+		return LongRunningWrapper.runMethod(propagator.numberExact(timeout));
+	}
+
 	public void resetValues() {
 		for (final SelectableFeature feature : features) {
 			feature.setManual(Selection.UNDEFINED);
@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,20 +28,24 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.prop4j.And;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.SatSolver;
-import org.prop4j.analyses.ConditionallyCoreDeadAnalysis;
+import org.prop4j.solver.BDD;
+import org.prop4j.solver.BDDCompiler;
 import org.prop4j.solver.BasicSolver;
 import org.prop4j.solver.ISatSolver.SatResult;
 import org.prop4j.solver.SatInstance;
-import org.sat4j.specs.ContradictionException;
+import org.prop4j.solver.SolverSession;
+import org.prop4j.solver.SolverSession.Delta;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
@@ -50,12 +55,10 @@ import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.IFeatureStructure;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.FormulaCache;
 import de.ovgu.featureide.fm.core.filter.AbstractFeatureFilter;
 import de.ovgu.featureide.fm.core.filter.HiddenFeatureFilter;
-import de.ovgu.featureide.fm.core.filter.base.IFilter;
-import de.ovgu.featureide.fm.core.filter.base.InverseFilter;
 import de.ovgu.featureide.fm.core.filter.base.OrFilter;
-import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.job.IRunner;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
@@ -84,24 +87,17 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 				return false;
 			}
 
-			final BasicSolver solver;
-			try {
-				solver = new BasicSolver(rootNode);
-			} catch (final ContradictionException e) {
-				Logger.logError(e);
-				return false;
-			}
-
+			final List<Integer> assumptions = new ArrayList<>();
 			for (final SelectableFeature feature : configuration.features) {
 				final IFeatureStructure structure = feature.getFeature().getStructure();
 				if ((includeUndefinedFeatures || (feature.getSelection() != Selection.UNDEFINED)) && (includeHiddenFeatures || !structure.hasHiddenParent())
 					&& (configuration.ignoreAbstractFeatures || structure.isConcrete())) {
 					final int variable = rootNode.getVariable(feature.getFeature().getName());
-					solver.assignmentPush((feature.getSelection() == Selection.SELECTED) ? variable : -variable);
+					assumptions.add((feature.getSelection() == Selection.SELECTED) ? variable : -variable);
 				}
 			}
 
-			final SatResult satResult = solver.isSatisfiable();
+			final SatResult satResult = getSolverSession().isSatisfiable(toArray(assumptions));
 			switch (satResult) {
 			case FALSE:
 			case TIMEOUT:
@@ -133,49 +129,50 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 
 			workMonitor.setRemainingWork(oldManualSelected.size() + configuration.features.size() + 1);
 
-			final SatSolver manualSolver = new SatSolver(rootNode.getCnf(), ConfigurationPropagator.TIMEOUT);
+			final SolverSession session = getSolverSession();
 
 			workMonitor.worked();
 
-			final LinkedList<Node> newManualSelected = new LinkedList<>();
+			final LinkedList<Integer> newManualSelected = new LinkedList<>();
 			for (final Iterator<SelectableFeature> iterator = oldManualSelected.iterator(); iterator.hasNext();) {
 				final SelectableFeature next = iterator.next();
-				final Literal l = new Literal(next.getFeature().getName(), next.getManual() == Selection.SELECTED);
-				newManualSelected.addFirst(l);
-
-				boolean satisfiable = false;
-				try {
-					satisfiable = manualSolver.isSatisfiable(newManualSelected);
-				} catch (final TimeoutException e) {}
-				if (!satisfiable) {
-					next.setManual(Selection.UNDEFINED);
-					iterator.remove();
-					newManualSelected.removeFirst();
+				final String featureName = next.getFeature().getName();
+				if (rootNode.containsVariable(featureName)) {
+					final int variable = rootNode.getVariable(featureName);
+					newManualSelected.addFirst((next.getManual() == Selection.SELECTED) ? variable : -variable);
+
+					if (session.isSatisfiable(toArray(newManualSelected)) != SatResult.TRUE) {
+						next.setManual(Selection.UNDEFINED);
+						iterator.remove();
+						newManualSelected.removeFirst();
+					}
 				}
 				workMonitor.worked();
 			}
 
-			final Node[] nodeArray = createNodeArray(newManualSelected, rootNode.getCnf());
-			final SatSolver automaticSolver = new SatSolver(new And(nodeArray), ConfigurationPropagator.TIMEOUT);
+			final int[] impliedLiterals = session.getImpliedLiterals(toArray(newManualSelected));
+			final byte[] impliedValues = new byte[rootNode.getNumberOfVariables() + 1];
+			if (impliedLiterals != null) {
+				for (final int literal : impliedLiterals) {
+					impliedValues[Math.abs(literal)] = (byte) (literal > 0 ? 1 : -1);
+				}
+			}
 
 			final ListIterator<SelectableFeature> it = configuration.features.listIterator();
 			while (it.hasNext()) {
 				final SelectableFeature feature = it.next();
-				if (feature.getManual() == Selection.UNDEFINED) {
-					Literal l = new Literal(feature.getFeature().getName(), true);
-					try {
-						if (!automaticSolver.isSatisfiable(l)) {
-							feature.setAutomatic(Selection.UNSELECTED);
-						} else {
-							l = new Literal(feature.getFeature().getName(), false);
-							if (!automaticSolver.isSatisfiable(l)) {
-								feature.setAutomatic(Selection.SELECTED);
-							} else {
-								feature.setAutomatic(Selection.UNDEFINED);
-							}
-						}
-					} catch (final TimeoutException e) {
-						Logger.logError(e);
+				final String featureName = feature.getFeature().getName();
+				if ((feature.getManual() == Selection.UNDEFINED) && rootNode.containsVariable(featureName)) {
+					switch (impliedValues[rootNode.getVariable(featureName)]) {
+					case 1:
+						feature.setAutomatic(Selection.SELECTED);
+						break;
+					case -1:
+						feature.setAutomatic(Selection.UNSELECTED);
+						break;
+					default:
+						feature.setAutomatic(Selection.UNDEFINED);
+						break;
 					}
 				}
 				workMonitor.invoke(feature);
@@ -186,6 +183,12 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 
 	}
 
+	/**
+	 * Counts the solutions, preferably with {@link CountExactSolutionsMethod}.<br> The result is encoded as described in
+	 * {@link IConfigurationPropagator#number(long)}. If the exact number exceeds {@link Long#MAX_VALUE}, {@code -1 - Long.MAX_VALUE} is returned, i.e., there
+	 * are more solutions than {@link Long#MAX_VALUE}.<br> Both counting methods share the given timeout: the compilation of the BDD may use at most half of
+	 * it and the enumeration only gets the time that is left afterwards.
+	 */
 	public class CountSolutionsMethod implements LongRunningMethod<Long> {
 
 		private final long timeout;
@@ -199,18 +202,64 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 			if (rootNode == null) {
 				return 0L;
 			}
+			final long endTime = System.currentTimeMillis() + timeout;
+			final BigInteger exactNumber = new CountExactSolutionsMethod((timeout > 1) ? (timeout >> 1) : timeout).execute(monitor);
+			if (exactNumber != null) {
+				return (exactNumber.bitLength() < Long.SIZE) ? exactNumber.longValue() : -1 - Long.MAX_VALUE;
+			}
+			long remainingTime = timeout;
+			if (timeout > 0) {
+				remainingTime = endTime - System.currentTimeMillis();
+				if (remainingTime <= 0) {
+					return -1L;
+				}
+			}
+
 			final List<Node> children = new ArrayList<Node>();
 
 			for (final SelectableFeature feature : configuration.features) {
-				if ((feature.getSelection() != Selection.UNDEFINED)
-					&& (configuration.ignoreAbstractFeatures || feature.getFeature().getStructure().isConcrete())
-					&& !feature.getFeature().getStructure().hasHiddenParent()) {
+				if (isCountedSelection(feature)) {
 					children.add(new Literal(feature.getFeature().getName(), feature.getSelection() == Selection.SELECTED));
 				}
 			}
 
 			final Node[] nodeArray = createNodeArray(children, rootNodeWithoutHidden.getCnf());
-			return new SatSolver(new And(nodeArray), timeout).countSolutions();
+			return new SatSolver(new And(nodeArray), remainingTime).countSolutions();
+		}
+	}
+
+	/**
+	 * Counts the solutions with a compiled {@link BDD} of the feature model. The diagram is cached, such that further counts for the same feature model do not
+	 * need to compile it again.
+	 */
+	public class CountExactSolutionsMethod implements LongRunningMethod<BigInteger> {
+
+		private final long timeout;
+
+		public CountExactSolutionsMethod(long timeout) {
+			this.timeout = timeout;
+		}
+
+		@Override
+		public BigInteger execute(IMonitor monitor) {
+			if (rootNode == null) {
+				return BigInteger.ZERO;
+			}
+			final BDD bdd;
+			try {
+				bdd = BDDCompiler.getBDD(rootNodeWithoutHidden, timeout);
+			} catch (final TimeoutException e) {
+				return null;
+			}
+
+			final List<Integer> assumptions = new ArrayList<>();
+			for (final SelectableFeature feature : configuration.features) {
+				if (isCountedSelection(feature)) {
+					final int variable = rootNodeWithoutHidden.getVariable(feature.getFeature().getName());
+					assumptions.add((feature.getSelection() == Selection.SELECTED) ? variable : -variable);
+				}
+			}
+			return bdd.countSolutions(toArray(assumptions));
 		}
 	}
 
@@ -556,25 +605,22 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 			final IFeatureModel featureModel = configuration.getFeatureModel();
 
 			final AdvancedNodeCreator nodeCreator1, nodeCreator2;
-			final IFilter<IFeature> filter1, filter2;
 			if (configuration.ignoreAbstractFeatures) {
-				filter1 = new HiddenFeatureFilter();
-				filter2 = null;
-				nodeCreator1 = new AdvancedNodeCreator(featureModel, filter1);
+				nodeCreator1 = new AdvancedNodeCreator(featureModel, new HiddenFeatureFilter());
 				nodeCreator2 = new AdvancedNodeCreator(featureModel);
 			} else {
-				filter1 = new OrFilter<>(Arrays.asList(new HiddenFeatureFilter(), new AbstractFeatureFilter()));
-				filter2 = new AbstractFeatureFilter();
-				nodeCreator1 = new AdvancedNodeCreator(featureModel, filter1);
-				nodeCreator2 = new AdvancedNodeCreator(featureModel, filter2);
+				nodeCreator1 = new AdvancedNodeCreator(featureModel, new OrFilter<IFeature>(Arrays.asList(new HiddenFeatureFilter(), new AbstractFeatureFilter())));
+				nodeCreator2 = new AdvancedNodeCreator(featureModel, new AbstractFeatureFilter());
 			}
 			nodeCreator1.setCnfType(AdvancedNodeCreator.CNFType.Regular);
 			nodeCreator2.setCnfType(AdvancedNodeCreator.CNFType.Regular);
 			nodeCreator1.setIncludeBooleanValues(false);
 			nodeCreator2.setIncludeBooleanValues(false);
 
-			final IRunner<Node> buildThread1 = LongRunningWrapper.getThread(nodeCreator1);
-			final IRunner<Node> buildThread2 = LongRunningWrapper.getThread(nodeCreator2);
+			final FormulaCache.Formula formula1 = FormulaCache.getInstance().getFormula(nodeCreator1);
+			final FormulaCache.Formula formula2 = FormulaCache.getInstance().getFormula(nodeCreator2);
+			final IRunner<Node> buildThread1 = LongRunningWrapper.getThread(new CreateFormulaMethod(formula1));
+			final IRunner<Node> buildThread2 = LongRunningWrapper.getThread(new CreateFormulaMethod(formula2));
 
 			buildThread1.schedule();
 			buildThread2.schedule();
@@ -586,15 +632,30 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 				Logger.logError(e);
 			}
 
-			final Iterable<IFeature> features = featureModel.getFeatures();
-			rootNodeWithoutHidden =
-				new SatInstance(buildThread1.getResults(), Functional.mapToList(features, new InverseFilter<>(filter1), FeatureUtils.GET_FEATURE_NAME));
-			rootNode = new SatInstance(buildThread2.getResults(),
-					Functional.mapToList(features, filter2 == null ? null : new InverseFilter<>(filter2), FeatureUtils.GET_FEATURE_NAME));
+			rootNodeWithoutHidden = formula1.getSatInstance();
+			rootNode = formula2.getSatInstance();
+			session = null;
 			return null;
 		}
 	}
 
+	/**
+	 * Creates the formula of an entry of the {@link FormulaCache}, such that the formulas for the configuration can be created in parallel.
+	 */
+	private static class CreateFormulaMethod implements LongRunningMethod<Node> {
+
+		private final FormulaCache.Formula formula;
+
+		public CreateFormulaMethod(FormulaCache.Formula formula) {
+			this.formula = formula;
+		}
+
+		@Override
+		public Node execute(IMonitor monitor) throws Exception {
+			return formula.getCnf(monitor);
+		}
+	}
+
 	public class UpdateMethod implements LongRunningMethod<Void> {
 
 		private final boolean redundantManual;
@@ -637,65 +698,89 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 			workMonitor.setRemainingWork(manualLiterals.size() + 1);
 			Collections.reverse(manualLiterals);
 
-			final ConditionallyCoreDeadAnalysis analysis = new ConditionallyCoreDeadAnalysis(rootNode);
+			final SolverSession session = getSolverSession();
 			final int[] intLiterals = rootNode.convertToInt(manualLiterals);
-			analysis.setAssumptions(intLiterals);
-			final int[] impliedFeatures = LongRunningWrapper.runMethod(analysis, workMonitor.subTask(1));
+			final int[] oldAssignment = session.getAssignment();
+			final boolean firstUpdate = !sessionUpdated;
+			final Delta delta = session.setAssignment(intLiterals);
+			sessionUpdated = true;
+			workMonitor.worked();
 
 			// if there is a contradiction within the configuration
-			if (impliedFeatures == null) {
+			if (session.getSolver() == null) {
 				return null;
 			}
+			final int[] impliedFeatures = session.getImpliedLiterals();
 
 			for (final int i : impliedFeatures) {
 				final SelectableFeature feature = configuration.getSelectablefeature((String) rootNode.getVariableObject(i));
 				configuration.setAutomatic(feature, i > 0 ? Selection.SELECTED : Selection.UNSELECTED);
-				workMonitor.invoke(feature);
 				manualLiteralSet.add(new Literal(feature.getFeature().getName(), feature.getManual() == Selection.SELECTED));
 			}
 			// only for update of configuration editor
-			for (final SelectableFeature feature : configuration.features) {
-				if (!manualLiteralSet.contains(new Literal(feature.getFeature().getName(), feature.getManual() == Selection.SELECTED))) {
-					workMonitor.invoke(feature);
+			// every feature is refreshed, but features whose implied value changed or that are not selected manually anymore come first
+			final Set<SelectableFeature> updatedFeatures = new LinkedHashSet<>();
+			if (!firstUpdate) {
+				final Set<Integer> changedVariables = new LinkedHashSet<>();
+				for (final int literal : delta.getAddedLiterals()) {
+					changedVariables.add(Math.abs(literal));
+				}
+				for (final int literal : delta.getRemovedLiterals()) {
+					changedVariables.add(Math.abs(literal));
+				}
+				final Set<Integer> newManualLiterals = new HashSet<>();
+				for (final int literal : intLiterals) {
+					newManualLiterals.add(literal);
+				}
+				for (final int literal : oldAssignment) {
+					if (!newManualLiterals.contains(literal)) {
+						changedVariables.add(Math.abs(literal));
+					}
+				}
+				for (final int variable : changedVariables) {
+					updatedFeatures.add(configuration.getSelectablefeature((String) rootNode.getVariableObject(variable)));
 				}
 			}
+			updatedFeatures.addAll(configuration.features);
+			for (final SelectableFeature feature : updatedFeatures) {
+				workMonitor.invoke(feature);
+			}
 
 			if (redundantManual) {
-				final BasicSolver solver;
-				try {
-					solver = new BasicSolver(rootNode);
-				} catch (final ContradictionException e) {
-					Logger.logError(e);
-					return null;
-				}
-
-				for (final int feature : intLiterals) {
-					solver.assignmentPush(feature);
-				}
+				synchronized (session) {
+					final BasicSolver solver = session.getSolver();
+					try {
+						for (final int feature : intLiterals) {
+							solver.assignmentPush(feature);
+						}
 
-				int literalCount = intLiterals.length;
-				final IVecInt assignment = solver.getAssignment();
-				for (int i = 0; i < assignment.size(); i++) {
-					final int oLiteral = intLiterals[i];
-					final SelectableFeature feature = configuration.getSelectablefeature((String) rootNode.getVariableObject(oLiteral));
-					assignment.set(i, -oLiteral);
-					final SatResult satResult = solver.isSatisfiable();
-					switch (satResult) {
-					case FALSE:
-						configuration.setAutomatic(feature, oLiteral > 0 ? Selection.SELECTED : Selection.UNSELECTED);
-						workMonitor.invoke(feature);
-						intLiterals[i] = intLiterals[--literalCount];
-						assignment.delete(i--);
-						break;
-					case TIMEOUT:
-					case TRUE:
-						assignment.set(i, oLiteral);
-						workMonitor.invoke(feature);
-						break;
-					default:
-						throw new AssertionError(satResult);
+						int literalCount = intLiterals.length;
+						final IVecInt assignment = solver.getAssignment();
+						for (int i = 0; i < assignment.size(); i++) {
+							final int oLiteral = intLiterals[i];
+							final SelectableFeature feature = configuration.getSelectablefeature((String) rootNode.getVariableObject(oLiteral));
+							assignment.set(i, -oLiteral);
+							final SatResult satResult = solver.isSatisfiable();
+							switch (satResult) {
+							case FALSE:
+								configuration.setAutomatic(feature, oLiteral > 0 ? Selection.SELECTED : Selection.UNSELECTED);
+								workMonitor.invoke(feature);
+								intLiterals[i] = intLiterals[--literalCount];
+								assignment.delete(i--);
+								break;
+							case TIMEOUT:
+							case TRUE:
+								assignment.set(i, oLiteral);
+								workMonitor.invoke(feature);
+								break;
+							default:
+								throw new AssertionError(satResult);
+							}
+							workMonitor.worked();
+						}
+					} finally {
+						solver.assignmentClear(0);
 					}
-					workMonitor.worked();
 				}
 			}
 			return null;
@@ -711,6 +796,9 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 
 	private SatInstance rootNode = null, rootNodeWithoutHidden = null;
 
+	private SolverSession session = null;
+	private boolean sessionUpdated = false;
+
 	/**
 	 * This method creates a clone of the given {@link ConfigurationPropagator}
 	 *
@@ -806,6 +894,16 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		return new CountSolutionsMethod(timeout);
 	}
 
+	/**
+	 * Counts the exact number of possible solutions.
+	 *
+	 * @param timeout the maximal time for compiling the feature model in milliseconds
+	 * @return the number of solutions or {@code null} if the feature model could not be compiled in time
+	 */
+	public CountExactSolutionsMethod numberExact(long timeout) {
+		return new CountExactSolutionsMethod(timeout);
+	}
+
 	@Override
 	public UpdateMethod update(boolean redundantManual, List<SelectableFeature> featureOrder) {
 		return new UpdateMethod(redundantManual, featureOrder);
@@ -825,6 +923,34 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		return new ConfigurationPropagator(this, configuration);
 	}
 
+	/**
+	 * Returns the solver session for the loaded feature model. The session keeps its solver (including learned clauses) and the last manual selection between
+	 * calls. It is created on first use and renewed whenever the feature model is loaded again.
+	 *
+	 * @return the session or {@code null} if the feature model is not loaded
+	 */
+	public synchronized SolverSession getSolverSession() {
+		if ((session == null) && (rootNode != null)) {
+			session = new SolverSession(rootNode);
+			sessionUpdated = false;
+		}
+		return session;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		final int[] array = new int[list.size()];
+		int i = 0;
+		for (final Integer element : list) {
+			array[i++] = element;
+		}
+		return array;
+	}
+
+	private boolean isCountedSelection(SelectableFeature feature) {
+		return (feature.getSelection() != Selection.UNDEFINED) && (configuration.ignoreAbstractFeatures || feature.getFeature().getStructure().isConcrete())
+			&& !feature.getFeature().getStructure().hasHiddenParent();
+	}
+
 	private Node[] createNodeArray(List<Node> literals, Node... formula) {
 		final Node[] nodeArray = new Node[literals.size() + formula.length];
 		literals.toArray(nodeArray);
@@ -64,8 +64,8 @@ public interface IConfigurationPropagator {
 	/**
 	 * Counts the number of possible solutions.
 	 *
-	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value (if a timeout occurred) that
-	 *         indicates that there are more solutions than the absolute value
+	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value {@code n} (if a timeout occurred
+	 *         or the number exceeds {@link Long#MAX_VALUE}) that indicates that there are more than {@code -1 - n} solutions
 	 */
 	LongRunningMethod<Long> number(long timeout);
 
@@ -24,15 +24,22 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
 
 import org.prop4j.And;
+import org.prop4j.AuxiliaryVariable;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.Not;
 import org.prop4j.Or;
+import org.prop4j.TseitinTransformer;
+import org.prop4j.solver.ClauseDatabase;
+import org.prop4j.solver.SatInstance;
+import org.prop4j.solver.VariableTable;
 
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IConstraint;
@@ -40,6 +47,7 @@ import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.IFeatureStructure;
 import de.ovgu.featureide.fm.core.editing.remove.FeatureRemover;
+import de.ovgu.featureide.fm.core.editing.remove.VariableEliminator;
 import de.ovgu.featureide.fm.core.filter.base.IFilter;
 import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
@@ -54,8 +62,14 @@ import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
  */
 public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
+	/**
+	 * The form of the created formula.</br> {@link #Tseitin} creates a regular CNF like {@link #Regular}, but encodes cross-tree constraints with
+	 * {@link org.prop4j.AuxiliaryVariable auxiliary variables} (see {@link TseitinTransformer}), such that the number of clauses grows linearly with the size
+	 * of the constraints. The resulting formula is only equisatisfiable to the feature model. If features are removed, {@link #Tseitin} falls back to
+	 * {@link #Regular}, as the removal requires a CNF that contains only features.
+	 */
 	public static enum CNFType {
-		None, Compact, Regular
+		None, Compact, Regular, Tseitin
 	}
 
 	public static enum ModelType {
@@ -103,10 +117,19 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 	private boolean optionalRoot = false;
 
+	/**
+	 * Specifies whether excluded features are removed by the {@link VariableEliminator} instead of the {@link FeatureRemover}.</br> Default value is
+	 * {@code false}.
+	 */
+	private boolean useVariableElimination = false;
+
 	private IFeatureModel featureModel = null;
 
 	private Collection<String> excludedFeatureNames = null;
 
+	/** Creates the clauses for constraints in {@link CNFType#Tseitin} mode. */
+	private TseitinTransformer tseitinTransformer = null;
+
 	/** The trace model. */
 	private FeatureModelToNodeTraceModel traceModel;
 	/** True to create the trace model while creating nodes. */
@@ -174,7 +197,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 	 */
 	public Node createConstraintNode(IConstraint constraint, boolean positive) {
 		final List<Node> clauses = createConstraintNodes(constraint, new LinkedList<Node>(), positive);
-		if ((cnfType != CNFType.Regular) && (clauses.size() == 1)) {
+		if ((cnfType != CNFType.Regular) && (cnfType != CNFType.Tseitin) && (clauses.size() == 1)) {
 			return clauses.get(0);
 		}
 		return new And(clauses.toArray(new Node[clauses.size()]));
@@ -190,7 +213,6 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 	 */
 	private List<Node> createConstraintNodes(IConstraint constraint, List<Node> clauses, boolean positive) {
 		Node clause = constraint.getNode();
-		boolean compact = true;
 		switch (cnfType) {
 		case None:
 			clause = clause.clone();
@@ -202,32 +224,63 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 				traceModel.addTraceConstraint(constraint);
 			}
 			break;
-		case Regular:
-			compact = false;
-		case Compact:
-		default:
-			if (!positive) {
-				clause = new Not(clause);
-			}
-			final Node cnfNode = Node.buildCNF(clause);
-			if (cnfNode instanceof And) {
-				for (final Node andChild : cnfNode.getChildren()) {
-					clause = compact || (andChild instanceof Or) ? andChild : new Or(andChild);
-					clauses.add(clause);
-					if (isRecordingTraceModel()) {
+		case Tseitin:
+			if ((excludedFeatureNames == null) || excludedFeatureNames.isEmpty()) {
+				if (tseitinTransformer == null) {
+					tseitinTransformer = new TseitinTransformer();
+				}
+				final int size = clauses.size();
+				tseitinTransformer.addClauses(positive ? clause : new Not(clause), clauses);
+				if (isRecordingTraceModel()) {
+					for (int i = clauses.size() - size; i > 0; i--) {
 						traceModel.addTraceConstraint(constraint);
 					}
 				}
 			} else {
-				clause = compact || (cnfNode instanceof Or) ? cnfNode : new Or(cnfNode);
+				// features are removed from regular clauses only
+				addCNFClauses(constraint, clause, positive, false, clauses);
+			}
+			break;
+		case Regular:
+			addCNFClauses(constraint, clause, positive, false, clauses);
+			break;
+		case Compact:
+		default:
+			addCNFClauses(constraint, clause, positive, true, clauses);
+			break;
+		}
+		return clauses;
+	}
+
+	/**
+	 * Converts the given node of a constraint to CNF. Adds the resulting clauses to the given list of clauses.
+	 *
+	 * @param constraint the constraint of the node
+	 * @param clause the node to transform
+	 * @param positive false to negate the node before adding
+	 * @param compact false to represent clauses with a single literal as {@link Or}
+	 * @param clauses clauses to add to; out variable
+	 */
+	private void addCNFClauses(IConstraint constraint, Node clause, boolean positive, boolean compact, List<Node> clauses) {
+		if (!positive) {
+			clause = new Not(clause);
+		}
+		final Node cnfNode = Node.buildCNF(clause);
+		if (cnfNode instanceof And) {
+			for (final Node andChild : cnfNode.getChildren()) {
+				clause = compact || (andChild instanceof Or) ? andChild : new Or(andChild);
 				clauses.add(clause);
 				if (isRecordingTraceModel()) {
 					traceModel.addTraceConstraint(constraint);
 				}
 			}
-			break;
+		} else {
+			clause = compact || (cnfNode instanceof Or) ? cnfNode : new Or(cnfNode);
+			clauses.add(clause);
+			if (isRecordingTraceModel()) {
+				traceModel.addTraceConstraint(constraint);
+			}
 		}
-		return clauses;
 	}
 
 	public Node createNodes() {
@@ -239,6 +292,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 			final Or emptyNode = includeBooleanValues ? new Or(new Literal(NodeCreator.varTrue), new Literal(NodeCreator.varFalse, false)) : new Or();
 			switch (cnfType) {
 			case Regular:
+			case Tseitin:
 				return new And(emptyNode);
 			case None:
 			case Compact:
@@ -254,6 +308,55 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 		return newFormula;
 	}
 
+	public ClauseDatabase createClauseDatabase() {
+		return createClauseDatabase(new NullMonitor());
+	}
+
+	/**
+	 * Creates the formula as {@link ClauseDatabase}. The features of the feature model that are not excluded are numbered first (in the order of the
+	 * feature model), followed by all other variables of the formula (e.g., {@link NodeCreator#varTrue}) and all {@link AuxiliaryVariable auxiliary
+	 * variables}. Thus, the result can be passed to {@link SatInstance#SatInstance(ClauseDatabase)} and to the constructors of the solvers.
+	 *
+	 * @param monitor the monitor for the creation of the formula
+	 * @return the clauses of the formula
+	 * @throws IllegalStateException if the CNF type is neither {@link CNFType#Regular} nor {@link CNFType#Tseitin}
+	 */
+	public ClauseDatabase createClauseDatabase(IMonitor monitor) {
+		if ((cnfType != CNFType.Regular) && (cnfType != CNFType.Tseitin)) {
+			throw new IllegalStateException("A clause database requires a regular CNF, but the CNF type is " + cnfType);
+		}
+		final Node cnf = createNodes(monitor);
+		final Node[] clauses = cnf.getChildren();
+
+		int numberOfLiterals = 0;
+		final VariableTable variables = new VariableTable(featureModel == null ? 2 : featureModel.getNumberOfFeatures());
+		if (featureModel != null) {
+			final Set<String> excludedFeatures = excludedFeatureNames == null ? Collections.<String> emptySet() : new HashSet<>(excludedFeatureNames);
+			for (final IFeature feature : featureModel.getFeatures()) {
+				if (!excludedFeatures.contains(feature.getName())) {
+					variables.add(getVariable(feature));
+				}
+			}
+		}
+		for (final Node clause : clauses) {
+			final Node[] literals = (clause instanceof Literal) ? new Node[] { clause } : clause.getChildren();
+			numberOfLiterals += literals.length;
+			for (final Node literal : literals) {
+				final Object var = ((Literal) literal).var;
+				if (!(var instanceof AuxiliaryVariable)) {
+					variables.add(var);
+				}
+			}
+		}
+		for (final AuxiliaryVariable auxiliaryVariable : SatInstance.getAuxiliaryVariables(cnf)) {
+			variables.add(auxiliaryVariable);
+		}
+
+		final ClauseDatabase clauseDatabase = new ClauseDatabase(variables, clauses.length, numberOfLiterals);
+		clauseDatabase.addClauses(clauses);
+		return clauseDatabase;
+	}
+
 	private Node[] createFormula(IMonitor monitor) {
 		monitor.setTaskName("Creating Formula");
 		monitor.setRemainingWork(2);
@@ -287,6 +390,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 			switch (cnfType) {
 			case Regular:
+			case Tseitin:
 				nodeArray[length] = new Or(new Literal[] { new Literal(NodeCreator.varTrue) });
 				nodeArray[length + 1] = new Or(new Literal[] { new Literal(NodeCreator.varFalse, false) });
 				break;
@@ -309,7 +413,13 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 	private Node removeFeatures(final Node[] nodeArray, IMonitor monitor) {
 		if ((excludedFeatureNames != null) && !excludedFeatureNames.isEmpty()) {
-			final FeatureRemover remover = new FeatureRemover(new And(nodeArray), excludedFeatureNames, includeBooleanValues, cnfType == CNFType.Regular);
+			final boolean regularCNF = (cnfType == CNFType.Regular) || (cnfType == CNFType.Tseitin);
+			if (useVariableElimination) {
+				final VariableEliminator eliminator = new VariableEliminator(new And(nodeArray), excludedFeatureNames, includeBooleanValues, regularCNF);
+				eliminator.setParallelism(Runtime.getRuntime().availableProcessors());
+				return eliminator.createNewClauseList(LongRunningWrapper.runMethod(eliminator, monitor));
+			}
+			final FeatureRemover remover = new FeatureRemover(new And(nodeArray), excludedFeatureNames, includeBooleanValues, regularCNF);
 			return remover.createNewClauseList(LongRunningWrapper.runMethod(remover, monitor));
 		} else {
 			return new And(nodeArray);
@@ -326,6 +436,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 				clause = getLiteral(root, true);
 				switch (cnfType) {
 				case Regular:
+				case Tseitin:
 					clause = new Or(clause);
 					break;
 				case None:
@@ -350,69 +461,87 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 					}
 				}
 
-				if (feature.getStructure().hasChildren()) {
-					if (feature.getStructure().isAnd()) {
-						for (final IFeatureStructure child : feature.getStructure().getChildren()) {
-							if (child.isMandatory()) {
-								final IFeature childFeature = child.getFeature();
-								clause = new Or(getLiteral(childFeature, true), getLiteral(feature, false));
-								clauses.add(clause);
-								if (isRecordingTraceModel()) {
-									traceModel.addTraceChildDown(feature, Collections.singleton(childFeature));
-								}
-							}
-						}
-					} else if (feature.getStructure().isOr()) {
-						final List<IFeature> children = new LinkedList<>();
-						final Literal[] orLiterals = new Literal[feature.getStructure().getChildren().size() + 1];
-						int i = 0;
-						for (final IFeatureStructure child : feature.getStructure().getChildren()) {
-							final IFeature childFeature = child.getFeature();
-							orLiterals[i++] = getLiteral(childFeature, true);
-							children.add(childFeature);
-						}
-						orLiterals[i] = getLiteral(feature, false);
-						clause = new Or(orLiterals);
+				createGroupNodes(feature, clauses);
+			}
+
+			return new And(clauses.toArray(new Node[0]));
+		}
+		return new And(new Node[0]);
+	}
+
+	/**
+	 * Creates the clauses that restrict the children of the given feature according to its group type (i.e., mandatory children, or groups, and alternative
+	 * groups). The clauses that require the parent of each child are not included.
+	 *
+	 * @param feature the parent feature
+	 * @return the group clauses of the feature
+	 */
+	public Node createGroupNodes(IFeature feature) {
+		final List<Node> clauses = new ArrayList<>();
+		createGroupNodes(feature, clauses);
+		return new And(clauses.toArray(new Node[0]));
+	}
+
+	private void createGroupNodes(IFeature feature, List<Node> clauses) {
+		Node clause;
+		if (feature.getStructure().hasChildren()) {
+			if (feature.getStructure().isAnd()) {
+				for (final IFeatureStructure child : feature.getStructure().getChildren()) {
+					if (child.isMandatory()) {
+						final IFeature childFeature = child.getFeature();
+						clause = new Or(getLiteral(childFeature, true), getLiteral(feature, false));
 						clauses.add(clause);
 						if (isRecordingTraceModel()) {
-							traceModel.addTraceChildDown(feature, children);
-						}
-					} else if (feature.getStructure().isAlternative()) {
-						final List<IFeature> children = new LinkedList<>();
-						final Literal[] alternativeLiterals = new Literal[feature.getStructure().getChildrenCount() + 1];
-						int i = 0;
-						for (final IFeatureStructure child : feature.getStructure().getChildren()) {
-							final IFeature childFeature = child.getFeature();
-							alternativeLiterals[i++] = getLiteral(childFeature, true);
-							children.add(childFeature);
+							traceModel.addTraceChildDown(feature, Collections.singleton(childFeature));
 						}
-						alternativeLiterals[i] = getLiteral(feature, false);
-						clause = new Or(alternativeLiterals);
+					}
+				}
+			} else if (feature.getStructure().isOr()) {
+				final List<IFeature> children = new LinkedList<>();
+				final Literal[] orLiterals = new Literal[feature.getStructure().getChildren().size() + 1];
+				int i = 0;
+				for (final IFeatureStructure child : feature.getStructure().getChildren()) {
+					final IFeature childFeature = child.getFeature();
+					orLiterals[i++] = getLiteral(childFeature, true);
+					children.add(childFeature);
+				}
+				orLiterals[i] = getLiteral(feature, false);
+				clause = new Or(orLiterals);
+				clauses.add(clause);
+				if (isRecordingTraceModel()) {
+					traceModel.addTraceChildDown(feature, children);
+				}
+			} else if (feature.getStructure().isAlternative()) {
+				final List<IFeature> children = new LinkedList<>();
+				final Literal[] alternativeLiterals = new Literal[feature.getStructure().getChildrenCount() + 1];
+				int i = 0;
+				for (final IFeatureStructure child : feature.getStructure().getChildren()) {
+					final IFeature childFeature = child.getFeature();
+					alternativeLiterals[i++] = getLiteral(childFeature, true);
+					children.add(childFeature);
+				}
+				alternativeLiterals[i] = getLiteral(feature, false);
+				clause = new Or(alternativeLiterals);
+				clauses.add(clause);
+				if (isRecordingTraceModel()) {
+					traceModel.addTraceChildDown(feature, children);
+				}
+
+				for (final ListIterator<IFeatureStructure> it1 = feature.getStructure().getChildren().listIterator(); it1.hasNext();) {
+					final IFeatureStructure fs = it1.next();
+					final IFeature sibling1 = fs.getFeature();
+					for (final ListIterator<IFeatureStructure> it2 = feature.getStructure().getChildren().listIterator(it1.nextIndex()); it2
+							.hasNext();) {
+						final IFeature sibling2 = it2.next().getFeature();
+						clause = new Or(getLiteral(sibling1, false), getLiteral(sibling2, false));
 						clauses.add(clause);
 						if (isRecordingTraceModel()) {
-							traceModel.addTraceChildDown(feature, children);
-						}
-
-						for (final ListIterator<IFeatureStructure> it1 = feature.getStructure().getChildren().listIterator(); it1.hasNext();) {
-							final IFeatureStructure fs = it1.next();
-							final IFeature sibling1 = fs.getFeature();
-							for (final ListIterator<IFeatureStructure> it2 = feature.getStructure().getChildren().listIterator(it1.nextIndex()); it2
-									.hasNext();) {
-								final IFeature sibling2 = it2.next().getFeature();
-								clause = new Or(getLiteral(sibling1, false), getLiteral(sibling2, false));
-								clauses.add(clause);
-								if (isRecordingTraceModel()) {
-									traceModel.addTraceChildHorizontal(Arrays.asList(sibling1, sibling2));
-								}
-							}
+							traceModel.addTraceChildHorizontal(Arrays.asList(sibling1, sibling2));
 						}
 					}
 				}
 			}
-
-			return new And(clauses.toArray(new Node[0]));
 		}
-		return new And(new Node[0]);
 	}
 
 	private Literal getLiteral(IFeature feature, boolean positive) {
@@ -457,6 +586,10 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 		this.cnfType = cnfType;
 	}
 
+	public boolean useOldNames() {
+		return useOldNames;
+	}
+
 	public void setUseOldNames(boolean useOldNames) {
 		this.useOldNames = useOldNames;
 	}
@@ -496,6 +629,22 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 		this.optionalRoot = optionalRoot;
 	}
 
+	/**
+	 * {@link #useVariableElimination}
+	 */
+	public boolean useVariableElimination() {
+		return useVariableElimination;
+	}
+
+	/**
+	 * {@link #useVariableElimination}
+	 *
+	 * @param useVariableElimination the value to set
+	 */
+	public void setUseVariableElimination(boolean useVariableElimination) {
+		this.useVariableElimination = useVariableElimination;
+	}
+
 	/**
 	 * <p> Returns the trace model. The trace model keeps track of the origin of transformed elements. </p>
 	 *
@@ -0,0 +1,116 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.prop4j.And;
+import org.prop4j.ImmutableNode;
+import org.prop4j.ImmutableNodeFactory;
+import org.prop4j.Node;
+import org.prop4j.SatSolver;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+
+/**
+ * A feature model prepared for the {@link ModelComparator}. The formula of the feature model (without replaced abstract features) is converted into CNF
+ * and loaded into a solver only once. Thus, the same instance can be compared to many other feature models, e.g., all revisions of a model history.
+ *
+ * @see ModelComparator#compare(ComparisonModel, ComparisonModel)
+ */
+public class ComparisonModel {
+
+	private final IFeatureModel featureModel;
+
+	private final Node[] clauses;
+
+	/**
+	 * Shares the clauses and their literals independent of the order of literals in a clause.
+	 */
+	private final ImmutableNodeFactory clauseFactory = new ImmutableNodeFactory(true);
+
+	private final Set<ImmutableNode> clauseSet;
+
+	private final SatSolver solver;
+
+	/**
+	 * Replaces all abstract features of the feature model.
+	 *
+	 * @param featureModel the feature model
+	 * @param timeout the timeout of the solver in milliseconds
+	 */
+	public ComparisonModel(IFeatureModel featureModel, long timeout) {
+		this(featureModel, NodeCreator.calculateReplacingMap(featureModel), timeout);
+	}
+
+	/**
+	 * Replaces the abstract features of the given map. Other abstract features are kept, which is only valid if they have the same replacement in all
+	 * compared models.
+	 *
+	 * @param featureModel the feature model
+	 * @param replacingMap the replacements of abstract features (see {@link NodeCreator#calculateReplacingMap(IFeatureModel)})
+	 * @param timeout the timeout of the solver in milliseconds
+	 */
+	public ComparisonModel(IFeatureModel featureModel, Map<Object, Node> replacingMap, long timeout) {
+		this.featureModel = featureModel;
+		Node cnf = NodeCreator.createNodes(featureModel, replacingMap).toCNF();
+		if (!(cnf instanceof And)) {
+			cnf = new And(cnf);
+		}
+		clauses = cnf.getChildren();
+		clauseSet = new HashSet<>(clauses.length << 1);
+		for (final Node clause : clauses) {
+			clauseSet.add(clauseFactory.create(clause));
+		}
+		solver = new SatSolver(cnf, timeout, false);
+	}
+
+	public IFeatureModel getFeatureModel() {
+		return featureModel;
+	}
+
+	/**
+	 * @return the clauses of the formula (literals or disjunctions of literals); must not be modified
+	 */
+	public Node[] getClauses() {
+		return clauses;
+	}
+
+	/**
+	 * @return true iff the formula contains a clause that is equal to the given one
+	 */
+	public boolean containsClause(Node clause) {
+		final ImmutableNode sharedClause = clauseFactory.find(clause);
+		return (sharedClause != null) && clauseSet.contains(sharedClause);
+	}
+
+	/**
+	 * Returns the solver containing the formula. Clauses and assumptions must only be added temporarily. Callers must synchronize on the solver.
+	 *
+	 * @return the solver
+	 */
+	public SatSolver getSolver() {
+		return solver;
+	}
+
+}
@@ -20,12 +20,14 @@
  */
 package de.ovgu.featureide.fm.core.editing;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.prop4j.And;
 import org.prop4j.Literal;
 import org.prop4j.Node;
-import org.prop4j.Not;
 import org.prop4j.Or;
 import org.prop4j.SatSolver;
 import org.sat4j.specs.TimeoutException;
@@ -35,7 +37,8 @@ import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.configuration.DefaultFormat;
 
 /**
- * Calculates added or deleted products for a feature model edit.
+ * Calculates added or deleted products for a feature model edit.<br> The left formula is given as a solver, which may be shared with other calculators
+ * (see {@link ComparisonModel}). Clauses and assumptions are only passed to this solver temporarily.
  *
  * @author Thomas Thuem
  * @author Marcus Pinnecke (Feature Interface)
@@ -44,8 +47,6 @@ public class ExampleCalculator {
 
 	private final IFeatureModel fm;
 
-	private Node a;
-
 	private Node[] bChildren;
 
 	private LinkedList<Integer> bSatisfiable;
@@ -54,9 +55,17 @@ public class ExampleCalculator {
 
 	private SatSolver solver;
 
-	private SatSolver exampleSolver = null;
+	private List<Node> assumptions = Collections.emptyList();
+
+	/**
+	 * The index of the clause of the right formula whose violating products are currently returned or -1.
+	 */
+	private int exampleChild = -1;
 
-	private String lastSolution = null;
+	/**
+	 * Clauses that exclude the examples returned so far.
+	 */
+	private final List<Node> examples = new ArrayList<>();
 
 	private final long timeout;
 
@@ -66,19 +75,41 @@ public class ExampleCalculator {
 	}
 
 	public void setLeft(Node a) {
-		a = a.clone().toCNF();
-		this.a = a;
-		solver = new SatSolver(a, timeout);
+		setLeft(new SatSolver(a.clone().toCNF(), timeout, false), Collections.<Node> emptyList());
+	}
+
+	/**
+	 * Sets the left formula.
+	 *
+	 * @param solver a solver containing the left formula
+	 * @param assumptions literals that are assumed in addition to the left formula
+	 */
+	public void setLeft(SatSolver solver, List<Node> assumptions) {
+		this.solver = solver;
+		this.assumptions = assumptions;
+		exampleChild = -1;
+		examples.clear();
 	}
 
 	public void setRight(Node b) {
 		b = b.clone().toCNF();
-		if (b instanceof Or) {
+		if (!(b instanceof And)) {
 			b = new And(b);
 		}
-		bChildren = b.getChildren();
+		setRight(b.getChildren());
+	}
+
+	/**
+	 * Sets the right formula.
+	 *
+	 * @param clauses the clauses of the right formula (literals or disjunctions of literals)
+	 */
+	public void setRight(Node[] clauses) {
+		bChildren = clauses;
 		bSatisfiable = new LinkedList<Integer>();
 		bIndex = -1;
+		exampleChild = -1;
+		examples.clear();
 	}
 
 	public boolean hasNextChild() {
@@ -96,43 +127,57 @@ public class ExampleCalculator {
 		bSatisfiable.add(bIndex);
 	}
 
-	// might return some examples multiple times
+	/**
+	 * Returns the next product of the left formula that violates the right formula. Each product is returned only once.
+	 *
+	 * @return the next product or null if there are no more products
+	 */
 	public Configuration nextExample() throws TimeoutException {
-		if (exampleSolver == null) {
-			if (bSatisfiable.isEmpty() && !findSatisfiable(true)) {
-				return null;
+		while (true) {
+			if (exampleChild < 0) {
+				if (bSatisfiable.isEmpty() && !findSatisfiable(true)) {
+					return null;
+				}
+				exampleChild = bSatisfiable.removeFirst();
+			}
+			final List<Node> nodes = getAssumptions(bChildren[exampleChild]);
+			nodes.addAll(examples);
+			final List<Literal> solution;
+			synchronized (solver) {
+				solution = solver.getSolution(new And(nodes));
+			}
+			if (solution == null) {
+				exampleChild = -1;
+				continue;
 			}
-			final Node child = bChildren[bSatisfiable.removeFirst()];
-			exampleSolver = new SatSolver(new And(a, new Not(child.clone())), timeout);
-		}
-		final String solution = exampleSolver.getSolution();
-		if (solution == null) {
-			return null;
-		}
-		if (solution.equals(lastSolution)) {
-			exampleSolver = null;
-			return nextExample();
-		}
-		final Configuration configuration = new Configuration(fm, false);
-		final DefaultFormat format = new DefaultFormat();
 
-		format.read(configuration, solution);
-		lastSolution = solution;
-		return configuration;
+			final StringBuilder sb = new StringBuilder();
+			final Node[] blockingClause = new Node[solution.size()];
+			int i = 0;
+			for (final Literal literal : solution) {
+				if (literal.positive) {
+					sb.append(literal.var).append('\n');
+				}
+				blockingClause[i++] = new Literal(literal.var, !literal.positive);
+			}
+			examples.add(new Or(blockingClause));
+
+			final Configuration configuration = new Configuration(fm, false);
+			final DefaultFormat format = new DefaultFormat();
+			format.read(configuration, sb.toString());
+			return configuration;
+		}
 	}
 
 	public boolean findSatisfiable(boolean stopEarly) throws TimeoutException {
 		boolean sat = false;
 		while (hasNextChild()) {
-			Node child = nextChild();
-			if (!(child instanceof Or)) {
-				child = new Or(child);
+			final List<Node> nodes = getAssumptions(nextChild());
+			final boolean satisfiable;
+			synchronized (solver) {
+				satisfiable = solver.isSatisfiable(nodes);
 			}
-			final Node[] list = Node.clone(child.getChildren());
-			for (final Node node : list) {
-				((Literal) node).positive ^= true;
-			}
-			if (solver.isSatisfiable(list)) {
+			if (satisfiable) {
 				childIsSatisfiable();
 				if (stopEarly) {
 					return true;
@@ -143,4 +188,21 @@ public class ExampleCalculator {
 		return sat;
 	}
 
+	/**
+	 * Returns the assumptions of the left formula and the negated literals of the given clause. The left formula implies the clause iff it is unsatisfiable
+	 * under these assumptions.
+	 */
+	private List<Node> getAssumptions(Node child) {
+		if (!(child instanceof Or)) {
+			child = new Or(child);
+		}
+		final List<Node> nodes = new ArrayList<>(assumptions.size() + child.getChildren().length);
+		nodes.addAll(assumptions);
+		for (final Node node : child.getChildren()) {
+			final Literal literal = (Literal) node;
+			nodes.add(new Literal(literal.var, !literal.positive));
+		}
+		return nodes;
+	}
+
 }
@@ -0,0 +1,336 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.prop4j.Node;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ClauseDatabase;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Caches the formulas of feature models, such that the same formula for the same state of a feature model is only created once.<br>
+ * A formula is identified by the {@link IFeatureModel#getId() identifier} and the {@link IFeatureModel#getModificationCount() modification counter} of
+ * the feature model and by the settings of the {@link AdvancedNodeCreator} that creates it (i.e., CNF type, model type, and excluded features). Thus, an
+ * entry is not found anymore as soon as the feature model is modified. The least recently used entries are evicted if the cache exceeds its
+ * capacity.<br> The formulas are returned as copies that can be modified by the caller. All other returned objects (e.g., SAT instances) are shared
+ * and must not be modified.
+ *
+ * @see #getInstance()
+ */
+public class FormulaCache {
+
+	public static final int DEFAULT_CAPACITY = 32;
+
+	private static final FormulaCache INSTANCE = new FormulaCache(DEFAULT_CAPACITY);
+
+	/**
+	 * @return the cache that is shared by all consumers
+	 */
+	public static FormulaCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * A formula of a feature model and the objects derived from it. All objects are created on demand and only once.
+	 */
+	public static class Formula {
+
+		private final AdvancedNodeCreator nodeCreator;
+		private final List<String> variables;
+
+		private Node cnf = null;
+		private final Map<List<?>, SatInstance> satInstances = new HashMap<>();
+		private BasicSolver template = null;
+
+		private Formula(AdvancedNodeCreator nodeCreator) {
+			final IFeatureModel featureModel = nodeCreator.getFeatureModel();
+			final Collection<String> excludedFeatureNames = nodeCreator.getExcludedFeatureNames();
+			final Set<String> excludedFeatures = excludedFeatureNames == null ? Collections.<String> emptySet() : new HashSet<>(excludedFeatureNames);
+
+			this.nodeCreator = new AdvancedNodeCreator(featureModel, excludedFeatures, nodeCreator.getCnfType(), nodeCreator.getModelType(),
+					nodeCreator.includeBooleanValues());
+			this.nodeCreator.setUseOldNames(nodeCreator.useOldNames());
+			this.nodeCreator.setOptionalRoot(nodeCreator.optionalRoot());
+			this.nodeCreator.setUseVariableElimination(nodeCreator.useVariableElimination());
+
+			variables = new ArrayList<>(featureModel.getNumberOfFeatures());
+			for (final IFeature feature : featureModel.getFeatures()) {
+				final String name = feature.getName();
+				if (!excludedFeatures.contains(name)) {
+					variables.add(name);
+				}
+			}
+		}
+
+		public Node getCnf() {
+			return getCnf(new NullMonitor());
+		}
+
+		/**
+		 * Returns a copy of the formula. Creates the formula if it was not requested before.
+		 *
+		 * @param monitor the monitor for the creation of the formula
+		 * @return the formula
+		 */
+		public Node getCnf(IMonitor monitor) {
+			return getSharedCnf(monitor).clone();
+		}
+
+		private synchronized Node getSharedCnf(IMonitor monitor) {
+			if (cnf == null) {
+				cnf = nodeCreator.createNodes(monitor);
+			}
+			return cnf;
+		}
+
+		/**
+		 * Returns a SAT instance of the formula. The variables are numbered in the order of the features of the feature model. Excluded features are
+		 * omitted.
+		 *
+		 * @return the SAT instance
+		 */
+		public SatInstance getSatInstance() {
+			return getSatInstance(variables);
+		}
+
+		/**
+		 * Returns a SAT instance of the formula that numbers the variables in the given order.
+		 *
+		 * @param variables the variables of the SAT instance
+		 * @return the SAT instance
+		 *
+		 * @see SatInstance#SatInstance(Node, Collection)
+		 */
+		public SatInstance getSatInstance(List<?> variables) {
+			final Node cnf = getSharedCnf(new NullMonitor());
+			synchronized (satInstances) {
+				SatInstance satInstance = satInstances.get(variables);
+				if (satInstance == null) {
+					satInstance = new SatInstance(cnf, variables);
+					satInstances.put(new ArrayList<>(variables), satInstance);
+				}
+				return satInstance;
+			}
+		}
+
+		/**
+		 * @return the clauses of the {@link #getSatInstance() default SAT instance}
+		 */
+		public ClauseDatabase getClauseDatabase() {
+			return getSatInstance().getClauseDatabase();
+		}
+
+		/**
+		 * Creates a new solver for the {@link #getSatInstance() default SAT instance}. The solver is a clone of a template, which is created once.
+		 *
+		 * @return a new solver that can be modified by the caller
+		 * @throws ContradictionException if the formula is unsatisfiable
+		 */
+		public BasicSolver createSolver() throws ContradictionException {
+			final BasicSolver template;
+			synchronized (this) {
+				if (this.template == null) {
+					this.template = new BasicSolver(getSatInstance());
+				}
+				template = this.template;
+			}
+			synchronized (template) {
+				return template.clone();
+			}
+		}
+
+	}
+
+	/**
+	 * Identifies a formula of a certain state of a feature model.
+	 */
+	private static final class Key {
+
+		private final long featureModelId;
+		private final long modificationCount;
+		private final CNFType cnfType;
+		private final ModelType modelType;
+		private final boolean includeBooleanValues;
+		private final boolean useOldNames;
+		private final boolean optionalRoot;
+		private final boolean useVariableElimination;
+		private final Set<String> excludedFeatures;
+
+		private Key(AdvancedNodeCreator nodeCreator) {
+			final IFeatureModel featureModel = nodeCreator.getFeatureModel();
+			featureModelId = featureModel.getId();
+			modificationCount = featureModel.getModificationCount();
+			cnfType = nodeCreator.getCnfType();
+			modelType = nodeCreator.getModelType();
+			includeBooleanValues = nodeCreator.includeBooleanValues();
+			useOldNames = nodeCreator.useOldNames();
+			optionalRoot = nodeCreator.optionalRoot();
+			useVariableElimination = nodeCreator.useVariableElimination();
+			final Collection<String> excludedFeatureNames = nodeCreator.getExcludedFeatureNames();
+			excludedFeatures = excludedFeatureNames == null ? Collections.<String> emptySet() : new HashSet<>(excludedFeatureNames);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = (int) (featureModelId ^ (featureModelId >>> 32));
+			result = (31 * result) + (int) (modificationCount ^ (modificationCount >>> 32));
+			result = (31 * result) + cnfType.hashCode();
+			result = (31 * result) + modelType.hashCode();
+			result = (31 * result) + (includeBooleanValues ? 1 : 0);
+			result = (31 * result) + (useOldNames ? 1 : 0);
+			result = (31 * result) + (optionalRoot ? 1 : 0);
+			result = (31 * result) + (useVariableElimination ? 1 : 0);
+			result = (31 * result) + excludedFeatures.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return (featureModelId == other.featureModelId) && (modificationCount == other.modificationCount) && (cnfType == other.cnfType)
+				&& (modelType == other.modelType) && (includeBooleanValues == other.includeBooleanValues) && (useOldNames == other.useOldNames)
+				&& (optionalRoot == other.optionalRoot) && (useVariableElimination == other.useVariableElimination)
+				&& excludedFeatures.equals(other.excludedFeatures);
+		}
+
+	}
+
+	private final int capacity;
+	private final LinkedHashMap<Key, Formula> formulas;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * @param capacity the maximal number of cached formulas
+	 */
+	public FormulaCache(final int capacity) {
+		this.capacity = capacity;
+		formulas = new LinkedHashMap<Key, Formula>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Formula> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the formula that the given node creator would create for the current state of its feature model. The node creator is not used to create
+	 * the formula and may be changed afterwards.<br> Formulas that record a trace model are not cached.
+	 *
+	 * @param nodeCreator the settings of the formula
+	 * @return the cached or a new formula
+	 */
+	public Formula getFormula(AdvancedNodeCreator nodeCreator) {
+		if (nodeCreator.isRecordingTraceModel()) {
+			return new Formula(nodeCreator);
+		}
+		final Key key = new Key(nodeCreator);
+		synchronized (formulas) {
+			Formula formula = formulas.get(key);
+			if (formula == null) {
+				misses++;
+				// entries of former states of the feature model (or of older clones) are most likely not requested anymore
+				for (final Iterator<Key> iterator = formulas.keySet().iterator(); iterator.hasNext();) {
+					final Key oldKey = iterator.next();
+					if ((oldKey.featureModelId == key.featureModelId) && (oldKey.modificationCount < key.modificationCount)) {
+						iterator.remove();
+					}
+				}
+				formula = new Formula(nodeCreator);
+				formulas.put(key, formula);
+			} else {
+				hits++;
+			}
+			return formula;
+		}
+	}
+
+	/**
+	 * Shortcut for {@link #getFormula(AdvancedNodeCreator)}.{@link Formula#getCnf() getCnf()}.
+	 */
+	public Node getCnf(AdvancedNodeCreator nodeCreator) {
+		return getFormula(nodeCreator).getCnf();
+	}
+
+	public void clear() {
+		synchronized (formulas) {
+			formulas.clear();
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int size() {
+		synchronized (formulas) {
+			return formulas.size();
+		}
+	}
+
+	/**
+	 * @return the number of requests that were answered by an existing entry
+	 */
+	public long getHits() {
+		synchronized (formulas) {
+			return hits;
+		}
+	}
+
+	/**
+	 * @return the number of requests that created a new entry
+	 */
+	public long getMisses() {
+		synchronized (formulas) {
+			return misses;
+		}
+	}
+
+}
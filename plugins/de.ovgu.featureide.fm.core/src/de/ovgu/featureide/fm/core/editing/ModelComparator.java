@@ -20,6 +20,8 @@
  */
 package de.ovgu.featureide.fm.core.editing;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -97,31 +99,60 @@ public class ModelComparator {
 		}
 	}
 
+	/**
+	 * Compares two feature models.
+	 *
+	 * @param oldModel the feature model before the edit
+	 * @param newModel the feature model after the edit
+	 * @return the classification of the edit
+	 */
 	public Comparison compare(IFeatureModel oldModel, IFeatureModel newModel) {
 		this.oldModel = oldModel;
 		this.newModel = newModel;
+		final List<IFeatureModel> featureModels = Arrays.asList(oldModel, newModel);
+		final Comparison[] loadResults = new Comparison[2];
+		final List<Map<Object, Node>> replacingMaps = calculateReplacingMaps(featureModels, loadResults);
+		final ComparisonModel oldComparisonModel = load(featureModels, replacingMaps, loadResults, 0);
+		if (oldComparisonModel == null) {
+			result = loadResults[0];
+			return result;
+		}
+		final ComparisonModel newComparisonModel = load(featureModels, replacingMaps, loadResults, 1);
+		if (newComparisonModel == null) {
+			result = loadResults[1];
+			return result;
+		}
+		return compare(oldComparisonModel, newComparisonModel);
+	}
+
+	/**
+	 * Compares two feature models that are already loaded. The implications are checked clause by clause: A model implies the other one iff no clause of the
+	 * other model is violated by a product of the model. The examples of {@link #calculateExample(boolean)} are taken from the solvers of the given models.
+	 *
+	 * @param oldComparisonModel the feature model before the edit
+	 * @param newComparisonModel the feature model after the edit
+	 * @return the classification of the edit
+	 */
+	public Comparison compare(ComparisonModel oldComparisonModel, ComparisonModel newComparisonModel) {
+		oldModel = oldComparisonModel.getFeatureModel();
+		newModel = newComparisonModel.getFeatureModel();
 		try {
 			addedFeatures = calculateAddedFeatures(oldModel, newModel);
 			deletedFeatures = calculateAddedFeatures(newModel, oldModel);
 
-			final Map<Object, Node> oldMap = NodeCreator.calculateReplacingMap(oldModel);
-			final Map<Object, Node> newMap = NodeCreator.calculateReplacingMap(newModel);
-			optimizeReplacingMaps(oldMap, newMap);
-
-			oldRoot = NodeCreator.createNodes(oldModel, oldMap);
-			newRoot = NodeCreator.createNodes(newModel, newMap);
-
-			oldRoot = createFalseStatementForConcreteVariables(addedFeatures, oldRoot);
-			newRoot = createFalseStatementForConcreteVariables(deletedFeatures, newRoot);
+			oldRoot = createFalseStatementForConcreteVariables(addedFeatures, new And(oldComparisonModel.getClauses()));
+			newRoot = createFalseStatementForConcreteVariables(deletedFeatures, new And(newComparisonModel.getClauses()));
 
-			oldRootUpdated = removeIdenticalNodes(oldRoot, newRoot);
-			newRootUpdated = removeIdenticalNodes(newRoot, oldRoot);
+			final Node[] oldClauses = getRelevantClauses(oldComparisonModel, addedFeatures, newComparisonModel);
+			final Node[] newClauses = getRelevantClauses(newComparisonModel, deletedFeatures, oldComparisonModel);
+			oldRootUpdated = oldClauses.length == 0 ? null : new And(oldClauses);
+			newRootUpdated = newClauses.length == 0 ? null : new And(newClauses);
 
 			removedProducts = new ExampleCalculator(oldModel, timeout);
-			implies = implies(oldRoot, newRootUpdated, removedProducts);
+			implies = implies(oldComparisonModel, addedFeatures, newClauses, removedProducts);
 
 			addedProducts = new ExampleCalculator(newModel, timeout);
-			isImplied = implies(newRoot, oldRootUpdated, addedProducts);
+			isImplied = implies(newComparisonModel, deletedFeatures, oldClauses, addedProducts);
 
 			if (implies) {
 				if (isImplied) {
@@ -145,6 +176,166 @@ public class ModelComparator {
 		return result;
 	}
 
+	/**
+	 * Compares each revision of a model history to its successor. Each revision is loaded only once. Abstract features are only kept if their replacement
+	 * is the same in all revisions (see {@link #calculateReplacingMaps(List, Comparison[])}).
+	 *
+	 * @param revisions the revisions of a feature model in chronological order
+	 * @return the classification of the edit from revision i to revision i + 1 at index i
+	 */
+	public List<Comparison> compareHistory(List<IFeatureModel> revisions) {
+		final List<Comparison> comparisons = new ArrayList<>(Math.max(0, revisions.size() - 1));
+		final Comparison[] loadResults = new Comparison[revisions.size()];
+		final List<Map<Object, Node>> replacingMaps = calculateReplacingMaps(revisions, loadResults);
+		ComparisonModel previous = null;
+		for (int i = 0; i < revisions.size(); i++) {
+			final ComparisonModel current = load(revisions, replacingMaps, loadResults, i);
+			if (i > 0) {
+				comparisons.add(compare(previous, loadResults[i - 1], current, loadResults[i]));
+			}
+			previous = current;
+		}
+		return comparisons;
+	}
+
+	/**
+	 * Compares all pairs of revisions of a model history. Each revision is loaded only once and each pair is compared only once. Abstract features are only
+	 * kept if their replacement is the same in all revisions (see {@link #calculateReplacingMaps(List, Comparison[])}).
+	 *
+	 * @param revisions the revisions of a feature model
+	 * @return the classification of the edit from revision i to revision j at index [i][j]
+	 */
+	public Comparison[][] compareAll(List<IFeatureModel> revisions) {
+		final int size = revisions.size();
+		final ComparisonModel[] models = new ComparisonModel[size];
+		final Comparison[] loadResults = new Comparison[size];
+		final List<Map<Object, Node>> replacingMaps = calculateReplacingMaps(revisions, loadResults);
+		for (int i = 0; i < size; i++) {
+			models[i] = load(revisions, replacingMaps, loadResults, i);
+		}
+		final Comparison[][] comparisons = new Comparison[size][size];
+		for (int i = 0; i < size; i++) {
+			comparisons[i][i] = models[i] == null ? loadResults[i] : Comparison.REFACTORING;
+			for (int j = i + 1; j < size; j++) {
+				final Comparison comparison = compare(models[i], loadResults[i], models[j], loadResults[j]);
+				comparisons[i][j] = comparison;
+				comparisons[j][i] = reverse(comparison);
+			}
+		}
+		return comparisons;
+	}
+
+	/**
+	 * Compares two loaded models or returns the reason why one of them could not be loaded.
+	 */
+	private Comparison compare(ComparisonModel oldComparisonModel, Comparison oldLoadResult, ComparisonModel newComparisonModel,
+			Comparison newLoadResult) {
+		if (oldComparisonModel == null) {
+			return oldLoadResult;
+		}
+		if (newComparisonModel == null) {
+			return newLoadResult;
+		}
+		return compare(oldComparisonModel, newComparisonModel);
+	}
+
+	/**
+	 * Calculates the maps that replace the abstract features of the given feature models. An abstract feature is not replaced if its replacement is the same
+	 * in all feature models, as it has the same meaning in each of them. Thus, the formulas stay small if the feature models share deep hierarchies of
+	 * abstract features.
+	 *
+	 * @param featureModels the feature models
+	 * @param loadResults the reason why a map could not be calculated at the index of each feature model; out variable
+	 * @return the replacing map at the index of each feature model; null if the map could not be calculated
+	 */
+	private List<Map<Object, Node>> calculateReplacingMaps(List<IFeatureModel> featureModels, Comparison[] loadResults) {
+		final List<Map<Object, Node>> replacingMaps = new ArrayList<>(featureModels.size());
+		for (int i = 0; i < featureModels.size(); i++) {
+			Map<Object, Node> replacingMap = null;
+			try {
+				replacingMap = NodeCreator.calculateReplacingMap(featureModels.get(i));
+			} catch (final OutOfMemoryError e) {
+				loadResults[i] = Comparison.OUTOFMEMORY;
+			} catch (final Exception e) {
+				Logger.logError(e);
+				loadResults[i] = Comparison.ERROR;
+			}
+			replacingMaps.add(replacingMap);
+		}
+		optimizeReplacingMaps(replacingMaps);
+		return replacingMaps;
+	}
+
+	/**
+	 * Removes all abstract features from the given maps that have the same replacement in each map. Does nothing for less than two maps.
+	 */
+	private void optimizeReplacingMaps(List<Map<Object, Node>> replacingMaps) {
+		final List<Map<Object, Node>> maps = new ArrayList<>(replacingMaps.size());
+		for (final Map<Object, Node> map : replacingMaps) {
+			if (map != null) {
+				maps.add(map);
+			}
+		}
+		if (maps.size() < 2) {
+			return;
+		}
+		final List<Object> toBeRemoved = new LinkedList<Object>();
+		entries: for (final Entry<Object, Node> entry : maps.get(0).entrySet()) {
+			final Node replacing = entry.getValue();
+			if (replacing == null) {
+				continue;
+			}
+			for (int i = 1; i < maps.size(); i++) {
+				if (!replacing.equals(maps.get(i).get(entry.getKey()))) {
+					continue entries;
+				}
+			}
+			toBeRemoved.add(entry.getKey());
+		}
+		for (final Map<Object, Node> map : maps) {
+			map.keySet().removeAll(toBeRemoved);
+		}
+	}
+
+	/**
+	 * Loads a feature model for comparisons. If the model cannot be loaded, the reason is set in the given results.
+	 *
+	 * @param featureModels the feature models
+	 * @param replacingMaps the replacing maps of the feature models
+	 * @param loadResults the reasons why feature models could not be loaded; in and out variable
+	 * @param index the index of the feature model to load
+	 * @return the loaded model or null
+	 */
+	private ComparisonModel load(List<IFeatureModel> featureModels, List<Map<Object, Node>> replacingMaps, Comparison[] loadResults, int index) {
+		final Map<Object, Node> replacingMap = replacingMaps.get(index);
+		if (replacingMap == null) {
+			return null;
+		}
+		try {
+			return new ComparisonModel(featureModels.get(index), replacingMap, timeout);
+		} catch (final OutOfMemoryError e) {
+			loadResults[index] = Comparison.OUTOFMEMORY;
+		} catch (final Exception e) {
+			Logger.logError(e);
+			loadResults[index] = Comparison.ERROR;
+		}
+		return null;
+	}
+
+	/**
+	 * @return the classification of the reverse edit
+	 */
+	private static Comparison reverse(Comparison comparison) {
+		switch (comparison) {
+		case GENERALIZATION:
+			return Comparison.SPECIALIZATION;
+		case SPECIALIZATION:
+			return Comparison.GENERALIZATION;
+		default:
+			return comparison;
+		}
+	}
+
 	private Set<String> calculateAddedFeatures(IFeatureModel oldModel, IFeatureModel newModel) {
 		final Set<String> addedFeatures = new HashSet<String>();
 		for (final IFeature feature : newModel.getFeatures()) {
@@ -159,24 +350,6 @@ public class ModelComparator {
 		return addedFeatures;
 	}
 
-	private void optimizeReplacingMaps(Map<Object, Node> oldMap, Map<Object, Node> newMap) {
-		final List<Object> toBeRemoved = new LinkedList<Object>();
-		for (final Entry<Object, Node> entry : oldMap.entrySet()) {
-			final Object var = entry.getKey();
-			if (newMap.containsKey(var)) {
-				final Node oldRepl = entry.getValue();
-				final Node newRepl = newMap.get(var);
-				if ((oldRepl != null) && oldRepl.equals(newRepl)) {
-					toBeRemoved.add(var);
-				}
-			}
-		}
-		for (final Object var : toBeRemoved) {
-			oldMap.remove(var);
-			newMap.remove(var);
-		}
-	}
-
 	private Node createFalseStatementForConcreteVariables(Set<String> addedFeatures, Node node) {
 		if (addedFeatures.isEmpty()) {
 			return node;
@@ -189,23 +362,44 @@ public class ModelComparator {
 	}
 
 	/**
-	 * Removes all child nodes that are contained in the reference node.
+	 * Returns the clauses of a model that must be checked against the other model. If identical rules are skipped, clauses that are contained in the other
+	 * model are omitted, as they are trivially implied.
 	 *
-	 * @param node the node to copy and remove from
-	 * @param referenceNode node that specifies what do remove
-	 * @return a copy of the node where some child nodes are not existent
+	 * @param model the model
+	 * @param unselectedFeatures features that do not exist in the model, but in the other one
+	 * @param otherModel the other model
+	 * @return the clauses to check
 	 */
-	private Node removeIdenticalNodes(Node node, Node referenceNode) {
-		if (!strategy.contains(Strategy.WithoutIdenticalRules)) {
-			return node;
-		}
-		final LinkedList<Node> updatedNodes = new LinkedList<Node>();
-		for (final Node child : node.getChildren()) {
-			if (!containedIn(child, referenceNode.getChildren())) {
-				updatedNodes.add(child);
+	private Node[] getRelevantClauses(ComparisonModel model, Set<String> unselectedFeatures, ComparisonModel otherModel) {
+		final List<Node> clauses = new ArrayList<>();
+		for (final Node clause : model.getClauses()) {
+			if (!strategy.contains(Strategy.WithoutIdenticalRules) || !otherModel.containsClause(clause)) {
+				clauses.add(clause);
 			}
 		}
-		return updatedNodes.isEmpty() ? null : new And(updatedNodes);
+		for (final String feature : unselectedFeatures) {
+			clauses.add(new Literal(feature, false));
+		}
+		return clauses.toArray(new Node[clauses.size()]);
+	}
+
+	/**
+	 * Checks whether a loaded model implies the given clauses.
+	 *
+	 * @param a the model
+	 * @param unselectedFeatures features that are assumed to be unselected in the model
+	 * @param bClauses the clauses of the other model
+	 * @param example the calculator for products of the model that violate the clauses
+	 * @return true iff the model implies all clauses
+	 */
+	private boolean implies(ComparisonModel a, Set<String> unselectedFeatures, Node[] bClauses, ExampleCalculator example) throws TimeoutException {
+		final List<Node> assumptions = new ArrayList<>(unselectedFeatures.size());
+		for (final String feature : unselectedFeatures) {
+			assumptions.add(new Literal(feature, false));
+		}
+		example.setLeft(a.getSolver(), assumptions);
+		example.setRight(bClauses);
+		return !example.findSatisfiable(strategy.contains(Strategy.SingleTestingAborted));
 	}
 
 	public boolean implies(Node a, Node b, ExampleCalculator example) throws TimeoutException {
@@ -214,7 +408,7 @@ public class ModelComparator {
 		}
 
 		if (!strategy.contains(Strategy.SingleTesting)) {
-			final Node node = new And(a.clone(), new Not(b.clone()));
+			final Node node = new And(a, new Not(b));
 			final SatSolver solver = new SatSolver(node, timeout);
 			return !solver.isSatisfiable();
 		}
@@ -224,15 +418,6 @@ public class ModelComparator {
 		return !example.findSatisfiable(strategy.contains(Strategy.SingleTestingAborted));
 	}
 
-	private boolean containedIn(Node node, Node[] nodes) {
-		for (final Node child : nodes) {
-			if (node.equals(child)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	public Configuration calculateExample(boolean added) throws TimeoutException {
 		return added ? addedProducts.nextExample() : removedProducts.nextExample();
 	}
@@ -32,16 +32,19 @@ import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.Not;
 import org.prop4j.Or;
+import org.prop4j.SatSolver;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.IFeatureModelFactory;
 import de.ovgu.featureide.fm.core.base.IFeatureStructure;
 import de.ovgu.featureide.fm.core.base.impl.Constraint;
 import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.functional.Functional;
 
 /**
@@ -69,8 +72,11 @@ public abstract class Generator {
 	public static IFeatureModel generateFeatureDiagram(Random random, int numberOfFeatures) {
 		final IFeatureModelFactory factory = FMFactoryManager.getDefaultFactory();
 		final IFeatureModel fm = factory.createFeatureModel();
+		final IFeature root = factory.createFeature(fm, "C1");
+		fm.addFeature(root);
+		fm.getStructure().setRoot(root.getStructure());
 		final List<IFeature> leaves = new LinkedList<IFeature>();
-		leaves.add(fm.getFeature("C1"));
+		leaves.add(root);
 		int count = 1;
 		while (count < numberOfFeatures) {
 			final int parentIndex = random.nextInt(leaves.size());
@@ -130,13 +136,15 @@ public abstract class Generator {
 					node = new Not(node);
 				}
 			}
-			fm.addConstraint(new Constraint(fm, node));
+			final IConstraint constraint = new Constraint(fm, node);
+			fm.addConstraint(constraint);
 			try {
-				if (!valid || fm.getAnalyser().isValid()) {
+				// the analyzer caches its formula, so the new constraint is checked with a fresh one
+				if (!valid || new SatSolver(AdvancedNodeCreator.createRegularCNF(fm), 1000).isSatisfiable()) {
 					i++;
-					System.out.println("E\t" + i + "\t" + node);
+					Logger.logInfo("E\t" + i + "\t" + node);
 				} else {
-					fm.getConstraints().remove(new Constraint(fm, node));
+					fm.removeConstraint(constraint);
 					Logger.logInfo("F\t" + ++k + "\t" + node);
 				}
 			} catch (final TimeoutException e) {
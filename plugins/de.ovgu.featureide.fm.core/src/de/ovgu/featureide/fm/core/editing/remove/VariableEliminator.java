@@ -0,0 +1,993 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing.remove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.CheckForNull;
+
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+
+import de.ovgu.featureide.fm.core.editing.NodeCreator;
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+
+/**
+ * Removes features from a CNF by resolution while retaining the dependencies between all other features.<br> In contrast to the {@link FeatureRemover},
+ * clauses are sorted int arrays that are indexed by the occurrences of their literals. Resolvents are built in a reusable buffer and are only copied if
+ * they are no tautologies. Each new clause is checked for forward and backward subsumption, using a 64 bit signature of the literals of each clause as
+ * filter. Redundant clauses are only removed by subsumption, not by a satisfiability check.<br> Variables are eliminated in the manner of bounded
+ * variable elimination: first, each variable whose elimination does not increase the number of clauses by more than the {@link #setGrowthLimit(int)
+ * growth limit}, cheapest first. Afterwards, all remaining variables are eliminated, again cheapest first.<br> Clauses that do not share a removed
+ * variable (directly or transitively) are independent of each other. Thus, the clauses are partitioned into groups, which can be processed in parallel
+ * (see {@link #setParallelism(int)}). The results of all groups are merged by a final subsumption pass.
+ *
+ * @see FeatureRemover
+ */
+public class VariableEliminator implements LongRunningMethod<List<? extends Clause>> {
+
+	/**
+	 * Default value for {@link #setGrowthLimit(int)}. A variable is eliminated in the first phase if its elimination does not increase the number of
+	 * clauses.
+	 */
+	public static final int DEFAULT_GROWTH_LIMIT = 0;
+
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Node fmNode;
+
+	private final boolean includeBooleanValues;
+	private final boolean regularCNF;
+
+	private final Collection<String> dirtyFeatures;
+	private final Collection<String> cleanFeatures = new LinkedHashSet<>();
+
+	private Map<Object, Integer> idMap;
+	private String[] featureNameArray;
+	/**
+	 * The ids of all removed features are less than or equal to this value.
+	 */
+	private int dirtyCount;
+
+	/**
+	 * Maps global variable ids to the local ids of the group that is currently created.
+	 */
+	private int[] localIds;
+
+	private int growthLimit = DEFAULT_GROWTH_LIMIT;
+	private int parallelism = 1;
+
+	private volatile boolean canceled = false;
+
+	public VariableEliminator(Node cnf, Collection<String> features) {
+		this(cnf, features, true, false);
+	}
+
+	public VariableEliminator(Node cnf, Collection<String> dirtyFeatures, boolean includeBooleanValues, boolean regularCNF) {
+		fmNode = cnf;
+		this.dirtyFeatures = dirtyFeatures;
+		this.includeBooleanValues = includeBooleanValues;
+		this.regularCNF = regularCNF;
+	}
+
+	public int getGrowthLimit() {
+		return growthLimit;
+	}
+
+	/**
+	 * Sets how many clauses the elimination of a single variable may add in the first phase.
+	 *
+	 * @param growthLimit the number of additional clauses (default: {@link #DEFAULT_GROWTH_LIMIT})
+	 */
+	public void setGrowthLimit(int growthLimit) {
+		this.growthLimit = growthLimit;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads that eliminate independent groups of clauses.
+	 *
+	 * @param parallelism the number of threads (values less than 2 disable the parallel mode)
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public final Node createNewClauseList(Collection<? extends Clause> clauses) {
+		final int newClauseSize = clauses.size();
+		final Node[] newClauses;
+		if (includeBooleanValues) {
+			newClauses = new Node[newClauseSize + 3];
+
+			// Create clause that contains all clean features
+			final Node[] allLiterals = new Node[cleanFeatures.size() + 1];
+			int i = 0;
+			for (final String featureName : cleanFeatures) {
+				allLiterals[i++] = new Literal(featureName);
+			}
+			allLiterals[i] = new Literal(NodeCreator.varTrue);
+
+			newClauses[newClauseSize] = new Or(allLiterals);
+			if (regularCNF) {
+				newClauses[newClauseSize + 1] = new Or(new Literal(NodeCreator.varTrue, true));
+				newClauses[newClauseSize + 2] = new Or(new Literal(NodeCreator.varFalse, false));
+			} else {
+				newClauses[newClauseSize + 1] = new Literal(NodeCreator.varTrue, true);
+				newClauses[newClauseSize + 2] = new Literal(NodeCreator.varFalse, false);
+			}
+		} else {
+			newClauses = new Node[newClauseSize];
+		}
+		int j = 0;
+		for (final Clause newClause : clauses) {
+			final int[] newClauseLiterals = newClause.getLiterals();
+			final Literal[] literals = new Literal[newClauseLiterals.length];
+			for (int k = 0; k < literals.length; k++) {
+				final int child = newClauseLiterals[k];
+				literals[k] = new Literal(featureNameArray[Math.abs(child)], child > 0);
+			}
+			newClauses[j++] = new Or(literals);
+		}
+		return new And(newClauses);
+	}
+
+	@Override
+	public List<? extends Clause> execute(IMonitor monitor) {
+		canceled = false;
+		init();
+
+		final Node[] children = (fmNode instanceof And) ? fmNode.getChildren() : new Node[] { fmNode };
+		final List<int[]> clauses = new ArrayList<>(children.length);
+		final int[] marks = new int[featureNameArray.length];
+		for (final Node child : children) {
+			final int[] clause = getClause(child, marks);
+			if (clause != null) {
+				clauses.add(clause);
+			}
+		}
+
+		// Partition the clauses into groups that do not share any removed variable
+		final List<int[]> cleanClauses = new ArrayList<>();
+		final List<List<int[]>> groups = partition(clauses, cleanClauses);
+		monitor.setRemainingWork(groups.size() + 1);
+
+		localIds = new int[featureNameArray.length];
+		final List<Eliminator> eliminators = new ArrayList<>(groups.size());
+		for (final List<int[]> group : groups) {
+			eliminators.add(new Eliminator(group));
+		}
+		final List<List<int[]>> results = eliminate(eliminators, monitor);
+
+		// Merge all results and remove subsumed clauses
+		final List<int[]> mergedClauses = new ArrayList<>(cleanClauses);
+		for (final List<int[]> result : results) {
+			mergedClauses.addAll(result);
+		}
+		final List<int[]> remainingClauses = new Eliminator(mergedClauses).run(monitor);
+		localIds = null;
+		monitor.step();
+
+		final List<Clause> newClauseList = new ArrayList<>(remainingClauses.size());
+		for (final int[] clause : remainingClauses) {
+			newClauseList.add(new Clause(clause));
+		}
+		return newClauseList;
+	}
+
+	private void init() {
+		cleanFeatures.clear();
+		collectFeatures(fmNode);
+
+		featureNameArray = new String[cleanFeatures.size() + dirtyFeatures.size() + 1];
+		idMap = new HashMap<>(featureNameArray.length << 1);
+
+		int id = 1;
+		for (final String name : dirtyFeatures) {
+			if (!idMap.containsKey(name)) {
+				idMap.put(name, id);
+				featureNameArray[id] = name;
+				id++;
+			}
+		}
+		dirtyCount = id - 1;
+
+		cleanFeatures.removeAll(dirtyFeatures);
+
+		for (final String name : cleanFeatures) {
+			idMap.put(name, id);
+			featureNameArray[id] = name;
+			id++;
+		}
+		featureNameArray = Arrays.copyOf(featureNameArray, id);
+	}
+
+	private void collectFeatures(Node node) {
+		if (node instanceof Literal) {
+			final Object var = ((Literal) node).var;
+			if (var instanceof String) {
+				cleanFeatures.add((String) var);
+			}
+		} else {
+			for (final Node child : node.getChildren()) {
+				collectFeatures(child);
+			}
+		}
+	}
+
+	/**
+	 * Converts a clause of the CNF into a sorted array of literal ids. Removes the literals <b>True</b> and <b>False</b> as well as duplicate literals.
+	 *
+	 * @return the literal ids or {@code null} if the clause is a tautology
+	 */
+	@CheckForNull
+	private int[] getClause(Node andChild, int[] marks) {
+		final Node[] children = (andChild instanceof Or) ? andChild.getChildren() : new Node[] { andChild };
+		final int[] literals = new int[children.length];
+		int length = 0;
+		boolean valid = true;
+		for (final Node child : children) {
+			final Literal literal = (Literal) child;
+			if (literal.var.equals(NodeCreator.varTrue)) {
+				if (literal.positive) {
+					valid = false;
+					break;
+				}
+			} else if (literal.var.equals(NodeCreator.varFalse)) {
+				if (!literal.positive) {
+					valid = false;
+					break;
+				}
+			} else {
+				final int id = idMap.get(literal.var);
+				final int literalId = literal.positive ? id : -id;
+				final int mark = marks[id];
+				if (mark == -literalId) {
+					valid = false;
+					break;
+				} else if (mark == 0) {
+					marks[id] = literalId;
+					literals[length++] = literalId;
+				}
+			}
+		}
+		for (int i = 0; i < length; i++) {
+			marks[Math.abs(literals[i])] = 0;
+		}
+		if (!valid) {
+			return null;
+		}
+		if (length == 0) {
+			throw new RuntimeException("Model is void!");
+		}
+		final int[] clause = Arrays.copyOf(literals, length);
+		Arrays.sort(clause);
+		return clause;
+	}
+
+	/**
+	 * Partitions the clauses by their removed variables using a union-find structure. Clauses without removed variables are not part of any group.
+	 *
+	 * @return the groups, the largest group first
+	 */
+	private List<List<int[]>> partition(List<int[]> clauses, List<int[]> cleanClauses) {
+		final int[] parents = new int[dirtyCount + 1];
+		for (int i = 1; i <= dirtyCount; i++) {
+			parents[i] = i;
+		}
+		for (final int[] clause : clauses) {
+			int root = 0;
+			for (final int literal : clause) {
+				final int var = Math.abs(literal);
+				if (var <= dirtyCount) {
+					final int otherRoot = find(parents, var);
+					if (root == 0) {
+						root = otherRoot;
+					} else if (root != otherRoot) {
+						parents[otherRoot] = root;
+					}
+				}
+			}
+		}
+
+		final int[] groupIndex = new int[dirtyCount + 1];
+		final List<List<int[]>> groups = new ArrayList<>();
+		for (final int[] clause : clauses) {
+			int var = 0;
+			for (final int literal : clause) {
+				if (Math.abs(literal) <= dirtyCount) {
+					var = Math.abs(literal);
+					break;
+				}
+			}
+			if (var == 0) {
+				cleanClauses.add(clause);
+			} else {
+				final int root = find(parents, var);
+				if (groupIndex[root] == 0) {
+					groups.add(new ArrayList<int[]>());
+					groupIndex[root] = groups.size();
+				}
+				groups.get(groupIndex[root] - 1).add(clause);
+			}
+		}
+		Collections.sort(groups, new Comparator<List<int[]>>() {
+
+			@Override
+			public int compare(List<int[]> o1, List<int[]> o2) {
+				return o2.size() - o1.size();
+			}
+		});
+		return groups;
+	}
+
+	private static int find(int[] parents, int var) {
+		int root = var;
+		while (parents[root] != root) {
+			root = parents[root];
+		}
+		while (parents[var] != root) {
+			final int next = parents[var];
+			parents[var] = root;
+			var = next;
+		}
+		return root;
+	}
+
+	private List<List<int[]>> eliminate(final List<Eliminator> eliminators, IMonitor monitor) {
+		final List<List<int[]>> results = new ArrayList<>(Collections.<List<int[]>> nCopies(eliminators.size(), null));
+		final int workerCount = Math.min(parallelism, eliminators.size());
+		if (workerCount < 2) {
+			for (int i = 0; i < eliminators.size(); i++) {
+				results.set(i, eliminators.get(i).run(monitor));
+				eliminators.set(i, null);
+				monitor.step();
+			}
+			return results;
+		}
+
+		final AtomicInteger nextGroup = new AtomicInteger();
+		final AtomicInteger finishedGroups = new AtomicInteger();
+		final ForkJoinPool pool = new ForkJoinPool(workerCount);
+		boolean completed = false;
+		try {
+			final List<Future<?>> futures = new ArrayList<>(workerCount);
+			for (int i = 0; i < workerCount; i++) {
+				futures.add(pool.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						for (int group = nextGroup.getAndIncrement(); group < eliminators.size(); group = nextGroup.getAndIncrement()) {
+							final List<int[]> result = eliminators.get(group).run(null);
+							synchronized (results) {
+								results.set(group, result);
+								eliminators.set(group, null);
+							}
+							finishedGroups.incrementAndGet();
+						}
+						return null;
+					}
+				}));
+			}
+			int reportedGroups = 0;
+			for (final Future<?> future : futures) {
+				while (true) {
+					try {
+						future.get(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+						break;
+					} catch (final TimeoutException e) {
+						for (final int finished = finishedGroups.get(); reportedGroups < finished; reportedGroups++) {
+							monitor.step();
+						}
+						monitor.checkCancel();
+					}
+				}
+			}
+			for (; reportedGroups < eliminators.size(); reportedGroups++) {
+				monitor.step();
+			}
+			completed = true;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MethodCancelException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			// stops the remaining workers if the computation was canceled
+			if (!completed) {
+				nextGroup.set(eliminators.size());
+				canceled = true;
+			}
+			pool.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Eliminates all removed variables from one group of clauses. Uses local variable ids (starting with 1) to keep all arrays small.
+	 */
+	private final class Eliminator {
+
+		/**
+		 * Maps local variable ids to global ids.
+		 */
+		private final int[] variables;
+		private final boolean[] dirty;
+		private final boolean[] eliminated;
+		/**
+		 * The clauses of the group with local variable ids, which are added to the index when the elimination is started.
+		 */
+		private final List<int[]> localClauses;
+
+		/**
+		 * The clause with the id i or {@code null} if it was deleted.
+		 */
+		private int[][] clauses = new int[INITIAL_CAPACITY][];
+		private long[] signatures = new long[INITIAL_CAPACITY];
+		private int clauseCount = 0;
+
+		/**
+		 * The ids of all clauses containing a literal (index 2v for the positive and 2v+1 for the negative literal of the variable v). May contain deleted
+		 * clauses, which are removed lazily.
+		 */
+		private final int[][] occurrences;
+		private final int[] occurrenceCounts;
+
+		/**
+		 * The number of clauses that contain a removed and a remaining variable. If there are none, the remaining removed variables can be dropped
+		 * without resolution.
+		 */
+		private int mixedClauseCount = 0;
+		private boolean contradiction = false;
+
+		private int[] buffer = new int[INITIAL_CAPACITY];
+		private final int[] marks;
+
+		/**
+		 * Flat storage of all resolvents of the current variable.
+		 */
+		private int[] resolvents = new int[INITIAL_CAPACITY];
+		private int[] resolventOffsets = new int[INITIAL_CAPACITY];
+
+		private final int[] heap;
+		private final int[] heapPositions;
+		private int heapSize = 0;
+		private final long[] costs;
+
+		private final boolean[] touched;
+		private final int[] touchedVariables;
+		private int touchedCount = 0;
+
+		private Eliminator(List<int[]> initialClauses) {
+			int variableCount = 0;
+			for (final int[] clause : initialClauses) {
+				for (final int literal : clause) {
+					final int var = Math.abs(literal);
+					if (localIds[var] == 0) {
+						localIds[var] = ++variableCount;
+					}
+				}
+			}
+			variables = new int[variableCount + 1];
+			dirty = new boolean[variableCount + 1];
+			localClauses = new ArrayList<>(initialClauses.size());
+			for (final int[] clause : initialClauses) {
+				final int[] localClause = new int[clause.length];
+				for (int i = 0; i < clause.length; i++) {
+					final int literal = clause[i];
+					final int var = Math.abs(literal);
+					final int localVar = localIds[var];
+					variables[localVar] = var;
+					dirty[localVar] = var <= dirtyCount;
+					localClause[i] = literal > 0 ? localVar : -localVar;
+				}
+				Arrays.sort(localClause);
+				localClauses.add(localClause);
+			}
+			for (int i = 1; i <= variableCount; i++) {
+				localIds[variables[i]] = 0;
+			}
+
+			eliminated = new boolean[variableCount + 1];
+			occurrences = new int[(variableCount + 1) << 1][];
+			occurrenceCounts = new int[(variableCount + 1) << 1];
+			marks = new int[variableCount + 1];
+			heap = new int[variableCount];
+			heapPositions = new int[variableCount + 1];
+			Arrays.fill(heapPositions, -1);
+			costs = new long[variableCount + 1];
+			touched = new boolean[variableCount + 1];
+			touchedVariables = new int[variableCount];
+		}
+
+		private List<int[]> run(@CheckForNull IMonitor monitor) {
+			for (final int[] clause : localClauses) {
+				ensureBufferCapacity(clause.length);
+				System.arraycopy(clause, 0, buffer, 0, clause.length);
+				addClause(clause.length);
+			}
+			localClauses.clear();
+			touchedCount = 0;
+			Arrays.fill(touched, false);
+
+			for (int var = 1; var < variables.length; var++) {
+				if (dirty[var]) {
+					costs[var] = getCost(var);
+					heapInsert(var);
+				}
+			}
+			boolean bounded = true;
+			while (true) {
+				while ((heapSize > 0) && (mixedClauseCount > 0) && !contradiction) {
+					if (canceled) {
+						throw new MethodCancelException();
+					}
+					if (monitor != null) {
+						monitor.checkCancel();
+					}
+					if (eliminate(heapRemoveMin(), bounded)) {
+						updateTouchedVariables();
+					}
+				}
+				if (!bounded || (mixedClauseCount == 0) || contradiction) {
+					break;
+				}
+				// Eliminate all remaining variables
+				bounded = false;
+				for (int var = 1; var < variables.length; var++) {
+					if (dirty[var] && !eliminated[var]) {
+						costs[var] = getCost(var);
+						heapInsert(var);
+					}
+				}
+			}
+
+			final List<int[]> result = new ArrayList<>();
+			if (contradiction) {
+				result.add(new int[0]);
+				return result;
+			}
+			clauseLoop: for (int id = 0; id < clauseCount; id++) {
+				final int[] clause = clauses[id];
+				if (clause != null) {
+					final int[] globalClause = new int[clause.length];
+					for (int i = 0; i < clause.length; i++) {
+						final int literal = clause[i];
+						final int var = Math.abs(literal);
+						if (dirty[var]) {
+							continue clauseLoop;
+						}
+						globalClause[i] = literal > 0 ? variables[var] : -variables[var];
+					}
+					Arrays.sort(globalClause);
+					result.add(globalClause);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Eliminates a variable by replacing all clauses that contain it with their non-tautological resolvents.
+		 *
+		 * @param var the variable
+		 * @param bounded whether the elimination is only done if it does not add more than {@link VariableEliminator#growthLimit} clauses
+		 * @return {@code true} if the variable was eliminated
+		 */
+		private boolean eliminate(int var, boolean bounded) {
+			final int positiveIndex = var << 1;
+			final int negativeIndex = positiveIndex | 1;
+			final int positiveCount = compactOccurrences(positiveIndex);
+			final int negativeCount = compactOccurrences(negativeIndex);
+			final int[] positiveClauses = occurrences[positiveIndex];
+			final int[] negativeClauses = occurrences[negativeIndex];
+			final long limit = bounded ? (long) positiveCount + negativeCount + growthLimit : Long.MAX_VALUE;
+
+			int resolventCount = 0;
+			int resolventsLength = 0;
+			for (int i = 0; i < positiveCount; i++) {
+				final int[] positiveClause = clauses[positiveClauses[i]];
+				for (int j = 0; j < negativeCount; j++) {
+					final int length = resolve(positiveClause, clauses[negativeClauses[j]], var);
+					if (length >= 0) {
+						if (++resolventCount > limit) {
+							return false;
+						}
+						if (resolventCount >= resolventOffsets.length) {
+							resolventOffsets = Arrays.copyOf(resolventOffsets, resolventOffsets.length << 1);
+						}
+						if ((resolventsLength + length) > resolvents.length) {
+							resolvents = Arrays.copyOf(resolvents, Math.max(resolvents.length << 1, resolventsLength + length));
+						}
+						System.arraycopy(buffer, 0, resolvents, resolventsLength, length);
+						resolventsLength += length;
+						resolventOffsets[resolventCount] = resolventsLength;
+					}
+				}
+			}
+
+			eliminated[var] = true;
+			for (int i = 0; i < positiveCount; i++) {
+				deleteClause(positiveClauses[i]);
+			}
+			for (int i = 0; i < negativeCount; i++) {
+				deleteClause(negativeClauses[i]);
+			}
+			occurrences[positiveIndex] = null;
+			occurrences[negativeIndex] = null;
+			occurrenceCounts[positiveIndex] = 0;
+			occurrenceCounts[negativeIndex] = 0;
+
+			for (int i = 0; i < resolventCount; i++) {
+				final int offset = resolventOffsets[i];
+				final int length = resolventOffsets[i + 1] - offset;
+				ensureBufferCapacity(length);
+				System.arraycopy(resolvents, offset, buffer, 0, length);
+				addClause(length);
+			}
+			return true;
+		}
+
+		/**
+		 * Writes the resolvent of two clauses into the buffer.
+		 *
+		 * @return the length of the resolvent or -1 if it is a tautology
+		 */
+		private int resolve(int[] positiveClause, int[] negativeClause, int var) {
+			for (final int literal : positiveClause) {
+				marks[Math.abs(literal)] = literal;
+			}
+			boolean tautology = false;
+			for (final int literal : negativeClause) {
+				final int otherVar = Math.abs(literal);
+				if ((otherVar != var) && (marks[otherVar] == -literal)) {
+					tautology = true;
+					break;
+				}
+			}
+			for (final int literal : positiveClause) {
+				marks[Math.abs(literal)] = 0;
+			}
+			if (tautology) {
+				return -1;
+			}
+
+			ensureBufferCapacity(positiveClause.length + negativeClause.length);
+			int i = 0;
+			int j = 0;
+			int length = 0;
+			while ((i < positiveClause.length) && (j < negativeClause.length)) {
+				final int literal1 = positiveClause[i];
+				final int literal2 = negativeClause[j];
+				if (literal1 < literal2) {
+					if (literal1 != var) {
+						buffer[length++] = literal1;
+					}
+					i++;
+				} else if (literal1 > literal2) {
+					if (literal2 != -var) {
+						buffer[length++] = literal2;
+					}
+					j++;
+				} else {
+					buffer[length++] = literal1;
+					i++;
+					j++;
+				}
+			}
+			for (; i < positiveClause.length; i++) {
+				if (positiveClause[i] != var) {
+					buffer[length++] = positiveClause[i];
+				}
+			}
+			for (; j < negativeClause.length; j++) {
+				if (negativeClause[j] != -var) {
+					buffer[length++] = negativeClause[j];
+				}
+			}
+			return length;
+		}
+
+		/**
+		 * Adds the clause in the buffer, unless it is subsumed by an existing clause. Deletes all existing clauses that are subsumed by the new clause.
+		 *
+		 * @param length the length of the clause
+		 */
+		private void addClause(int length) {
+			if (length == 0) {
+				contradiction = true;
+				return;
+			}
+			long signature = 0;
+			for (int i = 0; i < length; i++) {
+				signature |= getSignature(buffer[i]);
+			}
+			if (isSubsumed(length, signature)) {
+				return;
+			}
+			removeSubsumed(length, signature);
+
+			if (clauseCount == clauses.length) {
+				clauses = Arrays.copyOf(clauses, clauseCount << 1);
+				signatures = Arrays.copyOf(signatures, clauseCount << 1);
+			}
+			final int id = clauseCount++;
+			final int[] clause = Arrays.copyOf(buffer, length);
+			clauses[id] = clause;
+			signatures[id] = signature;
+			for (final int literal : clause) {
+				final int index = getIndex(literal);
+				int[] list = occurrences[index];
+				if (list == null) {
+					list = new int[4];
+					occurrences[index] = list;
+				} else if (occurrenceCounts[index] == list.length) {
+					list = Arrays.copyOf(list, list.length << 1);
+					occurrences[index] = list;
+				}
+				list[occurrenceCounts[index]++] = id;
+				touch(Math.abs(literal));
+			}
+			if (isMixed(clause)) {
+				mixedClauseCount++;
+			}
+		}
+
+		/**
+		 * Forward subsumption. A subsuming clause is only checked in the occurrence list of its first literal.
+		 */
+		private boolean isSubsumed(int length, long signature) {
+			for (int i = 0; i < length; i++) {
+				final int literal = buffer[i];
+				final int index = getIndex(literal);
+				final int count = compactOccurrences(index);
+				final int[] list = occurrences[index];
+				for (int k = 0; k < count; k++) {
+					final int id = list[k];
+					final int[] clause = clauses[id];
+					if ((clause[0] == literal) && (clause.length <= length) && ((signatures[id] & ~signature) == 0)
+						&& isSubset(clause, clause.length, buffer, length)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Backward subsumption. Each subsumed clause contains the literal of the new clause with the fewest occurrences.
+		 */
+		private void removeSubsumed(int length, long signature) {
+			int minIndex = -1;
+			int minCount = Integer.MAX_VALUE;
+			for (int i = 0; i < length; i++) {
+				final int index = getIndex(buffer[i]);
+				final int count = compactOccurrences(index);
+				if (count < minCount) {
+					minCount = count;
+					minIndex = index;
+				}
+			}
+			final int[] list = occurrences[minIndex];
+			for (int k = 0; k < minCount; k++) {
+				final int id = list[k];
+				final int[] clause = clauses[id];
+				if ((clause != null) && (clause.length >= length) && ((signature & ~signatures[id]) == 0) && isSubset(buffer, length, clause, clause.length)) {
+					deleteClause(id);
+				}
+			}
+		}
+
+		private boolean isSubset(int[] subset, int subsetLength, int[] superset, int supersetLength) {
+			int j = 0;
+			for (int i = 0; i < subsetLength; i++) {
+				final int literal = subset[i];
+				while ((j < supersetLength) && (superset[j] < literal)) {
+					j++;
+				}
+				if ((j == supersetLength) || (superset[j] != literal)) {
+					return false;
+				}
+				j++;
+			}
+			return true;
+		}
+
+		private void deleteClause(int id) {
+			final int[] clause = clauses[id];
+			if (clause != null) {
+				clauses[id] = null;
+				if (isMixed(clause)) {
+					mixedClauseCount--;
+				}
+				for (final int literal : clause) {
+					touch(Math.abs(literal));
+				}
+			}
+		}
+
+		/**
+		 * Removes deleted clauses from an occurrence list.
+		 *
+		 * @return the number of remaining clauses
+		 */
+		private int compactOccurrences(int index) {
+			final int[] list = occurrences[index];
+			final int count = occurrenceCounts[index];
+			int newCount = 0;
+			for (int k = 0; k < count; k++) {
+				final int id = list[k];
+				if (clauses[id] != null) {
+					list[newCount++] = id;
+				}
+			}
+			occurrenceCounts[index] = newCount;
+			return newCount;
+		}
+
+		private boolean isMixed(int[] clause) {
+			boolean containsDirty = false;
+			boolean containsClean = false;
+			for (final int literal : clause) {
+				if (dirty[Math.abs(literal)]) {
+					containsDirty = true;
+				} else {
+					containsClean = true;
+				}
+			}
+			return containsDirty && containsClean;
+		}
+
+		/**
+		 * The number of clauses that the elimination of the variable adds at most.
+		 */
+		private long getCost(int var) {
+			final long positiveCount = compactOccurrences(var << 1);
+			final long negativeCount = compactOccurrences((var << 1) | 1);
+			return (positiveCount * negativeCount) - positiveCount - negativeCount;
+		}
+
+		private void touch(int var) {
+			if (dirty[var] && !eliminated[var] && !touched[var]) {
+				touched[var] = true;
+				touchedVariables[touchedCount++] = var;
+			}
+		}
+
+		/**
+		 * Updates the costs of all touched variables. Variables that were skipped before are considered again.
+		 */
+		private void updateTouchedVariables() {
+			for (int i = 0; i < touchedCount; i++) {
+				final int var = touchedVariables[i];
+				touched[var] = false;
+				if (!eliminated[var]) {
+					costs[var] = getCost(var);
+					if (heapPositions[var] < 0) {
+						heapInsert(var);
+					} else {
+						siftUp(heapPositions[var]);
+						siftDown(heapPositions[var]);
+					}
+				}
+			}
+			touchedCount = 0;
+		}
+
+		private void heapInsert(int var) {
+			heap[heapSize] = var;
+			heapPositions[var] = heapSize;
+			siftUp(heapSize++);
+		}
+
+		private int heapRemoveMin() {
+			final int var = heap[0];
+			heapPositions[var] = -1;
+			if (--heapSize > 0) {
+				heap[0] = heap[heapSize];
+				heapPositions[heap[0]] = 0;
+				siftDown(0);
+			}
+			return var;
+		}
+
+		private void siftUp(int position) {
+			final int var = heap[position];
+			while (position > 0) {
+				final int parentPosition = (position - 1) >>> 1;
+				final int parent = heap[parentPosition];
+				if (costs[parent] <= costs[var]) {
+					break;
+				}
+				heap[position] = parent;
+				heapPositions[parent] = position;
+				position = parentPosition;
+			}
+			heap[position] = var;
+			heapPositions[var] = position;
+		}
+
+		private void siftDown(int position) {
+			final int var = heap[position];
+			while (true) {
+				int childPosition = (position << 1) + 1;
+				if (childPosition >= heapSize) {
+					break;
+				}
+				if (((childPosition + 1) < heapSize) && (costs[heap[childPosition + 1]] < costs[heap[childPosition]])) {
+					childPosition++;
+				}
+				final int child = heap[childPosition];
+				if (costs[var] <= costs[child]) {
+					break;
+				}
+				heap[position] = child;
+				heapPositions[child] = position;
+				position = childPosition;
+			}
+			heap[position] = var;
+			heapPositions[var] = position;
+		}
+
+		private void ensureBufferCapacity(int length) {
+			if (buffer.length < length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, length));
+			}
+		}
+
+	}
+
+	private static int getIndex(int literal) {
+		return literal > 0 ? literal << 1 : ((-literal) << 1) | 1;
+	}
+
+	private static long getSignature(int literal) {
+		return 1L << (getIndex(literal) & 63);
+	}
+
+}
@@ -0,0 +1,398 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.prop4j.Node;
+import org.prop4j.explain.solvers.MusExtractor;
+import org.prop4j.explain.solvers.SatSolverFactory;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.FeatureModelToNodeTraceModel;
+import de.ovgu.featureide.fm.core.editing.NodeCreator;
+import de.ovgu.featureide.fm.core.explanations.Explanation;
+import de.ovgu.featureide.fm.core.explanations.fm.DeadFeatureExplanation;
+import de.ovgu.featureide.fm.core.explanations.fm.FalseOptionalFeatureExplanation;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelReason;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+
+/**
+ * Creates explanations for many defects of the same feature model at once using {@link MusExtractor MUS extractors}.</br> The CNF of the feature model is
+ * created only once. The defects are distributed among several workers. Each worker loads the CNF into its own oracle once and reuses it for all of its
+ * defects. The clauses of all minimal unsatisfiable subsets (MUS) found so far are shared between the workers. If these clauses together with the clauses
+ * of the affected features already explain a defect, the MUS is extracted from this small subset instead of the complete CNF.
+ *
+ * @see MusDeadFeatureExplanationCreator
+ * @see MusFalseOptionalFeatureExplanationCreator
+ * @see MusRedundantConstraintExplanationCreator
+ */
+public class MusBatchExplanationCreator {
+
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+
+	/**
+	 * The shared clauses are only used as long as they are at most this fraction of the CNF. Otherwise, the complete oracle is faster.
+	 */
+	private static final int MAX_SEED_FRACTION = 4;
+
+	private static enum Type {
+		DEAD, FALSE_OPTIONAL, REDUNDANT
+	}
+
+	private static final class Task {
+
+		private final Type type;
+		private final IFeatureModelElement subject;
+
+		private Task(Type type, IFeatureModelElement subject) {
+			this.type = type;
+			this.subject = subject;
+		}
+
+	}
+
+	private final IFeatureModel fm;
+	private final int parallelism;
+
+	/**
+	 * The distinct clauses of the CNF. Each oracle contains these clauses in this order.
+	 */
+	private final List<Node> clauses = new ArrayList<>();
+	/**
+	 * For each clause the index of its trace in {@link #traceModel}.
+	 */
+	private final List<Integer> traceIndexes = new ArrayList<>();
+	/**
+	 * For each variable the indexes of the clauses that contain it.
+	 */
+	private final Map<Object, List<Integer>> variableClauses = new HashMap<>();
+	private final FeatureModelToNodeTraceModel traceModel;
+
+	/**
+	 * The clauses of all MUSes found so far.
+	 */
+	private final Set<Integer> seedClauses = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+	private final AtomicInteger seededExplanations = new AtomicInteger();
+
+	/**
+	 * @param fm the feature model
+	 * @param parallelism the number of workers (values less than 1 are treated as 1)
+	 */
+	public MusBatchExplanationCreator(IFeatureModel fm, int parallelism) {
+		this.fm = fm;
+		this.parallelism = Math.max(1, parallelism);
+
+		final AdvancedNodeCreator nc = new AdvancedNodeCreator(fm);
+		nc.setIncludeBooleanValues(false);
+		nc.setCnfType(CNFType.Regular);
+		nc.setRecordTraceModel(true);
+		final Node[] cnfClauses = nc.createNodes().getChildren();
+		traceModel = nc.getTraceModel();
+
+		final Set<Node> knownClauses = new HashSet<>();
+		for (int i = 0; i < cnfClauses.length; i++) {
+			for (final Node clause : cnfClauses[i].toRegularCNF().getChildren()) {
+				if (knownClauses.add(clause)) {
+					final int clauseIndex = clauses.size();
+					clauses.add(clause);
+					traceIndexes.add(i);
+					for (final Object variable : clause.getUniqueVariables()) {
+						List<Integer> list = variableClauses.get(variable);
+						if (list == null) {
+							list = new ArrayList<>();
+							variableClauses.put(variable, list);
+						}
+						list.add(clauseIndex);
+					}
+				}
+			}
+		}
+	}
+
+	public IFeatureModel getFeatureModel() {
+		return fm;
+	}
+
+	/**
+	 * @return the number of explanations that were extracted from the shared clauses of previous explanations instead of the complete CNF
+	 */
+	public int getNumberOfSeededExplanations() {
+		return seededExplanations.get();
+	}
+
+	/**
+	 * Creates the explanations for all given defects.
+	 *
+	 * @param deadFeatures dead features
+	 * @param falseOptionalFeatures false-optional features
+	 * @param redundantConstraints redundant constraints
+	 * @param monitor the monitor
+	 * @return the explanation for each given element in the order of the arguments; the value is {@code null} if the element cannot be explained
+	 */
+	public Map<IFeatureModelElement, Explanation> getExplanations(Collection<IFeature> deadFeatures, Collection<IFeature> falseOptionalFeatures,
+			Collection<IConstraint> redundantConstraints, final IMonitor monitor) {
+		final List<Task> tasks = new ArrayList<>();
+		for (final IFeature feature : deadFeatures) {
+			tasks.add(new Task(Type.DEAD, feature));
+		}
+		for (final IFeature feature : falseOptionalFeatures) {
+			tasks.add(new Task(Type.FALSE_OPTIONAL, feature));
+		}
+		for (final IConstraint constraint : redundantConstraints) {
+			tasks.add(new Task(Type.REDUNDANT, constraint));
+		}
+		monitor.setRemainingWork(tasks.size());
+
+		final AtomicInteger nextTask = new AtomicInteger();
+		final AtomicInteger finishedTasks = new AtomicInteger();
+		final Map<IFeatureModelElement, Explanation> results = new HashMap<>();
+		final int workerCount = Math.min(parallelism, tasks.size());
+		if (workerCount <= 1) {
+			final Worker worker = new Worker(tasks, nextTask, finishedTasks) {
+
+				@Override
+				protected void finished() {
+					monitor.step();
+				}
+			};
+			worker.call();
+			results.putAll(worker.results);
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(workerCount);
+			try {
+				final List<Future<Map<IFeatureModelElement, Explanation>>> futures = new ArrayList<>(workerCount);
+				for (int i = 0; i < workerCount; i++) {
+					final Worker worker = new Worker(tasks, nextTask, finishedTasks);
+					futures.add(pool.submit(new Callable<Map<IFeatureModelElement, Explanation>>() {
+
+						@Override
+						public Map<IFeatureModelElement, Explanation> call() {
+							worker.call();
+							return worker.results;
+						}
+					}));
+				}
+				int reportedTasks = 0;
+				for (final Future<Map<IFeatureModelElement, Explanation>> future : futures) {
+					while (true) {
+						try {
+							results.putAll(future.get(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS));
+							break;
+						} catch (final TimeoutException e) {
+							for (final int finished = finishedTasks.get(); reportedTasks < finished; reportedTasks++) {
+								monitor.step();
+							}
+							monitor.checkCancel();
+						}
+					}
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MethodCancelException();
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new RuntimeException(cause);
+			} finally {
+				// stops the remaining workers if the computation was canceled
+				nextTask.set(tasks.size());
+				pool.shutdownNow();
+			}
+		}
+
+		final Map<IFeatureModelElement, Explanation> orderedResults = new LinkedHashMap<>();
+		for (final Task task : tasks) {
+			orderedResults.put(task.subject, results.get(task.subject));
+		}
+		return orderedResults;
+	}
+
+	/**
+	 * Processes tasks until there are no more tasks. Keeps its oracles for all of its tasks.
+	 */
+	private class Worker {
+
+		private final List<Task> tasks;
+		private final AtomicInteger nextTask;
+		private final AtomicInteger finishedTasks;
+		private final Map<IFeatureModelElement, Explanation> results = new HashMap<>();
+
+		private MusExtractor oracle = null;
+		private MusRedundantConstraintExplanationCreator redundantConstraintExplanationCreator = null;
+
+		private Worker(List<Task> tasks, AtomicInteger nextTask, AtomicInteger finishedTasks) {
+			this.tasks = tasks;
+			this.nextTask = nextTask;
+			this.finishedTasks = finishedTasks;
+		}
+
+		private void call() {
+			for (int i = nextTask.getAndIncrement(); i < tasks.size(); i = nextTask.getAndIncrement()) {
+				final Task task = tasks.get(i);
+				results.put(task.subject, explain(task));
+				finishedTasks.incrementAndGet();
+				finished();
+			}
+		}
+
+		protected void finished() {}
+
+		private Explanation explain(Task task) {
+			switch (task.type) {
+			case DEAD:
+				final IFeature deadFeature = (IFeature) task.subject;
+				final Map<Object, Boolean> deadAssumptions = new LinkedHashMap<>();
+				deadAssumptions.put(NodeCreator.getVariable(deadFeature), true);
+				return createExplanation(new DeadFeatureExplanation(deadFeature), getMinimalUnsatisfiableSubset(deadAssumptions));
+			case FALSE_OPTIONAL:
+				final IFeature falseOptionalFeature = (IFeature) task.subject;
+				final Map<Object, Boolean> falseOptionalAssumptions = new LinkedHashMap<>();
+				falseOptionalAssumptions.put(NodeCreator.getVariable(falseOptionalFeature), false);
+				falseOptionalAssumptions.put(NodeCreator.getVariable(FeatureUtils.getParent(falseOptionalFeature)), true);
+				return createExplanation(new FalseOptionalFeatureExplanation(falseOptionalFeature), getMinimalUnsatisfiableSubset(falseOptionalAssumptions));
+			case REDUNDANT:
+				if (redundantConstraintExplanationCreator == null) {
+					redundantConstraintExplanationCreator = new MusRedundantConstraintExplanationCreator();
+					redundantConstraintExplanationCreator.setFeatureModel(fm);
+				}
+				redundantConstraintExplanationCreator.setSubject(task.subject);
+				try {
+					return redundantConstraintExplanationCreator.getExplanation();
+				} catch (final IllegalStateException e) {
+					// the constraint is not redundant
+					return null;
+				}
+			default:
+				return null;
+			}
+		}
+
+		/**
+		 * @return the indexes of the clauses of a MUS of the CNF under the given assumptions or {@code null} if the CNF is satisfiable
+		 */
+		private Set<Integer> getMinimalUnsatisfiableSubset(Map<Object, Boolean> assumptions) {
+			Set<Integer> mus = getMinimalUnsatisfiableSubsetFromSeeds(assumptions);
+			if (mus == null) {
+				if (oracle == null) {
+					oracle = createOracle(clauses);
+				}
+				oracle.push();
+				try {
+					oracle.addAssumptions(assumptions);
+					if (oracle.isSatisfiable()) {
+						return null;
+					}
+					mus = oracle.getMinimalUnsatisfiableSubsetIndexes();
+				} finally {
+					oracle.pop();
+				}
+			}
+			seedClauses.addAll(mus);
+			return mus;
+		}
+
+		/**
+		 * Tries to find a MUS within the clauses of previous MUSes and the clauses that contain the assumed variables. A MUS of a subset of the CNF is also a
+		 * MUS of the CNF.
+		 *
+		 * @return the indexes of the clauses of a MUS or {@code null} if the subset is too large or satisfiable
+		 */
+		private Set<Integer> getMinimalUnsatisfiableSubsetFromSeeds(Map<Object, Boolean> assumptions) {
+			if (seedClauses.isEmpty()) {
+				return null;
+			}
+			final Set<Integer> subset = new TreeSet<>(seedClauses);
+			for (final Object variable : assumptions.keySet()) {
+				final List<Integer> list = variableClauses.get(variable);
+				if (list != null) {
+					subset.addAll(list);
+				}
+			}
+			if ((subset.size() * MAX_SEED_FRACTION) > clauses.size()) {
+				return null;
+			}
+			final List<Integer> indexes = new ArrayList<>(subset);
+			final List<Node> subsetClauses = new ArrayList<>(indexes.size());
+			for (final Integer index : indexes) {
+				subsetClauses.add(clauses.get(index));
+			}
+			final MusExtractor subsetOracle = createOracle(subsetClauses);
+			subsetOracle.addAssumptions(assumptions);
+			if (subsetOracle.isSatisfiable()) {
+				return null;
+			}
+			final Set<Integer> mus = new LinkedHashSet<>();
+			for (final Integer index : subsetOracle.getMinimalUnsatisfiableSubsetIndexes()) {
+				mus.add(indexes.get(index));
+			}
+			seededExplanations.incrementAndGet();
+			return mus;
+		}
+
+	}
+
+	private static MusExtractor createOracle(List<Node> clauses) {
+		final MusExtractor oracle = SatSolverFactory.getDefault().getMusExtractor();
+		for (final Node clause : clauses) {
+			oracle.addFormula(clause);
+		}
+		return oracle;
+	}
+
+	private Explanation createExplanation(Explanation explanation, Set<Integer> clauseIndexes) {
+		if (clauseIndexes == null) {
+			return null;
+		}
+		for (final Integer clauseIndex : clauseIndexes) {
+			explanation.addReason(new FeatureModelReason(traceModel.getTrace(traceIndexes.get(clauseIndex))));
+		}
+		return explanation;
+	}
+
+}
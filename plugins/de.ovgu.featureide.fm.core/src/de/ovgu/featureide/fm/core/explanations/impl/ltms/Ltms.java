@@ -21,11 +21,8 @@
 package de.ovgu.featureide.fm.core.explanations.impl.ltms;
 
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -43,55 +40,83 @@ import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelExplanationCreator
  * for managing logical implications. BCP expects two parameters: initial truth values (premises) and a propositional formula in CNF (conjunctive normal form).
  * </p>
  *
+ * <p> The clauses are stored as arrays of literals (positive or negative variable indexes). The first two literals of each clause are watched. A clause is
+ * only visited when one of its watched literals becomes false. All assignments are recorded on a trail, so that derived truth values and premises can be
+ * retracted without touching the rest of the state. Thus, one instance can be reused for many calls of {@link #getExplanations()}. </p>
+ *
  * @author Sofia Ananieva
  * @author Timo G&uuml;nther
  * @see {@link FeatureModelExplanationCreator} for using the LTMS with feature models
  */
 public class Ltms {
 
+	private static final byte UNKNOWN = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = -1;
+
+	/**
+	 * Reason of a variable whose truth value is not derived.
+	 */
+	private static final int NO_REASON = -1;
+
+	/**
+	 * Variables mapped to their indexes. Variable indexes start at 1.
+	 */
+	private final Map<Object, Integer> variableIndexes = new HashMap<>();
 	/**
-	 * A feature model transformed into a propositional formula in conjunctive normal form for easier reasoning.
+	 * The clauses of the conjunctive normal form. Each literal is the index of its variable, negated if the literal is negative. The first two literals are
+	 * watched.
 	 */
-	private final Node cnf;
+	private final int[][] clauses;
 	/**
-	 * Nodes mapped to the literals they contain. Redundant map for the sake of performance.
+	 * For each literal (see {@link #getWatchIndex(int)}) the indexes of the clauses watching it.
 	 */
-	private final Map<Node, Set<Literal>> clauseLiterals = new LinkedHashMap<>();
+	private final int[][] watches;
+	private final int[] watchCounts;
 	/**
-	 * Variables mapped to the clauses they are contained in. Redundant map for the sake of performance.
+	 * The indexes of all clauses with exactly one literal.
 	 */
-	private final Map<Object, Set<Node>> variableClauses = new LinkedHashMap<>();
+	private final int[] unitClauses;
+	/**
+	 * The index of the first clause without any literals or -1 if there is no such clause.
+	 */
+	private final int emptyClause;
+
 	/**
 	 * The truth value assignments that are initially set and not derived.
 	 */
 	private final Map<Object, Boolean> premises = new LinkedHashMap<>();
 	/**
-	 * The truth value assignments of the variables. If the truth value is true, all positive literals containing the variable evaluate to true and negated ones
-	 * to false. If the truth value is false, all positive literals containing the variable evaluate to false and negated ones to true. If the variable is not
-	 * contained in this map, its truth value is considered unknown.
+	 * The truth value of each variable.
 	 */
-	private final Map<Object, Boolean> variableValues = new LinkedHashMap<>();
+	private final byte[] variableValues;
 	/**
-	 * The reason for a derived truth value, represented by a node (which is clause in CNF). The literals of this clause are the antecedents of the variable.
-	 * The antecedents are the literals whose values were referenced when deriving a new truth value.
+	 * The index of the clause from which the truth value of each variable was derived. The literals of this clause are the antecedents of the variable.
 	 */
-	private final Map<Object, Node> reasons = new LinkedHashMap<>();
+	private final int[] reasons;
 	/**
-	 * The stack to collect unit-open clauses.
+	 * All assigned literals in the order of their assignment.
+	 */
+	private final int[] trail;
+	private int trailSize = 0;
+	/**
+	 * The number of literals on the trail that are premises.
 	 */
-	private final Deque<Node> unitOpenClauses = new LinkedList<>();
+	private int premiseCount = 0;
+
 	/**
-	 * The clause that was violated during the most recent contradiction check.
+	 * The stack to collect unit-open clauses.
 	 */
-	private Node violatedClause;
+	private int[] unitOpenClauses;
+	private int unitOpenClauseCount = 0;
 	/**
-	 * The clause containing the derived literal.
+	 * Whether a clause is currently on the stack of unit-open clauses.
 	 */
-	private Node derivedClause;
+	private final boolean[] pending;
 	/**
-	 * The literal whose truth value was derived during the most recent propagation.
+	 * Marks visited variables while computing an explanation.
 	 */
-	private Literal derivedLiteral;
+	private final boolean[] visited;
 
 	/**
 	 * Constructs a new instance of this class.
@@ -99,32 +124,51 @@ public class Ltms {
 	 * @param cnf the conjunctive normal form of the feature model
 	 */
 	public Ltms(Node cnf) {
-		this.cnf = cnf;
-		setClauseLiterals();
-		setVariableClauses();
-	}
-
-	/**
-	 * Sets the map from CNF clauses to the literals they contain.
-	 */
-	private void setClauseLiterals() {
-		for (final Node cnfClause : cnf.getChildren()) {
-			clauseLiterals.put(cnfClause, cnfClause.getUniqueLiterals());
+		final Node[] cnfClauses = cnf.getChildren();
+		clauses = new int[cnfClauses.length][];
+		int unitClauseCount = 0;
+		int emptyClause = -1;
+		for (int i = 0; i < cnfClauses.length; i++) {
+			final Set<Literal> literals = cnfClauses[i].getUniqueLiterals();
+			final int[] clause = new int[literals.size()];
+			int j = 0;
+			for (final Literal literal : literals) {
+				Integer variable = variableIndexes.get(literal.var);
+				if (variable == null) {
+					variable = variableIndexes.size() + 1;
+					variableIndexes.put(literal.var, variable);
+				}
+				clause[j++] = literal.positive ? variable : -variable;
+			}
+			clauses[i] = clause;
+			if (clause.length == 1) {
+				unitClauseCount++;
+			} else if ((clause.length == 0) && (emptyClause < 0)) {
+				emptyClause = i;
+			}
 		}
-	}
+		this.emptyClause = emptyClause;
 
-	/**
-	 * Sets the map from variables to the CNF clauses containing them.
-	 */
-	private void setVariableClauses() {
-		for (final Node cnfClause : cnf.getChildren()) {
-			for (final Literal literal : clauseLiterals.get(cnfClause)) {
-				Set<Node> clauses = variableClauses.get(literal.var);
-				if (clauses == null) {
-					clauses = new LinkedHashSet<>();
-					variableClauses.put(literal.var, clauses);
-				}
-				clauses.add(cnfClause);
+		final int variableCount = variableIndexes.size() + 1;
+		variableValues = new byte[variableCount];
+		reasons = new int[variableCount];
+		Arrays.fill(reasons, NO_REASON);
+		trail = new int[variableCount];
+		visited = new boolean[variableCount];
+		pending = new boolean[clauses.length];
+		unitOpenClauses = new int[Math.max(16, unitClauseCount)];
+
+		watches = new int[2 * variableCount][];
+		watchCounts = new int[2 * variableCount];
+		unitClauses = new int[unitClauseCount];
+		unitClauseCount = 0;
+		for (int i = 0; i < clauses.length; i++) {
+			final int[] clause = clauses[i];
+			if (clause.length == 1) {
+				unitClauses[unitClauseCount++] = i;
+			}
+			for (int j = 0; j < Math.min(2, clause.length); j++) {
+				addWatch(clause[j], i);
 			}
 		}
 	}
@@ -173,242 +217,236 @@ public class Ltms {
 	 * @return multiple explanations why the premises lead to a contradiction in the conjunctive normal form
 	 */
 	public List<Set<Integer>> getExplanations() {
-		reset();
+		undo(0);
+		clearUnitOpenClauses();
 		final List<Set<Integer>> explanations = new LinkedList<>();
-		if (isContradicted()) { // If the initial truth values already lead to a contradiction...
-			explanations.add(getContradictionExplanation()); // ... explain immediately.
+		if (emptyClause >= 0) { // An empty clause is always violated.
+			explanations.add(getContradictionExplanation(emptyClause));
 			return explanations;
 		}
-		unitOpenClauses.clear();
-		pushUnitOpenClauses(); // Start iterating over the first unit-open clauses using the initial truth value assumptions.
-		while (!unitOpenClauses.isEmpty()) {
-			derivedClause = unitOpenClauses.removeLast();
-			derivedLiteral = getUnboundLiteral(derivedClause);
-			if (derivedLiteral == null) { // not actually unit-open
+
+		// Set the premises and collect the clauses they make unit-open.
+		for (final Entry<Object, Boolean> premise : premises.entrySet()) {
+			final Integer variable = variableIndexes.get(premise.getKey());
+			if ((variable != null) && (variableValues[variable] == UNKNOWN)) {
+				assign(premise.getValue() ? variable : -variable, NO_REASON);
+			}
+		}
+		premiseCount = trailSize;
+		for (final int unitClause : unitClauses) {
+			pushUnitOpenClause(unitClause);
+		}
+		for (int i = 0; i < premiseCount; i++) {
+			final int violatedClause = propagate(trail[i]);
+			if (violatedClause >= 0) { // If the initial truth values already lead to a contradiction...
+				explanations.add(getContradictionExplanation(violatedClause)); // ... explain immediately.
+				return explanations;
+			}
+		}
+
+		while (unitOpenClauseCount > 0) {
+			final int derivedClause = unitOpenClauses[--unitOpenClauseCount];
+			pending[derivedClause] = false;
+			final int derivedLiteral = getUnboundLiteral(derivedClause);
+			if (derivedLiteral == 0) { // not actually unit-open
 				continue;
 			}
-			propagate(); // Propagate the truth values by deriving a new truth value.
-			pushUnitOpenClauses();
-			if (isContradicted()) { // If the propagation lead to a contradiction...
-				explanations.add(getContradictionExplanation()); // ... explain the reason for the contradiction.
+			assign(derivedLiteral, derivedClause); // Propagate the truth values by deriving a new truth value.
+			final int violatedClause = propagate(derivedLiteral);
+			if (violatedClause >= 0) { // If the propagation lead to a contradiction...
+				explanations.add(getContradictionExplanation(violatedClause)); // ... explain the reason for the contradiction.
 				/*
 				 * At this point, the found explanation could already be returned. Instead, keep generating new explanations as there might be a shorter one
-				 * among them. To this end, reset the derived truth values (but not the premises) and keep iterating.
+				 * among them. To this end, retract the derived truth values (but not the premises) and keep iterating.
 				 */
-				reset();
+				undo(premiseCount);
 			}
 		}
 		return explanations;
 	}
 
 	/**
-	 * Clears the internal state for a new explanation. Adds the premises to the variable values.
-	 */
-	private void reset() {
-		variableValues.clear();
-		reasons.clear();
-		derivedLiteral = null;
-		variableValues.putAll(premises);
-	}
-
-	/**
-	 * Pushes the unit-open clauses to stack.
+	 * Assigns the given literal to true and records it on the trail.
+	 *
+	 * @param literal literal to satisfy
+	 * @param reason index of the clause from which the literal was derived
 	 */
-	private void pushUnitOpenClauses() {
-		unitOpenClauses.addAll(getUnitOpenClauses());
+	private void assign(int literal, int reason) {
+		final int variable = Math.abs(literal);
+		variableValues[variable] = literal > 0 ? TRUE : FALSE;
+		reasons[variable] = reason;
+		trail[trailSize++] = literal;
 	}
 
 	/**
-	 * Returns the unit-open clauses.
+	 * Retracts all assignments on the trail above the given size. The watched literals stay valid.
 	 *
-	 * @return the unit-open clauses
+	 * @param size the new size of the trail
 	 */
-	private Set<Node> getUnitOpenClauses() {
-		final Collection<Node> dirtyClauses = derivedLiteral == null ? Arrays.asList(cnf.getChildren()) : variableClauses.get(derivedLiteral.var);
-		final Set<Node> unitOpenClauses = new LinkedHashSet<>();
-		for (final Node dirtyClause : dirtyClauses) {
-			if (isUnitOpenClause(dirtyClause)) {
-				unitOpenClauses.add(dirtyClause);
-			}
+	private void undo(int size) {
+		while (trailSize > size) {
+			final int variable = Math.abs(trail[--trailSize]);
+			variableValues[variable] = UNKNOWN;
+			reasons[variable] = NO_REASON;
+		}
+		if (premiseCount > size) {
+			premiseCount = size;
 		}
-		return unitOpenClauses;
 	}
 
 	/**
-	 * Returns true iff the given clause is unit-open. A CNF clause is unit-open iff one of the contained literals evaluates to unknown and all others to false.
+	 * Visits all clauses watching the negation of the given (now true) literal. Moves the watch to another literal that is not false if possible. Otherwise,
+	 * the clause is either unit-open, satisfied, or violated.
 	 *
-	 * @param cnfClause clause in conjunctive normal form
-	 * @return true iff the given clause is unit-open
+	 * @param literal literal that became true
+	 * @return the index of a violated clause or -1 if there is no contradiction
 	 */
-	private boolean isUnitOpenClause(Node cnfClause) {
-		return getUnboundLiteral(cnfClause) != null;
+	private int propagate(int literal) {
+		final int falseLiteral = -literal;
+		final int watchIndex = getWatchIndex(falseLiteral);
+		final int[] clauseIndexes = watches[watchIndex];
+		int count = watchCounts[watchIndex];
+		for (int i = 0; i < count;) {
+			final int clauseIndex = clauseIndexes[i];
+			final int[] clause = clauses[clauseIndex];
+			if (clause.length == 1) {
+				return clauseIndex;
+			}
+			if (clause[0] == falseLiteral) {
+				clause[0] = clause[1];
+				clause[1] = falseLiteral;
+			}
+			final int otherWatch = clause[0];
+			if (getValue(otherWatch) == TRUE) { // satisfied
+				i++;
+				continue;
+			}
+			boolean moved = false;
+			for (int j = 2; j < clause.length; j++) {
+				if (getValue(clause[j]) != FALSE) {
+					clause[1] = clause[j];
+					clause[j] = falseLiteral;
+					addWatch(clause[1], clauseIndex);
+					clauseIndexes[i] = clauseIndexes[--count];
+					moved = true;
+					break;
+				}
+			}
+			if (moved) {
+				continue;
+			}
+			i++;
+			if (getValue(otherWatch) == UNKNOWN) {
+				pushUnitOpenClause(clauseIndex);
+			} else {
+				watchCounts[watchIndex] = count;
+				return clauseIndex;
+			}
+		}
+		watchCounts[watchIndex] = count;
+		return -1;
 	}
 
 	/**
-	 * Returns the unbound literal in the given clause or null if no such literal exists. A literal is unbound iff it evaluates to unknown while all other
+	 * Returns the unbound literal in the given clause or 0 if no such literal exists. A literal is unbound iff it evaluates to unknown while all other
 	 * literals in the same CNF clause evaluate to false. Such a literal is critical for the satisfiability of the clause and as such the entire CNF.
 	 *
-	 * @param cnfClause clause in conjunctive normal form
-	 * @return the unbound literal in the given clause or null if no such literal exists
+	 * @param clauseIndex index of a clause in conjunctive normal form
+	 * @return the unbound literal in the given clause or 0 if no such literal exists
 	 */
-	private Literal getUnboundLiteral(Node cnfClause) {
-		Literal unboundLiteral = null;
-		for (final Literal literal : clauseLiterals.get(cnfClause)) {
-			if (!variableValues.containsKey(literal.var)) { // unknown value
-				if (unboundLiteral == null) {
-					unboundLiteral = literal;
-				} else { // more than one unknown literal found, thus actually a non-unit-open clause
-					return null;
+	private int getUnboundLiteral(int clauseIndex) {
+		int unboundLiteral = 0;
+		for (final int literal : clauses[clauseIndex]) {
+			switch (getValue(literal)) {
+			case UNKNOWN:
+				if (unboundLiteral != 0) { // more than one unknown literal found, thus actually a non-unit-open clause
+					return 0;
 				}
-			} else if (literal.getValue(variableValues)) { // true value
-				return null;
-			} else { // false value
-				// irrelevant
+				unboundLiteral = literal;
+				break;
+			case TRUE:
+				return 0;
+			default:
+				break;
 			}
 		}
 		return unboundLiteral;
 	}
 
 	/**
-	 * Returns true iff the conjunctive normal form evaluates to false. A CNF evaluates to false iff any of its clauses evaluates to false.
+	 * Returns an explanation why the premises lead to a contradiction. Contains the violated clause and the reasons of all false literals in it, recursively.
 	 *
-	 * @return true iff the conjunctive normal form evaluates to false
+	 * @param violatedClause the index of the violated clause
+	 * @return indexes of clauses that serve as an explanation
 	 */
-	private boolean isContradicted() {
-		final Collection<Node> dirtyClauses = derivedLiteral == null ? Arrays.asList(cnf.getChildren()) : variableClauses.get(derivedLiteral.var);
-		for (final Node dirtyClause : dirtyClauses) {
-			if (isViolatedClause(dirtyClause)) {
-				violatedClause = dirtyClause;
-				return true;
+	private Set<Integer> getContradictionExplanation(int violatedClause) {
+		final Set<Integer> explanation = new TreeSet<>();
+		explanation.add(violatedClause);
+		final int[] stack = new int[trailSize];
+		int stackSize = 0;
+		for (final int literal : clauses[violatedClause]) {
+			final int variable = Math.abs(literal);
+			if (!visited[variable]) {
+				visited[variable] = true;
+				stack[stackSize++] = variable;
 			}
 		}
-		return false;
-	}
-
-	/**
-	 * Returns true iff the given CNF clause evaluates to false. A CNF clause evaluates to false iff all of its literals evaluate to false.
-	 *
-	 * @param cnfClause clause in conjunctive normal form
-	 * @return true iff the given CNF clause evaluates to false
-	 */
-	private boolean isViolatedClause(Node cnfClause) {
-		for (final Literal literal : clauseLiterals.get(cnfClause)) {
-			if (!variableValues.containsKey(literal.var)) { // unknown value
-				return false;
-			} else if (literal.getValue(variableValues)) { // true value
-				return false;
-			} else { // false value
-				// irrelevant
+		while (stackSize > 0) {
+			final int reason = reasons[stack[--stackSize]];
+			if (reason == NO_REASON) { // premise, thus no reason to explain
+				continue;
+			}
+			explanation.add(reason);
+			for (final int antecedent : clauses[reason]) {
+				final int variable = Math.abs(antecedent);
+				if (!visited[variable]) {
+					visited[variable] = true;
+					stack[stackSize++] = variable;
+				}
 			}
 		}
-		return true;
-	}
-
-	/**
-	 * Does one iteration of BCP. Changes the assignment of a literal's variable from unknown to whatever makes it evaluate to true in the current clause. Also
-	 * sets its reason and antecedents.
-	 */
-	private void propagate() {
-		deriveValue();
-		justify(derivedLiteral.var, derivedClause);
+		Arrays.fill(visited, false);
+		return explanation;
 	}
 
-	/**
-	 * Satisfies the current unit-open clause by making its unbound literal true or negated false.
-	 */
-	private void deriveValue() {
-		variableValues.put(derivedLiteral.var, derivedLiteral.positive);
+	private byte getValue(int literal) {
+		final byte value = variableValues[Math.abs(literal)];
+		return literal > 0 ? value : (byte) -value;
 	}
 
-	/**
-	 * Sets a variable's reason and antecedents.
-	 *
-	 * @param variable variable to set
-	 * @param cnfClause clause containing the literal
-	 */
-	private void justify(Object variable, Node cnfClause) {
-		reasons.put(variable, cnfClause);
+	private static int getWatchIndex(int literal) {
+		return literal > 0 ? 2 * literal : (-2 * literal) + 1;
 	}
 
-	/**
-	 * Returns an explanation why the premises lead to a contradiction.
-	 *
-	 * @return indexes of clauses that serve as an explanation
-	 */
-	private Set<Integer> getContradictionExplanation() {
-		final Set<Integer> explanation = new TreeSet<>();
-
-		// Include literals from the violated clause so it shows up in the explanation.
-		explanation.add(getClauseIndex(violatedClause));
-
-		// Get all antecedents of the derived literal.
-		if (derivedLiteral == null) { // immediate contradiction, thus no propagations, thus no antecedents
-			return explanation;
-		}
-		final Map<Literal, Node> allAntecedents = new LinkedHashMap<>();
-		allAntecedents.put(derivedLiteral, derivedClause);
-		for (final Entry<Literal, Node> e : getAllAntecedents(derivedLiteral).entrySet()) {
-			final Node value = allAntecedents.get(e.getKey());
-			if (value == null) {
-				allAntecedents.put(e.getKey(), e.getValue());
-			}
+	private void addWatch(int literal, int clauseIndex) {
+		final int watchIndex = getWatchIndex(literal);
+		int[] clauseIndexes = watches[watchIndex];
+		final int count = watchCounts[watchIndex];
+		if (clauseIndexes == null) {
+			clauseIndexes = new int[4];
+			watches[watchIndex] = clauseIndexes;
+		} else if (count == clauseIndexes.length) {
+			clauseIndexes = Arrays.copyOf(clauseIndexes, 2 * count);
+			watches[watchIndex] = clauseIndexes;
 		}
-
-		// Explain every antecedent and its reason.
-		for (final Entry<Literal, Node> e : allAntecedents.entrySet()) {
-			final Literal antecedentLiteral = e.getKey();
-			final Node antecedentClause = e.getValue();
-			explanation.add(getClauseIndex(antecedentClause));
-			final Node reason = reasons.get(antecedentLiteral.var);
-			if (reason == null) { // premise, thus no reason to explain
-				continue;
-			}
-			explanation.add(getClauseIndex(reason));
-		}
-		return explanation;
+		clauseIndexes[count] = clauseIndex;
+		watchCounts[watchIndex] = count + 1;
 	}
 
-	/**
-	 * Returns all antecedents of the given variable recursively.
-	 *
-	 * @param literal literal with possible antecedents
-	 * @return all antecedents of the given variable recursively
-	 */
-	private Map<Literal, Node> getAllAntecedents(Literal literal) {
-		final Node reason = reasons.get(literal.var);
-		if (reason == null) {
-			return Collections.emptyMap();
+	private void pushUnitOpenClause(int clauseIndex) {
+		if (pending[clauseIndex]) {
+			return;
 		}
-		final Map<Literal, Node> allAntecedents = new LinkedHashMap<>();
-		for (final Literal antecedent : clauseLiterals.get(reason)) {
-			if (antecedent.var.equals(literal.var) || allAntecedents.containsKey(antecedent)) {
-				continue;
-			}
-			allAntecedents.put(antecedent, reason);
-			for (final Entry<Literal, Node> e : getAllAntecedents(antecedent).entrySet()) {
-				final Node value = allAntecedents.get(e.getKey());
-				if (value == null) {
-					allAntecedents.put(e.getKey(), e.getValue());
-				}
-			}
+		if (unitOpenClauseCount == unitOpenClauses.length) {
+			unitOpenClauses = Arrays.copyOf(unitOpenClauses, 2 * unitOpenClauseCount);
 		}
-		return allAntecedents;
+		pending[clauseIndex] = true;
+		unitOpenClauses[unitOpenClauseCount++] = clauseIndex;
 	}
 
-	/**
-	 * Returns the index of the given CNF clause.
-	 *
-	 * @param cnfClause CNF clause to look up
-	 * @return the index of the given CNF clause
-	 * @throws IllegalStateException if the CNF clause is not contained in the CNF
-	 */
-	private int getClauseIndex(Node cnfClause) throws IllegalStateException {
-		final Node[] cnfClauses = cnf.getChildren();
-		for (int i = 0; i < cnfClauses.length; i++) {
-			if (cnfClause == cnfClauses[i]) {
-				return i;
-			}
+	private void clearUnitOpenClauses() {
+		while (unitOpenClauseCount > 0) {
+			pending[unitOpenClauses[--unitOpenClauseCount]] = false;
 		}
-		throw new IllegalStateException("CNF clause not contained in CNF");
 	}
 }
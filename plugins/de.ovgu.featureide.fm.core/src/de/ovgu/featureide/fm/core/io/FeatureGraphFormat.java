@@ -34,8 +34,11 @@ import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
 /**
  * Reads / Writes a feature graph.
  *
+ * @deprecated The serialized graph does not survive the conversion to a string. Use {@link de.ovgu.featureide.fm.core.io.binary.BinaryFeatureGraphFormat}
+ *             instead.
  * @author Sebastian Krieter
  */
+@Deprecated
 public class FeatureGraphFormat implements IFeatureGraphFormat {
 
 	public static final String ID = PluginID.PLUGIN_ID + ".format.fg." + FeatureGraphFormat.class.getSimpleName();
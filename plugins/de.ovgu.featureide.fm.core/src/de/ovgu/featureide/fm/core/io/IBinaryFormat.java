@@ -0,0 +1,43 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Interface for formats that save and load data as bytes instead of text.</br> The methods of {@link IPersistentFormat} still work with strings that
+ * represent one byte per character (see {@link #CHARSET}). Files of binary formats are read into a byte buffer at once by the file handlers.
+ *
+ * @see de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler
+ */
+public interface IBinaryFormat<T> extends IPersistentFormat<T> {
+
+	/**
+	 * Maps each byte to exactly one character and vice versa.
+	 */
+	Charset CHARSET = Charset.forName("ISO-8859-1");
+
+	ProblemList read(T object, ByteBuffer source);
+
+	byte[] writeBytes(T object);
+
+}
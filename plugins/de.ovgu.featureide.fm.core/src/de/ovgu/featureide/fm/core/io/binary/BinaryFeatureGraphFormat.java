@@ -0,0 +1,271 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.prop4j.And;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.PluginID;
+import de.ovgu.featureide.fm.core.conf.AFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.SparseFeatureGraph;
+import de.ovgu.featureide.fm.core.io.IBinaryFormat;
+import de.ovgu.featureide.fm.core.io.IFeatureGraphFormat;
+import de.ovgu.featureide.fm.core.io.Problem;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+
+/**
+ * Reads / Writes a feature graph in a binary format that can be used without deserialization.</br> The file consists of
+ * <ul>
+ * <li>a header (magic string, version, number of variables, number of graph nodes, and the offsets of the name and row sections),</li>
+ * <li>the index of all variables (see {@link IFeatureGraph#getIndex()}),</li>
+ * <li>the names of all variables (offset table and UTF-8 data), and</li>
+ * <li>the rows of the graph as described at {@link SparseFeatureGraph}.</li>
+ * </ul>
+ * The buffer of a file is directly used by the resulting {@link SparseFeatureGraph}. Thus, a precomputed graph can be opened in the time needed to read
+ * the file and the variable names. Files are not mapped into memory, because a mapping would keep the file locked on some platforms (e.g., when the graph is
+ * built again).
+ */
+public class BinaryFeatureGraphFormat implements IFeatureGraphFormat, IBinaryFormat<IFeatureGraph> {
+
+	public static final String ID = PluginID.PLUGIN_ID + ".format.fg." + BinaryFeatureGraphFormat.class.getSimpleName();
+
+	static final String MAGIC = "FIDE-FGB";
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the header (magic string, version, two sizes, and two section offsets).
+	 */
+	static final int HEADER_SIZE = MAGIC.length() + (5 * 4);
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	@Override
+	public ProblemList read(IFeatureGraph object, ByteBuffer source) {
+		final ProblemList problems = new ProblemList();
+		try {
+			final IFeatureGraph featureGraph = map(source);
+			object.copyValues(featureGraph);
+			if (object instanceof AFeatureGraph) {
+				((AFeatureGraph) object).setSatInstance(featureGraph.getSatInstance());
+			}
+		} catch (final RuntimeException e) {
+			problems.add(new Problem(e));
+		}
+		return problems;
+	}
+
+	/**
+	 * Creates a feature graph that reads its edges directly from the given buffer.
+	 *
+	 * @param source the content of a file in the binary format; its position must be at the start of the content
+	 * @throws IllegalArgumentException if the content is not in the binary format
+	 */
+	public static SparseFeatureGraph map(ByteBuffer source) {
+		final ByteBuffer buffer = source.slice();
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new IllegalArgumentException("Content is too short for the binary format");
+		}
+		for (int i = 0; i < MAGIC.length(); i++) {
+			if (buffer.get(i) != MAGIC.charAt(i)) {
+				throw new IllegalArgumentException("Content is not in the binary format");
+			}
+		}
+		int position = MAGIC.length();
+		final int version = buffer.getInt(position);
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported version of the binary format: " + version);
+		}
+		final int numberOfVariables = buffer.getInt(position += 4);
+		buffer.getInt(position += 4);
+		final int nameSection = buffer.getInt(position += 4);
+		final int rowSection = buffer.getInt(position += 4);
+
+		final int[] index = new int[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			index[i] = buffer.getInt(HEADER_SIZE + (4 * i));
+		}
+
+		final List<String> names = new ArrayList<>(numberOfVariables);
+		final int nameData = nameSection + ((numberOfVariables + 1) * 4);
+		final ByteBuffer nameBuffer = buffer.duplicate();
+		for (int i = 0; i < numberOfVariables; i++) {
+			final int start = buffer.getInt(nameSection + (4 * i));
+			final byte[] name = new byte[buffer.getInt(nameSection + (4 * (i + 1))) - start];
+			nameBuffer.position(nameData + start);
+			nameBuffer.get(name);
+			names.add(new String(name, UTF8));
+		}
+
+		final ByteBuffer rows = buffer.duplicate();
+		rows.position(rowSection);
+		return new SparseFeatureGraph(new SatInstance(new And(), names), index, rows.slice());
+	}
+
+	@Override
+	public ProblemList read(IFeatureGraph object, CharSequence source) {
+		return read(object, ByteBuffer.wrap(source.toString().getBytes(CHARSET)));
+	}
+
+	@Override
+	public byte[] writeBytes(IFeatureGraph object) {
+		try {
+			return write(object, new ByteArrayOutputStream()).toByteArray();
+		} catch (final IOException e) {
+			// cannot happen for in-memory streams
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static ByteArrayOutputStream write(IFeatureGraph featureGraph, ByteArrayOutputStream byteStream) throws IOException {
+		final SatInstance satInstance = featureGraph.getSatInstance();
+		if (satInstance == null) {
+			throw new IllegalArgumentException("Feature graph has no variables");
+		}
+		final int[] index = featureGraph.getIndex();
+		final int size = featureGraph.getSize();
+
+		final byte[][] names = new byte[index.length][];
+		int nameLength = 0;
+		for (int i = 0; i < index.length; i++) {
+			names[i] = String.valueOf(satInstance.getVariableObject(i + 1)).getBytes(UTF8);
+			nameLength += names[i].length;
+		}
+		final int nameSection = HEADER_SIZE + (4 * index.length);
+		final int rowSection = nameSection + (4 * (index.length + 1)) + nameLength;
+
+		final DataOutputStream out = new DataOutputStream(byteStream);
+		out.writeBytes(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(index.length);
+		out.writeInt(size);
+		out.writeInt(nameSection);
+		out.writeInt(rowSection);
+		for (final int variableIndex : index) {
+			out.writeInt(variableIndex);
+		}
+		int nameOffset = 0;
+		out.writeInt(nameOffset);
+		for (final byte[] name : names) {
+			nameOffset += name.length;
+			out.writeInt(nameOffset);
+		}
+		for (final byte[] name : names) {
+			out.write(name);
+		}
+
+		// rows
+		final int[] columns = new int[size];
+		final byte[] values = new byte[size];
+		long rowOffset = 4L * size;
+		for (int i = 0; i < size; i++) {
+			out.writeInt((int) rowOffset);
+			final int count = getRow(featureGraph, i, columns, values);
+			rowOffset += 4 + (SparseFeatureGraph.isDense(count, size) ? size : (5L * count));
+			if ((rowSection + rowOffset) > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Feature graph is too large for the binary format");
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			final int count = getRow(featureGraph, i, columns, values);
+			if (SparseFeatureGraph.isDense(count, size)) {
+				out.writeInt(-1);
+				final byte[] denseValues = new byte[size];
+				for (int j = 0; j < count; j++) {
+					denseValues[columns[j]] = values[j];
+				}
+				out.write(denseValues);
+			} else {
+				out.writeInt(count);
+				for (int j = 0; j < count; j++) {
+					out.writeInt(columns[j]);
+				}
+				out.write(values, 0, count);
+			}
+		}
+		out.flush();
+		return byteStream;
+	}
+
+	private static int getRow(IFeatureGraph featureGraph, int from, int[] columns, byte[] values) {
+		if (featureGraph instanceof SparseFeatureGraph) {
+			return ((SparseFeatureGraph) featureGraph).getRow(from, columns, values);
+		}
+		int count = 0;
+		for (int j = 0; j < columns.length; j++) {
+			final byte value = featureGraph.getEdge(from, j);
+			if (value != AFeatureGraph.EDGE_NONE) {
+				columns[count] = j;
+				values[count++] = value;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public String write(IFeatureGraph object) {
+		return new String(writeBytes(object), CHARSET);
+	}
+
+	@Override
+	public String getSuffix() {
+		return "fgb";
+	}
+
+	@Override
+	public BinaryFeatureGraphFormat getInstance() {
+		return this;
+	}
+
+	@Override
+	public boolean supportsRead() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsWrite() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsContent(CharSequence content) {
+		return (content.length() >= MAGIC.length()) && MAGIC.contentEquals(content.subSequence(0, MAGIC.length()));
+	}
+
+	@Override
+	public String getId() {
+		return ID;
+	}
+
+	@Override
+	public String getName() {
+		return "FeatureIDE Binary";
+	}
+
+}
@@ -0,0 +1,526 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.binary;
+
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_ABSTRACT;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_ALTERNATIVE;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_CALCULATE_AUTO;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_CALCULATE_CONSTRAINTS;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_CALCULATE_FEATURES;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_CALCULATE_REDUNDANT;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_CALCULATE_TAUTOLOGY;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_HIDDEN;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_MANDATORY;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_OR;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.FLAG_USER_DEFINED_ORDER;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.MAGIC;
+import static de.ovgu.featureide.fm.core.io.binary.BinaryFeatureModelFormat.VERSION;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.prop4j.And;
+import org.prop4j.AtLeast;
+import org.prop4j.AtMost;
+import org.prop4j.Choose;
+import org.prop4j.Equals;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelFactory;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.base.IPropertyContainer.Entry;
+import de.ovgu.featureide.fm.core.base.IPropertyContainer.Type;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+
+/**
+ * Read-only view of a feature model in the {@link BinaryFeatureModelFormat binary format}.</br> Only the header is read on creation. Strings, features, and
+ * constraints are decoded from the underlying buffer when they are accessed. Thus, large models can be inspected (e.g., to get the clauses of all
+ * constraints) without creating an {@link IFeatureModel}. Features that are requested by {@link #getFeature(int)} are created on demand in a partial feature
+ * model (see {@link #getFeatureModel()}).
+ */
+public class BinaryFeatureModel {
+
+	private static final int FEATURE_RECORD_SIZE = 4;
+
+	private final ByteBuffer buffer;
+
+	private final int stringCount;
+	private final int stringOffsets;
+	private final int stringData;
+	private final String[] strings;
+
+	private final int featureCount;
+	private final int featureRecords;
+	private final int propertyOffsets;
+	private final int childOffsets;
+	private final int children;
+
+	private final int propertyRecords;
+
+	private final int constraintCount;
+	private final int constraintOffsets;
+	private final int constraintData;
+
+	private final int clauseOffsets;
+	private final int clauseData;
+
+	private final int modelSection;
+
+	private Map<String, Integer> featureIndex = null;
+
+	private IFeatureModel featureModel = null;
+	private IFeature[] materializedFeatures = null;
+
+	/**
+	 * Reads the given file into memory. The file is not mapped, as a mapping would keep the file locked on some platforms until it is garbage collected.
+	 *
+	 * @param path the path of a file in the binary format
+	 * @return a view of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static BinaryFeatureModel read(Path path) throws IOException {
+		return new BinaryFeatureModel(ByteBuffer.wrap(Files.readAllBytes(path)));
+	}
+
+	/**
+	 * @param buffer the content of a file in the binary format; its position must be at the start of the content
+	 * @throws IllegalArgumentException if the content is not in the binary format
+	 */
+	public BinaryFeatureModel(ByteBuffer buffer) {
+		this.buffer = buffer.slice();
+		if (this.buffer.remaining() < BinaryFeatureModelFormat.HEADER_SIZE) {
+			throw new IllegalArgumentException("Content is too short for the binary format");
+		}
+		for (int i = 0; i < MAGIC.length(); i++) {
+			if (this.buffer.get(i) != MAGIC.charAt(i)) {
+				throw new IllegalArgumentException("Content is not in the binary format");
+			}
+		}
+		int position = MAGIC.length();
+		final int version = this.buffer.getInt(position);
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported version of the binary format: " + version);
+		}
+		final int stringSection = this.buffer.getInt(position += 4);
+		final int featureSection = this.buffer.getInt(position += 4);
+		final int propertySection = this.buffer.getInt(position += 4);
+		final int constraintSection = this.buffer.getInt(position += 4);
+		final int clauseSection = this.buffer.getInt(position += 4);
+		modelSection = this.buffer.getInt(position += 4);
+
+		stringCount = this.buffer.getInt(stringSection);
+		stringOffsets = stringSection + 4;
+		stringData = stringOffsets + ((stringCount + 1) * 4);
+		strings = new String[stringCount];
+
+		featureCount = this.buffer.getInt(featureSection);
+		featureRecords = featureSection + 4;
+		propertyOffsets = featureRecords + (featureCount * FEATURE_RECORD_SIZE * 4);
+		childOffsets = propertyOffsets + ((featureCount + 1) * 4);
+		children = childOffsets + ((featureCount + 1) * 4);
+
+		propertyRecords = propertySection + 4;
+
+		constraintCount = this.buffer.getInt(constraintSection);
+		constraintOffsets = constraintSection + 4;
+		constraintData = constraintOffsets + ((constraintCount + 1) * 4);
+
+		clauseOffsets = clauseSection + 4;
+		clauseData = clauseOffsets + ((constraintCount + 1) * 4);
+	}
+
+	private int getInt(int sectionStart, int index) {
+		return buffer.getInt(sectionStart + (index * 4));
+	}
+
+	private String getString(int index) {
+		if (index < 0) {
+			return null;
+		}
+		String string = strings[index];
+		if (string == null) {
+			final int start = getInt(stringOffsets, index);
+			final byte[] bytes = new byte[getInt(stringOffsets, index + 1) - start];
+			final ByteBuffer data = buffer.duplicate();
+			data.position(stringData + start);
+			data.get(bytes);
+			string = new String(bytes, BinaryFeatureModelFormat.UTF8);
+			strings[index] = string;
+		}
+		return string;
+	}
+
+	private int getFeatureRecord(int index, int field) {
+		return getInt(featureRecords, (index * FEATURE_RECORD_SIZE) + field);
+	}
+
+	private boolean hasFlag(int index, int flag) {
+		return (getFeatureRecord(index, 2) & flag) != 0;
+	}
+
+	public int getNumberOfFeatures() {
+		return featureCount;
+	}
+
+	/**
+	 * @param index the preorder index of a feature
+	 * @return the name of the feature
+	 */
+	public String getFeatureName(int index) {
+		return getString(getFeatureRecord(index, 0));
+	}
+
+	/**
+	 * @param name the name of a feature
+	 * @return the preorder index of the feature or -1 if there is no such feature
+	 */
+	public int getFeatureIndex(String name) {
+		if (featureIndex == null) {
+			featureIndex = new HashMap<>((int) (featureCount * 1.5));
+			for (int i = 0; i < featureCount; i++) {
+				featureIndex.put(getFeatureName(i), i);
+			}
+		}
+		final Integer index = featureIndex.get(name);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param index the preorder index of a feature
+	 * @return the index of the parent feature or -1 for the root feature
+	 */
+	public int getParent(int index) {
+		return getFeatureRecord(index, 1);
+	}
+
+	/**
+	 * @param index the preorder index of a feature
+	 * @return the indices of all children in their order
+	 */
+	public int[] getChildren(int index) {
+		final int start = getInt(childOffsets, index);
+		final int[] result = new int[getInt(childOffsets, index + 1) - start];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = getInt(children, start + i);
+		}
+		return result;
+	}
+
+	public boolean isAbstract(int index) {
+		return hasFlag(index, FLAG_ABSTRACT);
+	}
+
+	public boolean isMandatory(int index) {
+		return hasFlag(index, FLAG_MANDATORY);
+	}
+
+	public boolean isHidden(int index) {
+		return hasFlag(index, FLAG_HIDDEN);
+	}
+
+	public boolean isOr(int index) {
+		return hasFlag(index, FLAG_OR);
+	}
+
+	public boolean isAlternative(int index) {
+		return hasFlag(index, FLAG_ALTERNATIVE);
+	}
+
+	public boolean isAnd(int index) {
+		return !isOr(index) && !isAlternative(index);
+	}
+
+	public String getDescription(int index) {
+		return getString(getFeatureRecord(index, 3));
+	}
+
+	public Set<Entry<String, Type, Object>> getCustomProperties(int index) {
+		final Set<Entry<String, Type, Object>> entries = new HashSet<>();
+		final int end = getInt(propertyOffsets, index + 1);
+		for (int i = getInt(propertyOffsets, index); i < end; i++) {
+			final String key = getString(getInt(propertyRecords, 3 * i));
+			final Type type = Type.values()[getInt(propertyRecords, (3 * i) + 1)];
+			final String value = getString(getInt(propertyRecords, (3 * i) + 2));
+			entries.add(new Entry<String, Type, Object>(key, type, parseValue(type, value)));
+		}
+		return entries;
+	}
+
+	private static Object parseValue(Type type, String value) {
+		switch (type) {
+		case BOOLEAN:
+			return Boolean.valueOf(value);
+		case BYTE:
+			return Byte.valueOf(value);
+		case CHAR:
+			return value.charAt(0);
+		case DOUBLE:
+			return Double.valueOf(value);
+		case FLOAT:
+			return Float.valueOf(value);
+		case INT:
+			return Integer.valueOf(value);
+		case LONG:
+			return Long.valueOf(value);
+		case SHORT:
+			return Short.valueOf(value);
+		case STRING:
+		default:
+			return value;
+		}
+	}
+
+	public int getNumberOfConstraints() {
+		return constraintCount;
+	}
+
+	/**
+	 * @param index the index of a constraint
+	 * @return the formula of the constraint
+	 */
+	public Node getConstraintNode(int index) {
+		final int[] position = { getInt(constraintOffsets, index) };
+		return readNode(position);
+	}
+
+	private Node readNode(int[] position) {
+		final int type = getInt(constraintData, position[0]++);
+		switch (type) {
+		case BinaryFeatureModelFormat.NODE_POSITIVE_LITERAL:
+			return new Literal(getString(getInt(constraintData, position[0]++)), true);
+		case BinaryFeatureModelFormat.NODE_NEGATIVE_LITERAL:
+			return new Literal(getString(getInt(constraintData, position[0]++)), false);
+		case BinaryFeatureModelFormat.NODE_AT_MOST: {
+			final int k = getInt(constraintData, position[0]++);
+			return new AtMost(k, readChildren(position));
+		}
+		case BinaryFeatureModelFormat.NODE_AT_LEAST: {
+			final int k = getInt(constraintData, position[0]++);
+			return new AtLeast(k, readChildren(position));
+		}
+		case BinaryFeatureModelFormat.NODE_CHOOSE: {
+			final int k = getInt(constraintData, position[0]++);
+			return new Choose(k, readChildren(position));
+		}
+		default:
+			break;
+		}
+		final Node[] nodeChildren = readChildren(position);
+		switch (type) {
+		case BinaryFeatureModelFormat.NODE_NOT:
+			return new Not(nodeChildren[0]);
+		case BinaryFeatureModelFormat.NODE_AND:
+			return new And(nodeChildren);
+		case BinaryFeatureModelFormat.NODE_OR:
+			return new Or(nodeChildren);
+		case BinaryFeatureModelFormat.NODE_IMPLIES:
+			return new Implies(nodeChildren[0], nodeChildren[1]);
+		case BinaryFeatureModelFormat.NODE_EQUALS:
+			return new Equals(nodeChildren[0], nodeChildren[1]);
+		default:
+			throw new IllegalArgumentException("Unknown node type: " + type);
+		}
+	}
+
+	private Node[] readChildren(int[] position) {
+		final Node[] nodeChildren = new Node[getInt(constraintData, position[0]++)];
+		for (int i = 0; i < nodeChildren.length; i++) {
+			nodeChildren[i] = readNode(position);
+		}
+		return nodeChildren;
+	}
+
+	/**
+	 * Returns the clauses of a constraint in conjunctive normal form. The literals are the signed preorder indices of the features plus one (i.e., the
+	 * variables of a {@link org.prop4j.solver.SatInstance} that was created with the feature names in preorder).
+	 *
+	 * @param index the index of a constraint
+	 * @return the clauses or {@code null} if the constraint contains variables that are no features
+	 */
+	public List<int[]> getClauses(int index) {
+		int position = getInt(clauseOffsets, index);
+		final int clauseCount = getInt(clauseData, position++);
+		if (clauseCount < 0) {
+			return null;
+		}
+		final List<int[]> clauses = new ArrayList<>(clauseCount);
+		for (int i = 0; i < clauseCount; i++) {
+			final int[] clause = new int[getInt(clauseData, position++)];
+			for (int j = 0; j < clause.length; j++) {
+				clause[j] = getInt(clauseData, position++);
+			}
+			clauses.add(clause);
+		}
+		return clauses;
+	}
+
+	/**
+	 * Returns the feature model that contains all features that were created by {@link #getFeature(int)} so far.
+	 *
+	 * @return the partial feature model
+	 */
+	public IFeatureModel getFeatureModel() {
+		if (featureModel == null) {
+			featureModel = FMFactoryManager.getDefaultFactory().createFeatureModel();
+			materializedFeatures = new IFeature[featureCount];
+		}
+		return featureModel;
+	}
+
+	/**
+	 * Returns a feature of the {@link #getFeatureModel() partial feature model}. If necessary, the feature and all of its ancestors are created. Features
+	 * keep the order of the file among their siblings.
+	 *
+	 * @param index the preorder index of a feature
+	 * @return the feature
+	 */
+	public IFeature getFeature(int index) {
+		final IFeatureModel fm = getFeatureModel();
+		IFeature feature = materializedFeatures[index];
+		if (feature == null) {
+			feature = createFeature(FMFactoryManager.getFactory(fm), fm, index);
+			materializedFeatures[index] = feature;
+			fm.addFeature(feature);
+
+			final int parent = getParent(index);
+			if (parent < 0) {
+				fm.getStructure().setRoot(feature.getStructure());
+			} else {
+				final IFeatureStructure parentStructure = getFeature(parent).getStructure();
+				int position = 0;
+				for (final int sibling : getChildren(parent)) {
+					if (sibling == index) {
+						break;
+					} else if (materializedFeatures[sibling] != null) {
+						position++;
+					}
+				}
+				parentStructure.addChildAtPosition(position, feature.getStructure());
+			}
+		}
+		return feature;
+	}
+
+	/**
+	 * Returns a feature of the {@link #getFeatureModel() partial feature model}.
+	 *
+	 * @param name the name of a feature
+	 * @return the feature or {@code null} if there is no such feature
+	 *
+	 * @see #getFeature(int)
+	 */
+	public IFeature getFeature(String name) {
+		final int index = getFeatureIndex(name);
+		return index < 0 ? null : getFeature(index);
+	}
+
+	private IFeature createFeature(IFeatureModelFactory factory, IFeatureModel fm, int index) {
+		final IFeature feature = factory.createFeature(fm, getFeatureName(index));
+		final IFeatureStructure structure = feature.getStructure();
+		if (isOr(index)) {
+			structure.setOr();
+		} else if (isAlternative(index)) {
+			structure.setAlternative();
+		} else {
+			structure.setAnd();
+		}
+		structure.setAbstract(isAbstract(index));
+		structure.setMandatory(isMandatory(index));
+		structure.setHidden(isHidden(index));
+		final String description = getDescription(index);
+		if (description != null) {
+			feature.getProperty().setDescription(description);
+		}
+		final Set<Entry<String, Type, Object>> properties = getCustomProperties(index);
+		if (!properties.isEmpty()) {
+			feature.getCustomProperties().setEntrySet(properties);
+		}
+		return feature;
+	}
+
+	/**
+	 * Creates the complete feature model.
+	 *
+	 * @param fm the feature model that is reset and filled
+	 */
+	public void readFeatureModel(IFeatureModel fm) {
+		fm.reset();
+		final IFeatureModelFactory factory = FMFactoryManager.getFactory(fm);
+
+		final IFeature[] features = new IFeature[featureCount];
+		for (int i = 0; i < featureCount; i++) {
+			features[i] = createFeature(factory, fm, i);
+			fm.addFeature(features[i]);
+		}
+		for (int i = 0; i < featureCount; i++) {
+			final IFeatureStructure structure = features[i].getStructure();
+			if (getParent(i) < 0) {
+				fm.getStructure().setRoot(structure);
+			}
+			for (final int child : getChildren(i)) {
+				structure.addChild(features[child].getStructure());
+			}
+		}
+
+		for (int i = 0; i < constraintCount; i++) {
+			fm.addConstraint(factory.createConstraint(fm, getConstraintNode(i)));
+		}
+
+		int position = modelSection;
+		final int flags = buffer.getInt(position);
+		final FeatureModelAnalyzer analyzer = fm.getAnalyser();
+		analyzer.runCalculationAutomatically = (flags & FLAG_CALCULATE_AUTO) != 0;
+		analyzer.calculateFeatures = (flags & FLAG_CALCULATE_FEATURES) != 0;
+		analyzer.calculateConstraints = (flags & FLAG_CALCULATE_CONSTRAINTS) != 0;
+		analyzer.calculateRedundantConstraints = (flags & FLAG_CALCULATE_REDUNDANT) != 0;
+		analyzer.calculateTautologyConstraints = (flags & FLAG_CALCULATE_TAUTOLOGY) != 0;
+		fm.setFeatureOrderUserDefined((flags & FLAG_USER_DEFINED_ORDER) != 0);
+
+		final int commentCount = buffer.getInt(position += 4);
+		for (int i = 0; i < commentCount; i++) {
+			fm.getProperty().addComment(getString(buffer.getInt(position += 4)));
+		}
+		final int orderCount = buffer.getInt(position += 4);
+		final List<String> featureOrder = new ArrayList<>(orderCount);
+		for (int i = 0; i < orderCount; i++) {
+			featureOrder.add(getString(buffer.getInt(position += 4)));
+		}
+		if (!featureOrder.isEmpty()) {
+			fm.setFeatureOrderList(featureOrder);
+		}
+	}
+
+}
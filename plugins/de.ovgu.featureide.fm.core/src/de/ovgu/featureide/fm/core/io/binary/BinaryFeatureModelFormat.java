@@ -0,0 +1,470 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.prop4j.And;
+import org.prop4j.AtLeast;
+import org.prop4j.AtMost;
+import org.prop4j.Choose;
+import org.prop4j.Equals;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+
+import de.ovgu.featureide.fm.core.FeatureModelAnalyzer;
+import de.ovgu.featureide.fm.core.PluginID;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.base.IPropertyContainer.Entry;
+import de.ovgu.featureide.fm.core.base.IPropertyContainer.Type;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.IBinaryFormat;
+import de.ovgu.featureide.fm.core.io.IFeatureModelFormat;
+import de.ovgu.featureide.fm.core.io.Problem;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+
+/**
+ * Reads / Writes a feature model in a compact binary format.</br> The file contains the same information as the {@link de.ovgu.featureide.fm.core.io.xml.XmlFeatureModelFormat XML format}:
+ * <ul>
+ * <li>All strings (e.g., feature names and descriptions) are stored once in a string table and referenced by their index.</li>
+ * <li>The features are stored in preorder. The tree is stored as an array of parent indices and an array of child indices.</li>
+ * <li>Constraints are stored as a prefix encoding of their formula and, additionally, in conjunctive normal form as arrays of feature indices. The latter can
+ * be used directly by solvers (see {@link BinaryFeatureModel#getClauses(int)}).</li>
+ * </ul>
+ * Files are read into a buffer at once. To access parts of a large model without creating all features, use {@link BinaryFeatureModel}.
+ *
+ * @see de.ovgu.featureide.fm.core.io.xml.XmlFeatureModelFormat
+ */
+public class BinaryFeatureModelFormat implements IFeatureModelFormat, IBinaryFormat<IFeatureModel> {
+
+	public static final String ID = PluginID.PLUGIN_ID + ".format.fm." + BinaryFeatureModelFormat.class.getSimpleName();
+
+	static final String MAGIC = "FIDE-FMB";
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the header (magic string, version, and six section offsets).
+	 */
+	static final int HEADER_SIZE = MAGIC.length() + (7 * 4);
+
+	static final int FLAG_ABSTRACT = 1;
+	static final int FLAG_MANDATORY = 1 << 1;
+	static final int FLAG_HIDDEN = 1 << 2;
+	static final int FLAG_OR = 1 << 3;
+	static final int FLAG_ALTERNATIVE = 1 << 4;
+
+	static final int FLAG_CALCULATE_AUTO = 1;
+	static final int FLAG_CALCULATE_FEATURES = 1 << 1;
+	static final int FLAG_CALCULATE_CONSTRAINTS = 1 << 2;
+	static final int FLAG_CALCULATE_REDUNDANT = 1 << 3;
+	static final int FLAG_CALCULATE_TAUTOLOGY = 1 << 4;
+	static final int FLAG_USER_DEFINED_ORDER = 1 << 5;
+
+	static final int NODE_POSITIVE_LITERAL = 0;
+	static final int NODE_NEGATIVE_LITERAL = 1;
+	static final int NODE_NOT = 2;
+	static final int NODE_AND = 3;
+	static final int NODE_OR = 4;
+	static final int NODE_IMPLIES = 5;
+	static final int NODE_EQUALS = 6;
+	static final int NODE_AT_MOST = 7;
+	static final int NODE_AT_LEAST = 8;
+	static final int NODE_CHOOSE = 9;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Writes the sections of one feature model.
+	 */
+	private static class Writer {
+
+		private final IFeatureModel fm;
+
+		private final Map<String, Integer> strings = new LinkedHashMap<>();
+		private final Map<String, Integer> featureIndex = new HashMap<>();
+		private final List<IFeature> features = new ArrayList<>();
+
+		private final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(byteStream);
+
+		Writer(IFeatureModel fm) {
+			this.fm = fm;
+			final IFeatureStructure root = fm.getStructure().getRoot();
+			if (root != null) {
+				addFeature(root);
+			}
+		}
+
+		private void addFeature(IFeatureStructure structure) {
+			featureIndex.put(structure.getFeature().getName(), features.size());
+			features.add(structure.getFeature());
+			for (final IFeatureStructure child : structure.getChildren()) {
+				addFeature(child);
+			}
+		}
+
+		private int getString(String string) {
+			if (string == null) {
+				return -1;
+			}
+			Integer index = strings.get(string);
+			if (index == null) {
+				index = strings.size();
+				strings.put(string, index);
+			}
+			return index;
+		}
+
+		byte[] write() throws IOException {
+			// the string table is written first, but filled by the other sections
+			final byte[] featureSection = writeFeatures();
+			final byte[] propertySection = writeProperties();
+			final byte[] constraintSection = writeConstraints();
+			final byte[] clauseSection = writeClauses();
+			final byte[] modelSection = writeModel();
+			final byte[] stringSection = writeStrings();
+
+			out.writeBytes(MAGIC);
+			out.writeInt(VERSION);
+			int offset = HEADER_SIZE;
+			for (final byte[] section : new byte[][] { stringSection, featureSection, propertySection, constraintSection, clauseSection, modelSection }) {
+				out.writeInt(offset);
+				offset += section.length;
+			}
+			for (final byte[] section : new byte[][] { stringSection, featureSection, propertySection, constraintSection, clauseSection, modelSection }) {
+				out.write(section);
+			}
+			out.flush();
+			return byteStream.toByteArray();
+		}
+
+		private byte[] writeStrings() throws IOException {
+			final List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+			for (final String string : strings.keySet()) {
+				encodedStrings.add(string.getBytes(UTF8));
+			}
+			final Section section = new Section();
+			section.out.writeInt(encodedStrings.size());
+			int offset = 0;
+			section.out.writeInt(offset);
+			for (final byte[] string : encodedStrings) {
+				offset += string.length;
+				section.out.writeInt(offset);
+			}
+			for (final byte[] string : encodedStrings) {
+				section.out.write(string);
+			}
+			return section.toByteArray();
+		}
+
+		private byte[] writeFeatures() throws IOException {
+			final Section section = new Section();
+			section.out.writeInt(features.size());
+			for (final IFeature feature : features) {
+				final IFeatureStructure structure = feature.getStructure();
+				section.out.writeInt(getString(feature.getName()));
+				section.out.writeInt(structure.isRoot() ? -1 : featureIndex.get(structure.getParent().getFeature().getName()));
+				int flags = 0;
+				if (structure.isAbstract()) {
+					flags |= FLAG_ABSTRACT;
+				}
+				if (structure.isMandatorySet()) {
+					flags |= FLAG_MANDATORY;
+				}
+				if (structure.isHidden()) {
+					flags |= FLAG_HIDDEN;
+				}
+				if (structure.isOr()) {
+					flags |= FLAG_OR;
+				} else if (structure.isAlternative()) {
+					flags |= FLAG_ALTERNATIVE;
+				}
+				section.out.writeInt(flags);
+				section.out.writeInt(getString(feature.getProperty().getDescription()));
+			}
+
+			int propertyOffset = 0;
+			section.out.writeInt(propertyOffset);
+			for (final IFeature feature : features) {
+				propertyOffset += feature.getCustomProperties().entrySet().size();
+				section.out.writeInt(propertyOffset);
+			}
+
+			int childOffset = 0;
+			section.out.writeInt(childOffset);
+			for (final IFeature feature : features) {
+				childOffset += feature.getStructure().getChildrenCount();
+				section.out.writeInt(childOffset);
+			}
+			for (final IFeature feature : features) {
+				for (final IFeatureStructure child : feature.getStructure().getChildren()) {
+					section.out.writeInt(featureIndex.get(child.getFeature().getName()));
+				}
+			}
+			return section.toByteArray();
+		}
+
+		private byte[] writeProperties() throws IOException {
+			final Section section = new Section();
+			int count = 0;
+			for (final IFeature feature : features) {
+				count += feature.getCustomProperties().entrySet().size();
+			}
+			section.out.writeInt(count);
+			for (final IFeature feature : features) {
+				final Set<Entry<String, Type, Object>> entries = feature.getCustomProperties().entrySet();
+				for (final Entry<String, Type, Object> entry : entries) {
+					section.out.writeInt(getString(entry.getKey()));
+					section.out.writeInt(entry.getType().ordinal());
+					section.out.writeInt(getString(entry.getValue().toString()));
+				}
+			}
+			return section.toByteArray();
+		}
+
+		private byte[] writeConstraints() throws IOException {
+			final List<Integer> nodes = new ArrayList<>();
+			final List<IConstraint> constraints = fm.getConstraints();
+			final int[] offsets = new int[constraints.size() + 1];
+			for (int i = 0; i < constraints.size(); i++) {
+				writeNode(nodes, constraints.get(i).getNode());
+				offsets[i + 1] = nodes.size();
+			}
+			return writeIndexedArray(offsets, nodes);
+		}
+
+		private void writeNode(List<Integer> nodes, Node node) {
+			if (node instanceof Literal) {
+				final Literal literal = (Literal) node;
+				nodes.add(literal.positive ? NODE_POSITIVE_LITERAL : NODE_NEGATIVE_LITERAL);
+				nodes.add(getString(String.valueOf(literal.var)));
+				return;
+			}
+			if (node instanceof Not) {
+				nodes.add(NODE_NOT);
+			} else if (node instanceof And) {
+				nodes.add(NODE_AND);
+			} else if (node instanceof Or) {
+				nodes.add(NODE_OR);
+			} else if (node instanceof Implies) {
+				nodes.add(NODE_IMPLIES);
+			} else if (node instanceof Equals) {
+				nodes.add(NODE_EQUALS);
+			} else if (node instanceof AtMost) {
+				nodes.add(NODE_AT_MOST);
+				nodes.add(((AtMost) node).max);
+			} else if (node instanceof AtLeast) {
+				nodes.add(NODE_AT_LEAST);
+				nodes.add(((AtLeast) node).min);
+			} else if (node instanceof Choose) {
+				nodes.add(NODE_CHOOSE);
+				nodes.add(((Choose) node).n);
+			} else {
+				throw new IllegalArgumentException("Unsupported node type: " + node.getClass().getSimpleName());
+			}
+			final Node[] children = node.getChildren();
+			nodes.add(children.length);
+			for (final Node child : children) {
+				writeNode(nodes, child);
+			}
+		}
+
+		/**
+		 * For each constraint, the number of clauses is followed by each clause (its length followed by its literals). Literals are the signed (preorder
+		 * index + 1) of a feature. Constraints that contain other variables have -1 clauses.
+		 */
+		private byte[] writeClauses() throws IOException {
+			final List<Integer> clauses = new ArrayList<>();
+			final List<IConstraint> constraints = fm.getConstraints();
+			final int[] offsets = new int[constraints.size() + 1];
+			for (int i = 0; i < constraints.size(); i++) {
+				writeClauses(clauses, constraints.get(i).getCNF());
+				offsets[i + 1] = clauses.size();
+			}
+			return writeIndexedArray(offsets, clauses);
+		}
+
+		private void writeClauses(List<Integer> clauses, Node cnf) {
+			final int start = clauses.size();
+			final Node[] cnfChildren = cnf.getChildren();
+			clauses.add(cnfChildren.length);
+			for (final Node clause : cnfChildren) {
+				final Node[] literals = clause.getChildren();
+				clauses.add(literals.length);
+				for (final Node child : literals) {
+					final Literal literal = (Literal) child;
+					final Integer index = featureIndex.get(String.valueOf(literal.var));
+					if (index == null) {
+						clauses.subList(start, clauses.size()).clear();
+						clauses.add(-1);
+						return;
+					}
+					clauses.add(literal.positive ? index + 1 : -(index + 1));
+				}
+			}
+		}
+
+		private byte[] writeModel() throws IOException {
+			final Section section = new Section();
+			final FeatureModelAnalyzer analyzer = fm.getAnalyser();
+			int flags = 0;
+			if (analyzer.runCalculationAutomatically) {
+				flags |= FLAG_CALCULATE_AUTO;
+			}
+			if (analyzer.calculateFeatures) {
+				flags |= FLAG_CALCULATE_FEATURES;
+			}
+			if (analyzer.calculateConstraints) {
+				flags |= FLAG_CALCULATE_CONSTRAINTS;
+			}
+			if (analyzer.calculateRedundantConstraints) {
+				flags |= FLAG_CALCULATE_REDUNDANT;
+			}
+			if (analyzer.calculateTautologyConstraints) {
+				flags |= FLAG_CALCULATE_TAUTOLOGY;
+			}
+			if (fm.isFeatureOrderUserDefined()) {
+				flags |= FLAG_USER_DEFINED_ORDER;
+			}
+			section.out.writeInt(flags);
+
+			final List<String> comments = Functional.toList(fm.getProperty().getComments());
+			section.out.writeInt(comments.size());
+			for (final String comment : comments) {
+				section.out.writeInt(getString(comment));
+			}
+			final List<String> featureOrder = fm.getFeatureOrderList();
+			section.out.writeInt(featureOrder.size());
+			for (final String featureName : featureOrder) {
+				section.out.writeInt(getString(featureName));
+			}
+			return section.toByteArray();
+		}
+
+		private byte[] writeIndexedArray(int[] offsets, List<Integer> values) throws IOException {
+			final Section section = new Section();
+			section.out.writeInt(offsets.length - 1);
+			for (final int offset : offsets) {
+				section.out.writeInt(offset);
+			}
+			for (final Integer value : values) {
+				section.out.writeInt(value);
+			}
+			return section.toByteArray();
+		}
+
+	}
+
+	private static class Section {
+
+		private final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(byteStream);
+
+		byte[] toByteArray() throws IOException {
+			out.flush();
+			return byteStream.toByteArray();
+		}
+
+	}
+
+	@Override
+	public ProblemList read(IFeatureModel object, ByteBuffer source) {
+		final ProblemList problems = new ProblemList();
+		try {
+			new BinaryFeatureModel(source).readFeatureModel(object);
+		} catch (final RuntimeException e) {
+			problems.add(new Problem(e));
+		}
+		return problems;
+	}
+
+	@Override
+	public ProblemList read(IFeatureModel object, CharSequence source) {
+		return read(object, ByteBuffer.wrap(source.toString().getBytes(CHARSET)));
+	}
+
+	@Override
+	public byte[] writeBytes(IFeatureModel object) {
+		try {
+			return new Writer(object).write();
+		} catch (final IOException e) {
+			// cannot happen for in-memory streams
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public String write(IFeatureModel object) {
+		return new String(writeBytes(object), CHARSET);
+	}
+
+	@Override
+	public String getSuffix() {
+		return "fmb";
+	}
+
+	@Override
+	public BinaryFeatureModelFormat getInstance() {
+		return this;
+	}
+
+	@Override
+	public boolean supportsRead() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsWrite() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsContent(CharSequence content) {
+		return (content.length() >= MAGIC.length()) && MAGIC.contentEquals(content.subSequence(0, MAGIC.length()));
+	}
+
+	@Override
+	public String getId() {
+		return ID;
+	}
+
+	@Override
+	public String getName() {
+		return "FeatureIDE Binary";
+	}
+
+}
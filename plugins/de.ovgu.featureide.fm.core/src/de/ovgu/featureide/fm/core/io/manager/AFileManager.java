@@ -153,6 +153,18 @@ public abstract class AFileManager<T> implements IFileManager<T>, IEventManager
 
 	public static final <T> FileHandler<T> getFileHandler(Path path, ObjectCreator<T> objectCreator) {
 		final FileHandler<T> fileHandler = new FileHandler<>(path, null, null);
+		final IPersistentFormat<T> binaryFormat = SimpleFileHandler.getBinaryFormat(fileHandler, objectCreator.formatManager);
+		if (binaryFormat != null) {
+			try {
+				fileHandler.setObject(objectCreator.createObject(path, binaryFormat));
+				fileHandler.setFormat(binaryFormat);
+				fileHandler.read();
+			} catch (final NoSuchExtensionException e) {
+				fileHandler.getLastProblems().add(new Problem(e));
+			}
+			return fileHandler;
+		}
+
 		final String content = fileHandler.getContent();
 
 		if (content != null) {
@@ -234,8 +246,7 @@ public abstract class AFileManager<T> implements IFileManager<T>, IEventManager
 
 		if (FileSystem.exists(path)) {
 			try {
-				final String content = new String(FileSystem.read(path), DEFAULT_CHARSET);
-				final ProblemList problems = format.getInstance().read(variableObject, content);
+				final ProblemList problems = SimpleFileHandler.readFile(path, variableObject, format);
 				if (problems != null) {
 					lastProblems.addAll(problems);
 				}
@@ -301,8 +312,7 @@ public abstract class AFileManager<T> implements IFileManager<T>, IEventManager
 			lastProblems.clear();
 			final T tempObject = copyObject(emptyObject);
 			try {
-				final String content = new String(FileSystem.read(path), DEFAULT_CHARSET);
-				final List<Problem> problemList = format.getInstance().read(tempObject, content);
+				final List<Problem> problemList = SimpleFileHandler.readFile(path, tempObject, format);
 				if (problemList != null) {
 					lastProblems.addAll(problemList);
 				}
@@ -366,7 +376,7 @@ public abstract class AFileManager<T> implements IFileManager<T>, IEventManager
 				}
 				modifying = true;
 				final T tempObject = copyObject(variableObject);
-				final byte[] content = format.getInstance().write(tempObject).getBytes(DEFAULT_CHARSET);
+				final byte[] content = SimpleFileHandler.writeContent(tempObject, format);
 				FileSystem.write(path, content);
 				persistentObject = copyObject(tempObject);
 			} catch (final Exception e) {
@@ -25,6 +25,8 @@ import java.nio.file.Paths;
 
 import javax.annotation.CheckForNull;
 
+import org.prop4j.solver.BDDCompiler;
+
 import de.ovgu.featureide.fm.core.ExtensionManager.NoSuchExtensionException;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
@@ -106,6 +108,12 @@ public class FeatureModelManager extends AFileManager<IFeatureModel> {
 		super.override();
 	}
 
+	@Override
+	public void dispose() {
+		super.dispose();
+		BDDCompiler.clearCache();
+	}
+
 	@Override
 	public IFeatureModelFormat getFormat() {
 		return (IFeatureModelFormat) super.getFormat();
@@ -22,15 +22,20 @@ package de.ovgu.featureide.fm.core.io.manager;
 
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 import de.ovgu.featureide.fm.core.base.impl.FormatManager;
 import de.ovgu.featureide.fm.core.io.FileSystem;
+import de.ovgu.featureide.fm.core.io.IBinaryFormat;
 import de.ovgu.featureide.fm.core.io.IPersistentFormat;
 import de.ovgu.featureide.fm.core.io.Problem;
 import de.ovgu.featureide.fm.core.io.ProblemList;
@@ -50,6 +55,11 @@ public class SimpleFileHandler<T> {
 		DEFAULT_CHARSET = utf8 != null ? utf8 : Charset.defaultCharset();
 	}
 
+	/**
+	 * The number of bytes that are read to detect a binary format.
+	 */
+	private static final int BINARY_HEADER_SIZE = 64;
+
 	private IPersistentFormat<T> format;
 
 	private final ProblemList problemList = new ProblemList();
@@ -75,6 +85,13 @@ public class SimpleFileHandler<T> {
 	}
 
 	public static <T> ProblemList load(SimpleFileHandler<T> fileHandler, FormatManager<? extends IPersistentFormat<T>> formatManager) {
+		final IPersistentFormat<T> binaryFormat = getBinaryFormat(fileHandler, formatManager);
+		if (binaryFormat != null) {
+			fileHandler.setFormat(binaryFormat);
+			fileHandler.read();
+			return fileHandler.getLastProblems();
+		}
+
 		final String content = fileHandler.getContent();
 
 		if (content != null) {
@@ -116,6 +133,54 @@ public class SimpleFileHandler<T> {
 		return format.read(object, source);
 	}
 
+	/**
+	 * Returns a {@link IBinaryFormat binary format} that fits the file of the given handler. Only the beginning of the file is read to check its content.
+	 *
+	 * @return the format or {@code null} if the file has no binary format
+	 */
+	static <T> IPersistentFormat<T> getBinaryFormat(SimpleFileHandler<T> fileHandler, FormatManager<? extends IPersistentFormat<T>> formatManager) {
+		final Path path = fileHandler.getPath();
+		final IPersistentFormat<T> format = formatManager.getFormatByFileName(path.getFileName().toString());
+		if ((format instanceof IBinaryFormat) && Files.isReadable(path)) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				final ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER_SIZE);
+				while ((channel.read(header) >= 0) && header.hasRemaining()) {}
+				if (format.supportsContent(new String(header.array(), 0, header.position(), IBinaryFormat.CHARSET))) {
+					return format;
+				}
+			} catch (final IOException e) {
+				fileHandler.getLastProblems().add(new Problem(e));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads a file with the given format. Files in a {@link IBinaryFormat binary format} are read into a heap buffer, all other files are decoded as text.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> ProblemList readFile(Path path, T object, IPersistentFormat<T> format) throws IOException {
+		final IPersistentFormat<T> instance = format.getInstance();
+		if (instance instanceof IBinaryFormat) {
+			return ((IBinaryFormat<T>) instance).read(object, ByteBuffer.wrap(FileSystem.read(path)));
+		} else {
+			return instance.read(object, new String(FileSystem.read(path), DEFAULT_CHARSET));
+		}
+	}
+
+	/**
+	 * Writes the given object with the given format. Binary formats are written without any conversion.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> byte[] writeContent(T object, IPersistentFormat<T> format) {
+		final IPersistentFormat<T> instance = format.getInstance();
+		if (instance instanceof IBinaryFormat) {
+			return ((IBinaryFormat<T>) instance).writeBytes(object);
+		} else {
+			return instance.write(object).getBytes(DEFAULT_CHARSET);
+		}
+	}
+
 	public SimpleFileHandler(Path path, T object, IPersistentFormat<T> format) {
 		this.format = format;
 		this.path = path;
@@ -152,6 +217,18 @@ public class SimpleFileHandler<T> {
 
 	public boolean read() {
 		problemList.clear();
+		if (format.getInstance() instanceof IBinaryFormat) {
+			if (!Files.exists(path)) {
+				problemList.add(new Problem(new FileNotFoundException(path.toString())));
+				return false;
+			}
+			try {
+				problemList.addAll(readFile(path, object, format));
+			} catch (final Exception e) {
+				problemList.add(new Problem(e));
+			}
+			return !problemList.containsError();
+		}
 		return parse(getContent());
 	}
 
@@ -208,7 +285,7 @@ public class SimpleFileHandler<T> {
 	public boolean write() {
 		problemList.clear();
 		try {
-			final byte[] content = format.getInstance().write(object).getBytes(DEFAULT_CHARSET);
+			final byte[] content = writeContent(object, format);
 			FileSystem.write(path, content);
 		} catch (final Exception e) {
 			problemList.add(new Problem(e));
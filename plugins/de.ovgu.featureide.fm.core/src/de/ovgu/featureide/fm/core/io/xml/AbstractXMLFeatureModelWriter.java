@@ -20,26 +20,11 @@
  */
 package de.ovgu.featureide.fm.core.io.xml;
 
-import static de.ovgu.featureide.fm.core.localization.StringTable.YES;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.io.StringWriter;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.io.AbstractObjectWriter;
@@ -68,96 +53,26 @@ public abstract class AbstractXMLFeatureModelWriter<T> extends AbstractObjectWri
 	}
 
 	/**
-	 * Creates XML-Document
-	 *
-	 * @param doc document to write
-	 */
-	protected abstract void createXmlDoc(Document doc);
-
-	/**
-	 * Inserts indentations into the text
+	 * Writes the XML elements of the object, including the indentation, to a streaming writer.
 	 *
-	 * @param text
-	 * @return
+	 * @param writer the writer to write to
+	 * @throws XMLStreamException if the writer fails
 	 */
-	private static String prettyPrint(String text) {
-		final StringBuilder result = new StringBuilder();
-		String line;
-		int indentLevel = 0;
-		final BufferedReader reader = new BufferedReader(new StringReader(text));
-		try {
-			line = reader.readLine();
-			while (line != null) {
-				if (line.startsWith("</")) {
-					indentLevel--;
-					for (int i = 0; i < indentLevel; i++) {
-						result.append("\t");
-					}
-				}
-
-				else if (line.startsWith("<")) {
-					for (int i = 0; i < indentLevel; i++) {
-						result.append("\t");
-					}
-					if (!line.contains("</")) {
-						indentLevel++;
-					}
-				} else {
-					for (int i = 0; i < indentLevel; i++) {
-						result.append("\t");
-					}
-				}
-				result.append(line + "\n");
-				if (line.contains("/>")) {
-					indentLevel--;
-				}
-				line = reader.readLine();
-			}
-		} catch (final IOException e) {
-			Logger.logError(e);
-		}
-		return result.toString();
-	}
+	protected abstract void writeXml(XMLStreamWriter writer) throws XMLStreamException;
 
 	@Override
 	public String writeToString() {
-		// Create Empty DOM Document
-		final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		dbf.setNamespaceAware(true);
-		dbf.setIgnoringComments(true);
-		dbf.setIgnoringElementContentWhitespace(false);
-		dbf.setCoalescing(true);
-		dbf.setExpandEntityReferences(true);
-		DocumentBuilder db = null;
-		try {
-			db = dbf.newDocumentBuilder();
-		} catch (final ParserConfigurationException pce) {
-			Logger.logError(pce);
-		}
-		final Document doc = db.newDocument();
-		// Create the Xml Representation
-		createXmlDoc(doc);
-
-		// Transform the Xml Representation into a String
-		Transformer transfo = null;
+		final StringWriter result = new StringWriter();
+		result.append(XmlFeatureModelFormat.XML_HEADER);
 		try {
-			transfo = TransformerFactory.newInstance().newTransformer();
-		} catch (final TransformerConfigurationException e) {
-			Logger.logError(e);
-		} catch (final TransformerFactoryConfigurationError e) {
+			final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(result);
+			writeXml(writer);
+			writer.flush();
+			writer.close();
+		} catch (final XMLStreamException e) {
 			Logger.logError(e);
 		}
-
-		transfo.setOutputProperty(OutputKeys.METHOD, "xml");
-		transfo.setOutputProperty(OutputKeys.INDENT, YES);
-		final StreamResult result = new StreamResult(new StringWriter());
-		final DOMSource source = new DOMSource(doc);
-		try {
-			transfo.transform(source, result);
-		} catch (final TransformerException e) {
-			Logger.logError(e);
-		}
-
-		return prettyPrint(result.getWriter().toString());
+		result.append('\n');
+		return result.toString();
 	}
 }
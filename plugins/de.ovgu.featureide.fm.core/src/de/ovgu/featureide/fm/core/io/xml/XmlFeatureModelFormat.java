@@ -28,27 +28,36 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.MANDATORY;
 import static de.ovgu.featureide.fm.core.localization.StringTable.NOT;
 import static de.ovgu.featureide.fm.core.localization.StringTable.WRONG_SYNTAX;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.prop4j.And;
 import org.prop4j.AtMost;
 import org.prop4j.Equals;
 import org.prop4j.Implies;
 import org.prop4j.Literal;
+import org.prop4j.Node;
 import org.prop4j.Not;
 import org.prop4j.Or;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Text;
 
+import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.PluginID;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IConstraint;
@@ -60,24 +69,53 @@ import de.ovgu.featureide.fm.core.base.IPropertyContainer.Type;
 import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
 import de.ovgu.featureide.fm.core.io.IFeatureModelFormat;
 import de.ovgu.featureide.fm.core.io.Problem;
+import de.ovgu.featureide.fm.core.io.ProblemList;
 import de.ovgu.featureide.fm.core.io.UnsupportedModelException;
-import de.ovgu.featureide.fm.core.io.xml.XmlPropertyLoader.PropertiesParser;
 
 /**
- * Reads / Writes a feature model in the FeatureIDE XML format
+ * Reads / Writes a feature model in the FeatureIDE XML format.<br> Both directions work on a stream of XML events (StAX) instead of a DOM tree. Features and
+ * constraints are created while the document is read, and the output is written with a fixed tab indentation that does not depend on the installed XML
+ * transformer.
  *
  * @author Jens Meinicke
  * @author Marcus Pinnecke
  * @author Sebastian Krieter
  */
-public class XmlFeatureModelFormat extends AXMLFormat<IFeatureModel> implements IFeatureModelFormat {
+public class XmlFeatureModelFormat implements IFeatureModelFormat, XMLFeatureModelTags {
 
 	public static final String ID = PluginID.PLUGIN_ID + ".format.fm." + XmlFeatureModelFormat.class.getSimpleName();
 
+	private static final String SUFFIX = "xml";
+
+	static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+
 	private static final Pattern CONTENT_REGEX = Pattern.compile("\\A\\s*(<[?]xml\\s.*[?]>\\s*)?<featureModel[\\s>]");
 
+	/**
+	 * A feature name that is referenced by a constraint or the feature order. References are checked after the whole document has been read, as the
+	 * sections may appear in any order.
+	 */
+	private static final class FeatureReference {
+
+		private final String name;
+		private final int line;
+
+		public FeatureReference(String name, int line) {
+			this.name = name;
+			this.line = line;
+		}
+
+	}
+
+	private IFeatureModel object;
+
 	private IFeatureModelFactory factory;
 
+	private final List<Node> constraintNodes = new ArrayList<>();
+	private final List<String> featureOrder = new ArrayList<>();
+	private final List<FeatureReference> featureReferences = new ArrayList<>();
+	private final Map<String, Set<Entry<String, Type, Object>>> customProperties = new LinkedHashMap<>();
+
 	@Override
 	public boolean supportsRead() {
 		return true;
@@ -89,295 +127,151 @@ public class XmlFeatureModelFormat extends AXMLFormat<IFeatureModel> implements
 	}
 
 	@Override
-	protected void readDocument(Document doc, List<Problem> warnings) throws UnsupportedModelException {
-		object.reset();
+	public ProblemList read(IFeatureModel object, CharSequence source) {
+		this.object = object;
+		final ProblemList lastWarnings = new ProblemList();
+		XMLStreamReader reader = null;
+		try {
+			final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+			inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+			inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+			reader = inputFactory.createXMLStreamReader(new StringReader(source.toString()));
+			readFeatureModel(reader);
+		} catch (final XMLStreamException e) {
+			lastWarnings.add(new Problem(e, getLineNumber(e.getLocation())));
+		} catch (final UnsupportedModelException e) {
+			lastWarnings.add(new Problem(e, e.lineNumber));
+		} catch (final Exception e) {
+			lastWarnings.add(new Problem(e));
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (final XMLStreamException e) {
+					Logger.logError(e);
+				}
+			}
+			constraintNodes.clear();
+			featureOrder.clear();
+			featureReferences.clear();
+			customProperties.clear();
+		}
+		return lastWarnings;
+	}
 
+	private void readFeatureModel(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		object.reset();
 		factory = FMFactoryManager.getFactory(object);
 
-		final Collection<PropertiesParser> customProperties = new ArrayList<>();
-
-		for (final Element e : getElements(doc.getElementsByTagName(FEATURE_MODEL))) {
-			parseStruct(e.getElementsByTagName(STRUCT));
-			parseConstraints(e.getElementsByTagName(CONSTRAINTS));
-			parseCalculations(e.getElementsByTagName(CALCULATIONS));
-			parseComments(e.getElementsByTagName(COMMENTS));
-			parseFeatureOrder(e.getElementsByTagName(FEATURE_ORDER));
-
-			final XmlPropertyLoader propertyLoader = new XmlPropertyLoader(e.getElementsByTagName(PROPERTIES));
-			customProperties.addAll(propertyLoader.parseProperties());
+		if (!nextElement(reader) || !reader.getLocalName().equals(FEATURE_MODEL)) {
+			throw new UnsupportedModelException(WRONG_SYNTAX, getLineNumber(reader.getLocation()));
+		}
+		while (nextElement(reader)) {
+			final String nodeName = reader.getLocalName();
+			if (nodeName.equals(STRUCT)) {
+				parseStruct(reader);
+			} else if (nodeName.equals(CONSTRAINTS)) {
+				parseConstraints(reader);
+			} else if (nodeName.equals(CALCULATIONS)) {
+				parseCalculations(reader);
+			} else if (nodeName.equals(COMMENTS)) {
+				parseComments(reader);
+			} else if (nodeName.equals(FEATURE_ORDER)) {
+				parseFeatureOrder(reader);
+			} else if (nodeName.equals(PROPERTIES)) {
+				parseProperties(reader);
+			} else {
+				skipElement(reader);
+			}
 		}
 
 		if (object.getStructure().getRoot() == null) {
 			throw new UnsupportedModelException(WRONG_SYNTAX, 1);
 		}
 
-		importCustomProperties(customProperties, object);
-	}
-
-	@Override
-	protected void writeDocument(Document doc) {
-		final Element root = doc.createElement(FEATURE_MODEL);
-		final Element struct = doc.createElement(STRUCT);
-		final Element properties = doc.createElement(PROPERTIES);
-		final Element constraints = doc.createElement(CONSTRAINTS);
-		final Element calculations = doc.createElement(CALCULATIONS);
-		final Element comments = doc.createElement(COMMENTS);
-		final Element order = doc.createElement(FEATURE_ORDER);
-
-		doc.appendChild(root);
-		root.appendChild(properties);
-		createXmlPropertiesPart(doc, properties, object);
-
-		root.appendChild(struct);
-		createXmlDocRec(doc, struct, FeatureUtils.getRoot(object));
-
-		root.appendChild(constraints);
-		for (int i = 0; i < object.getConstraints().size(); i++) {
-			Element rule;
-			rule = doc.createElement(RULE);
-
-			constraints.appendChild(rule);
-			createPropositionalConstraints(doc, rule, object.getConstraints().get(i).getNode());
-		}
-
-		root.appendChild(calculations);
-		calculations.setAttribute(CALCULATE_AUTO, "" + object.getAnalyser().runCalculationAutomatically);
-		calculations.setAttribute(CALCULATE_FEATURES, "" + object.getAnalyser().calculateFeatures);
-		calculations.setAttribute(CALCULATE_CONSTRAINTS, "" + object.getAnalyser().calculateConstraints);
-		calculations.setAttribute(CALCULATE_REDUNDANT, "" + object.getAnalyser().calculateRedundantConstraints);
-		calculations.setAttribute(CALCULATE_TAUTOLOGY, "" + object.getAnalyser().calculateTautologyConstraints);
-
-		root.appendChild(comments);
-		for (final String comment : object.getProperty().getComments()) {
-			final Element c = doc.createElement(C);
-			comments.appendChild(c);
-			final Text text = doc.createTextNode(comment);
-			c.appendChild(text);
-		}
-		order.setAttribute(USER_DEFINED, Boolean.toString(object.isFeatureOrderUserDefined()));
-		root.appendChild(order);
-
-		if (object.isFeatureOrderUserDefined()) {
-			Collection<String> featureOrderList = object.getFeatureOrderList();
-
-			if (featureOrderList.isEmpty()) {
-				featureOrderList = FeatureUtils.extractConcreteFeaturesAsStringList(object);
-			}
-
-			for (final String featureName : featureOrderList) {
-				final Element feature = doc.createElement(FEATURE);
-				feature.setAttribute(NAME, featureName);
-				order.appendChild(feature);
+		for (final FeatureReference reference : featureReferences) {
+			if (object.getFeature(reference.name) == null) {
+				throw new UnsupportedModelException("Feature \"" + reference.name + "\" does not exists", reference.line);
 			}
 		}
-	}
-
-	private Node createFeaturePropertyContainerNode(Document doc, String featureName, Set<Entry<String, Type, Object>> propertyEntries) {
-		final Element result = doc.createElement(FEATURE);
-		result.setAttribute(NAME, featureName);
-		for (final Entry<String, Type, Object> entry : propertyEntries) {
-			result.appendChild(createPropertyEntriesNode(doc, entry));
+		for (final Node node : constraintNodes) {
+			object.addConstraint(factory.createConstraint(object, node));
 		}
-		return result;
-	}
-
-	private Node createPropertyEntriesNode(Document doc, Entry<String, Type, Object> entry) {
-		final Element propertyElement = doc.createElement(XmlPropertyLoader.PROPERTY);
-		propertyElement.setAttribute(XmlPropertyLoader.KEY, entry.getKey());
-		propertyElement.setAttribute(XmlPropertyLoader.VALUE, entry.getValue().toString());
-		propertyElement.setAttribute(XmlPropertyLoader.TYPE, entry.getType().toString());
-		return propertyElement;
-	}
-
-	/**
-	 * Inserts the tags concerning propositional constraints into the DOM document representation
-	 *
-	 * @param doc
-	 * @param FeatMod Parent node for the propositional nodes
-	 */
-	private void createPropositionalConstraints(Document doc, Element xmlNode, org.prop4j.Node node) {
-		if (node == null) {
-			return;
+		if (!featureOrder.isEmpty()) {
+			object.setFeatureOrderList(new ArrayList<>(featureOrder));
 		}
-
-		Element op;
-		if (node instanceof Literal) {
-			Literal literal = (Literal) node;
-			if (literal.positive) {
-				op = doc.createElement(VAR);
-				xmlNode.appendChild(op);
-				op.appendChild(doc.createTextNode(node.toString()));
-			} else {
-				op = doc.createElement(NOT);
-				xmlNode.appendChild(op);
-				literal = literal.clone();
-				literal.positive = true;
-				createPropositionalConstraints(doc, op, literal);
-			}
-			return;
-		}
-
-		if (node instanceof And) {
-			op = doc.createElement(CONJ);
-			xmlNode.appendChild(op);
-		} else if (node instanceof Or) {
-			op = doc.createElement(DISJ);
-			xmlNode.appendChild(op);
-		} else if (node instanceof Not) {
-			op = doc.createElement(NOT);
-			xmlNode.appendChild(op);
-		} else if (node instanceof Equals) {
-			op = doc.createElement(EQ);
-			xmlNode.appendChild(op);
-		} else if (node instanceof Implies) {
-			op = doc.createElement(IMP);
-			xmlNode.appendChild(op);
-		} else if (node instanceof AtMost) {
-			op = doc.createElement(ATMOST1);
-			xmlNode.appendChild(op);
-		} else {
-			op = doc.createElement(UNKNOWN);
-			xmlNode.appendChild(op);
-		}
-
-		final org.prop4j.Node[] children = node.getChildren();
-
-		for (int i = 0; i < children.length; i++) {
-			createPropositionalConstraints(doc, op, children[i]);
+		for (final Map.Entry<String, Set<Entry<String, Type, Object>>> properties : customProperties.entrySet()) {
+			object.getFeature(properties.getKey()).getCustomProperties().setEntrySet(properties.getValue());
 		}
 	}
 
 	/**
-	 * Creates document based on feature model step by step
+	 * Moves the reader to the next child element of the current element.
 	 *
-	 * @param doc document to write
-	 * @param node parent node
-	 * @param feat current feature
+	 * @param reader the XML reader
+	 * @return {@code true} if the reader is positioned at the start of a child element, {@code false} if the end of the current element was reached
 	 */
-	private void createXmlDocRec(Document doc, Element node, IFeature feat) {
-		if (feat == null) {
-			return;
-		}
-
-		final List<IFeature> children = FeatureUtils.convertToFeatureList(feat.getStructure().getChildren());
-
-		final Element fnod;
-		if (children.isEmpty()) {
-			fnod = doc.createElement(FEATURE);
-			addDescription(doc, feat, fnod);
-			writeAttributes(node, fnod, feat);
-		} else {
-			if (feat.getStructure().isAnd()) {
-				fnod = doc.createElement(AND);
-			} else if (feat.getStructure().isOr()) {
-				fnod = doc.createElement(OR);
-			} else if (feat.getStructure().isAlternative()) {
-				fnod = doc.createElement(ALT);
-			} else {
-				fnod = doc.createElement(UNKNOWN);// Logger.logInfo("creatXMlDockRec: Unexpected error!");
-			}
-
-			addDescription(doc, feat, fnod);
-			writeAttributes(node, fnod, feat);
-
-			for (final IFeature feature : children) {
-				createXmlDocRec(doc, fnod, feature);
+	private static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				return true;
+			case XMLStreamConstants.END_ELEMENT:
+				return false;
+			default:
+				break;
 			}
-
-		}
-
-	}
-
-	protected void addDescription(Document doc, IFeature feat, Element fnod) {
-		final String description = feat.getProperty().getDescription();
-		if ((description != null) && !description.trim().isEmpty()) {
-			final Element descr = doc.createElement(DESCRIPTION);
-			descr.setTextContent("\n" + description.replace("\r", "") + "\n");
-			fnod.appendChild(descr);
 		}
+		return false;
 	}
 
-	private void createXmlPropertiesPart(Document doc, Element propertiesNode, IFeatureModel featureModel) {
-
-		if ((featureModel == null) || (propertiesNode == null)) {
-			throw new RuntimeException();
-		}
-
-		// Store per-feature properties
-		for (final IFeature feature : featureModel.getFeatures()) {
-			final String featureName = feature.getName();
-			final Set<Entry<String, Type, Object>> propertyEntries = feature.getCustomProperties().entrySet();
-			if (!propertyEntries.isEmpty()) {
-				propertiesNode.appendChild(createFeaturePropertyContainerNode(doc, featureName, propertyEntries));
-			}
+	/**
+	 * Skips the current element including all of its children.
+	 */
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		while (nextElement(reader)) {
+			skipElement(reader);
 		}
-
-		// TODO: Add here other property container, e.g., feature model
-		// ...
 	}
 
-	private void importCustomProperties(Collection<PropertiesParser> customProperties, IFeatureModel object) {
-		for (final PropertiesParser parser : customProperties) {
-			switch (parser.getType()) {
-			case FEATURE_PROPERTIES_PARSER: {
-				for (final String featureName : parser.getIdentifier()) {
-					object.getFeature(featureName).getCustomProperties().setEntrySet(parser.getPropertyEntries(featureName));
-				}
-			}
-				break;
-			default:
-				throw new UnsupportedOperationException("Unkown property container parser type " + parser.getType());
-			}
-		}
+	private static int getLineNumber(Location location) {
+		return location != null ? location.getLineNumber() : 1;
 	}
 
 	/**
 	 * Parses the calculations.
 	 */
-	private void parseCalculations(NodeList nodeList) throws UnsupportedModelException {
-		for (final Element e : getElements(nodeList)) {
-			if (e.hasAttributes()) {
-				final NamedNodeMap nodeMap = e.getAttributes();
-				for (int i = 0; i < nodeMap.getLength(); i++) {
-					final org.w3c.dom.Node node = nodeMap.item(i);
-					final String nodeName = node.getNodeName();
-					final boolean value = node.getNodeValue().equals(TRUE);
-					if (nodeName.equals(CALCULATE_AUTO)) {
-						object.getAnalyser().runCalculationAutomatically = value;
-					} else if (nodeName.equals(CALCULATE_CONSTRAINTS)) {
-						object.getAnalyser().calculateConstraints = value;
-					} else if (nodeName.equals(CALCULATE_REDUNDANT)) {
-						object.getAnalyser().calculateRedundantConstraints = value;
-					} else if (nodeName.equals(CALCULATE_FEATURES)) {
-						object.getAnalyser().calculateFeatures = value;
-					} else if (nodeName.equals(CALCULATE_TAUTOLOGY)) {
-						object.getAnalyser().calculateTautologyConstraints = value;
-					} else {
-						throwError("Unknown calculations attribute: " + nodeName, e);
-					}
-
-				}
+	private void parseCalculations(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			final String attributeName = reader.getAttributeLocalName(i);
+			final boolean value = reader.getAttributeValue(i).equals(TRUE);
+			if (attributeName.equals(CALCULATE_AUTO)) {
+				object.getAnalyser().runCalculationAutomatically = value;
+			} else if (attributeName.equals(CALCULATE_CONSTRAINTS)) {
+				object.getAnalyser().calculateConstraints = value;
+			} else if (attributeName.equals(CALCULATE_REDUNDANT)) {
+				object.getAnalyser().calculateRedundantConstraints = value;
+			} else if (attributeName.equals(CALCULATE_FEATURES)) {
+				object.getAnalyser().calculateFeatures = value;
+			} else if (attributeName.equals(CALCULATE_TAUTOLOGY)) {
+				object.getAnalyser().calculateTautologyConstraints = value;
+			} else {
+				throwError("Unknown calculations attribute: " + attributeName, reader);
 			}
 		}
+		skipElement(reader);
 	}
 
 	/**
 	 * Parses the comment section.
 	 */
-	private void parseComments(NodeList nodeList) throws UnsupportedModelException {
-		for (final Element e : getElements(nodeList)) {
-			if (e.hasChildNodes()) {
-				parseComments2(e.getChildNodes());
-			}
-		}
-	}
-
-	private void parseComments2(NodeList nodeList) throws UnsupportedModelException {
-		for (final Element e : getElements(nodeList)) {
-			if (e.getNodeName().equals(C)) {
-				object.getProperty().addComment(e.getTextContent());
+	private void parseComments(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		while (nextElement(reader)) {
+			final String nodeName = reader.getLocalName();
+			if (nodeName.equals(C)) {
+				object.getProperty().addComment(reader.getElementText());
 			} else {
-				throwError("Unknown comment attribute: " + e.getNodeName(), e);
+				throwError("Unknown comment attribute: " + nodeName, reader);
 			}
 		}
 	}
@@ -385,60 +279,51 @@ public class XmlFeatureModelFormat extends AXMLFormat<IFeatureModel> implements
 	/**
 	 * Parses the constraint section.
 	 */
-	private void parseConstraints(NodeList nodeList) throws UnsupportedModelException {
-		for (final Element e : getElements(nodeList)) {
-			for (final Element child : getElements(e.getChildNodes())) {
-				final String nodeName = child.getNodeName();
-				if (nodeName.equals(RULE)) {
-					final IConstraint c = factory.createConstraint(object, parseConstraints2(child.getChildNodes()).getFirst());
-					if (child.hasAttributes()) {
-						final NamedNodeMap nodeMap = child.getAttributes();
-						for (int i = 0; i < nodeMap.getLength(); i++) {
-							final org.w3c.dom.Node node = nodeMap.item(i);
-							final String attributeName = node.getNodeName();
-							if (attributeName.equals(COORDINATES)) {
-								// Legacy case, for backwards compatibility
-							} else {
-								throwError("Unknown constraint attribute: " + attributeName, node);
-							}
-						}
+	private void parseConstraints(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		while (nextElement(reader)) {
+			final String nodeName = reader.getLocalName();
+			if (nodeName.equals(RULE)) {
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					final String attributeName = reader.getAttributeLocalName(i);
+					if (attributeName.equals(COORDINATES)) {
+						// Legacy case, for backwards compatibility
+					} else {
+						throwError("Unknown constraint attribute: " + attributeName, reader);
 					}
-					object.addConstraint(c);
-				} else {
-					throwError("Unknown constraint node: " + nodeName, child);
 				}
+				constraintNodes.add(parseConstraints2(reader).getFirst());
+			} else {
+				throwError("Unknown constraint node: " + nodeName, reader);
 			}
 		}
 	}
 
-	private LinkedList<org.prop4j.Node> parseConstraints2(NodeList nodeList) throws UnsupportedModelException {
-		final LinkedList<org.prop4j.Node> nodes = new LinkedList<>();
-		LinkedList<org.prop4j.Node> children;
-		for (final Element e : getElements(nodeList)) {
-			final String nodeName = e.getNodeName();
+	private LinkedList<Node> parseConstraints2(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		final LinkedList<Node> nodes = new LinkedList<>();
+		LinkedList<Node> children;
+		while (nextElement(reader)) {
+			final String nodeName = reader.getLocalName();
 			if (nodeName.equals(DISJ)) {
-				nodes.add(new Or(parseConstraints2(e.getChildNodes())));
+				nodes.add(new Or(parseConstraints2(reader)));
 			} else if (nodeName.equals(CONJ)) {
-				nodes.add(new And(parseConstraints2(e.getChildNodes())));
+				nodes.add(new And(parseConstraints2(reader)));
 			} else if (nodeName.equals(EQ)) {
-				children = parseConstraints2(e.getChildNodes());
+				children = parseConstraints2(reader);
 				nodes.add(new Equals(children.get(0), children.get(1)));
 			} else if (nodeName.equals(IMP)) {
-				children = parseConstraints2(e.getChildNodes());
+				children = parseConstraints2(reader);
 				nodes.add(new Implies(children.get(0), children.get(1)));
 			} else if (nodeName.equals(NOT)) {
-				nodes.add(new Not((parseConstraints2(e.getChildNodes())).getFirst()));
+				nodes.add(new Not((parseConstraints2(reader)).getFirst()));
 			} else if (nodeName.equals(ATMOST1)) {
-				nodes.add(new AtMost(1, parseConstraints2(e.getChildNodes())));
+				nodes.add(new AtMost(1, parseConstraints2(reader)));
 			} else if (nodeName.equals(VAR)) {
-				final String featureName = e.getTextContent();
-				if (object.getFeature(featureName) != null) {
-					nodes.add(new Literal(featureName));
-				} else {
-					throwError("Feature \"" + featureName + "\" does not exists", e);
-				}
+				final int line = getLineNumber(reader.getLocation());
+				final String featureName = reader.getElementText();
+				featureReferences.add(new FeatureReference(featureName, line));
+				nodes.add(new Literal(featureName));
 			} else {
-				throwError("Unknown constraint type: " + nodeName, e);
+				throwError("Unknown constraint type: " + nodeName, reader);
 			}
 		}
 		return nodes;
@@ -447,115 +332,105 @@ public class XmlFeatureModelFormat extends AXMLFormat<IFeatureModel> implements
 	/**
 	 * Parses the feature order section.
 	 */
-	private void parseFeatureOrder(NodeList nodeList) throws UnsupportedModelException {
-		final ArrayList<String> order = new ArrayList<>(object.getNumberOfFeatures());
-		for (final Element e : getElements(nodeList)) {
-			if (e.hasAttributes()) {
-				final NamedNodeMap nodeMap = e.getAttributes();
-				for (int i = 0; i < nodeMap.getLength(); i++) {
-					final org.w3c.dom.Node node = nodeMap.item(i);
-					final String attributeName = node.getNodeName();
-					final String attributeValue = node.getNodeValue();
-					if (attributeName.equals(USER_DEFINED)) {
-						object.setFeatureOrderUserDefined(attributeValue.equals(TRUE));
-					} else if (attributeName.equals(NAME)) {
-						if (object.getFeature(attributeValue) != null) {
-							order.add(attributeValue);
-						} else {
-							throwError("Feature \"" + attributeValue + "\" does not exists", e);
-						}
-					} else {
-						throwError("Unknown feature order attribute: " + attributeName, e);
-					}
-
-				}
-			}
-			if (e.hasChildNodes()) {
-				parseFeatureOrder(e.getChildNodes());
+	private void parseFeatureOrder(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			final String attributeName = reader.getAttributeLocalName(i);
+			final String attributeValue = reader.getAttributeValue(i);
+			if (attributeName.equals(USER_DEFINED)) {
+				object.setFeatureOrderUserDefined(attributeValue.equals(TRUE));
+			} else if (attributeName.equals(NAME)) {
+				featureReferences.add(new FeatureReference(attributeValue, getLineNumber(reader.getLocation())));
+				featureOrder.add(attributeValue);
+			} else {
+				throwError("Unknown feature order attribute: " + attributeName, reader);
 			}
 		}
-		if (!order.isEmpty()) {
-			object.setFeatureOrderList(order);
+		while (nextElement(reader)) {
+			parseFeatureOrder(reader);
 		}
 	}
 
-	private void parseFeatures(NodeList nodeList, IFeature parent) throws UnsupportedModelException {
-		for (final Element e : getElements(nodeList)) {
-			final String nodeName = e.getNodeName();
-			if (nodeName.equals(DESCRIPTION)) {
-				/* case: description */
-				String nodeValue = e.getFirstChild().getNodeValue();
-				if ((nodeValue != null) && !nodeValue.isEmpty()) {
-					nodeValue = nodeValue.replace("\t", "");
-					nodeValue = nodeValue.substring(1, nodeValue.length() - 1);
-					nodeValue = nodeValue.trim();
-				}
-				parent.getProperty().setDescription(nodeValue);
-				continue;
+	private void parseFeatures(XMLStreamReader reader, IFeature parent) throws XMLStreamException, UnsupportedModelException {
+		final String nodeName = reader.getLocalName();
+		if (nodeName.equals(DESCRIPTION)) {
+			/* case: description */
+			String nodeValue = reader.getElementText();
+			if ((nodeValue != null) && !nodeValue.isEmpty()) {
+				nodeValue = nodeValue.replace("\t", "");
+				nodeValue = nodeValue.substring(1, nodeValue.length() - 1);
+				nodeValue = nodeValue.trim();
 			}
-			boolean mandatory = false;
-			boolean _abstract = false;
-			boolean hidden = false;
-			String name = "";
-			// FMPoint featureLocation = null;
-			if (e.hasAttributes()) {
-				final NamedNodeMap nodeMap = e.getAttributes();
-				for (int i = 0; i < nodeMap.getLength(); i++) {
-					final org.w3c.dom.Node node = nodeMap.item(i);
-					final String attributeName = node.getNodeName();
-					final String attributeValue = node.getNodeValue();
-					if (attributeName.equals(ABSTRACT)) {
-						_abstract = attributeValue.equals(TRUE);
-					} else if (attributeName.equals(MANDATORY)) {
-						mandatory = attributeValue.equals(TRUE);
-					} else if (attributeName.equals(NAME)) {
-						name = attributeValue;
-					} else if (attributeName.equals(HIDDEN)) {
-						hidden = attributeValue.equals(TRUE);
-					} else if (attributeName.equals(COORDINATES)) {
-						// Legacy case, for backwards compatibility
-					} else {
-						throwError("Unknown feature attribute: " + attributeName, e);
-					}
-
-				}
+			parent.getProperty().setDescription(nodeValue);
+			return;
+		}
+		boolean mandatory = false;
+		boolean _abstract = false;
+		boolean hidden = false;
+		String name = "";
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			final String attributeName = reader.getAttributeLocalName(i);
+			final String attributeValue = reader.getAttributeValue(i);
+			if (attributeName.equals(ABSTRACT)) {
+				_abstract = attributeValue.equals(TRUE);
+			} else if (attributeName.equals(MANDATORY)) {
+				mandatory = attributeValue.equals(TRUE);
+			} else if (attributeName.equals(NAME)) {
+				name = attributeValue;
+			} else if (attributeName.equals(HIDDEN)) {
+				hidden = attributeValue.equals(TRUE);
+			} else if (attributeName.equals(COORDINATES)) {
+				// Legacy case, for backwards compatibility
+			} else {
+				throwError("Unknown feature attribute: " + attributeName, reader);
 			}
+		}
 
-			if (object.getFeature(name) != null) {
-				throwError("Duplicate entry for feature: " + name, e);
-			}
-			// TODO Consider feature name validity in all readers
-			// if (!object.getFMComposerExtension().isValidFeatureName(name)) {
-			// throwError(name + IS_NO_VALID_FEATURE_NAME, e);
-			// }
-			final IFeature f = factory.createFeature(object, name);
-			f.getStructure().setMandatory(true);
-			if (nodeName.equals(AND)) {
-				f.getStructure().setAnd();
-			} else if (nodeName.equals(ALT)) {
-				f.getStructure().setAlternative();
-			} else if (nodeName.equals(OR)) {
-				f.getStructure().setOr();
-			} else if (nodeName.equals(FEATURE)) {
+		if (object.getFeature(name) != null) {
+			throwError("Duplicate entry for feature: " + name, reader);
+		}
+		final IFeature f = factory.createFeature(object, name);
+		if (nodeName.equals(AND)) {
+			f.getStructure().setAnd();
+		} else if (nodeName.equals(ALT)) {
+			f.getStructure().setAlternative();
+		} else if (nodeName.equals(OR)) {
+			f.getStructure().setOr();
+		} else if (nodeName.equals(FEATURE)) {
 
-			} else {
-				throwError("Unknown feature type: " + nodeName, e);
-			}
-			f.getStructure().setAbstract(_abstract);
-			f.getStructure().setMandatory(mandatory);
-			f.getStructure().setHidden(hidden);
+		} else {
+			throwError("Unknown feature type: " + nodeName, reader);
+		}
+		f.getStructure().setAbstract(_abstract);
+		f.getStructure().setMandatory(mandatory);
+		f.getStructure().setHidden(hidden);
 
-			object.addFeature(f);
-			if (parent == null) {
-				object.getStructure().setRoot(f.getStructure());
-			} else {
-				parent.getStructure().addChild(f.getStructure());
+		object.addFeature(f);
+		if (parent == null) {
+			object.getStructure().setRoot(f.getStructure());
+		} else {
+			parent.getStructure().addChild(f.getStructure());
+		}
+		boolean hasChildNodes = false;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
 			}
-			if (e.hasChildNodes()) {
-				parseFeatures(e.getChildNodes(), f);
+			hasChildNodes = true;
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				parseFeatures(reader, f);
 			}
 		}
+		if (hasChildNodes) {
+			checkOrGroups();
+		}
+	}
 
+	/**
+	 * Turns or-groups with at most one child into and-groups.<br> As in previous versions, this check runs after the content of every feature element and
+	 * thus also applies to or-groups whose children are not read completely yet.
+	 */
+	private void checkOrGroups() {
 		// Check that there are only OR connections when the parent has more than one feature
 		for (final IFeature f : object.getFeatures()) {
 			if (f.getStructure().isOr() && (f.getStructure().getChildrenCount() <= 1)) {
@@ -567,45 +442,327 @@ public class XmlFeatureModelFormat extends AXMLFormat<IFeatureModel> implements
 	/**
 	 * Parse the struct section to add features to the model.
 	 */
-	private void parseStruct(NodeList struct) throws UnsupportedModelException {
-		for (final Element e : getElements(struct)) {
-			parseFeatures(e.getChildNodes(), null);
+	private void parseStruct(XMLStreamReader reader) throws XMLStreamException, UnsupportedModelException {
+		while (nextElement(reader)) {
+			parseFeatures(reader, null);
+		}
+		checkOrGroups();
+	}
+
+	/**
+	 * Parses the custom properties of all features.
+	 */
+	private void parseProperties(XMLStreamReader reader) throws XMLStreamException {
+		while (nextElement(reader)) {
+			final String tagName = reader.getLocalName();
+			if (!tagName.equals(XmlPropertyLoader.FEATURE)) {
+				throw new UnsupportedOperationException("Unkown domain which contains properties. Don't know where to attach them:" + tagName);
+			}
+			final String featureName = reader.getAttributeValue(null, XmlPropertyLoader.NAME);
+			if (featureName == null) {
+				throw new UnsupportedOperationException("Property container of type feature is missing required name attribute");
+			}
+			customProperties.put(featureName, parsePropertyEntries(reader, featureName));
+		}
+	}
+
+	private Set<Entry<String, Type, Object>> parsePropertyEntries(XMLStreamReader reader, String featureName) throws XMLStreamException {
+		final Set<Entry<String, Type, Object>> result = new HashSet<>();
+		while (nextElement(reader)) {
+			if (reader.getLocalName().equals(XmlPropertyLoader.PROPERTY)) {
+				final String key = reader.getAttributeValue(null, XmlPropertyLoader.KEY);
+				final String value = reader.getAttributeValue(null, XmlPropertyLoader.VALUE);
+				final String typeName = reader.getAttributeValue(null, XmlPropertyLoader.TYPE);
+				if ((key == null) || (value == null) || (typeName == null)) {
+					throw new UnsupportedOperationException("One property of container " + featureName + " is missing one of the required attributes: "
+						+ XmlPropertyLoader.KEY + ", " + XmlPropertyLoader.VALUE + "," + XmlPropertyLoader.TYPE);
+				}
+				final Type type = Type.valueOf(typeName);
+				final Entry<String, Type, Object> entry = new Entry<String, Type, Object>(key, type, XmlPropertyLoader.castValue(type, value));
+				if (!result.add(entry)) {
+					for (final Entry<String, Type, Object> e : result) {
+						if (e.equals(entry) && (!(e.getValue().equals(entry.getValue()) && (e.getType().equals(entry.getType()))))) {
+							throw new IllegalStateException("Ambigous property definition for key: " + key);
+						}
+					}
+				}
+			}
+			skipElement(reader);
 		}
+		return result;
 	}
 
 	/**
 	 * Throws an error that will be used for error markers
 	 *
 	 * @param message The error message
-	 * @param tempNode The node that causes the error. this node is used for positioning.
+	 * @param reader The reader positioned at the element that causes the error. Its location is used for positioning.
 	 */
-	private void throwError(String message, org.w3c.dom.Node node) throws UnsupportedModelException {
-		throw new UnsupportedModelException(message, Integer.parseInt(node.getUserData(PositionalXMLHandler.LINE_NUMBER_KEY_NAME).toString()));
+	private void throwError(String message, XMLStreamReader reader) throws UnsupportedModelException {
+		throw new UnsupportedModelException(message, getLineNumber(reader.getLocation()));
+	}
+
+	@Override
+	public String write(IFeatureModel object) {
+		final StringWriter result = new StringWriter();
+		result.append(XML_HEADER);
+		try {
+			final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(result);
+			writeFeatureModel(writer, object);
+			writer.flush();
+			writer.close();
+		} catch (final XMLStreamException e) {
+			Logger.logError(e);
+		}
+		result.append('\n');
+		return result.toString();
+	}
+
+	void writeFeatureModel(XMLStreamWriter writer, IFeatureModel featureModel) throws XMLStreamException {
+		writeStartElement(writer, FEATURE_MODEL, 1, true);
+
+		final List<IFeature> featuresWithProperties = new ArrayList<>();
+		for (final IFeature feature : featureModel.getFeatures()) {
+			if (!feature.getCustomProperties().entrySet().isEmpty()) {
+				featuresWithProperties.add(feature);
+			}
+		}
+		writeStartElement(writer, PROPERTIES, 2, !featuresWithProperties.isEmpty());
+		if (!featuresWithProperties.isEmpty()) {
+			for (final IFeature feature : featuresWithProperties) {
+				writeFeatureProperties(writer, feature, 3);
+			}
+			writeEndElement(writer, 2);
+		}
+
+		final IFeature root = FeatureUtils.getRoot(featureModel);
+		writeStartElement(writer, STRUCT, 2, root != null);
+		if (root != null) {
+			writeFeature(writer, root, 3);
+			writeEndElement(writer, 2);
+		}
+
+		final List<IConstraint> constraints = featureModel.getConstraints();
+		writeStartElement(writer, CONSTRAINTS, 2, !constraints.isEmpty());
+		if (!constraints.isEmpty()) {
+			for (final IConstraint constraint : constraints) {
+				final Node node = constraint.getNode();
+				writeStartElement(writer, RULE, 3, node != null);
+				if (node != null) {
+					writeConstraintNode(writer, node, 4);
+					writeEndElement(writer, 3);
+				}
+			}
+			writeEndElement(writer, 2);
+		}
+
+		writeStartElement(writer, CALCULATIONS, 2, false);
+		writer.writeAttribute(CALCULATE_AUTO, Boolean.toString(featureModel.getAnalyser().runCalculationAutomatically));
+		writer.writeAttribute(CALCULATE_CONSTRAINTS, Boolean.toString(featureModel.getAnalyser().calculateConstraints));
+		writer.writeAttribute(CALCULATE_FEATURES, Boolean.toString(featureModel.getAnalyser().calculateFeatures));
+		writer.writeAttribute(CALCULATE_REDUNDANT, Boolean.toString(featureModel.getAnalyser().calculateRedundantConstraints));
+		writer.writeAttribute(CALCULATE_TAUTOLOGY, Boolean.toString(featureModel.getAnalyser().calculateTautologyConstraints));
+
+		final List<String> comments = new ArrayList<>();
+		for (final String comment : featureModel.getProperty().getComments()) {
+			comments.add(comment);
+		}
+		writeStartElement(writer, COMMENTS, 2, !comments.isEmpty());
+		if (!comments.isEmpty()) {
+			for (final String comment : comments) {
+				writeTextElement(writer, C, comment, 3);
+			}
+			writeEndElement(writer, 2);
+		}
+
+		Collection<String> featureOrderList = null;
+		if (featureModel.isFeatureOrderUserDefined()) {
+			featureOrderList = featureModel.getFeatureOrderList();
+			if (featureOrderList.isEmpty()) {
+				featureOrderList = FeatureUtils.extractConcreteFeaturesAsStringList(featureModel);
+			}
+		}
+		final boolean hasFeatureOrder = (featureOrderList != null) && !featureOrderList.isEmpty();
+		writeStartElement(writer, FEATURE_ORDER, 2, hasFeatureOrder);
+		writer.writeAttribute(USER_DEFINED, Boolean.toString(featureModel.isFeatureOrderUserDefined()));
+		if (hasFeatureOrder) {
+			for (final String featureName : featureOrderList) {
+				writeStartElement(writer, FEATURE, 3, false);
+				writer.writeAttribute(NAME, featureName);
+			}
+			writeEndElement(writer, 2);
+		}
+
+		writeEndElement(writer, 1);
+	}
+
+	private void writeFeatureProperties(XMLStreamWriter writer, IFeature feature, int depth) throws XMLStreamException {
+		writeStartElement(writer, FEATURE, depth, true);
+		writer.writeAttribute(NAME, feature.getName());
+		for (final Entry<String, Type, Object> entry : feature.getCustomProperties().entrySet()) {
+			writeStartElement(writer, XmlPropertyLoader.PROPERTY, depth + 1, false);
+			writer.writeAttribute(XmlPropertyLoader.TYPE, entry.getType().toString());
+			writer.writeAttribute(XmlPropertyLoader.KEY, entry.getKey());
+			writer.writeAttribute(XmlPropertyLoader.VALUE, entry.getValue().toString());
+		}
+		writeEndElement(writer, depth);
 	}
 
-	// TODO implement warnings
-	@SuppressWarnings("unused")
-	private void throwWarning(String message, org.w3c.dom.Node node) throws UnsupportedModelException {
-		throw new UnsupportedModelException(message, Integer.parseInt(node.getUserData(PositionalXMLHandler.LINE_NUMBER_KEY_NAME).toString()));
+	/**
+	 * Writes a feature and its sub tree.
+	 *
+	 * @param writer the XML writer
+	 * @param feat current feature
+	 * @param depth indentation level of the feature element
+	 */
+	private void writeFeature(XMLStreamWriter writer, IFeature feat, int depth) throws XMLStreamException {
+		final List<IFeature> children = FeatureUtils.convertToFeatureList(feat.getStructure().getChildren());
+		final String description = feat.getProperty().getDescription();
+		final boolean hasDescription = (description != null) && !description.trim().isEmpty();
+
+		final String nodeName;
+		if (children.isEmpty()) {
+			nodeName = FEATURE;
+		} else if (feat.getStructure().isAnd()) {
+			nodeName = AND;
+		} else if (feat.getStructure().isOr()) {
+			nodeName = OR;
+		} else if (feat.getStructure().isAlternative()) {
+			nodeName = ALT;
+		} else {
+			nodeName = UNKNOWN;
+		}
+
+		final boolean hasContent = hasDescription || !children.isEmpty();
+		writeStartElement(writer, nodeName, depth, hasContent);
+		writeAttributes(writer, feat);
+		if (hasContent) {
+			if (hasDescription) {
+				writeDescription(writer, description, depth + 1);
+			}
+			for (final IFeature child : children) {
+				writeFeature(writer, child, depth + 1);
+			}
+			writeEndElement(writer, depth);
+		}
 	}
 
-	private void writeAttributes(Element node, Element fnod, IFeature feat) {
-		fnod.setAttribute(NAME, feat.getName());
+	/**
+	 * Writes the attributes of a feature element in alphabetical order.
+	 */
+	private void writeAttributes(XMLStreamWriter writer, IFeature feat) throws XMLStreamException {
+		if (feat.getStructure().isAbstract()) {
+			writer.writeAttribute(ABSTRACT, TRUE);
+		}
 		if (feat.getStructure().isHidden()) {
-			fnod.setAttribute(HIDDEN, TRUE);
+			writer.writeAttribute(HIDDEN, TRUE);
 		}
 		if (feat.getStructure().isMandatory()) {
-			if ((feat.getStructure().getParent() != null) && feat.getStructure().getParent().isAnd()) {
-				fnod.setAttribute(MANDATORY, TRUE);
-			} else if (feat.getStructure().getParent() == null) {
-				fnod.setAttribute(MANDATORY, TRUE);
+			if ((feat.getStructure().getParent() == null) || feat.getStructure().getParent().isAnd()) {
+				writer.writeAttribute(MANDATORY, TRUE);
 			}
 		}
-		if (feat.getStructure().isAbstract()) {
-			fnod.setAttribute(ABSTRACT, TRUE);
+		writer.writeAttribute(NAME, feat.getName());
+	}
+
+	private void writeDescription(XMLStreamWriter writer, String description, int depth) throws XMLStreamException {
+		writeStartElement(writer, DESCRIPTION, depth, true);
+		for (final String line : description.replace("\r", "").split("\n", -1)) {
+			writeIndent(writer, depth + 1);
+			writer.writeCharacters(line);
 		}
+		writeEndElement(writer, depth);
+	}
 
-		node.appendChild(fnod);
+	/**
+	 * Writes the tags concerning propositional constraints.
+	 *
+	 * @param writer the XML writer
+	 * @param node the propositional node to write
+	 * @param depth indentation level of the node
+	 */
+	private void writeConstraintNode(XMLStreamWriter writer, Node node, int depth) throws XMLStreamException {
+		if (node instanceof Literal) {
+			final Literal literal = (Literal) node;
+			if (literal.positive) {
+				writeTextElement(writer, VAR, String.valueOf(literal.var), depth);
+			} else {
+				writeStartElement(writer, NOT, depth, true);
+				writeTextElement(writer, VAR, String.valueOf(literal.var), depth + 1);
+				writeEndElement(writer, depth);
+			}
+			return;
+		}
+
+		final String nodeName;
+		if (node instanceof And) {
+			nodeName = CONJ;
+		} else if (node instanceof Or) {
+			nodeName = DISJ;
+		} else if (node instanceof Not) {
+			nodeName = NOT;
+		} else if (node instanceof Equals) {
+			nodeName = EQ;
+		} else if (node instanceof Implies) {
+			nodeName = IMP;
+		} else if (node instanceof AtMost) {
+			nodeName = ATMOST1;
+		} else {
+			nodeName = UNKNOWN;
+		}
+
+		final Node[] children = node.getChildren();
+		final boolean hasChildren = (children != null) && (children.length > 0);
+		writeStartElement(writer, nodeName, depth, hasChildren);
+		if (hasChildren) {
+			for (final Node child : children) {
+				writeConstraintNode(writer, child, depth + 1);
+			}
+			writeEndElement(writer, depth);
+		}
+	}
+
+	private static void writeIndent(XMLStreamWriter writer, int depth) throws XMLStreamException {
+		final StringBuilder sb = new StringBuilder(depth + 1);
+		sb.append('\n');
+		for (int i = 0; i < depth; i++) {
+			sb.append('\t');
+		}
+		writer.writeCharacters(sb.toString());
+	}
+
+	/**
+	 * Starts a new element on its own line. Elements without content are written as empty elements and must not be closed with
+	 * {@link #writeEndElement(XMLStreamWriter, int)}.
+	 */
+	private static void writeStartElement(XMLStreamWriter writer, String name, int depth, boolean hasContent) throws XMLStreamException {
+		writeIndent(writer, depth);
+		if (hasContent) {
+			writer.writeStartElement(name);
+		} else {
+			writer.writeEmptyElement(name);
+		}
+	}
+
+	private static void writeEndElement(XMLStreamWriter writer, int depth) throws XMLStreamException {
+		writeIndent(writer, depth);
+		writer.writeEndElement();
+	}
+
+	private static void writeTextElement(XMLStreamWriter writer, String name, String text, int depth) throws XMLStreamException {
+		writeIndent(writer, depth);
+		if (text.isEmpty()) {
+			writer.writeEmptyElement(name);
+		} else {
+			writer.writeStartElement(name);
+			writer.writeCharacters(text);
+			writer.writeEndElement();
+		}
+	}
+
+	@Override
+	public String getSuffix() {
+		return SUFFIX;
 	}
 
 	@Override
@@ -167,7 +167,7 @@ public class XmlPropertyLoader {
 		return result;
 	}
 
-	private Object castValue(Type type, String value) {
+	static Object castValue(Type type, String value) {
 		if ((value == null) || value.trim().isEmpty()) {
 			throw new RuntimeException("Property value is not allowed to be empty");
 		}
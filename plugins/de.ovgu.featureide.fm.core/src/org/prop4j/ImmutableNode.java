@@ -0,0 +1,269 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable propositional formula.<br> In contrast to {@link Node}, instances can never be changed and are created by an {@link ImmutableNodeFactory},
+ * which shares structurally equal formulas. Thus, a formula is a directed acyclic graph, in which each literal and each sub formula exists only once, and
+ * it never needs to be cloned. The hash code is computed once on creation.
+ *
+ * @see ImmutableNodeFactory#create(Node)
+ * @see #toNode()
+ */
+public final class ImmutableNode {
+
+	/**
+	 * The kinds of formulas. Each kind corresponds to a subclass of {@link Node}.
+	 */
+	public static enum Type {
+		LITERAL, ERROR_LITERAL, NOT, AND, OR, IMPLIES, EQUALS, CHOOSE, AT_MOST, AT_LEAST
+	}
+
+	private static final ImmutableNode[] NO_CHILDREN = new ImmutableNode[0];
+
+	private final Type type;
+	private final Object var;
+	private final boolean positive;
+	private final int bound;
+	private final ImmutableNode[] children;
+	private final int hashCode;
+
+	/**
+	 * The number of the node in its factory. Only assigned to shared instances.
+	 */
+	int id = -1;
+
+	/**
+	 * Creates a literal.
+	 */
+	ImmutableNode(Type type, Object var, boolean positive) {
+		this.type = type;
+		this.var = var;
+		this.positive = positive;
+		bound = 0;
+		children = NO_CHILDREN;
+		hashCode = (31 * type.ordinal()) + (var.hashCode() * (positive ? 31 : 37));
+	}
+
+	/**
+	 * Creates an operator. The children array is not copied.
+	 */
+	ImmutableNode(Type type, int bound, ImmutableNode[] children) {
+		this.type = type;
+		var = null;
+		positive = true;
+		this.bound = bound;
+		this.children = children;
+		int hashCode = (31 * type.ordinal()) + bound;
+		for (final ImmutableNode child : children) {
+			hashCode = (31 * hashCode) + child.hashCode;
+		}
+		this.hashCode = hashCode;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return {@code true} if this formula is a (possibly negated) variable
+	 */
+	public boolean isLiteral() {
+		return (type == Type.LITERAL) || (type == Type.ERROR_LITERAL);
+	}
+
+	/**
+	 * @return the variable of a literal or {@code null} for all other formulas
+	 */
+	public Object getVariable() {
+		return var;
+	}
+
+	/**
+	 * @return whether a literal is positive; always {@code true} for all other formulas
+	 */
+	public boolean isPositive() {
+		return positive;
+	}
+
+	/**
+	 * @return the number of {@link Choose}, the maximum of {@link AtMost}, or the minimum of {@link AtLeast}; 0 for all other formulas
+	 */
+	public int getBound() {
+		return bound;
+	}
+
+	public int getNumberOfChildren() {
+		return children.length;
+	}
+
+	public ImmutableNode getChild(int index) {
+		return children[index];
+	}
+
+	/**
+	 * @return an unmodifiable view of the children
+	 */
+	public List<ImmutableNode> getChildren() {
+		return Collections.unmodifiableList(Arrays.asList(children));
+	}
+
+	ImmutableNode[] getChildrenArray() {
+		return children;
+	}
+
+	/**
+	 * Evaluates this formula like {@link Node#getValue(Map)}.
+	 *
+	 * @param assignment the values of the variables
+	 * @return the value of the formula
+	 */
+	public boolean getValue(Map<Object, Boolean> assignment) {
+		switch (type) {
+		case LITERAL:
+		case ERROR_LITERAL:
+			return positive == assignment.get(var);
+		case NOT:
+			return !children[0].getValue(assignment);
+		case AND:
+			for (final ImmutableNode child : children) {
+				if (!child.getValue(assignment)) {
+					return false;
+				}
+			}
+			return true;
+		case OR:
+			for (final ImmutableNode child : children) {
+				if (child.getValue(assignment)) {
+					return true;
+				}
+			}
+			return false;
+		case IMPLIES:
+			return !children[0].getValue(assignment) || children[1].getValue(assignment);
+		case EQUALS:
+			return children[0].getValue(assignment) == children[1].getValue(assignment);
+		case CHOOSE:
+			return countTrueChildren(assignment) >= bound;
+		case AT_MOST:
+			return countTrueChildren(assignment) <= bound;
+		case AT_LEAST:
+			return countTrueChildren(assignment) >= bound;
+		default:
+			throw new IllegalStateException(String.valueOf(type));
+		}
+	}
+
+	private int countTrueChildren(Map<Object, Boolean> assignment) {
+		int trueCount = 0;
+		for (final ImmutableNode child : children) {
+			if (child.getValue(assignment)) {
+				trueCount++;
+			}
+		}
+		return trueCount;
+	}
+
+	/**
+	 * Creates a new {@link Node} tree for this formula. Sub formulas that are shared in this formula are converted into separate nodes, such that the
+	 * result can be modified freely.
+	 *
+	 * @return a new node
+	 */
+	public Node toNode() {
+		switch (type) {
+		case LITERAL:
+			return new Literal(var, positive);
+		case ERROR_LITERAL:
+			return new ErrorLiteral(var);
+		case NOT:
+			return new Not(children[0].toNode());
+		case AND:
+			return new And(toNodes());
+		case OR:
+			return new Or(toNodes());
+		case IMPLIES:
+			return new Implies(children[0].toNode(), children[1].toNode());
+		case EQUALS:
+			return new Equals(children[0].toNode(), children[1].toNode());
+		case CHOOSE:
+			return new Choose(bound, toNodes());
+		case AT_MOST:
+			return new AtMost(bound, toNodes());
+		case AT_LEAST:
+			return new AtLeast(bound, toNodes());
+		default:
+			throw new IllegalStateException(String.valueOf(type));
+		}
+	}
+
+	private Node[] toNodes() {
+		final Node[] nodes = new Node[children.length];
+		for (int i = 0; i < children.length; i++) {
+			nodes[i] = children[i].toNode();
+		}
+		return nodes;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	/**
+	 * Two formulas are equal if they have the same structure (including the order of children). Shared instances of the same factory are only equal to
+	 * themselves.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ImmutableNode)) {
+			return false;
+		}
+		final ImmutableNode other = (ImmutableNode) obj;
+		if ((hashCode != other.hashCode) || (type != other.type) || (positive != other.positive) || (bound != other.bound)
+			|| (children.length != other.children.length)) {
+			return false;
+		}
+		if (var != null ? !var.equals(other.var) : other.var != null) {
+			return false;
+		}
+		for (int i = 0; i < children.length; i++) {
+			if (!children[i].equals(other.children[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return toNode().toString();
+	}
+
+}
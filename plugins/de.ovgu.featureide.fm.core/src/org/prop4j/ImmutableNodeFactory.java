@@ -0,0 +1,209 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import org.prop4j.ImmutableNode.Type;
+
+/**
+ * Creates {@link ImmutableNode immutable formulas} by hash-consing: Each formula is only created once per factory and all structurally equal formulas are
+ * represented by the same instance. Thus, equal sub formulas (e.g., the literals of a CNF) are shared and can be compared by identity.<br> If the factory
+ * is <i>commutative</i>, the children of {@link And} and {@link Or} are sorted, such that formulas that only differ in the order of these children are
+ * shared as well (corresponding to {@link Node#equals(Object)}).<br> The factory keeps all created formulas until it is garbage collected. This class is
+ * thread safe.
+ */
+public class ImmutableNodeFactory {
+
+	private static final Comparator<ImmutableNode> ID_COMPARATOR = new Comparator<ImmutableNode>() {
+
+		@Override
+		public int compare(ImmutableNode o1, ImmutableNode o2) {
+			return o1.id - o2.id;
+		}
+	};
+
+	private final HashMap<ImmutableNode, ImmutableNode> table = new HashMap<>();
+
+	private final boolean commutative;
+
+	public ImmutableNodeFactory() {
+		this(false);
+	}
+
+	/**
+	 * @param commutative whether the order of the children of {@link And} and {@link Or} is ignored
+	 */
+	public ImmutableNodeFactory(boolean commutative) {
+		this.commutative = commutative;
+	}
+
+	public boolean isCommutative() {
+		return commutative;
+	}
+
+	/**
+	 * @return the number of distinct formulas created by this factory
+	 */
+	public synchronized int size() {
+		return table.size();
+	}
+
+	private synchronized ImmutableNode intern(ImmutableNode node) {
+		final ImmutableNode sharedNode = table.get(node);
+		if (sharedNode != null) {
+			return sharedNode;
+		}
+		node.id = table.size();
+		table.put(node, node);
+		return node;
+	}
+
+	private synchronized ImmutableNode lookup(ImmutableNode node) {
+		return table.get(node);
+	}
+
+	private ImmutableNode[] checkChildren(ImmutableNode... children) {
+		for (final ImmutableNode child : children) {
+			if (lookup(child) != child) {
+				throw new IllegalArgumentException("Formula was not created by this factory: " + child);
+			}
+		}
+		return children;
+	}
+
+	private ImmutableNode newOperator(Type type, int bound, ImmutableNode[] children) {
+		if (commutative && ((type == Type.AND) || (type == Type.OR))) {
+			Arrays.sort(children, ID_COMPARATOR);
+		}
+		return new ImmutableNode(type, bound, children);
+	}
+
+	public ImmutableNode createLiteral(Object var) {
+		return createLiteral(var, true);
+	}
+
+	public ImmutableNode createLiteral(Object var, boolean positive) {
+		return intern(new ImmutableNode(Type.LITERAL, var, positive));
+	}
+
+	public ImmutableNode createErrorLiteral(Object var) {
+		return intern(new ImmutableNode(Type.ERROR_LITERAL, var, true));
+	}
+
+	public ImmutableNode createNot(ImmutableNode child) {
+		return intern(newOperator(Type.NOT, 0, checkChildren(child)));
+	}
+
+	public ImmutableNode createAnd(ImmutableNode... children) {
+		return intern(newOperator(Type.AND, 0, checkChildren(children.clone())));
+	}
+
+	public ImmutableNode createOr(ImmutableNode... children) {
+		return intern(newOperator(Type.OR, 0, checkChildren(children.clone())));
+	}
+
+	public ImmutableNode createImplies(ImmutableNode leftChild, ImmutableNode rightChild) {
+		return intern(newOperator(Type.IMPLIES, 0, checkChildren(leftChild, rightChild)));
+	}
+
+	public ImmutableNode createEquals(ImmutableNode leftChild, ImmutableNode rightChild) {
+		return intern(newOperator(Type.EQUALS, 0, checkChildren(leftChild, rightChild)));
+	}
+
+	public ImmutableNode createChoose(int n, ImmutableNode... children) {
+		return intern(newOperator(Type.CHOOSE, n, checkChildren(children.clone())));
+	}
+
+	public ImmutableNode createAtMost(int max, ImmutableNode... children) {
+		return intern(newOperator(Type.AT_MOST, max, checkChildren(children.clone())));
+	}
+
+	public ImmutableNode createAtLeast(int min, ImmutableNode... children) {
+		return intern(newOperator(Type.AT_LEAST, min, checkChildren(children.clone())));
+	}
+
+	/**
+	 * Converts a {@link Node} into the shared immutable formula. The node is not modified.
+	 *
+	 * @param node the node
+	 * @return the shared formula that is equal to the node
+	 */
+	public ImmutableNode create(Node node) {
+		return convert(node, true);
+	}
+
+	/**
+	 * Returns the shared immutable formula that is equal to the given node, if it was already created by this factory. In contrast to
+	 * {@link #create(Node)}, no new formulas are added to the factory.
+	 *
+	 * @param node the node
+	 * @return the shared formula or {@code null} if it was not created before
+	 */
+	public ImmutableNode find(Node node) {
+		return convert(node, false);
+	}
+
+	private ImmutableNode convert(Node node, boolean add) {
+		final ImmutableNode immutableNode;
+		if (node instanceof Literal) {
+			final Literal literal = (Literal) node;
+			if (node instanceof ErrorLiteral) {
+				immutableNode = new ImmutableNode(Type.ERROR_LITERAL, literal.var, true);
+			} else {
+				immutableNode = new ImmutableNode(Type.LITERAL, literal.var, literal.positive);
+			}
+		} else {
+			final Node[] children = node.getChildren();
+			final ImmutableNode[] immutableChildren = new ImmutableNode[children.length];
+			for (int i = 0; i < children.length; i++) {
+				final ImmutableNode child = convert(children[i], add);
+				if (child == null) {
+					return null;
+				}
+				immutableChildren[i] = child;
+			}
+			if (node instanceof Not) {
+				immutableNode = newOperator(Type.NOT, 0, immutableChildren);
+			} else if (node instanceof And) {
+				immutableNode = newOperator(Type.AND, 0, immutableChildren);
+			} else if (node instanceof Or) {
+				immutableNode = newOperator(Type.OR, 0, immutableChildren);
+			} else if (node instanceof Implies) {
+				immutableNode = newOperator(Type.IMPLIES, 0, immutableChildren);
+			} else if (node instanceof Equals) {
+				immutableNode = newOperator(Type.EQUALS, 0, immutableChildren);
+			} else if (node instanceof Choose) {
+				immutableNode = newOperator(Type.CHOOSE, ((Choose) node).n, immutableChildren);
+			} else if (node instanceof AtMost) {
+				immutableNode = newOperator(Type.AT_MOST, ((AtMost) node).max, immutableChildren);
+			} else if (node instanceof AtLeast) {
+				immutableNode = newOperator(Type.AT_LEAST, ((AtLeast) node).min, immutableChildren);
+			} else {
+				throw new IllegalArgumentException("Unknown node type: " + node.getClass());
+			}
+		}
+		return add ? intern(immutableNode) : lookup(immutableNode);
+	}
+
+}
@@ -534,6 +534,57 @@ public class SatSolver {
 		}
 	}
 
+	/**
+	 * Returns a solution of the following formula.
+	 *
+	 * f and g
+	 *
+	 * Where f is the formula currently feed into the solver and g is the formula in CNF given in the parameter <code>node</code>. The clauses of g are removed
+	 * from the solver afterwards.
+	 *
+	 * @param node a propositional formula in CNF
+	 * @return the literals of all variables in the solution or null if the formula is not satisfiable
+	 * @throws TimeoutException
+	 */
+	public List<Literal> getSolution(Node node) throws TimeoutException {
+		if (contradiction) {
+			return null;
+		}
+
+		if (!(node instanceof And)) {
+			node = new And(node);
+		}
+
+		final ConstrGroup group = new ConstrGroup();
+		try {
+			final IVecInt unit = new VecInt();
+			for (final Node child : node.getChildren()) {
+				if (child instanceof Or) {
+					final IVecInt clause = new VecInt();
+					for (final Node literal : child.getChildren()) {
+						clause.push(getIntOfLiteral(literal));
+					}
+					group.add(solver.addClause(clause));
+				} else {
+					unit.push(getIntOfLiteral(child));
+				}
+			}
+			if (!solver.isSatisfiable(unit)) {
+				return null;
+			}
+			final int[] model = solver.model();
+			final List<Literal> solution = new ArrayList<>(model.length);
+			for (final int var : model) {
+				solution.add(new Literal(intToVar.get(Math.abs(var)), var > 0));
+			}
+			return solution;
+		} catch (final ContradictionException e) {
+			return null;
+		} finally {
+			group.removeFrom(solver);
+		}
+	}
+
 	/**
 	 * Counts the solutions of the propositional formula. If the given timeout is reached the result is negative.
 	 *
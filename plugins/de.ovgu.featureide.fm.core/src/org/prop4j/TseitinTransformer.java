@@ -0,0 +1,229 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transforms propositional formulas into an equisatisfiable conjunctive normal form using the Plaisted-Greenbaum variant of the Tseitin
+ * transformation.</br> In contrast to {@link Node#toCNF()} and {@link Node#buildCNF(Node)}, which distribute disjunctions over conjunctions, every non-trivial
+ * sub formula is replaced by an {@link AuxiliaryVariable auxiliary variable}. Thus, the number of created clauses grows linearly with the size of the formula
+ * (except for cardinality operators like {@link AtMost}, whose expansion depends only on the number of their direct children).</br> The given formulas are
+ * never modified.
+ *
+ * @see AuxiliaryVariable
+ */
+public class TseitinTransformer {
+
+	private static final int POSITIVE = 1;
+	private static final int NEGATIVE = -1;
+	private static final int BOTH = 0;
+
+	private int auxiliaryVariableCount = 0;
+
+	/**
+	 * Transforms the given formula into an equisatisfiable CNF.
+	 *
+	 * @param node the formula to transform
+	 * @return a conjunction of clauses (each clause is an {@link Or} node)
+	 */
+	public static Node transform(Node node) {
+		final List<Node> clauses = new TseitinTransformer().addClauses(node, new ArrayList<Node>());
+		return new And(clauses.toArray(new Node[clauses.size()]));
+	}
+
+	/**
+	 * Transforms the given formula and adds the resulting clauses to the given list. Auxiliary variables are unique for all formulas transformed by this
+	 * instance. Hence, the clauses of multiple formulas may be combined in one CNF.
+	 *
+	 * @param node the formula to transform
+	 * @param clauses the list to add the clauses to; out variable
+	 * @return the given list of clauses
+	 */
+	public List<Node> addClauses(Node node, List<Node> clauses) {
+		final List<Node> conjuncts = new ArrayList<>();
+		collect(node, false, true, conjuncts);
+		for (final Node conjunct : conjuncts) {
+			Node operator = conjunct;
+			boolean negated = false;
+			while (operator instanceof Not) {
+				operator = operator.getChildren()[0];
+				negated = !negated;
+			}
+			if (!isJunction(operator) && !(operator instanceof Literal)) {
+				final Node expandedNode = expand(operator, clauses);
+				addClauses(negated ? new Not(expandedNode) : expandedNode, clauses);
+				continue;
+			}
+
+			final List<Node> disjuncts = new ArrayList<>();
+			collect(conjunct, false, false, disjuncts);
+			final Node[] literals = new Node[disjuncts.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = encode(disjuncts.get(i), false, POSITIVE, clauses);
+			}
+			clauses.add(new Or(literals));
+		}
+		return clauses;
+	}
+
+	/**
+	 * Returns a literal that is equivalent to the given formula with respect to the defining clauses, which are added to the given list. Such a literal can be
+	 * used as a selector to enable the formula via an assumption.
+	 *
+	 * @param node the formula to define
+	 * @param clauses the list to add the defining clauses to; out variable
+	 * @return a literal that is true iff the formula is true
+	 */
+	public Literal addDefinition(Node node, List<Node> clauses) {
+		return encode(node, false, BOTH, clauses);
+	}
+
+	/**
+	 * @return the number of auxiliary variables introduced by this instance
+	 */
+	public int getAuxiliaryVariableCount() {
+		return auxiliaryVariableCount;
+	}
+
+	/**
+	 * Flattens nested junctions of the same type (considering negations) into one list.
+	 *
+	 * @param node the current node
+	 * @param negated whether the node is negated
+	 * @param conjunctive {@code true} to collect conjuncts, {@code false} to collect disjuncts
+	 * @param items the list of collected nodes; out variable
+	 */
+	private void collect(Node node, boolean negated, boolean conjunctive, List<Node> items) {
+		if (node instanceof Not) {
+			collect(node.getChildren()[0], !negated, conjunctive, items);
+			return;
+		} else if (isJunction(node)) {
+			if (((node instanceof And) != negated) == conjunctive) {
+				final Node[] children = node.getChildren();
+				if (node instanceof Implies) {
+					collect(children[0], !negated, conjunctive, items);
+					collect(children[1], negated, conjunctive, items);
+				} else {
+					for (final Node child : children) {
+						collect(child, negated, conjunctive, items);
+					}
+				}
+				return;
+			}
+		}
+		items.add(negated ? new Not(node) : node);
+	}
+
+	/**
+	 * Returns a literal that represents the given sub formula.
+	 *
+	 * @param node the sub formula
+	 * @param negated whether the sub formula is negated
+	 * @param polarity the polarity of the sub formula within the whole formula
+	 * @param clauses the list to add the defining clauses to; out variable
+	 * @return a literal that implies the sub formula (positive polarity), is implied by it (negative polarity), or both
+	 */
+	private Literal encode(Node node, boolean negated, int polarity, List<Node> clauses) {
+		if (node instanceof Literal) {
+			final Literal literal = ((Literal) node).clone();
+			if (negated) {
+				literal.flip();
+			}
+			return literal;
+		} else if (node instanceof Not) {
+			return encode(node.getChildren()[0], !negated, polarity, clauses);
+		} else if (isJunction(node)) {
+			final boolean conjunctive = (node instanceof And) != negated;
+			final List<Node> items = new ArrayList<>();
+			collect(node, negated, conjunctive, items);
+
+			final Literal[] literals = new Literal[items.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = encode(items.get(i), false, polarity, clauses);
+			}
+			if (literals.length == 1) {
+				return literals[0];
+			}
+
+			final Literal auxiliaryLiteral = new Literal(new AuxiliaryVariable(++auxiliaryVariableCount));
+			if (conjunctive) {
+				if (polarity != NEGATIVE) {
+					for (final Literal literal : literals) {
+						clauses.add(new Or(negate(auxiliaryLiteral), literal));
+					}
+				}
+				if (polarity != POSITIVE) {
+					final Node[] clause = new Node[literals.length + 1];
+					for (int i = 0; i < literals.length; i++) {
+						clause[i] = negate(literals[i]);
+					}
+					clause[literals.length] = auxiliaryLiteral;
+					clauses.add(new Or(clause));
+				}
+			} else {
+				if (polarity != NEGATIVE) {
+					final Node[] clause = new Node[literals.length + 1];
+					System.arraycopy(literals, 0, clause, 0, literals.length);
+					clause[literals.length] = negate(auxiliaryLiteral);
+					clauses.add(new Or(clause));
+				}
+				if (polarity != POSITIVE) {
+					for (final Literal literal : literals) {
+						clauses.add(new Or(negate(literal), auxiliaryLiteral));
+					}
+				}
+			}
+			return auxiliaryLiteral;
+		} else {
+			return encode(expand(node, clauses), negated, polarity, clauses);
+		}
+	}
+
+	private static boolean isJunction(Node node) {
+		return (node instanceof And) || (node instanceof Or) || (node instanceof Implies);
+	}
+
+	/**
+	 * Expands non-monotonic operators (i.e., {@link Equals}, {@link Choose}, {@link AtLeast}, and {@link AtMost}) over literals that represent their
+	 * children.
+	 *
+	 * @param node the operator to expand
+	 * @param clauses the list to add the defining clauses of the children to; out variable
+	 * @return an equivalent formula consisting of junctions over literals
+	 */
+	private Node expand(Node node, List<Node> clauses) {
+		final Node[] children = node.getChildren();
+		final Node[] literals = new Node[children.length];
+		for (int i = 0; i < literals.length; i++) {
+			literals[i] = encode(children[i], false, BOTH, clauses);
+		}
+		return node.eliminateNonCNFOperators(literals);
+	}
+
+	private static Literal negate(Literal literal) {
+		final Literal negatedLiteral = literal.clone();
+		negatedLiteral.flip();
+		return negatedLiteral;
+	}
+
+}
@@ -0,0 +1,324 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.prop4j.solver.ISatSolver;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Enumerates all solutions of a propositional formula projected onto a given set of variables (e.g., the concrete features of a feature model).<br>
+ * The search is a depth-first traversal over the projected variables with one incremental solver: Each found model is followed down to a leaf without
+ * further solver calls and only the alternative polarity of each variable is checked via an assumption. Thus, every projected solution is found exactly
+ * once and no blocking clauses are added to the solver.<br> Found solutions are streamed through the bounded queue {@link #q}, which blocks the search
+ * while the consumer is busy. If {@link #setParallelism(int) parallelism} is greater than 1, the search space is split into cubes by fixing the first
+ * projected variables and the cubes are searched by cloned solvers in a {@link ForkJoinPool}. In this mode the order of the solutions is not
+ * deterministic.<br> If the solver runs into a timeout, the analysis fails with a {@link TimeoutException}, as the remaining solutions cannot be
+ * enumerated.
+ */
+public class AllConfigurationsGenerator extends AbstractAnalysis<Long> {
+
+	public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+	private static final int MAX_PREFIX_LENGTH = 16;
+
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+
+	/**
+	 * Contains the found solutions. Each solution is an array of literals in the order of {@link #getVariables()}.
+	 */
+	public final BlockingQueue<int[]> q;
+
+	protected final int[] variables;
+	protected final long maxNumber;
+
+	private final AtomicLong count = new AtomicLong();
+
+	private volatile boolean stop = false;
+
+	private int parallelism = 1;
+
+	/**
+	 * Enumerates all solutions projected onto the feature variables of the given instance.
+	 */
+	public AllConfigurationsGenerator(SatInstance satInstance, long maxNumber) {
+		this(satInstance, getFeatureVariables(satInstance), maxNumber, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param variables the (positive) variables to project the solutions onto
+	 * @param maxNumber the maximal number of solutions to find
+	 * @param bufferSize the capacity of {@link #q}
+	 */
+	public AllConfigurationsGenerator(SatInstance satInstance, int[] variables, long maxNumber, int bufferSize) {
+		super(satInstance);
+		this.variables = variables;
+		this.maxNumber = maxNumber;
+		q = new ArrayBlockingQueue<>(bufferSize);
+	}
+
+	private static int[] getFeatureVariables(SatInstance satInstance) {
+		final int[] variables = new int[satInstance.getNumberOfFeatureVariables()];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = i + 1;
+		}
+		return variables;
+	}
+
+	public int[] getVariables() {
+		return variables;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the number of worker threads (values less than 1 are treated as 1)
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @return the number of solutions that were put into {@link #q} so far
+	 */
+	public long getNumberOfConfigurations() {
+		return Math.min(count.get(), maxNumber);
+	}
+
+	@Override
+	protected Long analyze(IMonitor monitor) throws Exception {
+		count.set(0);
+		stop = false;
+		if (maxNumber <= 0) {
+			return 0L;
+		}
+		final int[] model = findModel(solver);
+		if (model == null) {
+			return 0L;
+		}
+		final int prefixLength = getPrefixLength();
+		if (prefixLength == 0) {
+			enumerate(solver, 0, model, monitor);
+		} else {
+			enumerateParallel(prefixLength, monitor);
+		}
+		return getNumberOfConfigurations();
+	}
+
+	/**
+	 * @return the number of variables that are fixed to create about four cubes per worker thread
+	 */
+	private int getPrefixLength() {
+		if (parallelism <= 1) {
+			return 0;
+		}
+		int prefixLength = 0;
+		while ((prefixLength < MAX_PREFIX_LENGTH) && ((1 << prefixLength) < (parallelism << 2))) {
+			prefixLength++;
+		}
+		return Math.min(prefixLength, variables.length);
+	}
+
+	/**
+	 * Enumerates all solutions under the current assignment of the solver, starting at the given index of {@link #variables}.<br> The search keeps its own
+	 * stack, such that its depth is not limited by the size of the thread's stack.
+	 *
+	 * @param model a model that satisfies the current assignment
+	 * @return {@code false} if the search was stopped
+	 * @throws TimeoutException if the solver runs into a timeout
+	 */
+	private boolean enumerate(ISatSolver solver, int depth, int[] model, IMonitor monitor) throws InterruptedException, TimeoutException {
+		final int assignmentSize = solver.getAssignment().size();
+		// each entry is a model, the index from which on its literals were assumed, and the index of the variable that was flipped last
+		final int[][] models = new int[(variables.length - depth) + 1][];
+		final int[] depths = new int[models.length];
+		final int[] flipIndices = new int[models.length];
+		int top = 0;
+		models[top] = model;
+		depths[top] = depth;
+		flipIndices[top] = variables.length;
+		if (!emit(solver, depth, model, monitor)) {
+			return false;
+		}
+		while (top >= 0) {
+			final int i = --flipIndices[top];
+			if (i < depths[top]) {
+				top--;
+				continue;
+			}
+			checkCancel(monitor);
+			// the assignment contains the literals of all variables before i
+			solver.assignmentClear(assignmentSize + (i - depth));
+			solver.assignmentPush(-models[top][variables[i] - 1]);
+			switch (solver.isSatisfiable()) {
+			case TRUE:
+				final int[] nextModel = solver.getModel();
+				top++;
+				models[top] = nextModel;
+				depths[top] = i + 1;
+				flipIndices[top] = variables.length;
+				if (!emit(solver, i + 1, nextModel, monitor)) {
+					return false;
+				}
+				break;
+			case FALSE:
+				break;
+			case TIMEOUT:
+				throw new TimeoutException();
+			}
+		}
+		solver.assignmentClear(assignmentSize);
+		return true;
+	}
+
+	/**
+	 * Assumes the literals of the given model for all variables starting at the given index of {@link #variables} and emits the model.
+	 */
+	private boolean emit(ISatSolver solver, int depth, int[] model, IMonitor monitor) throws InterruptedException {
+		for (int i = depth; i < variables.length; i++) {
+			solver.assignmentPush(model[variables[i] - 1]);
+		}
+		return emit(model, monitor);
+	}
+
+	/**
+	 * @return a model for the current assignment or {@code null} if there is none
+	 * @throws TimeoutException if the solver runs into a timeout
+	 */
+	private static int[] findModel(ISatSolver solver) throws TimeoutException {
+		switch (solver.isSatisfiable()) {
+		case TRUE:
+			return solver.getModel();
+		case TIMEOUT:
+			throw new TimeoutException();
+		default:
+			return null;
+		}
+	}
+
+	private void enumerateParallel(final int prefixLength, IMonitor monitor) throws Exception {
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			final int numberOfCubes = 1 << prefixLength;
+			final AtomicInteger nextCube = new AtomicInteger();
+			final List<Future<Void>> results = new ArrayList<>(parallelism);
+			for (int i = 0; i < parallelism; i++) {
+				final ISatSolver workerSolver = solver.clone();
+				results.add(pool.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws InterruptedException, TimeoutException {
+						final IMonitor workerMonitor = new NullMonitor();
+						final int assignmentSize = workerSolver.getAssignment().size();
+						for (int cube = nextCube.getAndIncrement(); cube < numberOfCubes; cube = nextCube.getAndIncrement()) {
+							workerSolver.assignmentClear(assignmentSize);
+							for (int j = 0; j < prefixLength; j++) {
+								workerSolver.assignmentPush(((cube >>> j) & 1) == 0 ? -variables[j] : variables[j]);
+							}
+							final int[] model = findModel(workerSolver);
+							if ((model != null) && !enumerate(workerSolver, prefixLength, model, workerMonitor)) {
+								break;
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (final Future<Void> result : results) {
+				join(result, monitor);
+			}
+		} finally {
+			stop = true;
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Puts the projection of the given model into {@link #q} and waits if the queue is full.
+	 *
+	 * @return {@code false} if the maximal number of solutions is reached
+	 */
+	private boolean emit(int[] model, IMonitor monitor) throws InterruptedException {
+		if (count.incrementAndGet() > maxNumber) {
+			return false;
+		}
+		final int[] solution = new int[variables.length];
+		for (int i = 0; i < solution.length; i++) {
+			solution[i] = model[variables[i] - 1];
+		}
+		while (!q.offer(solution, CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+			checkCancel(monitor);
+		}
+		monitor.step();
+		return count.get() < maxNumber;
+	}
+
+	private void checkCancel(IMonitor monitor) {
+		if (stop) {
+			throw new MethodCancelException();
+		}
+		monitor.checkCancel();
+	}
+
+	/**
+	 * Waits for the given task and checks for cancel requests in between. Exceptions of the task are rethrown.
+	 */
+	private void join(Future<Void> future, IMonitor monitor) throws Exception {
+		try {
+			while (true) {
+				try {
+					future.get(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+					return;
+				} catch (final java.util.concurrent.TimeoutException e) {
+					monitor.checkCancel();
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MethodCancelException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+}
@@ -50,6 +50,7 @@ public class AtomicSetAnalysis extends AbstractAnalysis<List<int[]>> {
 	public List<int[]> analyze(IMonitor monitor) throws Exception {
 		final List<int[]> result = new ArrayList<>();
 
+		solver.initSolutionList(Math.min(solver.getSatInstance().getNumberOfVariables(), ISatSolver.MAX_SOLUTION_BUFFER));
 		solver.setSelectionStrategy(SelectionStrategy.POSITIVE);
 		final int[] model1 = solver.findModel();
 
@@ -20,6 +20,8 @@
  */
 package org.prop4j.analyses;
 
+import java.util.List;
+
 import org.prop4j.solver.FixedLiteralSelectionStrategy;
 import org.prop4j.solver.ISatSolver;
 import org.prop4j.solver.ISatSolver.SelectionStrategy;
@@ -42,6 +44,8 @@ public class CoreDeadAnalysis extends AbstractAnalysis<int[]> {
 
 	private int[] features;
 
+	private SharedModelPool sharedModels = null;
+
 	public CoreDeadAnalysis(SatInstance satInstance) {
 		this(satInstance, null);
 	}
@@ -75,11 +79,28 @@ public class CoreDeadAnalysis extends AbstractAnalysis<int[]> {
 				}
 				model1 = model3;
 			}
+			// auxiliary variables are never reported as core or dead
+			for (int i = solver.getSatInstance().getNumberOfFeatureVariables(); i < model1.length; i++) {
+				model1[i] = 0;
+			}
 
 			SatInstance.updateModel(model1, model2);
 			((Solver<?>) solver.getInternalSolver()).setOrder(new VarOrderHeap2(new FixedLiteralSelectionStrategy(model1, true), solver.getOrder()));
 
+			// models found by other analyses of the same formula can rule out further candidates
+			int knownSharedModels = 0;
+			if (sharedModels != null) {
+				sharedModels.add(model2);
+			}
+
 			for (int i = 0; i < model1.length; i++) {
+				if (sharedModels != null) {
+					final List<int[]> newSharedModels = sharedModels.getModels(knownSharedModels);
+					if (!newSharedModels.isEmpty()) {
+						SatInstance.updateModel(model1, newSharedModels);
+						knownSharedModels += newSharedModels.size();
+					}
+				}
 				final int varX = model1[i];
 				if (varX != 0) {
 					solver.assignmentPush(-varX);
@@ -93,7 +114,11 @@ public class CoreDeadAnalysis extends AbstractAnalysis<int[]> {
 						break;
 					case TRUE:
 						solver.assignmentPop();
-						SatInstance.updateModel(model1, solver.getModel());
+						final int[] model = solver.getModel();
+						SatInstance.updateModel(model1, model);
+						if (sharedModels != null) {
+							sharedModels.add(model);
+						}
 						solver.shuffleOrder();
 						break;
 					}
@@ -112,4 +137,15 @@ public class CoreDeadAnalysis extends AbstractAnalysis<int[]> {
 		this.features = features;
 	}
 
+	public SharedModelPool getSharedModels() {
+		return sharedModels;
+	}
+
+	/**
+	 * @param sharedModels a pool of models of the same formula that is shared with other analyses (may be {@code null})
+	 */
+	public void setSharedModels(SharedModelPool sharedModels) {
+		this.sharedModels = sharedModels;
+	}
+
 }
@@ -32,7 +32,7 @@ import org.prop4j.solver.SatInstance;
 
 import de.ovgu.featureide.fm.core.conf.AFeatureGraph;
 import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
-import de.ovgu.featureide.fm.core.conf.MatrixFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.SparseFeatureGraph;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 
 /**
@@ -125,7 +125,7 @@ public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 			}
 
 			final SatInstance satInstance = solver.getSatInstance();
-			featureGraph = new MatrixFeatureGraph(satInstance, index);
+			featureGraph = new SparseFeatureGraph(satInstance, index);
 
 			final Node cnf = satInstance.getCnf();
 			outer: for (final Node clause : cnf.getChildren()) {
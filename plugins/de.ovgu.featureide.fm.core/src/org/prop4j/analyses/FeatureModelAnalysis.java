@@ -22,9 +22,18 @@ package org.prop4j.analyses;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.prop4j.Node;
 import org.prop4j.Not;
@@ -45,11 +54,13 @@ import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+import de.ovgu.featureide.fm.core.editing.FormulaCache;
 import de.ovgu.featureide.fm.core.filter.HiddenFeatureFilter;
 import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
 import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
 
 /**
@@ -86,6 +97,22 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	 */
 	public boolean calculateTautologyConstraints = true;
 
+	/**
+	 * Defines how many worker threads are used. With a value of 1 (default) all calculations run sequentially in the calling thread. Otherwise, the feature
+	 * and constraint lists are partitioned and analyzed by cloned solvers in a {@link ForkJoinPool}. The results are the same in both modes.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * If set, core, dead, and false-optional features are computed incrementally (see {@link IncrementalFeatureModelAnalysis}).
+	 */
+	private IncrementalFeatureModelAnalysis incrementalAnalysis = null;
+
+	/**
+	 * Provides the formulas of the feature model. By default, a private cache is used, such that each formula is only created once per analysis.
+	 */
+	private FormulaCache formulaCache = new FormulaCache(ModelType.values().length);
+
 	private final HashMap<Object, Object> changedAttributes = new HashMap<>();
 
 	private boolean valid;
@@ -98,6 +125,10 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 
 	private IMonitor monitor = new NullMonitor();
 
+	private ForkJoinPool pool = null;
+
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+
 	public FeatureModelAnalysis(IFeatureModel fm) {
 		this.fm = fm;
 
@@ -167,6 +198,56 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		this.calculateDeadConstraints = calculateDeadConstraints;
 	}
 
+	public IncrementalFeatureModelAnalysis getIncrementalAnalysis() {
+		return incrementalAnalysis;
+	}
+
+	/**
+	 * @param incrementalAnalysis an analysis that keeps track of the changes of the feature model or {@code null} to analyze the whole feature model each time
+	 */
+	public void setIncrementalAnalysis(IncrementalFeatureModelAnalysis incrementalAnalysis) {
+		this.incrementalAnalysis = incrementalAnalysis;
+	}
+
+	public FormulaCache getFormulaCache() {
+		return formulaCache;
+	}
+
+	/**
+	 * @param formulaCache the cache that provides the formulas of the feature model (e.g., {@link FormulaCache#getInstance() the shared cache})
+	 */
+	public void setFormulaCache(FormulaCache formulaCache) {
+		this.formulaCache = formulaCache;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the number of worker threads (values less than 1 are treated as 1)
+	 *
+	 * @see #setParallel(boolean)
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @param parallel if {@code true} one worker thread per available processor is used, otherwise the analysis runs sequentially
+	 */
+	public void setParallel(boolean parallel) {
+		setParallelism(parallel ? Runtime.getRuntime().availableProcessors() : 1);
+	}
+
+	/**
+	 * Returns the SAT instance of the given part of the feature model. The variables are numbered in preorder of the features.
+	 */
+	private SatInstance getSatInstance(ModelType modelType) {
+		nodeCreator.setModelType(modelType);
+		return formulaCache.getFormula(nodeCreator).getSatInstance(FeatureUtils.getFeatureNamesPreorder(fm));
+	}
+
 	/**
 	 * @return Hashmap: key entry is Feature/Constraint, value usually indicating the kind of attribute (non-Javadoc)
 	 */
@@ -194,12 +275,17 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		valid = true;
 
 		if (calculateFeatures) {
-			monitor.checkCancel();
-			updateFeatures();
-
-			if (calculateConstraints) {
+			final boolean startedPool = startPool();
+			try {
 				monitor.checkCancel();
-				updateConstraints();
+				updateFeatures();
+
+				if (calculateConstraints) {
+					monitor.checkCancel();
+					updateConstraints();
+				}
+			} finally {
+				stopPool(startedPool);
 			}
 		}
 
@@ -207,20 +293,34 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	}
 
 	public void updateFeatures() {
-		final Iterable<IFeature> features = fm.getFeatures();
+		final boolean startedPool = startPool();
+		try {
+			updateFeatures(fm.getFeatures());
+		} finally {
+			stopPool(startedPool);
+		}
+	}
+
+	private void updateFeatures(final Iterable<IFeature> features) {
 		for (final IFeature feature : features) {
 			feature.getProperty().setFeatureStatus(FeatureStatus.NORMAL, false);
 			FeatureUtils.setRelevantConstraints(feature);
 		}
 		monitor.step();
 
-		nodeCreator.setModelType(ModelType.All);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+		if (incrementalAnalysis != null) {
+			updateFeaturesIncrementally(features);
+			return;
+		}
+
+		final SatInstance si = getSatInstance(ModelType.All);
 
 		checkValidity(si);
 		monitor.step();
 
-		if (valid) {
+		if (valid && (pool != null)) {
+			checkFeaturesParallel(features, si);
+		} else if (valid) {
 			checkFeatureFalseOptional(features, si);
 			monitor.step();
 
@@ -232,8 +332,46 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
+	/**
+	 * Takes the core, dead, and false-optional features from the incremental analysis, which only checks the features that are affected by the recorded
+	 * changes.
+	 */
+	private void updateFeaturesIncrementally(final Iterable<IFeature> features) {
+		valid = incrementalAnalysis.update();
+		monitor.step();
+
+		if (valid) {
+			falseOptionalFeatures.clear();
+			for (final IFeature feature : incrementalAnalysis.getFalseOptionalFeatures()) {
+				setFeatureAttribute(feature, FeatureStatus.FALSE_OPTIONAL);
+				falseOptionalFeatures.add(feature);
+			}
+			monitor.step();
+
+			deadFeatures.clear();
+			for (final IFeature feature : incrementalAnalysis.getDeadFeatures()) {
+				setFeatureAttribute(feature, FeatureStatus.DEAD);
+				deadFeatures.add(feature);
+			}
+			coreFeatures.clear();
+			coreFeatures.addAll(incrementalAnalysis.getCoreFeatures());
+			monitor.step();
+
+			checkFeatureHidden(features);
+			monitor.step();
+		}
+	}
+
 	public void updateConstraints() {
-		final List<IConstraint> constraints = fm.getConstraints();
+		final boolean startedPool = startPool();
+		try {
+			updateConstraints(fm.getConstraints());
+		} finally {
+			stopPool(startedPool);
+		}
+	}
+
+	private void updateConstraints(final List<IConstraint> constraints) {
 		for (final IConstraint constraint : constraints) {
 			constraint.setConstraintAttribute(ConstraintAttribute.NORMAL, false);
 			constraint.setContainedFeatures();
@@ -242,7 +380,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 
 		if (!calculateFeatures) {
-			checkValidity(new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm)));
+			checkValidity(getSatInstance(ModelType.All));
 		}
 
 		try {
@@ -261,28 +399,34 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
-	private boolean checkConstraintContradiction(Node constraintNode) {
-		return LongRunningWrapper.runMethod(new ValidAnalysis(new SatInstance(constraintNode))) == null;
+	private boolean checkConstraintContradiction(Node constraintNode, IMonitor monitor) {
+		final int[] model = LongRunningWrapper.runMethod(new ValidAnalysis(new SatInstance(constraintNode)), monitor);
+		monitor.checkCancel();
+		return model == null;
 	}
 
 	private void checkConstraintDeadAndFalseOptional(final List<IConstraint> constraints) throws ContradictionException {
 		if (!calculateFOConstraints && !calculateDeadConstraints) {
 			return;
 		}
-		nodeCreator.setModelType(ModelType.OnlyStructure);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+		final SatInstance si = getSatInstance(ModelType.OnlyStructure);
 		final BasicSolver modSat = new BasicSolver(si);
 
 		final List<IFeature> deadList = new LinkedList<>(deadFeatures);
 		final List<IFeature> foList = new LinkedList<>(falseOptionalFeatures);
 		monitor.checkCancel();
 
+		if (pool != null) {
+			checkConstraintDeadAndFalseOptionalParallel(constraints, modSat, deadList, foList);
+			return;
+		}
+
 		for (final IConstraint constraint : constraints) {
 			modSat.addClauses(constraint.getNode().toRegularCNF());
 
 			if (constraint.getConstraintAttribute() == ConstraintAttribute.NORMAL) {
 				if (calculateDeadConstraints) {
-					final List<IFeature> newDeadFeature = checkFeatureDead2(modSat, deadList);
+					final List<IFeature> newDeadFeature = checkFeatureDead2(modSat, deadList, monitor.subTask(0));
 					if (!newDeadFeature.isEmpty()) {
 						constraint.setDeadFeatures(newDeadFeature);
 						deadList.removeAll(newDeadFeature);
@@ -291,7 +435,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 				}
 
 				if (calculateFOConstraints) {
-					final List<IFeature> newFOFeature = checkFeatureFalseOptional2(modSat, foList);
+					final List<IFeature> newFOFeature = checkFeatureFalseOptional2(modSat, foList, monitor.subTask(0));
 					if (!newFOFeature.isEmpty()) {
 						constraint.setFalseOptionalFeatures(newFOFeature);
 						foList.removeAll(newFOFeature);
@@ -305,6 +449,141 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
+	/**
+	 * Parallel version of {@link #checkConstraintDeadAndFalseOptional(List)}. Each worker replays the constraint list with its own solver, but only checks its
+	 * share of the dead and false-optional features. For every constraint, the results of all workers are merged in the order of the sequential analysis.
+	 */
+	private void checkConstraintDeadAndFalseOptionalParallel(final List<IConstraint> constraints, final BasicSolver solver, List<IFeature> deadList,
+			List<IFeature> foList) {
+		final List<Node> cnfNodes = new ArrayList<>(constraints.size());
+		final boolean[] normal = new boolean[constraints.size()];
+		int i = 0;
+		for (final IConstraint constraint : constraints) {
+			cnfNodes.add(constraint.getNode().toRegularCNF());
+			normal[i++] = constraint.getConstraintAttribute() == ConstraintAttribute.NORMAL;
+		}
+
+		final List<Future<List<List<IFeature>>>> deadResults = new ArrayList<>(parallelism);
+		final List<Future<List<List<IFeature>>>> foResults = new ArrayList<>(parallelism);
+		for (int j = 0; j < parallelism; j++) {
+			if (calculateDeadConstraints) {
+				deadResults.add(pool.submit(new ConstraintFeatureTask(solver, cnfNodes, normal, partition(deadList, j), monitor.subTask(0)) {
+
+					@Override
+					protected List<IFeature> check(BasicSolver solver, List<IFeature> features, IMonitor workerMonitor) {
+						return checkFeatureDead2(solver, features, workerMonitor);
+					}
+				}));
+			}
+			if (calculateFOConstraints) {
+				foResults.add(pool.submit(new ConstraintFeatureTask(solver, cnfNodes, normal, partition(foList, j), monitor.subTask(0)) {
+
+					@Override
+					protected List<IFeature> check(BasicSolver solver, List<IFeature> features, IMonitor workerMonitor) {
+						return checkFeatureFalseOptional2(solver, features, workerMonitor);
+					}
+				}));
+			}
+		}
+		final List<List<List<IFeature>>> deadFeaturesPerWorker = join(deadResults);
+		final List<List<List<IFeature>>> foFeaturesPerWorker = join(foResults);
+
+		final SatInstance si = solver.getSatInstance();
+		final Comparator<IFeature> variableOrder = new Comparator<IFeature>() {
+
+			@Override
+			public int compare(IFeature f1, IFeature f2) {
+				return si.getVariable(f1.getName()) - si.getVariable(f2.getName());
+			}
+		};
+
+		i = 0;
+		for (final IConstraint constraint : constraints) {
+			if (normal[i]) {
+				if (calculateDeadConstraints) {
+					final List<IFeature> newDeadFeature = new ArrayList<>();
+					for (final List<List<IFeature>> workerResult : deadFeaturesPerWorker) {
+						newDeadFeature.addAll(workerResult.get(i));
+					}
+					if (!newDeadFeature.isEmpty()) {
+						Collections.sort(newDeadFeature, variableOrder);
+						constraint.setDeadFeatures(newDeadFeature);
+						setConstraintAttribute(constraint, ConstraintAttribute.DEAD);
+					}
+				}
+
+				if (calculateFOConstraints) {
+					final Set<IFeature> newFOFeatureSet = Collections.newSetFromMap(new IdentityHashMap<IFeature, Boolean>());
+					for (final List<List<IFeature>> workerResult : foFeaturesPerWorker) {
+						newFOFeatureSet.addAll(workerResult.get(i));
+					}
+					if (!newFOFeatureSet.isEmpty()) {
+						// keep the order of the initial list
+						final List<IFeature> newFOFeature = new ArrayList<>(newFOFeatureSet.size());
+						for (final IFeature feature : foList) {
+							if (newFOFeatureSet.contains(feature)) {
+								newFOFeature.add(feature);
+							}
+						}
+						constraint.setFalseOptionalFeatures(newFOFeature);
+						if (constraint.getConstraintAttribute() == ConstraintAttribute.NORMAL) {
+							setConstraintAttribute(constraint, ConstraintAttribute.FALSE_OPTIONAL);
+						}
+					}
+				}
+			}
+			i++;
+		}
+		monitor.checkCancel();
+	}
+
+	/**
+	 * Adds the constraints one after another to a clone of the given solver and returns the features of the given list that are found after each constraint.
+	 * Found features are not checked again. The given monitor must be created by the calling thread (e.g., by {@link IMonitor#subTask(int)}), such that
+	 * canceling the analysis also stops the task.
+	 */
+	private abstract static class ConstraintFeatureTask implements Callable<List<List<IFeature>>> {
+
+		private final BasicSolver solver;
+		private final List<Node> cnfNodes;
+		private final boolean[] normal;
+		private final List<IFeature> features;
+		private final IMonitor monitor;
+
+		public ConstraintFeatureTask(BasicSolver solver, List<Node> cnfNodes, boolean[] normal, List<IFeature> features, IMonitor monitor) {
+			this.solver = solver;
+			this.cnfNodes = cnfNodes;
+			this.normal = normal;
+			this.features = new LinkedList<>(features);
+			this.monitor = monitor;
+		}
+
+		@Override
+		public List<List<IFeature>> call() throws ContradictionException {
+			final BasicSolver workerSolver = solver.clone();
+			final List<List<IFeature>> result = new ArrayList<>(cnfNodes.size());
+			for (int i = 0; i < cnfNodes.size(); i++) {
+				if (features.isEmpty()) {
+					result.add(Collections.<IFeature> emptyList());
+					continue;
+				}
+				monitor.checkCancel();
+				workerSolver.addClauses(cnfNodes.get(i));
+				if (normal[i]) {
+					final List<IFeature> newFeatures = check(workerSolver, features, monitor);
+					features.removeAll(newFeatures);
+					result.add(newFeatures);
+				} else {
+					result.add(Collections.<IFeature> emptyList());
+				}
+			}
+			return result;
+		}
+
+		protected abstract List<IFeature> check(BasicSolver solver, List<IFeature> features, IMonitor monitor);
+
+	}
+
 	/**
 	 * Detects redundancy of a constraint by checking if the model without the new (possibly redundant) constraint implies the model with the new constraint and
 	 * the other way round. If this is the case, both models are equivalent and the constraint is redundant. If a redundant constraint has been detected, it is
@@ -314,8 +593,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	 */
 	private void checkConstraintRedundant(final List<IConstraint> constraints) throws ContradictionException {
 		if (calculateRedundantConstraints) {
-			nodeCreator.setModelType(ModelType.OnlyStructure);
-			final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+			final SatInstance si = getSatInstance(ModelType.OnlyStructure);
 			final ModifiableSolver redundantSat = new ModifiableSolver(si);
 
 			final List<List<IConstr>> constraintMarkers = new ArrayList<>();
@@ -328,6 +606,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 			}
 			monitor.checkCancel();
 
+			final List<IConstraint> redundantConstraints = new ArrayList<>();
 			int i = -1;
 			for (final IConstraint constraint : constraints) {
 				i++;
@@ -354,32 +633,67 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 					}
 
 					if (redundant) {
-						if (checkConstraintTautology(constraint.getNode())) {
-							setConstraintAttribute(constraint, ConstraintAttribute.TAUTOLOGY);
-						} else {
-							setConstraintAttribute(constraint, ConstraintAttribute.REDUNDANT);
-						}
+						redundantConstraints.add(constraint);
 					}
 				}
 				monitor.checkCancel();
 			}
+
+			final boolean[] tautologies = checkConstraintTautologies(redundantConstraints);
+			i = 0;
+			for (final IConstraint constraint : redundantConstraints) {
+				setConstraintAttribute(constraint, tautologies[i++] ? ConstraintAttribute.TAUTOLOGY : ConstraintAttribute.REDUNDANT);
+			}
 		} else if (calculateTautologyConstraints) {
+			final boolean[] tautologies = checkConstraintTautologies(constraints);
+			int i = 0;
 			for (final IConstraint constraint : constraints) {
-				if (checkConstraintTautology(constraint.getNode())) {
+				if (tautologies[i++]) {
 					setConstraintAttribute(constraint, ConstraintAttribute.TAUTOLOGY);
 				}
+			}
+		}
+	}
+
+	/**
+	 * Checks for each given constraint whether it is a tautology. The constraints are independent of each other and are checked in parallel, if a pool is
+	 * available.
+	 */
+	private boolean[] checkConstraintTautologies(final List<IConstraint> constraints) {
+		final boolean[] tautologies = new boolean[constraints.size()];
+		if (pool == null) {
+			int i = 0;
+			for (final IConstraint constraint : constraints) {
+				tautologies[i++] = checkConstraintTautology(constraint.getNode(), monitor.subTask(0));
 				monitor.checkCancel();
 			}
+		} else {
+			final List<Future<Void>> results = new ArrayList<>(parallelism);
+			for (int j = 0; j < parallelism; j++) {
+				final int firstIndex = j;
+				final IMonitor workerMonitor = monitor.subTask(0);
+				results.add(pool.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						for (int i = firstIndex; i < tautologies.length; i += parallelism) {
+							tautologies[i] = checkConstraintTautology(constraints.get(i).getNode(), workerMonitor);
+						}
+						return null;
+					}
+				}));
+			}
+			join(results);
 		}
+		return tautologies;
 	}
 
-	private boolean checkConstraintTautology(Node constraintNode) {
-		return checkConstraintContradiction(new Not(constraintNode).toRegularCNF());
+	private boolean checkConstraintTautology(Node constraintNode, IMonitor monitor) {
+		return checkConstraintContradiction(new Not(constraintNode).toRegularCNF(), monitor);
 	}
 
 	private void checkConstraintUnsatisfiable(final List<IConstraint> constraints) throws ContradictionException {
-		nodeCreator.setModelType(ModelType.OnlyStructure);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+		final SatInstance si = getSatInstance(ModelType.OnlyStructure);
 		final ModifiableSolver unsat = new ModifiableSolver(si);
 		monitor.checkCancel();
 
@@ -403,7 +717,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 						}
 					}
 
-					if (checkConstraintContradiction(cnf)) {
+					if (checkConstraintContradiction(cnf, monitor.subTask(0))) {
 						setConstraintAttribute(constraint, ConstraintAttribute.UNSATISFIABLE);
 					} else {
 						setConstraintAttribute(constraint, ConstraintAttribute.VOID_MODEL);
@@ -417,10 +731,14 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	}
 
 	private void checkFeatureDead(final SatInstance si) {
-		deadFeatures.clear();
-		coreFeatures.clear();
 		final int[] solution2 = LongRunningWrapper.runMethod(new CoreDeadAnalysis(si), monitor.subTask(0));
 		monitor.checkCancel();
+		setFeatureCoreDead(solution2, si);
+	}
+
+	private void setFeatureCoreDead(final int[] solution2, final SatInstance si) {
+		deadFeatures.clear();
+		coreFeatures.clear();
 		for (int i = 0; i < solution2.length; i++) {
 			monitor.checkCancel();
 			final int var = solution2[i];
@@ -434,7 +752,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
-	private List<IFeature> checkFeatureDead2(final BasicSolver solver, List<IFeature> deadList) {
+	private List<IFeature> checkFeatureDead2(final BasicSolver solver, List<IFeature> deadList, IMonitor monitor) {
 		if (deadList.size() == 0) {
 			return Collections.emptyList();
 		}
@@ -444,7 +762,8 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		for (final IFeature deadFeature : deadList) {
 			deadVar[j++] = solver.getSatInstance().getVariable(deadFeature.getName());
 		}
-		final int[] solution2 = LongRunningWrapper.runMethod(new CoreDeadAnalysis(solver, deadVar));
+		final int[] solution2 = LongRunningWrapper.runMethod(new CoreDeadAnalysis(solver, deadVar), monitor);
+		monitor.checkCancel();
 		for (int i = 0; i < solution2.length; i++) {
 			final int var = solution2[i];
 			if (var < 0) {
@@ -455,6 +774,12 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	}
 
 	private void checkFeatureFalseOptional(final Iterable<IFeature> features, final SatInstance si) {
+		final List<int[]> solution3 = LongRunningWrapper.runMethod(new ImplicationAnalysis(si, getPossibleFOFeatures(features, si)), monitor.subTask(0));
+		monitor.checkCancel();
+		setFeatureFalseOptional(solution3, si);
+	}
+
+	private List<int[]> getPossibleFOFeatures(final Iterable<IFeature> features, final SatInstance si) {
 		final List<int[]> possibleFOFeatures = new ArrayList<>();
 		for (final IFeature feature : features) {
 			final IFeature parent = FeatureUtils.getParent(feature);
@@ -462,8 +787,10 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 				possibleFOFeatures.add(new int[] { -si.getVariable(parent.getName()), si.getVariable(feature.getName()) });
 			}
 		}
-		final List<int[]> solution3 = LongRunningWrapper.runMethod(new ImplicationAnalysis(si, possibleFOFeatures), monitor.subTask(0));
-		monitor.checkCancel();
+		return possibleFOFeatures;
+	}
+
+	private void setFeatureFalseOptional(final List<int[]> solution3, final SatInstance si) {
 		falseOptionalFeatures.clear();
 		for (final int[] pair : solution3) {
 			monitor.checkCancel();
@@ -473,20 +800,14 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
-	private List<IFeature> checkFeatureFalseOptional2(final BasicSolver solver, List<IFeature> foList) {
+	private List<IFeature> checkFeatureFalseOptional2(final BasicSolver solver, List<IFeature> foList, IMonitor monitor) {
 		if (foList.size() == 0) {
 			return Collections.emptyList();
 		}
 		final List<IFeature> result = new ArrayList<>();
-		final List<int[]> possibleFOFeatures = new ArrayList<>();
 		final SatInstance si = solver.getSatInstance();
-		for (final IFeature feature : foList) {
-			final IFeature parent = FeatureUtils.getParent(feature);
-			if ((parent != null) && (!feature.getStructure().isMandatorySet() || !parent.getStructure().isAnd())) {
-				possibleFOFeatures.add(new int[] { -si.getVariable(parent.getName()), si.getVariable(feature.getName()) });
-			}
-		}
-		final List<int[]> solution3 = LongRunningWrapper.runMethod(new ImplicationAnalysis(solver, possibleFOFeatures));
+		final List<int[]> solution3 = LongRunningWrapper.runMethod(new ImplicationAnalysis(solver, getPossibleFOFeatures(foList, si)), monitor);
+		monitor.checkCancel();
 		for (final int[] pair : solution3) {
 			result.add(fm.getFeature((CharSequence) si.getVariableObject(pair[1])));
 		}
@@ -503,9 +824,12 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 			return;
 		}
 
-		nodeCreator.setModelType(ModelType.All);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+		final SatInstance si = getSatInstance(ModelType.All);
+
+		setFeatureHidden(LongRunningWrapper.runMethod(createHiddenAnalysis(features, si), monitor.subTask(0)), si);
+	}
 
+	private IndeterminedAnalysis createHiddenAnalysis(final Iterable<IFeature> features, final SatInstance si) {
 		final Iterable<IFeature> hiddenFeatures = Functional.filter(features, new HiddenFeatureFilter());
 		final List<String> hiddenLiterals = Functional.toList(Functional.map(hiddenFeatures, new Functional.IFunction<IFeature, String>() {
 
@@ -515,12 +839,177 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 			}
 		}));
 
-		final int[] determinedHidden = LongRunningWrapper.runMethod(new IndeterminedAnalysis(si, hiddenLiterals));
+		return new IndeterminedAnalysis(si, hiddenLiterals);
+	}
+
+	private void setFeatureHidden(final int[] determinedHidden, final SatInstance si) {
 		for (final int feature : determinedHidden) {
 			setFeatureAttribute(fm.getFeature(si.getVariableObject(feature).toString()), FeatureStatus.INDETERMINATE_HIDDEN);
 		}
 	}
 
+	/**
+	 * Parallel version of the feature analyses. The false-optional and core/dead analyses are split into one part per worker. All parts use clones of the same
+	 * solver and share the models they find. The hidden features are analyzed at the same time. The attributes are set in the order of the sequential analysis.
+	 */
+	private void checkFeaturesParallel(final Iterable<IFeature> features, final SatInstance si) {
+		final BasicSolver solver;
+		try {
+			solver = new BasicSolver(si);
+		} catch (final ContradictionException e) {
+			Logger.logError(e);
+			return;
+		}
+		final SharedModelPool sharedModels = new SharedModelPool();
+		final List<int[]> possibleFOFeatures = getPossibleFOFeatures(features, si);
+		final int numberOfFeatures = si.getNumberOfFeatureVariables();
+
+		final List<Future<List<int[]>>> foResults = new ArrayList<>(parallelism);
+		final List<Future<int[]>> coreDeadResults = new ArrayList<>(parallelism);
+		for (int i = 0; i < parallelism; i++) {
+			final List<int[]> pairs = partition(possibleFOFeatures, i);
+			final IMonitor foMonitor = monitor.subTask(0);
+			foResults.add(pool.submit(new Callable<List<int[]>>() {
+
+				@Override
+				public List<int[]> call() {
+					final ImplicationAnalysis analysis = new ImplicationAnalysis(solver.clone(), pairs);
+					analysis.setSharedModels(sharedModels);
+					final List<int[]> result = LongRunningWrapper.runMethod(analysis, foMonitor);
+					foMonitor.checkCancel();
+					return result;
+				}
+			}));
+
+			final int[] variables = new int[((numberOfFeatures - i) + (parallelism - 1)) / parallelism];
+			for (int j = 0; j < variables.length; j++) {
+				variables[j] = i + 1 + (j * parallelism);
+			}
+			final IMonitor coreDeadMonitor = monitor.subTask(0);
+			coreDeadResults.add(pool.submit(new Callable<int[]>() {
+
+				@Override
+				public int[] call() {
+					final CoreDeadAnalysis analysis = new CoreDeadAnalysis(solver.clone(), variables);
+					analysis.setSharedModels(sharedModels);
+					final int[] result = LongRunningWrapper.runMethod(analysis, coreDeadMonitor);
+					coreDeadMonitor.checkCancel();
+					return result;
+				}
+			}));
+		}
+		final IndeterminedAnalysis hiddenAnalysis = fm.getStructure().hasHidden() ? createHiddenAnalysis(features, si) : null;
+		final IMonitor hiddenMonitor = monitor.subTask(0);
+		final Future<int[]> hiddenResult = (hiddenAnalysis == null) ? null : pool.submit(new Callable<int[]>() {
+
+			@Override
+			public int[] call() {
+				final int[] result = LongRunningWrapper.runMethod(hiddenAnalysis, hiddenMonitor);
+				hiddenMonitor.checkCancel();
+				return result;
+			}
+		});
+
+		final Set<int[]> foundPairs = Collections.newSetFromMap(new IdentityHashMap<int[], Boolean>());
+		for (final List<int[]> foundPartition : join(foResults)) {
+			foundPairs.addAll(foundPartition);
+		}
+		final List<int[]> solution3 = new ArrayList<>(foundPairs.size());
+		for (final int[] pair : possibleFOFeatures) {
+			if (foundPairs.contains(pair)) {
+				solution3.add(pair);
+			}
+		}
+		setFeatureFalseOptional(solution3, si);
+		monitor.step();
+
+		final List<Integer> coreDeadLiterals = new ArrayList<>();
+		for (final int[] foundPartition : join(coreDeadResults)) {
+			for (final int literal : foundPartition) {
+				coreDeadLiterals.add(literal);
+			}
+		}
+		Collections.sort(coreDeadLiterals, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer literal1, Integer literal2) {
+				return Math.abs(literal1) - Math.abs(literal2);
+			}
+		});
+		final int[] solution2 = new int[coreDeadLiterals.size()];
+		for (int i = 0; i < solution2.length; i++) {
+			solution2[i] = coreDeadLiterals.get(i);
+		}
+		setFeatureCoreDead(solution2, si);
+		monitor.step();
+
+		if (hiddenResult != null) {
+			setFeatureHidden(join(hiddenResult), si);
+		}
+		monitor.step();
+	}
+
+	/**
+	 * @return every {@link #parallelism}-th element of the given list, starting at the given index
+	 */
+	private <T> List<T> partition(List<T> list, int index) {
+		final List<T> part = new ArrayList<>((list.size() / parallelism) + 1);
+		int i = 0;
+		for (final T element : list) {
+			if ((i++ % parallelism) == index) {
+				part.add(element);
+			}
+		}
+		return part;
+	}
+
+	private <T> List<T> join(List<Future<T>> futures) {
+		final List<T> results = new ArrayList<>(futures.size());
+		for (final Future<T> future : futures) {
+			results.add(join(future));
+		}
+		return results;
+	}
+
+	/**
+	 * Waits for the given task and checks for cancel requests in between.
+	 */
+	private <T> T join(Future<T> future) {
+		try {
+			while (true) {
+				try {
+					return future.get(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (final TimeoutException e) {
+					monitor.checkCancel();
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MethodCancelException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	private boolean startPool() {
+		if ((pool == null) && (parallelism > 1)) {
+			pool = new ForkJoinPool(parallelism);
+			return true;
+		}
+		return false;
+	}
+
+	private void stopPool(boolean startedPool) {
+		if (startedPool) {
+			pool.shutdownNow();
+			pool = null;
+		}
+	}
+
 	private void checkValidity(final SatInstance si) {
 		valid = LongRunningWrapper.runMethod(new ValidAnalysis(si)) != null;
 	}
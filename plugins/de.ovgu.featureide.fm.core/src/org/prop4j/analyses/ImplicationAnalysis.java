@@ -40,6 +40,8 @@ public class ImplicationAnalysis extends AbstractAnalysis<List<int[]>> {
 
 	private final List<int[]> pairs;
 
+	private SharedModelPool sharedModels = null;
+
 	public ImplicationAnalysis(SatInstance satInstance, List<int[]> pairs) {
 		super(satInstance);
 		this.pairs = pairs;
@@ -66,20 +68,28 @@ public class ImplicationAnalysis extends AbstractAnalysis<List<int[]>> {
 		final int[] model1 = solver.findModel();
 
 		if (model1 != null) {
-			solutionList.add(model1);
+			addSolution(solutionList, model1);
 			solver.setSelectionStrategy(SelectionStrategy.NEGATIVE);
 
 			monitor.checkCancel();
 			final int[] model2 = solver.findModel();
-			solutionList.add(model2);
+			addSolution(solutionList, model2);
 
 			// if there are more negative than positive literals
 			if ((model1.length - countNegative(model1)) < countNegative(model2)) {
 				solver.setSelectionStrategy(SelectionStrategy.POSITIVE);
 			}
 
+			int knownSharedModels = 0;
 			pairLoop: for (final int[] pair : pairs) {
 				monitor.checkCancel();
+				if (sharedModels != null) {
+					final List<int[]> newSharedModels = sharedModels.getModels(knownSharedModels);
+					for (final int[] sharedModel : newSharedModels) {
+						solutionList.add(sharedModel);
+					}
+					knownSharedModels += newSharedModels.size();
+				}
 				solutionLoop: for (final int[] is : solutionList) {
 					for (final int i : pair) {
 						if (is[Math.abs(i) - 1] == i) {
@@ -98,7 +108,7 @@ public class ImplicationAnalysis extends AbstractAnalysis<List<int[]>> {
 				case TIMEOUT:
 					break;
 				case TRUE:
-					solutionList.add(solver.getModel());
+					addSolution(solutionList, solver.getModel());
 					solver.shuffleOrder();
 					break;
 				}
@@ -111,6 +121,27 @@ public class ImplicationAnalysis extends AbstractAnalysis<List<int[]>> {
 		return resultList;
 	}
 
+	/**
+	 * Adds a new model to the shared pool, if there is one. Models of the pool, including the own ones, are added to the local solution list before each
+	 * check.
+	 */
+	private void addSolution(RingList<int[]> solutionList, int[] model) {
+		if ((sharedModels == null) || !sharedModels.add(model)) {
+			solutionList.add(model);
+		}
+	}
+
+	public SharedModelPool getSharedModels() {
+		return sharedModels;
+	}
+
+	/**
+	 * @param sharedModels a pool of models of the same formula that is shared with other analyses (may be {@code null})
+	 */
+	public void setSharedModels(SharedModelPool sharedModels) {
+		this.sharedModels = sharedModels;
+	}
+
 	private static int countNegative(int[] model) {
 		int count = 0;
 		for (int i = 0; i < model.length; i++) {
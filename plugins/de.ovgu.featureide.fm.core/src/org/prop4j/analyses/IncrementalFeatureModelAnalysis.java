@@ -0,0 +1,557 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.solver.ModifiableSolver;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Keeps the core, dead, and false-optional features of a feature model up to date while constraints and groups are edited.</br> The formula is split into
+ * clause groups (the tree, the group of each parent feature, and each constraint) that are kept in one persistent {@link ModifiableSolver}. Changes are
+ * recorded by {@link #addConstraint(IConstraint)}, {@link #removeConstraint(IConstraint)}, {@link #modifyConstraint(IConstraint)}, and
+ * {@link #changeGroup(IFeature)} and are processed by the next call of {@link #update()}. Recording a change only takes a short lock and does not compute
+ * anything, such that it can be called by event listeners while an update is running in another thread:
+ * <ul>
+ * <li>Adding clauses can only add core and dead features and false-optional features. Only the features that are connected to the new clauses after
+ * simplifying the formula by the known core and dead features are checked again.</li>
+ * <li>Removing clauses can only remove core and dead features and false-optional features. Thus, only these features are checked again.</li>
+ * </ul>
+ * All other changes (e.g., adding or renaming features) lead to a complete analysis.
+ */
+public class IncrementalFeatureModelAnalysis {
+
+	private static final Object TREE = new Object();
+
+	private static enum ChangeType {
+		ADD, REMOVE, MODIFY
+	}
+
+	private final IFeatureModel fm;
+
+	/**
+	 * The clause groups of the current formula in insertion order.
+	 */
+	private final Map<Object, Node> groups = new LinkedHashMap<>();
+
+	/**
+	 * Changes that have not been processed yet. Guarded by itself.
+	 */
+	private final List<Entry<Object, ChangeType>> pendingChanges = new ArrayList<>();
+
+	/**
+	 * Whether the next update must analyze the complete feature model. Guarded by {@link #pendingChanges}.
+	 */
+	private boolean resetRequested = true;
+
+	private boolean initialized = false;
+
+	private SatInstance satInstance;
+	private ModifiableSolver solver;
+
+	private boolean valid;
+
+	/**
+	 * For each variable the implied literal (1 = core, -1 = dead) or 0.
+	 */
+	private int[] backbone;
+
+	/**
+	 * Optional features (with respect to the structure) that are implied by their parent.
+	 */
+	private final Set<IFeature> falseOptionalFeatures = Collections.newSetFromMap(new IdentityHashMap<IFeature, Boolean>());
+
+	/**
+	 * The candidates for false-optional features at the last update.
+	 */
+	private final Set<IFeature> knownCandidates = Collections.newSetFromMap(new IdentityHashMap<IFeature, Boolean>());
+
+	private int checkedVariables;
+
+	public IncrementalFeatureModelAnalysis(IFeatureModel fm) {
+		this.fm = fm;
+	}
+
+	/**
+	 * Discards all results. The next call of {@link #update()} analyzes the complete feature model.
+	 */
+	public void reset() {
+		synchronized (pendingChanges) {
+			resetRequested = true;
+			pendingChanges.clear();
+		}
+	}
+
+	public void addConstraint(IConstraint constraint) {
+		addChange(constraint, ChangeType.ADD);
+	}
+
+	public void removeConstraint(IConstraint constraint) {
+		addChange(constraint, ChangeType.REMOVE);
+	}
+
+	public void modifyConstraint(IConstraint constraint) {
+		addChange(constraint, ChangeType.MODIFY);
+	}
+
+	/**
+	 * Records that the group type of the given feature or the mandatory property of one of its children has changed.
+	 *
+	 * @param feature the parent feature
+	 */
+	public void changeGroup(IFeature feature) {
+		addChange(feature, ChangeType.MODIFY);
+	}
+
+	private void addChange(Object key, ChangeType type) {
+		synchronized (pendingChanges) {
+			if (!resetRequested) {
+				pendingChanges.add(new SimpleEntry<>(key, type));
+			}
+		}
+	}
+
+	/**
+	 * Processes all recorded changes. The clauses of changed constraints and groups are taken from the current feature model.
+	 *
+	 * @return whether the feature model is valid
+	 */
+	public synchronized boolean update() {
+		checkedVariables = 0;
+		final List<Entry<Object, ChangeType>> changes;
+		synchronized (pendingChanges) {
+			if (resetRequested) {
+				initialized = false;
+				resetRequested = false;
+			}
+			changes = new ArrayList<>(pendingChanges);
+			pendingChanges.clear();
+		}
+		if (!initialized) {
+			init();
+		} else {
+			for (final Entry<Object, ChangeType> change : changes) {
+				final Object key = change.getKey();
+				if (change.getValue() != ChangeType.ADD) {
+					if (groups.remove(key) != null) {
+						retract();
+					}
+				}
+				if (change.getValue() != ChangeType.REMOVE) {
+					final Node clauses = createNode(key);
+					if (groups.containsKey(key) || !containsOnlyKnownVariables(clauses)) {
+						// unknown state, e.g., a constraint was added twice, or new variables
+						init();
+						break;
+					}
+					groups.put(key, clauses);
+					add(clauses);
+				}
+			}
+		}
+		updateFalseOptionalCandidates();
+		return valid;
+	}
+
+	public synchronized boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * @return the core features in preorder
+	 */
+	public synchronized List<IFeature> getCoreFeatures() {
+		return getFeatures(1);
+	}
+
+	/**
+	 * @return the dead features in preorder
+	 */
+	public synchronized List<IFeature> getDeadFeatures() {
+		return getFeatures(-1);
+	}
+
+	/**
+	 * @return the false-optional features in the order of {@link IFeatureModel#getFeatures()}
+	 */
+	public synchronized List<IFeature> getFalseOptionalFeatures() {
+		final List<IFeature> result = new ArrayList<>();
+		if (valid) {
+			for (final IFeature feature : fm.getFeatures()) {
+				if (falseOptionalFeatures.contains(feature)) {
+					result.add(feature);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of variables that were checked by the last call of {@link #update()}
+	 */
+	public synchronized int getNumberOfCheckedVariables() {
+		return checkedVariables;
+	}
+
+	private List<IFeature> getFeatures(int sign) {
+		final List<IFeature> result = new ArrayList<>();
+		if (valid) {
+			for (int var = 1; var < backbone.length; var++) {
+				if (backbone[var] == sign) {
+					result.add(fm.getFeature((String) satInstance.getVariableObject(var)));
+				}
+			}
+		}
+		return result;
+	}
+
+	private void init() {
+		initialized = true;
+		groups.clear();
+		falseOptionalFeatures.clear();
+
+		final AdvancedNodeCreator nodeCreator = createNodeCreator();
+		final List<Node> treeClauses = new ArrayList<>();
+		final IFeature root = FeatureUtils.getRoot(fm);
+		if (root != null) {
+			treeClauses.add(new Or(new Literal(root.getName())));
+		}
+		for (final IFeature feature : fm.getFeatures()) {
+			for (final IFeatureStructure child : feature.getStructure().getChildren()) {
+				treeClauses.add(new Or(new Literal(feature.getName()), new Literal(child.getFeature().getName(), false)));
+			}
+		}
+		groups.put(TREE, new And(treeClauses.toArray(new Node[0])));
+		for (final IFeature feature : fm.getFeatures()) {
+			if (feature.getStructure().hasChildren()) {
+				groups.put(feature, nodeCreator.createGroupNodes(feature));
+			}
+		}
+		for (final IConstraint constraint : fm.getConstraints()) {
+			groups.put(constraint, createConstraintNode(constraint));
+		}
+
+		satInstance = new SatInstance(new And(), FeatureUtils.getFeatureNamesPreorder(fm));
+		backbone = new int[satInstance.getNumberOfVariables() + 1];
+		buildSolver();
+		if (valid) {
+			checkAll();
+		}
+	}
+
+	private void checkAll() {
+		final int[] variables = new int[backbone.length - 1];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = i + 1;
+		}
+		checkBackbone(variables, true);
+		final Set<IFeature> candidates = getFalseOptionalCandidates().keySet();
+		knownCandidates.clear();
+		knownCandidates.addAll(candidates);
+		falseOptionalFeatures.clear();
+		falseOptionalFeatures.addAll(checkFalseOptional(candidates));
+	}
+
+	private void buildSolver() {
+		try {
+			solver = new ModifiableSolver(satInstance);
+			for (final Node clauses : groups.values()) {
+				solver.addClauses(clauses);
+			}
+			valid = solver.findModel() != null;
+		} catch (final ContradictionException e) {
+			valid = false;
+		}
+	}
+
+	/**
+	 * Removes clauses. Removed clauses are not retracted from the existing solver, because the solver keeps the assignments that were derived from them at
+	 * decision level 0. Instead, a new solver is built from the remaining clause groups.
+	 */
+	private void retract() {
+		final boolean wasValid = valid;
+		buildSolver();
+		if (!wasValid) {
+			if (valid) {
+				// there are no results for a void feature model
+				checkAll();
+			}
+		} else if (valid) {
+			final List<Integer> backboneVariables = new ArrayList<>();
+			for (int var = 1; var < backbone.length; var++) {
+				if (backbone[var] != 0) {
+					backboneVariables.add(var);
+				}
+			}
+			checkBackbone(toArray(backboneVariables), true);
+			final List<IFeature> oldFalseOptionalFeatures = new ArrayList<>(falseOptionalFeatures);
+			falseOptionalFeatures.clear();
+			falseOptionalFeatures.addAll(checkFalseOptional(oldFalseOptionalFeatures));
+		}
+	}
+
+	/**
+	 * Adds new clauses to the solver and checks all features that are connected to the new clauses.
+	 */
+	private void add(Node clauses) {
+		if (!valid) {
+			try {
+				solver.addClauses(clauses);
+			} catch (final ContradictionException e) {}
+			return;
+		}
+		try {
+			solver.addClauses(clauses);
+			valid = solver.findModel() != null;
+		} catch (final ContradictionException e) {
+			valid = false;
+		}
+		if (valid) {
+			final int[] cone = getCone(clauses);
+			if (cone.length > 0) {
+				checkBackbone(cone, false);
+
+				final boolean[] inCone = new boolean[backbone.length];
+				for (final int var : cone) {
+					inCone[var] = true;
+				}
+				final List<IFeature> candidates = new ArrayList<>();
+				for (final Entry<IFeature, int[]> entry : getFalseOptionalCandidates().entrySet()) {
+					final int[] pair = entry.getValue();
+					if (!falseOptionalFeatures.contains(entry.getKey()) && (inCone[-pair[0]] || inCone[pair[1]])) {
+						candidates.add(entry.getKey());
+					}
+				}
+				falseOptionalFeatures.addAll(checkFalseOptional(candidates));
+			}
+		}
+	}
+
+	/**
+	 * Computes the variables that are connected to the given clauses within the formula, after all clauses that are satisfied by the core and dead features
+	 * have been removed. Variables outside of this cone are independent of the new clauses and keep their state.
+	 *
+	 * @return the connected variables that are neither core nor dead
+	 */
+	private int[] getCone(Node newClauses) {
+		final int[] parent = new int[backbone.length];
+		for (int var = 1; var < parent.length; var++) {
+			parent[var] = var;
+		}
+		for (final Node clauses : groups.values()) {
+			clauseLoop: for (final Node clause : clauses.getChildren()) {
+				final int[] literals = getLiterals(clause);
+				for (final int literal : literals) {
+					if (backbone[Math.abs(literal)] == Integer.signum(literal)) {
+						continue clauseLoop;
+					}
+				}
+				int first = 0;
+				for (final int literal : literals) {
+					final int var = Math.abs(literal);
+					if (backbone[var] == 0) {
+						if (first == 0) {
+							first = find(parent, var);
+						} else {
+							parent[find(parent, var)] = first;
+						}
+					}
+				}
+			}
+		}
+
+		final boolean[] touched = new boolean[backbone.length];
+		for (final Node clause : newClauses.getChildren()) {
+			for (final int literal : getLiterals(clause)) {
+				final int var = Math.abs(literal);
+				if (backbone[var] == 0) {
+					touched[find(parent, var)] = true;
+				}
+			}
+		}
+		final List<Integer> cone = new ArrayList<>();
+		for (int var = 1; var < backbone.length; var++) {
+			if ((backbone[var] == 0) && touched[find(parent, var)]) {
+				cone.add(var);
+			}
+		}
+		return toArray(cone);
+	}
+
+	private static int find(int[] parent, int var) {
+		while (parent[var] != var) {
+			parent[var] = parent[parent[var]];
+			var = parent[var];
+		}
+		return var;
+	}
+
+	/**
+	 * Checks which of the given variables are core or dead.
+	 *
+	 * @param clear whether the previous state of the variables is discarded
+	 */
+	private void checkBackbone(int[] variables, boolean clear) {
+		checkedVariables += variables.length;
+		if (clear) {
+			for (final int var : variables) {
+				backbone[var] = 0;
+			}
+		}
+		final int[] literals = LongRunningWrapper.runMethod(new CoreDeadAnalysis(solver, variables));
+		// the analysis leaves the found literals assigned
+		solver.assignmentClear(0);
+		if (literals != null) {
+			for (final int literal : literals) {
+				backbone[Math.abs(literal)] = literal > 0 ? 1 : -1;
+			}
+		}
+	}
+
+	/**
+	 * @return the features of the given ones that are implied by their parent
+	 */
+	private List<IFeature> checkFalseOptional(Iterable<IFeature> features) {
+		final Map<IFeature, int[]> allCandidates = getFalseOptionalCandidates();
+		final List<int[]> pairs = new ArrayList<>();
+		final Map<int[], IFeature> pairToFeature = new IdentityHashMap<>();
+		for (final IFeature feature : features) {
+			final int[] pair = allCandidates.get(feature);
+			if (pair != null) {
+				pairs.add(pair);
+				pairToFeature.put(pair, feature);
+			}
+		}
+		final List<IFeature> result = new ArrayList<>();
+		if (!pairs.isEmpty()) {
+			final List<int[]> impliedPairs = LongRunningWrapper.runMethod(new ImplicationAnalysis(solver, pairs));
+			if (impliedPairs != null) {
+				for (final int[] pair : impliedPairs) {
+					result.add(pairToFeature.get(pair));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The candidates depend on the structure of the feature model. Features that became candidates since the last update are checked.
+	 */
+	private void updateFalseOptionalCandidates() {
+		if (!valid) {
+			return;
+		}
+		final Map<IFeature, int[]> candidates = getFalseOptionalCandidates();
+		falseOptionalFeatures.retainAll(candidates.keySet());
+		final List<IFeature> newCandidates = new ArrayList<>();
+		for (final IFeature feature : candidates.keySet()) {
+			if (!knownCandidates.contains(feature)) {
+				newCandidates.add(feature);
+			}
+		}
+		knownCandidates.clear();
+		knownCandidates.addAll(candidates.keySet());
+		falseOptionalFeatures.addAll(checkFalseOptional(newCandidates));
+	}
+
+	/**
+	 * @return all features that are optional with respect to the structure, mapped to the pair (-parent, feature)
+	 */
+	private Map<IFeature, int[]> getFalseOptionalCandidates() {
+		final Map<IFeature, int[]> candidates = new LinkedHashMap<>();
+		for (final IFeature feature : fm.getFeatures()) {
+			final IFeature parent = FeatureUtils.getParent(feature);
+			if ((parent != null) && (!feature.getStructure().isMandatorySet() || !parent.getStructure().isAnd())) {
+				candidates.put(feature, new int[] { -satInstance.getVariable(parent.getName()), satInstance.getVariable(feature.getName()) });
+			}
+		}
+		return candidates;
+	}
+
+	private int[] getLiterals(Node clause) {
+		final Node[] children = clause.getChildren();
+		final int[] literals = new int[children.length];
+		for (int i = 0; i < children.length; i++) {
+			literals[i] = satInstance.getSignedVariable((Literal) children[i]);
+		}
+		return literals;
+	}
+
+	private boolean containsOnlyKnownVariables(Node clauses) {
+		for (final Node clause : clauses.getChildren()) {
+			for (final Node literal : clause.getChildren()) {
+				if (!satInstance.containsVariable(((Literal) literal).var)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Node createNode(Object key) {
+		return (key instanceof IConstraint) ? createConstraintNode((IConstraint) key) : createNodeCreator().createGroupNodes((IFeature) key);
+	}
+
+	private Node createConstraintNode(IConstraint constraint) {
+		return constraint.getNode().toRegularCNF();
+	}
+
+	private AdvancedNodeCreator createNodeCreator() {
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setIncludeBooleanValues(false);
+		nodeCreator.setUseOldNames(false);
+		return nodeCreator;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		final int[] array = new int[list.size()];
+		int i = 0;
+		for (final Integer value : list) {
+			array[i++] = value;
+		}
+		return array;
+	}
+
+}
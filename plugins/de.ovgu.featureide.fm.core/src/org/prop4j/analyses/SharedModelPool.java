@@ -0,0 +1,64 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.prop4j.solver.ISatSolver;
+
+/**
+ * Collects models of one formula that are found by several analyses running in parallel. Each analysis can use the models of the others to exclude
+ * candidates without calling its own solver.</br> The pool is thread-safe and stores at most {@link ISatSolver#MAX_SOLUTION_BUFFER} models.
+ */
+public class SharedModelPool {
+
+	private final List<int[]> models = new ArrayList<>();
+
+	/**
+	 * @param model a model of the formula
+	 * @return {@code true} if the model was added, {@code false} if the pool is already full
+	 */
+	public synchronized boolean add(int[] model) {
+		if ((model != null) && (models.size() < ISatSolver.MAX_SOLUTION_BUFFER)) {
+			models.add(model);
+			return true;
+		}
+		return false;
+	}
+
+	public synchronized int size() {
+		return models.size();
+	}
+
+	/**
+	 * @param fromIndex the number of models that are already known to the caller
+	 * @return all models that were added after the first {@code fromIndex} models
+	 */
+	public synchronized List<int[]> getModels(int fromIndex) {
+		if (fromIndex >= models.size()) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(models.subList(fromIndex, models.size()));
+	}
+
+}
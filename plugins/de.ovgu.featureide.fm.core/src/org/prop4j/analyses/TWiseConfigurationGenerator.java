@@ -0,0 +1,320 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.prop4j.analyses.PairWiseConfigurationGenerator.Configuration;
+import org.prop4j.solver.ISatSolver.SelectionStrategy;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Greedily creates configurations that cover all valid t-wise interactions of a propositional formula (t = 1..4).<br> Each configuration is built by
+ * adding as many uncovered interactions as possible to the assumptions of one incremental solver. Coverage is tracked with one {@link BitSet} per
+ * literal of a variable that is neither core nor dead, holding the configurations that contain this literal. An interaction is covered iff the
+ * bit sets of its literals intersect. Found configurations are streamed through {@link #q} like in {@link PairWiseConfigurationGenerator}.
+ */
+public class TWiseConfigurationGenerator extends AbstractAnalysis<List<List<String>>> {
+
+	public static final int MAX_T = 4;
+
+	private static final class Interaction {
+
+		private final int[] literals;
+
+		private Interaction(int[] literals) {
+			this.literals = literals;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(literals);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof Interaction) && Arrays.equals(literals, ((Interaction) obj).literals);
+		}
+
+	}
+
+	public final BlockingQueue<Configuration> q = new LinkedBlockingQueue<>();
+
+	protected final int t, maxNumber;
+
+	protected final List<Configuration> configurationList = new ArrayList<>();
+
+	private final Set<Interaction> invalidInteractions = new HashSet<>();
+
+	private int[] freeVariables;
+	private int[] freeVariableIndex;
+	private BitSet[] coverage;
+	private byte[] selection;
+	private int fixedCount, totalCoverage;
+
+	private long time = 0;
+
+	public TWiseConfigurationGenerator(SatInstance satInstance, int t, int maxNumber) {
+		super(satInstance);
+		if ((t < 1) || (t > MAX_T)) {
+			throw new IllegalArgumentException("t must be between 1 and " + MAX_T + ": " + t);
+		}
+		this.t = t;
+		this.maxNumber = maxNumber;
+	}
+
+	@Override
+	protected List<List<String>> analyze(IMonitor monitor) throws Exception {
+		if (maxNumber <= 0) {
+			return Collections.emptyList();
+		}
+		time = System.nanoTime();
+		monitor.setRemainingWork(maxNumber);
+
+		final int[] coreDead = new CoreDeadAnalysis(solver).analyze(new NullMonitor());
+		final int[] model = solver.findModel();
+		if (model == null) {
+			return Collections.emptyList();
+		}
+		fixedCount = coreDead.length;
+		initFreeVariables(coreDead);
+
+		if (freeVariables.length == 0) {
+			addConfiguration(model, 0);
+			return getConfigurations();
+		}
+
+		final int strength = Math.min(t, freeVariables.length);
+		while (configurationList.size() < maxNumber) {
+			monitor.checkCancel();
+			solver.setSelectionStrategy(((configurationList.size() % 2) == 0) ? SelectionStrategy.NEGATIVE : SelectionStrategy.POSITIVE);
+			if (!nextConfiguration(strength, monitor)) {
+				break;
+			}
+			monitor.step();
+		}
+		return getConfigurations();
+	}
+
+	private void initFreeVariables(int[] coreDead) {
+		final int numberOfVariables = solver.getSatInstance().getNumberOfVariables();
+		final int numberOfFeatureVariables = solver.getSatInstance().getNumberOfFeatureVariables();
+		final boolean[] fixed = new boolean[numberOfVariables];
+		for (final int literal : coreDead) {
+			fixed[Math.abs(literal) - 1] = true;
+		}
+		freeVariableIndex = new int[numberOfVariables];
+		Arrays.fill(freeVariableIndex, -1);
+		final int[] free = new int[numberOfFeatureVariables];
+		int count = 0;
+		for (int i = 0; i < numberOfFeatureVariables; i++) {
+			if (!fixed[i]) {
+				freeVariableIndex[i] = count;
+				free[count++] = i + 1;
+			}
+		}
+		freeVariables = Arrays.copyOf(free, count);
+		coverage = new BitSet[count << 1];
+		for (int i = 0; i < coverage.length; i++) {
+			coverage[i] = new BitSet();
+		}
+		selection = new byte[numberOfVariables];
+	}
+
+	/**
+	 * Builds the next configuration from all uncovered interactions that are compatible with each other.
+	 *
+	 * @return {@code false} if no uncovered valid interaction is left
+	 */
+	private boolean nextConfiguration(int strength, IMonitor monitor) {
+		final int[] variables = new int[strength];
+		for (int i = 0; i < strength; i++) {
+			variables[i] = i;
+		}
+		final int[] literals = new int[strength];
+		final int numberOfPatterns = 1 << strength;
+
+		int[] witness = null;
+		int selectedInteractions = 0;
+		do {
+			monitor.checkCancel();
+			patternLoop: for (int pattern = 0; pattern < numberOfPatterns; pattern++) {
+				boolean selected = true;
+				for (int i = 0; i < strength; i++) {
+					final int var = freeVariables[variables[i]];
+					final int literal = ((pattern >> i) & 1) == 0 ? -var : var;
+					final byte varSelection = selection[var - 1];
+					if (varSelection == -Integer.signum(literal)) {
+						// contradicts the interactions that are already part of this configuration
+						continue patternLoop;
+					}
+					selected &= varSelection != 0;
+					literals[i] = literal;
+				}
+				if (selected || isCovered(literals)) {
+					continue;
+				}
+				if ((witness != null) && contains(witness, literals)) {
+					// the witness stays a model, but later witnesses must also contain the interaction
+					for (final int literal : literals) {
+						if (selection[Math.abs(literal) - 1] == 0) {
+							solver.assignmentPush(literal);
+						}
+					}
+					select(literals);
+					selectedInteractions++;
+					continue;
+				}
+				if (invalidInteractions.contains(new Interaction(literals))) {
+					continue;
+				}
+
+				int pushed = 0;
+				for (final int literal : literals) {
+					if (selection[Math.abs(literal) - 1] == 0) {
+						solver.assignmentPush(literal);
+						pushed++;
+					}
+				}
+				switch (solver.isSatisfiable()) {
+				case TRUE:
+					witness = solver.getModel();
+					select(literals);
+					selectedInteractions++;
+					break;
+				case FALSE:
+					if (selectedInteractions == 0) {
+						invalidInteractions.add(new Interaction(Arrays.copyOf(literals, strength)));
+					}
+					for (int i = 0; i < pushed; i++) {
+						solver.assignmentPop();
+					}
+					break;
+				case TIMEOUT:
+				default:
+					for (int i = 0; i < pushed; i++) {
+						solver.assignmentPop();
+					}
+					break;
+				}
+			}
+		} while (nextCombination(variables, freeVariables.length));
+
+		solver.assignmentClear(fixedCount);
+		Arrays.fill(selection, (byte) 0);
+		if (witness == null) {
+			return false;
+		}
+		addConfiguration(witness, selectedInteractions);
+		return true;
+	}
+
+	private static boolean nextCombination(int[] variables, int n) {
+		final int k = variables.length;
+		int i = k - 1;
+		while ((i >= 0) && (variables[i] == ((n - k) + i))) {
+			i--;
+		}
+		if (i < 0) {
+			return false;
+		}
+		variables[i]++;
+		for (int j = i + 1; j < k; j++) {
+			variables[j] = variables[j - 1] + 1;
+		}
+		return true;
+	}
+
+	private static boolean contains(int[] model, int[] literals) {
+		for (final int literal : literals) {
+			if (model[Math.abs(literal) - 1] != literal) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void select(int[] literals) {
+		for (final int literal : literals) {
+			selection[Math.abs(literal) - 1] = (byte) Integer.signum(literal);
+		}
+	}
+
+	private BitSet getCoverage(int literal) {
+		final int index = freeVariableIndex[Math.abs(literal) - 1];
+		return coverage[(index << 1) + (literal > 0 ? 1 : 0)];
+	}
+
+	private boolean isCovered(int[] literals) {
+		final BitSet first = getCoverage(literals[0]);
+		configurationLoop: for (int c = first.nextSetBit(0); c >= 0; c = first.nextSetBit(c + 1)) {
+			for (int i = 1; i < literals.length; i++) {
+				if (!getCoverage(literals[i]).get(c)) {
+					continue configurationLoop;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private void addConfiguration(int[] model, int selectedInteractions) {
+		final int index = configurationList.size();
+		for (final int var : freeVariables) {
+			getCoverage(model[var - 1]).set(index);
+		}
+		totalCoverage += selectedInteractions;
+
+		final Configuration config = new Configuration(model, selectedInteractions, totalCoverage);
+		config.time = System.nanoTime() - time;
+		configurationList.add(config);
+		q.offer(config);
+		time = System.nanoTime();
+	}
+
+	/**
+	 * @return the configurations found so far. The coverage values of each {@link Configuration} count the interactions it was built for, not the
+	 *         ones it covers by chance.
+	 */
+	public List<List<String>> getConfigurations() {
+		final ArrayList<List<String>> ret = new ArrayList<>(configurationList.size());
+		for (final Configuration config : configurationList) {
+			ret.add(solver.getSatInstance().convertToString(config.getModel()));
+		}
+		return ret;
+	}
+
+	public int getT() {
+		return t;
+	}
+
+}
@@ -0,0 +1,336 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.prop4j.And;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.SatSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SelectorSolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+
+/**
+ * Computes the effect of a candidate constraint on a feature model without modifying or cloning the model.</br> The feature model (optionally without one
+ * constraint that is currently edited) is loaded once into a {@link SelectorSolver}. Each candidate constraint is only defined by a selector literal, such
+ * that all checks are done by assumptions on the same warm solver. The dead and false-optional features of the feature model itself are computed once and
+ * are used to report only the features that are affected by the candidate.
+ *
+ * @see de.ovgu.featureide.fm.core.FeatureModelAnalyzer#analyzeConstraint(Node, IConstraint, int)
+ */
+public class WhatIfAnalysis {
+
+	/**
+	 * The effect of a candidate constraint.
+	 */
+	public static class Result {
+
+		private final boolean tautology;
+		private final boolean satisfiable;
+		private final boolean voidModel;
+		private final boolean redundant;
+		private final List<IFeature> deadFeatures;
+		private final List<IFeature> falseOptionalFeatures;
+
+		Result(boolean tautology, boolean satisfiable, boolean voidModel, boolean redundant, List<IFeature> deadFeatures,
+				List<IFeature> falseOptionalFeatures) {
+			this.tautology = tautology;
+			this.satisfiable = satisfiable;
+			this.voidModel = voidModel;
+			this.redundant = redundant;
+			this.deadFeatures = Collections.unmodifiableList(deadFeatures);
+			this.falseOptionalFeatures = Collections.unmodifiableList(falseOptionalFeatures);
+		}
+
+		/**
+		 * @return whether the constraint is always true (independent of the feature model)
+		 */
+		public boolean isTautology() {
+			return tautology;
+		}
+
+		/**
+		 * @return whether the constraint is satisfiable (independent of the feature model)
+		 */
+		public boolean isSatisfiable() {
+			return satisfiable;
+		}
+
+		/**
+		 * @return whether the constraint makes a valid feature model void
+		 */
+		public boolean isVoidModel() {
+			return voidModel;
+		}
+
+		/**
+		 * @return whether the constraint is already implied by the feature model
+		 */
+		public boolean isRedundant() {
+			return redundant;
+		}
+
+		/**
+		 * @return the features that become dead by the constraint in the order of {@link IFeatureModel#getFeatures()}
+		 */
+		public List<IFeature> getDeadFeatures() {
+			return deadFeatures;
+		}
+
+		/**
+		 * @return the features that become false-optional (but not dead) by the constraint in the order of {@link IFeatureModel#getFeatures()}
+		 */
+		public List<IFeature> getFalseOptionalFeatures() {
+			return falseOptionalFeatures;
+		}
+
+	}
+
+	/**
+	 * The maximal number of candidates that are defined in one solver. Definitions are never removed, so the solver is rebuilt after this number of different
+	 * candidates.
+	 */
+	private static final int MAX_SELECTORS = 256;
+
+	private final IFeatureModel fm;
+	private final IConstraint replacedConstraint;
+
+	private final IFeature[] features;
+	/**
+	 * For each candidate for false-optional features the index of the feature and of its parent in {@link #features}.
+	 */
+	private final int[][] candidates;
+
+	private final Node cnf;
+	private SelectorSolver solver;
+	private int[] variables;
+
+	private boolean valid;
+	private boolean[] dead;
+	private boolean[] falseOptional;
+
+	/**
+	 * @param fm the feature model
+	 * @param replacedConstraint a constraint of the feature model that is ignored (e.g., because it is currently edited); may be {@code null}
+	 */
+	public WhatIfAnalysis(IFeatureModel fm, IConstraint replacedConstraint) {
+		this.fm = fm;
+		this.replacedConstraint = replacedConstraint;
+
+		final List<IFeature> featureList = new ArrayList<>();
+		final Map<IFeature, Integer> featureIndex = new IdentityHashMap<>();
+		for (final IFeature feature : fm.getFeatures()) {
+			featureIndex.put(feature, featureList.size());
+			featureList.add(feature);
+		}
+		features = featureList.toArray(new IFeature[featureList.size()]);
+		final List<int[]> candidateList = new ArrayList<>();
+		for (int i = 0; i < features.length; i++) {
+			final IFeature feature = features[i];
+			final IFeature parent = FeatureUtils.getParent(feature);
+			if ((parent != null) && (!feature.getStructure().isMandatorySet() || !parent.getStructure().isAnd())) {
+				candidateList.add(new int[] { i, featureIndex.get(parent) });
+			}
+		}
+		candidates = candidateList.toArray(new int[candidateList.size()][]);
+
+		cnf = createCnf();
+	}
+
+	public IFeatureModel getFeatureModel() {
+		return fm;
+	}
+
+	public IConstraint getReplacedConstraint() {
+		return replacedConstraint;
+	}
+
+	/**
+	 * Computes the effect of the given constraint.
+	 *
+	 * @param constraint the candidate constraint over the feature names of the feature model
+	 * @param timeout the timeout of each satisfiability query in milliseconds
+	 * @return the effect of the constraint
+	 */
+	public synchronized Result analyze(Node constraint, int timeout) {
+		final boolean tautology = !isSatisfiable(new Not(constraint.clone()), timeout, false);
+		final boolean satisfiable = isSatisfiable(constraint.clone(), timeout, true);
+
+		if ((solver == null) || (solver.getNumberOfSelectors() >= MAX_SELECTORS)) {
+			buildSolver();
+		}
+		solver.setTimeout(timeout);
+		if (dead == null) {
+			analyzeFeatureModel();
+		}
+
+		final List<IFeature> deadFeatures = new ArrayList<>();
+		final List<IFeature> falseOptionalFeatures = new ArrayList<>();
+		final int selector = solver.getSelector(constraint);
+		final boolean redundant = solver.isSatisfiable(-selector) == SatResult.FALSE;
+		boolean voidModel = false;
+		if (valid) {
+			final SatResult result = solver.isSatisfiable(selector);
+			voidModel = result == SatResult.FALSE;
+			if (result == SatResult.TRUE) {
+				final boolean[] newDead = new boolean[features.length];
+				final boolean[] newFalseOptional = new boolean[candidates.length];
+				check(newDead, newFalseOptional, selector);
+				for (int i = 0; i < features.length; i++) {
+					if (newDead[i] && !dead[i]) {
+						deadFeatures.add(features[i]);
+					}
+				}
+				for (int i = 0; i < candidates.length; i++) {
+					if (newFalseOptional[i] && !falseOptional[i]) {
+						falseOptionalFeatures.add(features[candidates[i][0]]);
+					}
+				}
+			}
+		}
+		return new Result(tautology, satisfiable, voidModel, redundant, deadFeatures, falseOptionalFeatures);
+	}
+
+	private Node createCnf() {
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setModelType(ModelType.OnlyStructure);
+		nodeCreator.setIncludeBooleanValues(false);
+		nodeCreator.setUseOldNames(false);
+		final List<Node> clauses = new ArrayList<>();
+		Collections.addAll(clauses, nodeCreator.createNodes().getChildren());
+		for (final IConstraint constraint : fm.getConstraints()) {
+			if (constraint != replacedConstraint) {
+				Collections.addAll(clauses, nodeCreator.createConstraintNode(constraint).getChildren());
+			}
+		}
+		return new And(clauses.toArray(new Node[clauses.size()]));
+	}
+
+	private void buildSolver() {
+		solver = new SelectorSolver(cnf);
+		variables = new int[features.length];
+		for (int i = 0; i < features.length; i++) {
+			variables[i] = solver.getVariable(features[i].getName());
+		}
+	}
+
+	/**
+	 * Computes the dead and false-optional features of the feature model without a candidate.
+	 */
+	private void analyzeFeatureModel() {
+		dead = new boolean[features.length];
+		falseOptional = new boolean[candidates.length];
+		valid = solver.isSatisfiable() != SatResult.FALSE;
+		if (valid) {
+			check(dead, falseOptional);
+		}
+	}
+
+	/**
+	 * Checks all features under the given assumptions, which must be satisfiable. A feature is only checked if it is not selected in any model that was found
+	 * so far, and a candidate for a false-optional feature is only checked if no model was found so far that selects the parent but not the feature.
+	 *
+	 * @param dead out variable for the dead features
+	 * @param falseOptional out variable for the false-optional features that are not dead
+	 * @param assumptions the assumptions (e.g., a selector)
+	 */
+	private void check(boolean[] dead, boolean[] falseOptional, int... assumptions) {
+		final boolean[] selected = new boolean[features.length];
+		final boolean[] optional = new boolean[candidates.length];
+		if (solver.isSatisfiable(assumptions) != SatResult.TRUE) {
+			return;
+		}
+		addModel(selected, optional);
+
+		final int[] featureAssumptions = extend(assumptions, 1);
+		for (int i = 0; i < features.length; i++) {
+			if (!selected[i]) {
+				featureAssumptions[assumptions.length] = variables[i];
+				final SatResult result = solver.isSatisfiable(featureAssumptions);
+				if (result == SatResult.TRUE) {
+					addModel(selected, optional);
+				} else if (result == SatResult.FALSE) {
+					dead[i] = true;
+				}
+			}
+		}
+
+		final int[] pairAssumptions = extend(assumptions, 2);
+		for (int i = 0; i < candidates.length; i++) {
+			final int feature = candidates[i][0];
+			final int parent = candidates[i][1];
+			if (!optional[i] && !dead[feature]) {
+				pairAssumptions[assumptions.length] = variables[parent];
+				pairAssumptions[assumptions.length + 1] = -variables[feature];
+				final SatResult result = solver.isSatisfiable(pairAssumptions);
+				if (result == SatResult.TRUE) {
+					addModel(selected, optional);
+				} else if (result == SatResult.FALSE) {
+					falseOptional[i] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks all features that are selected by the last model and all candidates whose parent but not the feature itself is selected by the last model.
+	 */
+	private void addModel(boolean[] selected, boolean[] optional) {
+		final boolean[] values = new boolean[features.length];
+		for (int i = 0; i < features.length; i++) {
+			values[i] = solver.getValue(variables[i]);
+			selected[i] |= values[i];
+		}
+		for (int i = 0; i < candidates.length; i++) {
+			optional[i] |= values[candidates[i][1]] && !values[candidates[i][0]];
+		}
+	}
+
+	private static int[] extend(int[] assumptions, int additionalLiterals) {
+		final int[] extendedAssumptions = new int[assumptions.length + additionalLiterals];
+		System.arraycopy(assumptions, 0, extendedAssumptions, 0, assumptions.length);
+		return extendedAssumptions;
+	}
+
+	private static boolean isSatisfiable(Node node, int timeout, boolean defaultValue) {
+		try {
+			return new SatSolver(node, timeout).isSatisfiable();
+		} catch (final TimeoutException e) {
+			return defaultValue;
+		}
+	}
+
+}
@@ -0,0 +1,265 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A reduced ordered binary decision diagram (BDD) of a {@link SatInstance}, created by the {@link BDDCompiler}.</br> Once compiled, the number of solutions
+ * and the commonality of all variables can be computed in time linear to the size of the diagram, optionally conditioned on a partial assignment.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public class BDD {
+
+	static final int FALSE = 0, TRUE = 1;
+
+	/** Level of each node (1-based). Terminal nodes have the level {@code numberOfVariables + 1}. */
+	private final int[] level;
+	private final int[] low;
+	private final int[] high;
+	private final int root;
+
+	/** Maps a level to its variable index in the {@link SatInstance} and vice versa. */
+	private final int[] levelToVariable;
+	private final int[] variableToLevel;
+
+	private final int numberOfVariables;
+
+	private BigInteger[] unconditionedCounts;
+
+	BDD(int[] level, int[] low, int[] high, int root, int[] levelToVariable) {
+		this.level = level;
+		this.low = low;
+		this.high = high;
+		this.root = root;
+		this.levelToVariable = levelToVariable;
+		numberOfVariables = levelToVariable.length - 1;
+		variableToLevel = new int[levelToVariable.length];
+		for (int i = 1; i < levelToVariable.length; i++) {
+			variableToLevel[levelToVariable[i]] = i;
+		}
+	}
+
+	/**
+	 * @return the number of variables in the diagram (i.e., all variables of the {@link SatInstance} that are no auxiliary variables)
+	 */
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	/**
+	 * @return the number of inner nodes
+	 */
+	public int getSize() {
+		return level.length - 2;
+	}
+
+	/**
+	 * Returns the variable order of this diagram.
+	 *
+	 * @return an array of variable indices (the first element is unused)
+	 */
+	public int[] getVariableOrder() {
+		return Arrays.copyOf(levelToVariable, levelToVariable.length);
+	}
+
+	/**
+	 * @return the exact number of solutions
+	 */
+	public BigInteger countSolutions() {
+		synchronized (this) {
+			if (unconditionedCounts == null) {
+				unconditionedCounts = count(createAssignment());
+			}
+		}
+		return total(unconditionedCounts, createFreePrefix(createAssignment()));
+	}
+
+	/**
+	 * Counts all solutions that are consistent with the given partial assignment.
+	 *
+	 * @param assumptions signed variable indices
+	 * @return the exact number of solutions containing all assumptions
+	 */
+	public BigInteger countSolutions(int... assumptions) {
+		final int[] assignment = createAssignment(assumptions);
+		if (assignment == null) {
+			return BigInteger.ZERO;
+		}
+		return total(count(assignment), createFreePrefix(assignment));
+	}
+
+	/**
+	 * Computes for each variable the number of solutions in which it is selected.
+	 *
+	 * @param assumptions signed variable indices that all considered solutions must contain
+	 * @return an array that contains the number of solutions for each variable index (the first element is unused)
+	 */
+	public BigInteger[] getCommonality(int... assumptions) {
+		final BigInteger[] result = new BigInteger[levelToVariable.length];
+		Arrays.fill(result, BigInteger.ZERO);
+		final int[] assignment = createAssignment(assumptions);
+		if (assignment == null) {
+			return result;
+		}
+		final int[] freePrefix = createFreePrefix(assignment);
+		final BigInteger[] counts = count(assignment);
+		final BigInteger total = total(counts, freePrefix);
+		if (total.signum() == 0) {
+			return result;
+		}
+
+		final BigInteger[] commonality = new BigInteger[numberOfVariables + 2];
+		final BigInteger[] skipped = new BigInteger[numberOfVariables + 2];
+		Arrays.fill(commonality, BigInteger.ZERO);
+		Arrays.fill(skipped, BigInteger.ZERO);
+
+		// levels above the root are free in every solution
+		addRange(skipped, 1, level[root], total.shiftRight(1));
+
+		// number of partial assignments that lead from the root to each node
+		final BigInteger[] paths = new BigInteger[level.length];
+		Arrays.fill(paths, BigInteger.ZERO);
+		paths[root] = BigInteger.ONE.shiftLeft(freePrefix[level[root] - 1]);
+
+		// children always have a smaller index than their parents
+		for (int node = root; node > TRUE; node--) {
+			final BigInteger nodePaths = paths[node];
+			if (nodePaths.signum() == 0) {
+				continue;
+			}
+			final int nodeLevel = level[node];
+			final int value = assignment[nodeLevel];
+			if (value <= 0) {
+				propagate(node, low[node], nodePaths, counts, freePrefix, paths, skipped);
+			}
+			if (value >= 0) {
+				final BigInteger models = propagate(node, high[node], nodePaths, counts, freePrefix, paths, skipped);
+				commonality[nodeLevel] = commonality[nodeLevel].add(models);
+			}
+		}
+
+		BigInteger skippedSum = BigInteger.ZERO;
+		for (int i = 1; i <= numberOfVariables; i++) {
+			skippedSum = skippedSum.add(skipped[i]);
+			final BigInteger levelCommonality;
+			switch (assignment[i]) {
+			case 1:
+				levelCommonality = total;
+				break;
+			case -1:
+				levelCommonality = BigInteger.ZERO;
+				break;
+			default:
+				levelCommonality = commonality[i].add(skippedSum);
+				break;
+			}
+			result[levelToVariable[i]] = levelCommonality;
+		}
+		return result;
+	}
+
+	private BigInteger propagate(int parent, int child, BigInteger parentPaths, BigInteger[] counts, int[] freePrefix, BigInteger[] paths,
+			BigInteger[] skipped) {
+		if (child == FALSE) {
+			return BigInteger.ZERO;
+		}
+		final int parentLevel = level[parent];
+		final int childLevel = level[child];
+		final BigInteger childPaths = parentPaths.shiftLeft(freePrefix[childLevel - 1] - freePrefix[parentLevel]);
+		final BigInteger models = childPaths.multiply(counts[child]);
+		paths[child] = paths[child].add(childPaths);
+		// each skipped free variable is selected in one half of the solutions
+		addRange(skipped, parentLevel + 1, childLevel, models.shiftRight(1));
+		return models;
+	}
+
+	private static void addRange(BigInteger[] difference, int fromLevel, int toLevel, BigInteger value) {
+		if ((fromLevel < toLevel) && (value.signum() != 0)) {
+			difference[fromLevel] = difference[fromLevel].add(value);
+			difference[toLevel] = difference[toLevel].subtract(value);
+		}
+	}
+
+	/**
+	 * Computes the number of solutions of each sub-diagram with respect to the variables at and below its level.
+	 */
+	private BigInteger[] count(int[] assignment) {
+		final int[] freePrefix = createFreePrefix(assignment);
+		final BigInteger[] counts = new BigInteger[level.length];
+		counts[FALSE] = BigInteger.ZERO;
+		counts[TRUE] = BigInteger.ONE;
+		for (int node = TRUE + 1; node < level.length; node++) {
+			final int nodeLevel = level[node];
+			final int value = assignment[nodeLevel];
+			BigInteger count = BigInteger.ZERO;
+			if (value <= 0) {
+				final int child = low[node];
+				count = count.add(counts[child].shiftLeft(freePrefix[level[child] - 1] - freePrefix[nodeLevel]));
+			}
+			if (value >= 0) {
+				final int child = high[node];
+				count = count.add(counts[child].shiftLeft(freePrefix[level[child] - 1] - freePrefix[nodeLevel]));
+			}
+			counts[node] = count;
+		}
+		return counts;
+	}
+
+	private BigInteger total(BigInteger[] counts, int[] freePrefix) {
+		return counts[root].shiftLeft(freePrefix[level[root] - 1]);
+	}
+
+	/**
+	 * @return an array containing for each level {@code 1} (selected), {@code -1} (deselected), or {@code 0} (free) or {@code null} if the assumptions
+	 *         contradict each other
+	 */
+	private int[] createAssignment(int... assumptions) {
+		final int[] assignment = new int[numberOfVariables + 2];
+		for (final int literal : assumptions) {
+			final int variable = Math.abs(literal);
+			if (variable >= variableToLevel.length) {
+				continue;
+			}
+			final int variableLevel = variableToLevel[variable];
+			final int value = literal > 0 ? 1 : -1;
+			if (assignment[variableLevel] == -value) {
+				return null;
+			}
+			assignment[variableLevel] = value;
+		}
+		return assignment;
+	}
+
+	/**
+	 * @return an array containing for each level the number of free levels up to and including it
+	 */
+	private int[] createFreePrefix(int[] assignment) {
+		final int[] freePrefix = new int[numberOfVariables + 2];
+		for (int i = 1; i < freePrefix.length; i++) {
+			freePrefix[i] = freePrefix[i - 1] + ((assignment[i] == 0) && (i <= numberOfVariables) ? 1 : 0);
+		}
+		return freePrefix;
+	}
+
+}
@@ -0,0 +1,570 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Compiles the CNF of a {@link SatInstance} into a {@link BDD}.</br> The clauses are conjoined bottom-up with respect to the variable order. Auxiliary
+ * variables (see {@link SatInstance#isAuxiliaryVariable(int)}) are placed below all feature variables and are existentially quantified afterwards, such that
+ * the resulting diagram represents exactly the configurations of the feature variables.
+ *
+ * Compiled diagrams are cached for the last few distinct formulas (see {@link #getBDD(SatInstance, long)}). Thus, an unchanged feature model is only compiled
+ * once. The cache only holds soft references, such that the diagrams can be reclaimed if memory gets low, and is emptied by {@link #clearCache()}.
+ */
+public class BDDCompiler implements LongRunningMethod<BDD> {
+
+	public static final int DEFAULT_NODE_LIMIT = 1 << 22;
+
+	private static final int CACHE_SIZE = 8;
+
+	private static final Map<ClauseKey, SoftReference<BDD>> cache = new LinkedHashMap<ClauseKey, SoftReference<BDD>>(CACHE_SIZE << 1, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<ClauseKey, SoftReference<BDD>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Removes all cached diagrams. Called when a feature model is closed (see {@link de.ovgu.featureide.fm.core.io.manager.FeatureModelManager#dispose()}).
+	 */
+	public static void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Returns the diagram for the given instance. If a diagram for the same formula was compiled before, it is returned immediately.
+	 *
+	 * @param satInstance the instance to compile
+	 * @param timeout the maximal time for a compilation in milliseconds (a value {@code <= 0} means no timeout)
+	 * @return the compiled diagram
+	 * @throws TimeoutException if the compilation exceeded the timeout or the node limit
+	 */
+	public static BDD getBDD(SatInstance satInstance, long timeout) throws TimeoutException {
+		final ClauseKey key = new ClauseKey(satInstance);
+		synchronized (cache) {
+			final SoftReference<BDD> reference = cache.get(key);
+			if (reference != null) {
+				final BDD bdd = reference.get();
+				if (bdd != null) {
+					return bdd;
+				}
+				cache.remove(key);
+			}
+		}
+		final BDDCompiler compiler = new BDDCompiler(satInstance, key.clauses);
+		compiler.setTimeout(timeout);
+		final BDD bdd = compiler.compile(null);
+		synchronized (cache) {
+			cache.put(key, new SoftReference<BDD>(bdd));
+		}
+		return bdd;
+	}
+
+	/**
+	 * Identifies a formula by its variables and its clauses.
+	 */
+	private static final class ClauseKey {
+
+		private final Object[] variables;
+		private final int[][] clauses;
+		private final int hashCode;
+
+		public ClauseKey(SatInstance satInstance) {
+			variables = satInstance.getVariables().toArray();
+			clauses = getClauses(satInstance);
+			hashCode = (31 * Arrays.hashCode(variables)) + Arrays.deepHashCode(clauses);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final ClauseKey other = (ClauseKey) obj;
+			return (hashCode == other.hashCode) && Arrays.equals(variables, other.variables) && Arrays.deepEquals(clauses, other.clauses);
+		}
+	}
+
+	private static int[][] getClauses(SatInstance satInstance) {
+		final Node cnf = satInstance.getCnf();
+		final Node[] children = (cnf instanceof Literal) ? new Node[] { cnf } : cnf.getChildren();
+		final int[][] clauses = new int[children.length][];
+		for (int i = 0; i < children.length; i++) {
+			final Node child = children[i];
+			if (child instanceof Literal) {
+				clauses[i] = new int[] { satInstance.getSignedVariable((Literal) child) };
+			} else {
+				final Node[] literals = child.getChildren();
+				final int[] clause = new int[literals.length];
+				for (int j = 0; j < literals.length; j++) {
+					clause[j] = satInstance.getSignedVariable((Literal) literals[j]);
+				}
+				clauses[i] = clause;
+			}
+		}
+		return clauses;
+	}
+
+	private static final int FALSE = BDD.FALSE, TRUE = BDD.TRUE;
+
+	private static final int CACHE_BITS = 18;
+
+	private static final int FORCE_ITERATIONS = 32;
+
+	private final SatInstance satInstance;
+	private final int[][] clauses;
+
+	private long timeout = 0;
+	private int nodeLimit = DEFAULT_NODE_LIMIT;
+
+	private final int numberOfVariables;
+	private final int numberOfFeatureVariables;
+	private final int[] variableToLevel;
+	private final int[] levelToVariable;
+
+	private int[] level, low, high, next;
+	private int[] buckets;
+	private int nodeCount;
+
+	private final int[] cacheFirst = new int[1 << CACHE_BITS];
+	private final int[] cacheSecond = new int[1 << CACHE_BITS];
+	private final int[] cacheResult = new int[1 << CACHE_BITS];
+
+	private IMonitor monitor;
+	private long endTime;
+
+	public BDDCompiler(SatInstance satInstance) {
+		this(satInstance, getClauses(satInstance));
+	}
+
+	private BDDCompiler(SatInstance satInstance, int[][] clauses) {
+		this.satInstance = satInstance;
+		this.clauses = clauses;
+		numberOfVariables = satInstance.getNumberOfVariables();
+		numberOfFeatureVariables = satInstance.getNumberOfFeatureVariables();
+
+		levelToVariable = new int[numberOfVariables + 1];
+		variableToLevel = new int[numberOfVariables + 1];
+		for (int i = 1; i <= numberOfVariables; i++) {
+			levelToVariable[i] = i;
+		}
+		orderVariables(1, numberOfFeatureVariables);
+		orderVariables(numberOfFeatureVariables + 1, numberOfVariables);
+		for (int i = 1; i <= numberOfVariables; i++) {
+			variableToLevel[levelToVariable[i]] = i;
+		}
+	}
+
+	/**
+	 * Reorders the given range of levels with the FORCE heuristic (Aloul et al.), which moves variables of the same clauses close to each other. Starts with
+	 * the order of the {@link SatInstance} and keeps the order with the smallest total clause span. Feature and auxiliary variables are ordered separately,
+	 * such that the variables of each range are exactly the levels of this range.
+	 */
+	private void orderVariables(int fromLevel, int toLevel) {
+		final int size = (toLevel - fromLevel) + 1;
+		if (size < 3) {
+			return;
+		}
+		final double[] position = new double[numberOfVariables + 1];
+		final double[] positionSum = new double[numberOfVariables + 1];
+		final int[] occurrences = new int[numberOfVariables + 1];
+		final Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = levelToVariable[fromLevel + i];
+		}
+
+		long bestSpan = Long.MAX_VALUE;
+		for (int iteration = 0; iteration < FORCE_ITERATIONS; iteration++) {
+			for (int i = 0; i < size; i++) {
+				position[order[i]] = i;
+			}
+			Arrays.fill(positionSum, 0);
+			Arrays.fill(occurrences, 0);
+			long span = 0;
+			for (final int[] clause : clauses) {
+				double min = Double.MAX_VALUE, max = -1, sum = 0;
+				int count = 0;
+				for (final int literal : clause) {
+					final int variable = Math.abs(literal);
+					if ((variable >= fromLevel) && (variable <= toLevel)) {
+						final double variablePosition = position[variable];
+						min = Math.min(min, variablePosition);
+						max = Math.max(max, variablePosition);
+						sum += variablePosition;
+						count++;
+					}
+				}
+				if (count > 1) {
+					span += (long) (max - min);
+					final double centerOfGravity = sum / count;
+					for (final int literal : clause) {
+						final int variable = Math.abs(literal);
+						if ((variable >= fromLevel) && (variable <= toLevel)) {
+							positionSum[variable] += centerOfGravity;
+							occurrences[variable]++;
+						}
+					}
+				}
+			}
+			if (span >= bestSpan) {
+				break;
+			}
+			bestSpan = span;
+			for (int i = 0; i < size; i++) {
+				levelToVariable[fromLevel + i] = order[i];
+			}
+			for (int i = 0; i < size; i++) {
+				final int variable = order[i];
+				if (occurrences[variable] > 0) {
+					position[variable] = positionSum[variable] / occurrences[variable];
+				}
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return Double.compare(position[o1], position[o2]);
+				}
+			});
+		}
+	}
+
+	public SatInstance getSatInstance() {
+		return satInstance;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @param timeout the maximal time for the compilation in milliseconds (a value {@code <= 0} means no timeout)
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * @param nodeLimit the maximal number of nodes (including intermediate nodes) that may be created during the compilation
+	 */
+	public void setNodeLimit(int nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	@Override
+	public BDD execute(IMonitor monitor) throws TimeoutException {
+		return compile(monitor);
+	}
+
+	private BDD compile(IMonitor monitor) throws TimeoutException {
+		this.monitor = monitor;
+		endTime = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+		init(1 << 12);
+
+		final List<int[]> sortedClauses = new ArrayList<>(clauses.length);
+		for (final int[] clause : clauses) {
+			final int[] levelClause = toLevelClause(clause);
+			if (levelClause != null) {
+				sortedClauses.add(levelClause);
+			}
+		}
+		// conjoin clauses over the bottom variables first
+		Collections.sort(sortedClauses, new Comparator<int[]>() {
+
+			@Override
+			public int compare(int[] o1, int[] o2) {
+				final int diff = Math.abs(o2[0]) - Math.abs(o1[0]);
+				return (diff != 0) ? diff : Math.abs(o2[o2.length - 1]) - Math.abs(o1[o1.length - 1]);
+			}
+		});
+
+		int root = TRUE;
+		int liveNodes = 2;
+		for (final int[] clause : sortedClauses) {
+			root = and(root, createClause(clause));
+			if (root == FALSE) {
+				break;
+			}
+			if (nodeCount > Math.max(liveNodes << 1, 1 << 16)) {
+				root = compact(root);
+				liveNodes = nodeCount;
+			}
+		}
+		if (numberOfFeatureVariables < numberOfVariables) {
+			root = compact(existsAuxiliaryVariables(root));
+		} else {
+			root = compact(root);
+		}
+
+		final int[] finalLevel = Arrays.copyOf(level, nodeCount);
+		finalLevel[FALSE] = numberOfFeatureVariables + 1;
+		finalLevel[TRUE] = numberOfFeatureVariables + 1;
+		return new BDD(finalLevel, Arrays.copyOf(low, nodeCount), Arrays.copyOf(high, nodeCount), root,
+				Arrays.copyOf(levelToVariable, numberOfFeatureVariables + 1));
+	}
+
+	/**
+	 * @return the clause as array of signed levels in ascending order or {@code null} if the clause is a tautology
+	 */
+	private int[] toLevelClause(int[] clause) {
+		final int[] levelClause = new int[clause.length];
+		for (int i = 0; i < clause.length; i++) {
+			final int literal = clause[i];
+			final int literalLevel = variableToLevel[Math.abs(literal)];
+			levelClause[i] = literal > 0 ? literalLevel : -literalLevel;
+		}
+		Arrays.sort(levelClause);
+		for (final int literal : levelClause) {
+			if ((literal < 0) && (Arrays.binarySearch(levelClause, -literal) >= 0)) {
+				return null;
+			}
+		}
+		int size = 0;
+		for (int i = 0; i < levelClause.length; i++) {
+			final int literal = levelClause[i];
+			if ((i == 0) || (literal != levelClause[i - 1])) {
+				levelClause[size++] = literal;
+			}
+		}
+		// sort by level (clauses are short)
+		final int[] result = Arrays.copyOf(levelClause, size);
+		for (int i = 1; i < size; i++) {
+			final int literal = result[i];
+			int j = i - 1;
+			for (; (j >= 0) && (Math.abs(result[j]) > Math.abs(literal)); j--) {
+				result[j + 1] = result[j];
+			}
+			result[j + 1] = literal;
+		}
+		return result;
+	}
+
+	private int createClause(int[] levelClause) throws TimeoutException {
+		int node = FALSE;
+		for (int i = levelClause.length - 1; i >= 0; i--) {
+			final int literal = levelClause[i];
+			node = literal > 0 ? mk(literal, node, TRUE) : mk(-literal, TRUE, node);
+		}
+		return node;
+	}
+
+	private int and(int a, int b) throws TimeoutException {
+		if ((a == FALSE) || (b == FALSE)) {
+			return FALSE;
+		}
+		if ((a == TRUE) || (a == b)) {
+			return b;
+		}
+		if (b == TRUE) {
+			return a;
+		}
+		if (a > b) {
+			final int temp = a;
+			a = b;
+			b = temp;
+		}
+		final int hash = hash(a, b) & ((1 << CACHE_BITS) - 1);
+		if ((cacheFirst[hash] == a) && (cacheSecond[hash] == b)) {
+			return cacheResult[hash];
+		}
+
+		final int levelA = level[a];
+		final int levelB = level[b];
+		final int topLevel = Math.min(levelA, levelB);
+		final int lowA = levelA == topLevel ? low[a] : a;
+		final int highA = levelA == topLevel ? high[a] : a;
+		final int lowB = levelB == topLevel ? low[b] : b;
+		final int highB = levelB == topLevel ? high[b] : b;
+
+		final int lowResult = and(lowA, lowB);
+		final int highResult = and(highA, highB);
+		final int result = mk(topLevel, lowResult, highResult);
+
+		cacheFirst[hash] = a;
+		cacheSecond[hash] = b;
+		cacheResult[hash] = result;
+		return result;
+	}
+
+	/**
+	 * Replaces every sub-diagram that only contains auxiliary variables by {@link #TRUE}. As auxiliary variables are placed below all feature variables and the
+	 * diagram is reduced, each of these sub-diagrams is satisfiable.
+	 */
+	private int existsAuxiliaryVariables(int root) throws TimeoutException {
+		final int oldNodeCount = nodeCount;
+		final int[] map = new int[oldNodeCount];
+		map[FALSE] = FALSE;
+		map[TRUE] = TRUE;
+		for (int node = TRUE + 1; node < oldNodeCount; node++) {
+			map[node] = level[node] > numberOfFeatureVariables ? TRUE : mk(level[node], map[low[node]], map[high[node]]);
+		}
+		return map[root];
+	}
+
+	private int mk(int nodeLevel, int lowNode, int highNode) throws TimeoutException {
+		if (lowNode == highNode) {
+			return lowNode;
+		}
+		final int bucket = hash(nodeLevel, lowNode, highNode) & (buckets.length - 1);
+		for (int node = buckets[bucket]; node >= 0; node = next[node]) {
+			if ((level[node] == nodeLevel) && (low[node] == lowNode) && (high[node] == highNode)) {
+				return node;
+			}
+		}
+
+		if (nodeCount >= nodeLimit) {
+			throw new TimeoutException("Node limit of " + nodeLimit + " exceeded");
+		}
+		if ((nodeCount & 0xfff) == 0) {
+			checkTimeout();
+		}
+		if (nodeCount == level.length) {
+			grow();
+			return mk(nodeLevel, lowNode, highNode);
+		}
+		final int node = nodeCount++;
+		level[node] = nodeLevel;
+		low[node] = lowNode;
+		high[node] = highNode;
+		next[node] = buckets[bucket];
+		buckets[bucket] = node;
+		return node;
+	}
+
+	private void checkTimeout() throws TimeoutException {
+		if (monitor != null) {
+			monitor.checkCancel();
+		}
+		if (System.currentTimeMillis() > endTime) {
+			throw new TimeoutException("Timeout of " + timeout + " ms exceeded");
+		}
+	}
+
+	private void init(int capacity) {
+		level = new int[capacity];
+		low = new int[capacity];
+		high = new int[capacity];
+		next = new int[capacity];
+		buckets = new int[capacity];
+		Arrays.fill(buckets, -1);
+		Arrays.fill(cacheFirst, -1);
+
+		level[FALSE] = numberOfVariables + 1;
+		level[TRUE] = numberOfVariables + 1;
+		nodeCount = 2;
+	}
+
+	private void grow() {
+		final int capacity = level.length << 1;
+		level = Arrays.copyOf(level, capacity);
+		low = Arrays.copyOf(low, capacity);
+		high = Arrays.copyOf(high, capacity);
+		next = Arrays.copyOf(next, capacity);
+		rehash(capacity);
+	}
+
+	private void rehash(int bucketCount) {
+		buckets = new int[bucketCount];
+		Arrays.fill(buckets, -1);
+		for (int node = TRUE + 1; node < nodeCount; node++) {
+			final int bucket = hash(level[node], low[node], high[node]) & (bucketCount - 1);
+			next[node] = buckets[bucket];
+			buckets[bucket] = node;
+		}
+	}
+
+	/**
+	 * Removes all nodes that are not reachable from the given root. The remaining nodes keep their relative order, such that children still have a smaller
+	 * index than their parents.
+	 *
+	 * @return the new index of the root
+	 */
+	private int compact(int root) {
+		final boolean[] reachable = new boolean[nodeCount];
+		reachable[FALSE] = true;
+		reachable[TRUE] = true;
+		reachable[root] = true;
+		for (int node = root; node > TRUE; node--) {
+			if (reachable[node]) {
+				reachable[low[node]] = true;
+				reachable[high[node]] = true;
+			}
+		}
+		final int[] map = new int[nodeCount];
+		int newCount = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			if (reachable[node]) {
+				final int newNode = newCount++;
+				map[node] = newNode;
+				level[newNode] = level[node];
+				low[newNode] = map[low[node]];
+				high[newNode] = map[high[node]];
+			}
+		}
+		nodeCount = newCount;
+		rehash(buckets.length);
+		Arrays.fill(cacheFirst, -1);
+		return map[root];
+	}
+
+	private static int hash(int a, int b) {
+		return (a * 0x9E3779B1) ^ (b * 0x85EBCA77) ^ ((a * 0x9E3779B1) >>> 15);
+	}
+
+	private static int hash(int a, int b, int c) {
+		final int h = (a * 0x9E3779B1) + (b * 0x85EBCA77) + (c * 0xC2B2AE3D);
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -58,6 +58,15 @@ public class BasicSolver implements ISatSolver {
 	protected final VecInt assignment;
 	protected RingList<int[]> solutionList = null;
 
+	/**
+	 * Creates a solver for the given clauses.
+	 *
+	 * @see SatInstance#SatInstance(ClauseDatabase)
+	 */
+	public BasicSolver(ClauseDatabase clauseDatabase) throws ContradictionException {
+		this(new SatInstance(clauseDatabase));
+	}
+
 	public BasicSolver(SatInstance satInstance) throws ContradictionException {
 		this.satInstance = satInstance;
 		final int numberOfVariables = satInstance.getNumberOfVariables();
@@ -70,7 +79,7 @@ public class BasicSolver implements ISatSolver {
 
 	protected BasicSolver(BasicSolver oldSolver) {
 		satInstance = oldSolver.satInstance;
-		order = new int[satInstance.intToVar.length - 1];
+		order = new int[satInstance.getNumberOfVariables()];
 		assignment = new VecInt(0);
 		oldSolver.assignment.copyTo(assignment);
 
@@ -87,19 +96,27 @@ public class BasicSolver implements ISatSolver {
 		final int size = satInstance.getNumberOfVariables();
 		if (size > 0) {
 			solver.newVar(size);
-			solver.setExpectedNumberOfClauses(satInstance.getCnf().getChildren().length + 1);
-			addCNF(satInstance.getCnf().getChildren());
-			final VecInt pseudoClause = new VecInt(size + 1);
-			for (int i = 1; i <= size; i++) {
-				pseudoClause.push(i);
-			}
-			pseudoClause.push(-1);
-			solver.addClause(pseudoClause);
+			final ClauseDatabase clauseDatabase = satInstance.getClauseDatabase();
+			solver.setExpectedNumberOfClauses(clauseDatabase.getNumberOfClauses() + 1);
+			addClauses(clauseDatabase);
+			solver.addClause(createPseudoClause(size));
 		}
 		fixOrder();
 		solver.getOrder().init();
 	}
 
+	/**
+	 * Creates a clause that contains all variables and is always satisfied (due to the literal -1), such that the solver knows all variables.
+	 */
+	protected static VecInt createPseudoClause(int size) {
+		final VecInt pseudoClause = new VecInt(size + 1);
+		for (int i = 1; i <= size; i++) {
+			pseudoClause.unsafePush(i);
+		}
+		pseudoClause.unsafePush(-1);
+		return pseudoClause;
+	}
+
 	protected Solver<?> initSolver() {
 		final Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
 		solver.setTimeoutMs(1000);
@@ -121,6 +138,13 @@ public class BasicSolver implements ISatSolver {
 		return result;
 	}
 
+	/**
+	 * Adds all clauses of the given database, whose variables must be numbered like the ones of the {@link SatInstance} of this solver.
+	 */
+	protected void addClauses(ClauseDatabase clauseDatabase) throws ContradictionException {
+		clauseDatabase.addTo(solver, null);
+	}
+
 	protected IConstr addClause(final Node node) throws ContradictionException {
 		final Node[] children = node.getChildren();
 		final int[] clause = new int[children.length];
@@ -187,7 +211,7 @@ public class BasicSolver implements ISatSolver {
 	public void setOrder(List<IFeature> orderList) {
 		int i = -1;
 		for (final IFeature feature : orderList) {
-			order[++i] = satInstance.varToInt.get(feature.getName());
+			order[++i] = satInstance.getVariable(feature.getName());
 		}
 	}
 
@@ -0,0 +1,264 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+
+/**
+ * A CNF whose clauses are stored in one flat array.<br> The literals of all clauses are stored consecutively as (signed) variable indices of a
+ * {@link VariableTable}. The literals of the i-th clause range from {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive). Clauses can only
+ * be appended.
+ */
+public class ClauseDatabase {
+
+	private final VariableTable variables;
+
+	private int[] literals;
+	private int[] offsets;
+	private int numberOfClauses = 0;
+	private int maxClauseLength = 0;
+
+	/**
+	 * @param variables the variables of the clauses; unknown variables of clauses added as {@link Node nodes} are added to this table
+	 */
+	public ClauseDatabase(VariableTable variables) {
+		this(variables, 16, 64);
+	}
+
+	/**
+	 * @param variables the variables of the clauses; unknown variables of clauses added as {@link Node nodes} are added to this table
+	 * @param expectedNumberOfClauses the initial capacity for clauses
+	 * @param expectedNumberOfLiterals the initial capacity for literals of all clauses
+	 */
+	public ClauseDatabase(VariableTable variables, int expectedNumberOfClauses, int expectedNumberOfLiterals) {
+		this.variables = variables;
+		literals = new int[Math.max(1, expectedNumberOfLiterals)];
+		offsets = new int[Math.max(1, expectedNumberOfClauses) + 1];
+	}
+
+	/**
+	 * Appends a clause.
+	 *
+	 * @param clause the (signed) variable indices of the clause; not stored
+	 */
+	public void addClause(int... clause) {
+		addClause(clause, clause.length);
+	}
+
+	/**
+	 * Appends a clause that consists of the first literals of the given array.
+	 *
+	 * @param clause the (signed) variable indices of the clause; not stored
+	 * @param length the number of literals of the clause
+	 */
+	public void addClause(int[] clause, int length) {
+		final int start = offsets[numberOfClauses];
+		ensureCapacity(length);
+		System.arraycopy(clause, 0, literals, start, length);
+		finishClause(start + length);
+	}
+
+	/**
+	 * Appends a clause that is given as {@link Or} of {@link Literal literals} or as single literal. Unknown variables are added to the variable table.
+	 *
+	 * @param clause the clause
+	 */
+	public void addClause(Node clause) {
+		final Node[] children = clause.getChildren();
+		int end = offsets[numberOfClauses];
+		if (children == null) {
+			ensureCapacity(1);
+			literals[end++] = getSignedVariable((Literal) clause);
+		} else {
+			ensureCapacity(children.length);
+			for (final Node child : children) {
+				literals[end++] = getSignedVariable((Literal) child);
+			}
+		}
+		finishClause(end);
+	}
+
+	/**
+	 * Appends all clauses of the given CNF (an {@link And} of clauses or a single clause).
+	 *
+	 * @param cnf the CNF
+	 *
+	 * @see #addClause(Node)
+	 */
+	public void addClauses(Node cnf) {
+		if (cnf instanceof And) {
+			addClauses(cnf.getChildren());
+		} else {
+			addClause(cnf);
+		}
+	}
+
+	/**
+	 * Appends all given clauses.
+	 *
+	 * @param clauses the clauses
+	 *
+	 * @see #addClause(Node)
+	 */
+	public void addClauses(Node[] clauses) {
+		if ((numberOfClauses + clauses.length + 1) > offsets.length) {
+			offsets = Arrays.copyOf(offsets, Math.max(numberOfClauses + clauses.length + 1, 2 * offsets.length));
+		}
+		for (final Node clause : clauses) {
+			addClause(clause);
+		}
+	}
+
+	private int getSignedVariable(Literal literal) {
+		final int index = variables.add(literal.var);
+		return literal.positive ? index : -index;
+	}
+
+	private void ensureCapacity(int length) {
+		final int required = offsets[numberOfClauses] + length;
+		if (required > literals.length) {
+			literals = Arrays.copyOf(literals, Math.max(required, 2 * literals.length));
+		}
+		if ((numberOfClauses + 2) > offsets.length) {
+			offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+		}
+	}
+
+	private void finishClause(int end) {
+		maxClauseLength = Math.max(maxClauseLength, end - offsets[numberOfClauses]);
+		offsets[++numberOfClauses] = end;
+	}
+
+	/**
+	 * Adds all clauses to the given solver. All clauses are passed through the same {@link VecInt}, which relies on the solver not storing it (as all
+	 * solvers of Sat4j do). The variables must already be declared in the solver.
+	 *
+	 * @param solver the solver
+	 * @param constraints receives the constraints of the added clauses (may be {@code null})
+	 * @throws ContradictionException if a clause is trivially unsatisfiable for the solver; the clauses added before are not removed
+	 */
+	public void addTo(ISolver solver, List<IConstr> constraints) throws ContradictionException {
+		final VecInt clause = new VecInt(Math.max(1, maxClauseLength));
+		int start = 0;
+		for (int i = 1; i <= numberOfClauses; i++) {
+			final int end = offsets[i];
+			clause.clear();
+			for (int j = start; j < end; j++) {
+				clause.unsafePush(literals[j]);
+			}
+			final IConstr constraint = solver.addClause(clause);
+			if (constraints != null) {
+				constraints.add(constraint);
+			}
+			start = end;
+		}
+	}
+
+	/**
+	 * @return the variables of the clauses
+	 */
+	public VariableTable getVariables() {
+		return variables;
+	}
+
+	public int getNumberOfClauses() {
+		return numberOfClauses;
+	}
+
+	/**
+	 * @return the number of literals of all clauses
+	 */
+	public int getNumberOfLiterals() {
+		return offsets[numberOfClauses];
+	}
+
+	public int getMaxClauseLength() {
+		return maxClauseLength;
+	}
+
+	/**
+	 * Returns the literals of all clauses. The array may be longer than {@link #getNumberOfLiterals()} and must not be modified.
+	 *
+	 * @return the literals array
+	 */
+	public int[] getLiterals() {
+		return literals;
+	}
+
+	/**
+	 * Returns the start index of each clause in the {@link #getLiterals() literals array}. The entry at {@link #getNumberOfClauses()} is the end of the
+	 * last clause. The array may be longer than that and must not be modified.
+	 *
+	 * @return the offsets array
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	public int getClauseLength(int index) {
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/**
+	 * @param index the index of the clause
+	 * @return a copy of the literals of the clause
+	 */
+	public int[] getClause(int index) {
+		return Arrays.copyOfRange(literals, offsets[index], offsets[index + 1]);
+	}
+
+	/**
+	 * @return the clauses as {@link And} of {@link Or} nodes
+	 */
+	public Node toNode() {
+		final Node[] clauses = new Node[numberOfClauses];
+		for (int i = 0; i < numberOfClauses; i++) {
+			final int start = offsets[i];
+			final Literal[] clauseLiterals = new Literal[offsets[i + 1] - start];
+			for (int j = 0; j < clauseLiterals.length; j++) {
+				final int literal = literals[start + j];
+				clauseLiterals[j] = new Literal(variables.getVariable(literal), literal > 0);
+			}
+			clauses[i] = new Or(clauseLiterals);
+		}
+		return new And(clauses);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < numberOfClauses; i++) {
+			sb.append(Arrays.toString(getClause(i)));
+		}
+		return sb.toString();
+	}
+
+}
@@ -46,6 +46,15 @@ public class ModifiableSolver extends BasicSolver {
 
 	protected ArrayList<IConstr> constrList;
 
+	/**
+	 * Creates a solver for the given clauses.
+	 *
+	 * @see SatInstance#SatInstance(ClauseDatabase)
+	 */
+	public ModifiableSolver(ClauseDatabase clauseDatabase) throws ContradictionException {
+		this(new SatInstance(clauseDatabase));
+	}
+
 	public ModifiableSolver(SatInstance satInstance) throws ContradictionException {
 		super(satInstance);
 	}
@@ -79,6 +88,20 @@ public class ModifiableSolver extends BasicSolver {
 		return new ArrayList<>(constrList.subList(oldSize, constrList.size()));
 	}
 
+	@Override
+	protected void addClauses(ClauseDatabase clauseDatabase) throws ContradictionException {
+		if (constrList == null) {
+			constrList = new ArrayList<>(clauseDatabase.getNumberOfClauses());
+		}
+		final int oldSize = constrList.size();
+		try {
+			clauseDatabase.addTo(solver, constrList);
+		} catch (final ContradictionException e) {
+			removeLastClauses(constrList.size() - oldSize);
+			throw e;
+		}
+	}
+
 	@Override
 	protected List<IConstr> addCNF(final Node[] cnfChildren) throws ContradictionException {
 		if (constrList == null) {
@@ -177,7 +177,12 @@ public class MultiSolver extends BasicSolver {
 		super(oldSolver);
 		solvers = new Consumer[oldSolver.solvers.length];
 		for (int i = 0; i < solvers.length; i++) {
-			final Consumer solver = new Consumer(initSolver());
+			final Consumer solver;
+			try {
+				solver = new Consumer(initConsumerSolver());
+			} catch (final ContradictionException e) {
+				throw new RuntimeException(e);
+			}
 			solver.solver.setOrder(oldSolver.solvers[i].solver.getOrder());
 			solvers[i] = solver;
 		}
@@ -187,12 +192,38 @@ public class MultiSolver extends BasicSolver {
 		this(new SatInstance(cnf, featureList));
 	}
 
+	/**
+	 * Creates a solver for the given clauses.
+	 *
+	 * @see SatInstance#SatInstance(ClauseDatabase)
+	 */
+	public MultiSolver(ClauseDatabase clauseDatabase) throws ContradictionException {
+		this(new SatInstance(clauseDatabase));
+	}
+
 	public MultiSolver(SatInstance satInstance) throws ContradictionException {
 		super(satInstance);
 		solvers = new Consumer[NUMBER_OF_THREADS];
 		for (int i = 0; i < solvers.length; i++) {
-			solvers[i] = new Consumer(initSolver());
+			solvers[i] = new Consumer(initConsumerSolver());
+		}
+	}
+
+	/**
+	 * Creates a solver for a consumer thread that contains all clauses of the {@link SatInstance}. The clauses are loaded from the shared
+	 * {@link ClauseDatabase} of the instance.
+	 */
+	private Solver<?> initConsumerSolver() throws ContradictionException {
+		final Solver<?> consumerSolver = initSolver();
+		final int size = satInstance.getNumberOfVariables();
+		if (size > 0) {
+			consumerSolver.newVar(size);
+			final ClauseDatabase clauseDatabase = satInstance.getClauseDatabase();
+			consumerSolver.setExpectedNumberOfClauses(clauseDatabase.getNumberOfClauses() + 1);
+			clauseDatabase.addTo(consumerSolver, null);
+			consumerSolver.addClause(createPseudoClause(size));
 		}
+		return consumerSolver;
 	}
 
 	@Override
@@ -252,7 +283,7 @@ public class MultiSolver extends BasicSolver {
 		int i = -1;
 		synchronized (orderLock) {
 			for (final IFeature feature : orderList) {
-				order[++i] = satInstance.varToInt.get(feature.getName());
+				order[++i] = satInstance.getVariable(feature.getName());
 			}
 		}
 	}
@@ -23,11 +23,12 @@ package org.prop4j.solver;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.prop4j.AuxiliaryVariable;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.sat4j.specs.IVecInt;
@@ -72,23 +73,75 @@ public class SatInstance {
 		return nar;
 	}
 
-	protected final HashMap<Object, Integer> varToInt = new HashMap<>();
-	protected final Object[] intToVar;
-	protected final Node cnf;
+	protected final VariableTable variables;
+
+	/**
+	 * The number of variables that represent features. All {@link AuxiliaryVariable auxiliary variables} are numbered after these variables.
+	 */
+	protected final int numberOfFeatureVariables;
+
+	/**
+	 * The formula. Created from the {@link #clauseDatabase} on the first call of {@link #getCnf()} if the instance was created from a clause database.
+	 */
+	private volatile Node cnf;
+
+	/**
+	 * The clauses of the CNF as (signed) variable indices. Created on the first call of {@link #getClauseDatabase()} if the instance was created from a
+	 * formula.
+	 */
+	private volatile ClauseDatabase clauseDatabase;
 
 	public SatInstance(Node root, Collection<?> featureList) {
-		intToVar = new Object[featureList.size() + 1];
+		final List<AuxiliaryVariable> auxiliaryVariables = getAuxiliaryVariables(root);
+		final List<Object> features = new ArrayList<>(featureList.size());
+		for (final Object feature : featureList) {
+			if (!(feature instanceof AuxiliaryVariable)) {
+				features.add(feature);
+			}
+		}
+		variables = new VariableTable(features.size() + auxiliaryVariables.size());
 		cnf = root;
+		clauseDatabase = null;
 
-		int index = 0;
-		for (final Object feature : featureList) {
+		for (final Object feature : features) {
 			final String name = feature.toString();
 			if (name == null) {
 				throw new RuntimeException();
 			}
-			varToInt.put(name, ++index);
-			intToVar[index] = name;
+			variables.add(name);
+		}
+		numberOfFeatureVariables = variables.size();
+		for (final AuxiliaryVariable auxiliaryVariable : auxiliaryVariables) {
+			variables.add(auxiliaryVariable);
+		}
+	}
+
+	/**
+	 * Creates an instance for the given clauses. The variables of the clause database are used as they are, thus all {@link AuxiliaryVariable auxiliary
+	 * variables} must be numbered after all other variables.
+	 *
+	 * @param clauseDatabase the clauses
+	 *
+	 * @see de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator#createClauseDatabase()
+	 */
+	public SatInstance(ClauseDatabase clauseDatabase) {
+		variables = clauseDatabase.getVariables();
+		cnf = null;
+		this.clauseDatabase = clauseDatabase;
+
+		int numberOfFeatureVariables = variables.size();
+		for (int i = 1; i <= variables.size(); i++) {
+			if (variables.getVariable(i) instanceof AuxiliaryVariable) {
+				numberOfFeatureVariables = i - 1;
+				break;
+			}
+		}
+		for (int i = numberOfFeatureVariables + 1; i <= variables.size(); i++) {
+			if (!(variables.getVariable(i) instanceof AuxiliaryVariable)) {
+				throw new IllegalArgumentException("Variable " + variables.getVariable(i) + " is numbered after an auxiliary variable");
+			}
 		}
+		this.numberOfFeatureVariables = numberOfFeatureVariables;
 	}
 
 	public SatInstance(Node root) {
@@ -106,6 +159,37 @@ public class SatInstance {
 		return result;
 	}
 
+	/**
+	 * Returns all distinct {@link AuxiliaryVariable auxiliary variables} of the given CNF in order of their first occurrence.
+	 *
+	 * @param cnf the formula
+	 * @return a list of auxiliary variables; empty if the formula does not contain any
+	 */
+	public static List<AuxiliaryVariable> getAuxiliaryVariables(Node cnf) {
+		final Set<AuxiliaryVariable> result = new LinkedHashSet<>();
+		final Node[] clauses = cnf.getChildren();
+		if (clauses != null) {
+			for (final Node clause : clauses) {
+				final Node[] literals = clause.getChildren();
+				if (literals == null) {
+					addAuxiliaryVariable(result, clause);
+				} else {
+					for (int i = 0; i < literals.length; i++) {
+						addAuxiliaryVariable(result, literals[i]);
+					}
+				}
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	private static void addAuxiliaryVariable(Set<AuxiliaryVariable> result, Node literal) {
+		final Object var = ((Literal) literal).var;
+		if (var instanceof AuxiliaryVariable) {
+			result.add((AuxiliaryVariable) var);
+		}
+	}
+
 	public List<String> convertToString(int[] model) {
 		return convertToString(model, true, false);
 	}
@@ -113,13 +197,16 @@ public class SatInstance {
 	public List<String> convertToString(int[] model, boolean includePositive, boolean includeNegative) {
 		final List<String> resultList = new ArrayList<>();
 		for (final int var : model) {
+			if (isAuxiliaryVariable(var)) {
+				continue;
+			}
 			if (var > 0) {
 				if (includePositive) {
-					resultList.add(intToVar[Math.abs(var)].toString());
+					resultList.add(variables.getVariable(var).toString());
 				}
 			} else if (var < 0) {
 				if (includeNegative) {
-					resultList.add("-" + intToVar[Math.abs(var)].toString());
+					resultList.add("-" + variables.getVariable(var).toString());
 				}
 			}
 		}
@@ -130,8 +217,8 @@ public class SatInstance {
 		final int[] resultList = new int[literals.size()];
 		int i = 0;
 		for (final Literal literal : literals) {
-			final Integer varIndex = varToInt.get(literal.var);
-			resultList[i++] = varIndex == null ? 0 : (literal.positive ? varIndex : -varIndex);
+			final int varIndex = variables.getIndex(literal.var);
+			resultList[i++] = literal.positive ? varIndex : -varIndex;
 		}
 		return resultList;
 	}
@@ -145,8 +232,8 @@ public class SatInstance {
 		int i = 0;
 		for (final Node node : literals) {
 			final Literal literal = (Literal) node;
-			final Integer varIndex = varToInt.get(literal.var);
-			resultList[i++] = varIndex == null ? 0 : (literal.positive ? varIndex : -varIndex);
+			final int varIndex = variables.getIndex(literal.var);
+			resultList[i++] = literal.positive ? varIndex : -varIndex;
 		}
 		return resultList;
 	}
@@ -154,50 +241,142 @@ public class SatInstance {
 	public List<Literal> convertToLiterals(int[] model) {
 		final List<Literal> resultList = new ArrayList<>();
 		for (final int var : model) {
-			resultList.add(new Literal(intToVar[Math.abs(var)], (var > 0)));
+			if (!isAuxiliaryVariable(var)) {
+				resultList.add(new Literal(variables.getVariable(var), (var > 0)));
+			}
 		}
 		return resultList;
 	}
 
 	public Literal convertToLiteral(int var) {
-		return new Literal(intToVar[Math.abs(var)], (var > 0));
+		return new Literal(variables.getVariable(var), (var > 0));
 	}
 
 	protected List<String> convertToString(IVecInt model) {
 		final List<String> resultList = new ArrayList<>(model.size());
 		final IteratorInt modelIt = model.iterator();
 		while (modelIt.hasNext()) {
-			resultList.add(intToVar[Math.abs(modelIt.next())].toString());
+			final int var = modelIt.next();
+			if (!isAuxiliaryVariable(var)) {
+				resultList.add(variables.getVariable(var).toString());
+			}
 		}
 		return resultList;
 	}
 
 	public Node getCnf() {
+		Node cnf = this.cnf;
+		if (cnf == null) {
+			synchronized (this) {
+				cnf = this.cnf;
+				if (cnf == null) {
+					cnf = clauseDatabase.toNode();
+					this.cnf = cnf;
+				}
+			}
+		}
 		return cnf;
 	}
 
+	/**
+	 * Returns the clauses of the CNF as (signed) variable indices of this instance. The clauses are only converted once and are shared by all solvers
+	 * that are created for this instance. Thus, no clauses must be added to the returned database.
+	 *
+	 * @return the clauses of the CNF
+	 */
+	public ClauseDatabase getClauseDatabase() {
+		ClauseDatabase clauseDatabase = this.clauseDatabase;
+		if (clauseDatabase == null) {
+			synchronized (this) {
+				clauseDatabase = this.clauseDatabase;
+				if (clauseDatabase == null) {
+					clauseDatabase = createClauseDatabase();
+					this.clauseDatabase = clauseDatabase;
+				}
+			}
+		}
+		return clauseDatabase;
+	}
+
+	private ClauseDatabase createClauseDatabase() {
+		final Node[] clauses = cnf.getChildren();
+		int numberOfLiterals = 0;
+		int maxClauseLength = 0;
+		for (final Node clause : clauses) {
+			final int length = clause.getChildren().length;
+			numberOfLiterals += length;
+			maxClauseLength = Math.max(maxClauseLength, length);
+		}
+		final ClauseDatabase clauseDatabase = new ClauseDatabase(variables, clauses.length, numberOfLiterals);
+		final int[] clause = new int[maxClauseLength];
+		for (final Node node : clauses) {
+			final Node[] literals = node.getChildren();
+			for (int j = 0; j < literals.length; j++) {
+				clause[j] = getSignedVariable((Literal) literals[j]);
+			}
+			clauseDatabase.addClause(clause, literals.length);
+		}
+		return clauseDatabase;
+	}
+
 	public int getNumberOfVariables() {
-		return intToVar.length - 1;
+		return variables.size();
+	}
+
+	/**
+	 * @return the table of the variables of this instance
+	 */
+	public VariableTable getVariables() {
+		return variables;
+	}
+
+	/**
+	 * @return the number of variables without {@link AuxiliaryVariable auxiliary variables}
+	 */
+	public int getNumberOfFeatureVariables() {
+		return numberOfFeatureVariables;
+	}
+
+	/**
+	 * @param x a (signed) variable index
+	 * @return {@code true} iff the variable was introduced by an equisatisfiable transformation and does not represent a feature
+	 */
+	public boolean isAuxiliaryVariable(int x) {
+		return Math.abs(x) > numberOfFeatureVariables;
 	}
 
 	public Literal getLiteral(final int x) {
-		return new Literal(intToVar[Math.abs(x)], x > 0);
+		return new Literal(variables.getVariable(x), x > 0);
 	}
 
 	public int getSignedVariable(Literal l) {
-		return l.positive ? varToInt.get(l.var) : -varToInt.get(l.var);
+		final int variable = getVariable(l.var);
+		return l.positive ? variable : -variable;
 	}
 
 	public int getVariable(Literal l) {
-		return varToInt.get(l.var);
+		return getVariable(l.var);
 	}
 
+	/**
+	 * @param var the variable object
+	 * @return the index of the variable
+	 * @throws NullPointerException if the variable is not contained in this instance
+	 */
 	public int getVariable(Object var) {
-		return varToInt.get(var);
+		final int index = variables.getIndex(var);
+		if (index == 0) {
+			throw new NullPointerException("Unknown variable " + var);
+		}
+		return index;
+	}
+
+	public boolean containsVariable(Object var) {
+		return variables.contains(var);
 	}
 
 	public Object getVariableObject(final int x) {
-		return intToVar[Math.abs(x)];
+		return variables.getVariable(x);
 	}
 
 }
@@ -0,0 +1,167 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.TseitinTransformer;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Checks arbitrary formulas against a fixed base formula using one incremental solver.</br> Each formula is defined once by a selector literal (see
+ * {@link TseitinTransformer#addDefinition(Node, List)}) and is only enabled by an assumption. Thus, no clauses must be removed between two checks and learned
+ * clauses are kept. Variables that are unknown to the base formula are added on demand.
+ */
+public class SelectorSolver {
+
+	protected final Solver<?> solver;
+
+	private final Map<Object, Integer> varToInt = new HashMap<>();
+	private final Map<Node, Integer> selectors = new HashMap<>();
+	private final TseitinTransformer transformer = new TseitinTransformer();
+
+	private boolean contradiction = false;
+
+	/**
+	 * @param cnf the base formula in CNF (e.g., a feature model)
+	 */
+	public SelectorSolver(Node cnf) {
+		solver = (Solver<?>) SolverFactory.newDefault();
+		solver.setTimeoutMs(1000);
+		solver.setDBSimplificationAllowed(true);
+		solver.setVerbose(false);
+
+		final Node[] clauses = cnf.getChildren();
+		if (clauses == null) {
+			addClause(cnf);
+		} else {
+			for (final Node clause : clauses) {
+				addClause(clause);
+			}
+		}
+	}
+
+	/**
+	 * Returns the selector of the given formula. If the formula was not defined before, its defining clauses are added to the solver.
+	 *
+	 * @param formula the formula
+	 * @return a (signed) variable index that can be used as assumption
+	 */
+	public int getSelector(Node formula) {
+		Integer selector = selectors.get(formula);
+		if (selector == null) {
+			final List<Node> clauses = new ArrayList<>();
+			final Literal literal = transformer.addDefinition(formula, clauses);
+			for (final Node clause : clauses) {
+				addClause(clause);
+			}
+			selector = getIndex(literal);
+			selectors.put(formula.clone(), selector);
+		}
+		return selector;
+	}
+
+	/**
+	 * Checks whether the base formula is satisfiable under the given assumptions.
+	 *
+	 * @param assumptions selectors (see {@link #getSelector(Node)}) or their negations
+	 * @return {@link SatResult#TRUE}, {@link SatResult#FALSE}, or {@link SatResult#TIMEOUT}
+	 */
+	public SatResult isSatisfiable(int... assumptions) {
+		if (contradiction) {
+			return SatResult.FALSE;
+		}
+		try {
+			return solver.isSatisfiable(new VecInt(assumptions), false) ? SatResult.TRUE : SatResult.FALSE;
+		} catch (final TimeoutException e) {
+			return SatResult.TIMEOUT;
+		}
+	}
+
+	/**
+	 * Returns the variable index of the given variable of the base formula. Unknown variables are added.
+	 *
+	 * @param var the variable object (e.g., a feature name)
+	 * @return a positive variable index that can be used as assumption
+	 */
+	public int getVariable(Object var) {
+		return getIndex(new Literal(var));
+	}
+
+	/**
+	 * Returns the value of a variable in the model that was found by the last successful call of {@link #isSatisfiable(int...)}.
+	 *
+	 * @param variable a variable index (see {@link #getVariable(Object)})
+	 * @return whether the variable is true in the last model
+	 */
+	public boolean getValue(int variable) {
+		return solver.model(variable);
+	}
+
+	/**
+	 * @return the number of formulas that were defined by {@link #getSelector(Node)}
+	 */
+	public int getNumberOfSelectors() {
+		return selectors.size();
+	}
+
+	public void setTimeout(int timeout) {
+		solver.setTimeoutMs(timeout);
+	}
+
+	private void addClause(Node clause) {
+		final Node[] children = clause.getChildren();
+		final int[] literals;
+		if (children == null) {
+			literals = new int[] { getIndex((Literal) clause) };
+		} else {
+			literals = new int[children.length];
+			for (int i = 0; i < children.length; i++) {
+				literals[i] = getIndex((Literal) children[i]);
+			}
+		}
+		try {
+			solver.addClause(new VecInt(literals));
+		} catch (final ContradictionException e) {
+			contradiction = true;
+		}
+	}
+
+	private int getIndex(Literal literal) {
+		Integer index = varToInt.get(literal.var);
+		if (index == null) {
+			index = solver.nextFreeVarId(true);
+			varToInt.put(literal.var, index);
+		}
+		return literal.positive ? index : -index;
+	}
+
+}
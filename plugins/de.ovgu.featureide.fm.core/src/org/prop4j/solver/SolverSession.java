@@ -0,0 +1,362 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.Arrays;
+
+import org.prop4j.analyses.ConditionallyCoreDeadAnalysis;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * A long-lived solver for one {@link SatInstance}.</br> All queries are answered by the same {@link BasicSolver}, thus, the clauses are loaded only once and
+ * learned clauses are kept between queries. Selections are only passed as assumptions.
+ *
+ * In addition, the session stores a current partial assignment (see {@link #select(int)}, {@link #deselect(int)}, and {@link #unassign(int)}) together with
+ * the literals implied by it. Each change returns a {@link Delta} that contains only the implied literals that changed.
+ *
+ * All methods are synchronized, such that a session can be shared between jobs.
+ */
+public class SolverSession {
+
+	/**
+	 * The change of the implied literals caused by one modification of the assignment.
+	 */
+	public static final class Delta {
+
+		private final int[] addedLiterals;
+		private final int[] removedLiterals;
+
+		private Delta(int[] addedLiterals, int[] removedLiterals) {
+			this.addedLiterals = addedLiterals;
+			this.removedLiterals = removedLiterals;
+		}
+
+		/**
+		 * @return the literals that are implied now, but were not implied before
+		 */
+		public int[] getAddedLiterals() {
+			return addedLiterals;
+		}
+
+		/**
+		 * @return the literals that were implied before, but are not implied anymore
+		 */
+		public int[] getRemovedLiterals() {
+			return removedLiterals;
+		}
+
+		public boolean isEmpty() {
+			return (addedLiterals.length == 0) && (removedLiterals.length == 0);
+		}
+
+		@Override
+		public String toString() {
+			return "Delta [added=" + Arrays.toString(addedLiterals) + ", removed=" + Arrays.toString(removedLiterals) + "]";
+		}
+	}
+
+	private static final int[] EMPTY = new int[0];
+
+	private final SatInstance satInstance;
+	private final BasicSolver solver;
+
+	/** The current value of each variable (1 selected, -1 deselected, 0 unassigned). */
+	private final byte[] assignment;
+	/** The literals implied by the current assignment or {@code null} if they were not computed yet. */
+	private int[] impliedLiterals = null;
+	private boolean satisfiable = true;
+
+	public SolverSession(SatInstance satInstance) {
+		this.satInstance = satInstance;
+		BasicSolver solver;
+		try {
+			solver = new BasicSolver(satInstance);
+		} catch (final ContradictionException e) {
+			solver = null;
+			satisfiable = false;
+		}
+		this.solver = solver;
+		assignment = new byte[satInstance.getNumberOfVariables() + 1];
+	}
+
+	public SatInstance getSatInstance() {
+		return satInstance;
+	}
+
+	/**
+	 * Returns the underlying solver. Callers must synchronize on this session while using it and must remove all assumptions they push.
+	 *
+	 * @return the solver or {@code null} if the formula is a contradiction
+	 */
+	public BasicSolver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * Checks whether the formula is satisfiable under the given assumptions. The current assignment of the session is not considered.
+	 *
+	 * @param assumptions signed variable indices
+	 */
+	public synchronized SatResult isSatisfiable(int... assumptions) {
+		if (solver == null) {
+			return SatResult.FALSE;
+		}
+		for (final int assumption : assumptions) {
+			solver.assignmentPush(assumption);
+		}
+		try {
+			return solver.isSatisfiable();
+		} finally {
+			solver.assignmentClear(0);
+		}
+	}
+
+	/**
+	 * Computes all literals that are implied by the given assumptions. The current assignment of the session is not considered.
+	 *
+	 * @param assumptions signed variable indices
+	 * @return the implied literals (without the assumptions), an empty array if the assumptions are unsatisfiable, or {@code null} if the formula is a
+	 *         contradiction
+	 */
+	public int[] getImpliedLiterals(int... assumptions) {
+		return getImpliedLiterals(new NullMonitor(), assumptions);
+	}
+
+	/**
+	 * @see #getImpliedLiterals(int...)
+	 */
+	public synchronized int[] getImpliedLiterals(IMonitor monitor, int... assumptions) {
+		if (solver == null) {
+			return null;
+		}
+		final ConditionallyCoreDeadAnalysis analysis = new ConditionallyCoreDeadAnalysis(solver);
+		analysis.setAssumptions(assumptions);
+		return LongRunningWrapper.runMethod(analysis, monitor);
+	}
+
+	/**
+	 * @return the variables of the current assignment as signed literals
+	 */
+	public synchronized int[] getAssignment() {
+		int count = 0;
+		for (int i = 1; i < assignment.length; i++) {
+			if (assignment[i] != 0) {
+				count++;
+			}
+		}
+		final int[] literals = new int[count];
+		count = 0;
+		for (int i = 1; i < assignment.length; i++) {
+			if (assignment[i] != 0) {
+				literals[count++] = assignment[i] * i;
+			}
+		}
+		return literals;
+	}
+
+	/**
+	 * @return the literals implied by the current assignment (without the assignment itself)
+	 */
+	public synchronized int[] getImpliedLiterals() {
+		if (impliedLiterals == null) {
+			update();
+		}
+		return Arrays.copyOf(impliedLiterals, impliedLiterals.length);
+	}
+
+	/**
+	 * @return {@code true} if the current assignment is satisfiable
+	 */
+	public synchronized boolean isAssignmentSatisfiable() {
+		if (impliedLiterals == null) {
+			update();
+		}
+		return satisfiable;
+	}
+
+	public Delta select(int variable) {
+		return assign(Math.abs(variable));
+	}
+
+	public Delta deselect(int variable) {
+		return assign(-Math.abs(variable));
+	}
+
+	/**
+	 * Adds the given literal to the current assignment. If the variable was assigned before, its value is replaced.
+	 *
+	 * @param literal a signed variable index
+	 * @return the changed implied literals
+	 */
+	public synchronized Delta assign(int literal) {
+		final int variable = Math.abs(literal);
+		final byte oldValue = assignment[variable];
+		if (oldValue == 0) {
+			return extend(literal);
+		}
+		final byte value = (byte) (literal > 0 ? 1 : -1);
+		if (oldValue == value) {
+			return new Delta(EMPTY, EMPTY);
+		}
+		assignment[variable] = value;
+		return update();
+	}
+
+	/**
+	 * Removes the given variable from the current assignment.
+	 *
+	 * @param variable a variable index (the sign is ignored)
+	 * @return the changed implied literals
+	 */
+	public synchronized Delta unassign(int variable) {
+		variable = Math.abs(variable);
+		if (assignment[variable] == 0) {
+			return new Delta(EMPTY, EMPTY);
+		}
+		assignment[variable] = 0;
+		return update();
+	}
+
+	/**
+	 * Replaces the current assignment. If the new assignment only adds literals to the current one, the implied literals are computed incrementally.
+	 *
+	 * @param literals signed variable indices
+	 * @return the changed implied literals
+	 */
+	public synchronized Delta setAssignment(int... literals) {
+		final byte[] newAssignment = new byte[assignment.length];
+		for (final int literal : literals) {
+			newAssignment[Math.abs(literal)] = (byte) (literal > 0 ? 1 : -1);
+		}
+		boolean extension = true;
+		for (int i = 1; i < assignment.length; i++) {
+			if ((assignment[i] != 0) && (assignment[i] != newAssignment[i])) {
+				extension = false;
+				break;
+			}
+		}
+		if (extension) {
+			final int[] newLiterals = new int[literals.length];
+			int count = 0;
+			for (int i = 1; i < assignment.length; i++) {
+				if ((newAssignment[i] != 0) && (assignment[i] == 0)) {
+					newLiterals[count++] = newAssignment[i] * i;
+				}
+			}
+			return extend(Arrays.copyOf(newLiterals, count));
+		}
+		System.arraycopy(newAssignment, 0, assignment, 0, assignment.length);
+		return update();
+	}
+
+	/**
+	 * Adds literals of unassigned variables to the current assignment. As long as the assignment remains satisfiable, all old implied literals remain
+	 * implied. Thus, they are used as additional assumptions and only the remaining variables must be checked.
+	 */
+	private Delta extend(int... literals) {
+		if ((literals.length == 0) && (impliedLiterals != null)) {
+			return new Delta(EMPTY, EMPTY);
+		}
+		final int[] oldImpliedLiterals = impliedLiterals;
+		boolean consistent = satisfiable && (oldImpliedLiterals != null);
+		for (final int literal : literals) {
+			assignment[Math.abs(literal)] = (byte) (literal > 0 ? 1 : -1);
+			consistent = consistent && !contains(oldImpliedLiterals, -literal);
+		}
+		if (consistent) {
+			final int[] knownLiterals = removeLiterals(oldImpliedLiterals, literals);
+			final int[] assumptions = concat(getAssignment(), knownLiterals);
+			if (isSatisfiable(assumptions) != SatResult.FALSE) {
+				impliedLiterals = concat(knownLiterals, getImpliedLiterals(new NullMonitor(), assumptions));
+				return createDelta(oldImpliedLiterals, impliedLiterals);
+			}
+		}
+		return update();
+	}
+
+	private Delta update() {
+		final int[] oldImpliedLiterals = impliedLiterals;
+		final int[] literals = getAssignment();
+		if ((solver != null) && (isSatisfiable(literals) != SatResult.FALSE)) {
+			final int[] newLiterals = getImpliedLiterals(new NullMonitor(), literals);
+			satisfiable = newLiterals != null;
+			impliedLiterals = satisfiable ? newLiterals : EMPTY;
+		} else {
+			satisfiable = false;
+			impliedLiterals = EMPTY;
+		}
+		return createDelta(oldImpliedLiterals, impliedLiterals);
+	}
+
+	private static Delta createDelta(int[] oldLiterals, int[] newLiterals) {
+		final int[] sortedOld = oldLiterals == null ? EMPTY : Arrays.copyOf(oldLiterals, oldLiterals.length);
+		final int[] sortedNew = Arrays.copyOf(newLiterals, newLiterals.length);
+		Arrays.sort(sortedOld);
+		Arrays.sort(sortedNew);
+		return new Delta(difference(sortedNew, sortedOld), difference(sortedOld, sortedNew));
+	}
+
+	/**
+	 * @return all elements of the first sorted array that are not contained in the second sorted array
+	 */
+	private static int[] difference(int[] sortedArray1, int[] sortedArray2) {
+		final int[] result = new int[sortedArray1.length];
+		int count = 0;
+		for (final int literal : sortedArray1) {
+			if (Arrays.binarySearch(sortedArray2, literal) < 0) {
+				result[count++] = literal;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static boolean contains(int[] array, int literal) {
+		for (final int element : array) {
+			if (element == literal) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] removeLiterals(int[] array, int[] literals) {
+		final int[] result = new int[array.length];
+		int count = 0;
+		for (final int element : array) {
+			if (!contains(literals, element)) {
+				result[count++] = element;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static int[] concat(int[] array1, int[] array2) {
+		final int[] result = Arrays.copyOf(array1, array1.length + array2.length);
+		System.arraycopy(array2, 0, result, array1.length, array2.length);
+		return result;
+	}
+
+}
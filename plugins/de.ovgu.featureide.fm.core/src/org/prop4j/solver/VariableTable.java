@@ -0,0 +1,156 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.Arrays;
+
+/**
+ * Assigns the indices 1, 2, 3, ... to variables in the order in which they are added.<br> The table is backed by arrays only: an array of the
+ * variables by index and an open addressing hash table (linear probing) from the variables to their indices. Thus, neither a lookup nor an insertion
+ * allocates any objects.
+ */
+public class VariableTable {
+
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * The variables by index. Index 0 is not used.
+	 */
+	private Object[] variables;
+	private int size = 0;
+
+	private Object[] keys;
+	private int[] indices;
+
+	public VariableTable() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize the expected number of variables
+	 */
+	public VariableTable(int expectedSize) {
+		variables = new Object[Math.max(MIN_CAPACITY, expectedSize + 1)];
+		int capacity = MIN_CAPACITY;
+		while (capacity < (2 * expectedSize)) {
+			capacity <<= 1;
+		}
+		keys = new Object[capacity];
+		indices = new int[capacity];
+	}
+
+	private static int hash(Object variable) {
+		final int h = variable.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private int find(Object variable) {
+		final int mask = keys.length - 1;
+		int slot = hash(variable) & mask;
+		for (Object key = keys[slot]; key != null; key = keys[slot]) {
+			if (key.equals(variable)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -slot - 1;
+	}
+
+	/**
+	 * Adds a variable to this table if it is not already contained.
+	 *
+	 * @param variable the variable (must not be {@code null})
+	 * @return the index of the variable
+	 */
+	public int add(Object variable) {
+		final int slot = find(variable);
+		if (slot >= 0) {
+			return indices[slot];
+		}
+		final int index = ++size;
+		if (index == variables.length) {
+			variables = Arrays.copyOf(variables, 2 * variables.length);
+		}
+		variables[index] = variable;
+		keys[-slot - 1] = variable;
+		indices[-slot - 1] = index;
+		if ((2 * size) > keys.length) {
+			rehash();
+		}
+		return index;
+	}
+
+	private void rehash() {
+		final Object[] oldKeys = keys;
+		final int[] oldIndices = indices;
+		keys = new Object[2 * oldKeys.length];
+		indices = new int[2 * oldIndices.length];
+		for (int i = 0; i < oldKeys.length; i++) {
+			final Object key = oldKeys[i];
+			if (key != null) {
+				final int slot = -find(key) - 1;
+				keys[slot] = key;
+				indices[slot] = oldIndices[i];
+			}
+		}
+	}
+
+	/**
+	 * @param variable the variable
+	 * @return the index of the variable or 0 if it is not contained in this table
+	 */
+	public int getIndex(Object variable) {
+		final int slot = find(variable);
+		return slot >= 0 ? indices[slot] : 0;
+	}
+
+	public boolean contains(Object variable) {
+		return find(variable) >= 0;
+	}
+
+	/**
+	 * @param x a (signed) index
+	 * @return the variable with the given index
+	 */
+	public Object getVariable(int x) {
+		return variables[Math.abs(x)];
+	}
+
+	/**
+	 * @return the number of variables (i.e., the largest index)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return an array of all variables, where the variable with index i is stored at position i (position 0 is {@code null})
+	 */
+	public Object[] toArray() {
+		return Arrays.copyOf(variables, size + 1);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(Arrays.copyOfRange(variables, 1, size + 1));
+	}
+
+}
@@ -22,8 +22,6 @@ package de.ovgu.featureide.fm.ui.editors;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.RUNNING_ADDITIONAL_CHECKS___;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
@@ -34,21 +32,17 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.ui.progress.UIJob;
-import org.prop4j.Implies;
 import org.prop4j.Node;
 import org.prop4j.NodeReader;
-import org.prop4j.Not;
 import org.prop4j.SatSolver;
+import org.prop4j.analyses.WhatIfAnalysis;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.FeatureComparator;
-import de.ovgu.featureide.fm.core.FeatureStatus;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
-import de.ovgu.featureide.fm.core.base.impl.Constraint;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.functional.Functional.IConsumer;
 import de.ovgu.featureide.fm.ui.FMUIPlugin;
@@ -60,41 +54,6 @@ import de.ovgu.featureide.fm.ui.FMUIPlugin;
  */
 public final class ConstraintTextValidator {
 
-	/**
-	 * returns a List of all features that are caused to be dead by the constraint input
-	 *
-	 * @param input constraint to be evaluated
-	 * @param model the feature model
-	 * @return List of all dead Features, empty if no feature is caused to be dead
-	 */
-	private SortedSet<IFeature> getDeadFeatures(IConstraint constraint, String input, IFeatureModel model) {
-		Collection<IFeature> deadFeaturesBefore = null;
-		final IFeatureModel clonedModel = model.clone(null);
-
-		final NodeReader nodeReader = new NodeReader();
-
-		final Node propNode = nodeReader.stringToNode(input, Functional.toList(FeatureUtils.extractFeatureNames(clonedModel.getFeatures())));
-
-		if (propNode != null) {
-			if (constraint != null) {
-				clonedModel.removeConstraint(constraint);
-			}
-			deadFeaturesBefore = clonedModel.getAnalyser().getDeadFeatures();
-			clonedModel.addConstraint(new Constraint(clonedModel, propNode));
-			clonedModel.handleModelDataChanged();
-		}
-
-		final SortedSet<IFeature> deadFeaturesAfter = new TreeSet<IFeature>(new FeatureComparator(true));
-
-		for (final IFeature l : clonedModel.getAnalyser().getDeadFeatures()) {
-			if (!deadFeaturesBefore.contains(l)) {
-				deadFeaturesAfter.add(l);
-
-			}
-		}
-		return deadFeaturesAfter;
-	}
-
 	/**
 	 * returns a String to be displayed in the dialog header contains the list of dead features
 	 *
@@ -129,76 +88,12 @@ public final class ConstraintTextValidator {
 		return featureString.toString();
 	}
 
-	private List<IFeature> getFalseOptional(IConstraint constraint, String input, IFeatureModel model) {
-		final List<IFeature> list = new ArrayList<IFeature>();
-		final IFeatureModel clonedModel = model.clone(null);
-
-		final NodeReader nodeReader = new NodeReader();
-
-		final Node propNode = nodeReader.stringToNode(input, Functional.toList(FeatureUtils.extractFeatureNames(clonedModel.getFeatures())));
-
-		// The following code fixes issue #406; should be enhanced in further development
-		// to not always clone the whole feature model for every performed analysis
-		if (propNode != null) {
-			if (constraint != null) {
-				clonedModel.removeConstraint(constraint);
-			}
-		}
-
-		for (final IFeature feature : model.getFeatures()) {
-			if (input.contains(feature.getName())) {
-				// if (feature.getFeatureStatus() != FeatureStatus.FALSE_OPTIONAL) {
-				clonedModel.addConstraint(new Constraint(clonedModel, propNode));
-				clonedModel.getAnalyser().analyzeFeatureModel(null);
-				if ((clonedModel.getFeature(feature.getName()).getProperty().getFeatureStatus() == FeatureStatus.FALSE_OPTIONAL) && !list.contains(feature)) {
-					list.add(feature);
-					// }
-				}
-			}
-		}
-
-		return list;
-	}
-
 	private String getFalseOptionalString(List<IFeature> list) {
 		final String listString = Functional.join(list, ",", FeatureUtils.GET_FEATURE_NAME);
 		final String featureString = "Constraint causes the following features to be false optional: " + '\n';
 		return featureString + listString;
 	}
 
-	/**
-	 * Tests if the {@link IConstraint} will change the product line.
-	 *
-	 * @param constraint The actual {@link IConstraint}
-	 * @return <code>true</code> if the {@link IConstraint} is redundant
-	 */
-	private boolean isRedundant(IConstraint constraint, final IFeatureModel featureModel, String input, final int timeOut) {
-		if (input.length() == 0) {
-			return false;
-		}
-		final IFeatureModel clonedModel = featureModel.clone(null);
-		final Node propNode = new NodeReader().stringToNode(input, Functional.toList(FeatureUtils.extractFeatureNames(clonedModel.getFeatures())));
-
-		// The following code fixes issue #406; should be enhanced in further development
-		// to not always clone the whole feature model for every performed analysis
-		if (propNode != null) {
-			if (constraint != null) {
-				clonedModel.removeConstraint(constraint);
-			}
-		}
-
-		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(clonedModel);
-		final Node check = new Implies(nodeCreator.createNodes(), propNode);
-
-		final SatSolver satsolver = new SatSolver(new Not(check), timeOut);
-
-		try {
-			return !satsolver.isSatisfiable();
-		} catch (final TimeoutException e) {
-			return true;
-		}
-	}
-
 	/**
 	 * returns true if constraint is satisfiable otherwise false
 	 *
@@ -217,28 +112,6 @@ public final class ConstraintTextValidator {
 
 	}
 
-	/**
-	 * returns true if the constraint is always true
-	 *
-	 * @param constraint the constraint to be evaluated
-	 * @param timeout timeout in ms
-	 *
-	 */
-	private boolean isTautology(String constraint, int timeout) {
-		final NodeReader nodeReader = new NodeReader();
-		final Node node = nodeReader.stringToNode(constraint);
-
-		final SatSolver satsolver = new SatSolver(new Not(node.clone()), timeout);
-
-		try {
-			return !satsolver.isSatisfiable();
-		} catch (final TimeoutException e) {
-
-			return true;
-		}
-
-	}
-
 	/**
 	 * Data class
 	 *
@@ -328,60 +201,44 @@ public final class ConstraintTextValidator {
 			protected IStatus run(IProgressMonitor monitor) {
 
 				updateUI(onCheckStarted, "");
-				// ---------------------------------------------------------
-				if (!canceled) {
-					final boolean problemFoundTautology = isTautology(con, timeOut);
 
-					if (problemFoundTautology) {
-						updateUI(onIsTautology, "");
-						return Status.OK_STATUS;
-					}
+				final Node propNode = new NodeReader().stringToNode(con, Functional.toList(FeatureUtils.extractFeatureNames(featureModel.getFeatures())));
+				if (propNode == null) {
+					updateUI(onCheckEnded, "");
+					return Status.OK_STATUS;
 				}
-
+				final WhatIfAnalysis.Result result = featureModel.getAnalyser().analyzeConstraint(propNode, constraint, timeOut);
 				// ---------------------------------------------------------
-				if (!canceled) {
-					final boolean problemFoundNotSatisfiable = !isSatisfiable(con, timeOut);
-
-					if (problemFoundNotSatisfiable) {
-						updateUI(onIsNotSatisfiable, "");
-						return Status.OK_STATUS;
-					}
+				if (result.isTautology()) {
+					updateUI(onIsTautology, "");
+					return Status.OK_STATUS;
 				}
 				// ---------------------------------------------------------
-				if (!canceled) {
-					final boolean problemFoundVoidsModel = isVoidsModel(featureModel, con, constraint);
-
-					if (problemFoundVoidsModel) {
-						updateUI(onVoidsModelCheckComplete, "");
-						return Status.OK_STATUS;
-					}
+				if (!result.isSatisfiable()) {
+					updateUI(onIsNotSatisfiable, "");
+					return Status.OK_STATUS;
 				}
 				// ---------------------------------------------------------
-				if (!canceled) {
-					final List<IFeature> falseOptionalFeatures = getFalseOptional(constraint, con, featureModel);
-
-					if (!falseOptionalFeatures.isEmpty()) {
-						updateUI(onFalseOptionalCheckComplete, getFalseOptionalString(falseOptionalFeatures));
-						return Status.OK_STATUS;
-					}
+				if (result.isVoidModel()) {
+					updateUI(onVoidsModelCheckComplete, "");
+					return Status.OK_STATUS;
 				}
 				// ---------------------------------------------------------
-				if (!canceled) {
-					final Set<IFeature> deadFeatuers = getDeadFeatures(constraint, con, featureModel);
-
-					if (!deadFeatuers.isEmpty()) {
-						updateUI(onDeadFeatureCheckComplete, getDeadFeatureString(deadFeatuers));
-						return Status.OK_STATUS;
-					}
+				if (!result.getFalseOptionalFeatures().isEmpty()) {
+					updateUI(onFalseOptionalCheckComplete, getFalseOptionalString(result.getFalseOptionalFeatures()));
+					return Status.OK_STATUS;
 				}
 				// ---------------------------------------------------------
-				if (!canceled) {
-					final boolean problemFoundRedundant = isRedundant(constraint, featureModel, con, timeOut);
-
-					if (problemFoundRedundant) {
-						updateUI(onIsRedundantCheckComplete, "");
-						return Status.OK_STATUS;
-					}
+				if (!result.getDeadFeatures().isEmpty()) {
+					final SortedSet<IFeature> deadFeatures = new TreeSet<IFeature>(new FeatureComparator(true));
+					deadFeatures.addAll(result.getDeadFeatures());
+					updateUI(onDeadFeatureCheckComplete, getDeadFeatureString(deadFeatures));
+					return Status.OK_STATUS;
+				}
+				// ---------------------------------------------------------
+				if (result.isRedundant()) {
+					updateUI(onIsRedundantCheckComplete, "");
+					return Status.OK_STATUS;
 				}
 				// ---------------------------------------------------------
 				if (!canceled) {
@@ -411,50 +268,4 @@ public final class ConstraintTextValidator {
 		asyncCheckJob.setSystem(true);
 		asyncCheckJob.schedule();
 	}
-
-	/**
-	 * @throws MakesModelVoidValidatorException
-	 *
-	 */
-	private boolean isVoidsModel(IFeatureModel featureModel, String con, IConstraint constraint) {
-		try {
-			return voidsModel(constraint, con, featureModel);
-		} catch (final TimeoutException e) {
-			FMUIPlugin.getDefault().logError(e);
-		}
-		return false;
-	}
-
-	/**
-	 * returns true if the constraint causes the feature model to be void otherwise false
-	 *
-	 * @param input constraint to be evaluated
-	 * @param model the feature model
-	 *
-	 *        * @throws TimeoutException
-	 */
-	private boolean voidsModel(final IConstraint constraint, String input, IFeatureModel model) throws TimeoutException {
-		if (!model.getAnalyser().isValid()) {
-
-			return false;
-		}
-		if (input.length() == 0) {
-
-			return false;
-		}
-		final IFeatureModel clonedModel = model.clone(null);
-		final NodeReader nodeReader = new NodeReader();
-
-		final Node propNode = nodeReader.stringToNode(input, Functional.toList(FeatureUtils.extractFeatureNames(clonedModel.getFeatures())));
-		if (propNode != null) {
-			if (constraint != null) {
-				clonedModel.removeConstraint(constraint);
-			}
-			clonedModel.addConstraint(new Constraint(clonedModel, propNode));
-			clonedModel.handleModelDataChanged();
-		}
-
-		return (!clonedModel.getAnalyser().isValid());
-
-	}
 }
@@ -39,6 +39,7 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.QualifiedName;
@@ -63,6 +64,7 @@ import de.ovgu.featureide.fm.core.color.FeatureColorManager;
 import de.ovgu.featureide.fm.core.conf.ConfigurationFG;
 import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
 import de.ovgu.featureide.fm.core.conf.MatrixFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.SparseFeatureGraph;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
 import de.ovgu.featureide.fm.core.configuration.Selection;
@@ -70,6 +72,7 @@ import de.ovgu.featureide.fm.core.io.FeatureGraphFormat;
 import de.ovgu.featureide.fm.core.io.FileSystem;
 import de.ovgu.featureide.fm.core.io.Problem;
 import de.ovgu.featureide.fm.core.io.ProblemList;
+import de.ovgu.featureide.fm.core.io.binary.BinaryFeatureGraphFormat;
 import de.ovgu.featureide.fm.core.io.manager.ConfigurationManager;
 import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
 import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
@@ -237,9 +240,8 @@ public class ConfigurationEditor extends MultiPageEditorPart implements GUIDefau
 		// }
 
 		final IFeatureGraph fg = (res == null)
-			? loadFeatureGraph(
-					org.eclipse.core.runtime.Path.fromOSString(modelFile.getAbsolutePath()).removeLastSegments(1).append("model.fg").toFile().toPath())
-			: loadFeatureGraph(res.getLocation().removeLastSegments(1).append("model.fg").toFile().toPath());
+			? loadFeatureGraph(org.eclipse.core.runtime.Path.fromOSString(modelFile.getAbsolutePath()).removeLastSegments(1))
+			: loadFeatureGraph(res.getLocation().removeLastSegments(1));
 		final Configuration c = (fg == null) ? new Configuration(featureModelManager.getObject(), Configuration.PARAM_IGNOREABSTRACT | Configuration.PARAM_LAZY)
 			: new ConfigurationFG(featureModelManager.getObject(), fg, ConfigurationFG.PARAM_IGNOREABSTRACT | ConfigurationFG.PARAM_LAZY);
 
@@ -288,14 +290,23 @@ public class ConfigurationEditor extends MultiPageEditorPart implements GUIDefau
 		}
 	}
 
-	private IFeatureGraph loadFeatureGraph(Path filePath) {
-		final IFeatureGraph featureGraph = new MatrixFeatureGraph();
-		final FeatureGraphFormat format = new FeatureGraphFormat();
-		if (!FileSystem.exists(filePath) || SimpleFileHandler.load(filePath, featureGraph, format).containsError()) {
-			return null;
-		} else {
-			return featureGraph;
+	/**
+	 * Loads the feature graph of the model in the given folder. Graphs in the old format (model.fg) are still loaded, but should be rebuilt.
+	 */
+	@SuppressWarnings("deprecation")
+	private IFeatureGraph loadFeatureGraph(IPath folder) {
+		final Path filePath = folder.append("model.fgb").toFile().toPath();
+		if (FileSystem.exists(filePath)) {
+			final IFeatureGraph featureGraph = new SparseFeatureGraph();
+			return SimpleFileHandler.load(filePath, featureGraph, new BinaryFeatureGraphFormat()).containsError() ? null : featureGraph;
 		}
+		final Path oldFilePath = folder.append("model.fg").toFile().toPath();
+		if (FileSystem.exists(oldFilePath)) {
+			FMUIPlugin.getDefault().logWarning(oldFilePath + " has an old format. Build the feature graph again to create model.fgb.");
+			final IFeatureGraph featureGraph = new MatrixFeatureGraph();
+			return SimpleFileHandler.load(oldFilePath, featureGraph, new FeatureGraphFormat()).containsError() ? null : featureGraph;
+		}
+		return null;
 	}
 
 	/**
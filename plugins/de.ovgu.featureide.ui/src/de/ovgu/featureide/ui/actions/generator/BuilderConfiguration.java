@@ -20,6 +20,8 @@
  */
 package de.ovgu.featureide.ui.actions.generator;
 
+import org.eclipse.core.resources.IFolder;
+
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 
 /**
@@ -32,6 +34,11 @@ public class BuilderConfiguration extends Configuration {
 	private String name;
 	private long number;
 
+	/**
+	 * The temporary folder containing the compiled classes of this configuration (see {@link JavaCompiler}).
+	 */
+	IFolder binFolder = null;
+
 	/**
 	 * @param configuration
 	 */
@@ -0,0 +1,742 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reuses class files across the products of a {@link ConfigurationBuilder}.<br> Each source file is identified by the hash of its package path, file name,
+ * and content. After a product was compiled without errors, the class files of each source file are stored together with its dependency signature: the
+ * API hashes of all product types it references (in its class files or by name in its source), and the referenced types that were not part of the
+ * product. A source file of a later product is reused iff its hash is known and its dependency signature still holds. All other source files are passed
+ * to the compiler, with the reused class files on the class path. If the API of a compiled type differs from the one a reused source file was compiled
+ * against, the reused file is compiled in a further round.<br> Compiler problems of reused source files are replayed, so that the same markers are created. The
+ * cache is thread safe and can be shared by all workers of a build.
+ *
+ * @see JavaCompiler
+ */
+public class CompilationCache {
+
+	/**
+	 * Compiles a subset of the source files of one product.
+	 */
+	public static interface ICompiler {
+
+		/**
+		 * Compiles the given source files into the output folder. The output folder already contains the class files of all other source files of the product
+		 * and must be part of the class path.
+		 *
+		 * @return the output of the compiler
+		 */
+		String compile(List<Source> sources) throws Exception;
+
+	}
+
+	/**
+	 * A source file of a product.
+	 */
+	public static final class Source {
+
+		private final String path;
+		private final String key;
+		private final String hash;
+		private final String content;
+
+		/**
+		 * @param path the location of the file, as used in the problems reported by the compiler
+		 * @param content the content of the file
+		 */
+		public Source(String path, byte[] content) {
+			this.path = path;
+			this.content = new String(content, StandardCharsets.UTF_8);
+			key = CompilationCache.getKey(new File(path).getName(), this.content);
+			hash = getHash(key, content);
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the path of the file relative to the source folder according to its package declaration
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		@Override
+		public String toString() {
+			return path;
+		}
+
+	}
+
+	/**
+	 * The class files of a compiled source file and its dependency signature.
+	 */
+	private static final class CacheEntry {
+
+		private final Map<String, byte[]> classFiles;
+		private final Map<String, String> types;
+		private final Map<String, String> dependencies;
+		private final Set<String> externalTypes;
+		private final List<String> problems;
+		private final long size;
+
+		private CacheEntry(Map<String, byte[]> classFiles, Map<String, String> types, Map<String, String> dependencies, Set<String> externalTypes,
+				List<String> problems) {
+			this.classFiles = classFiles;
+			this.types = types;
+			this.dependencies = dependencies;
+			this.externalTypes = externalTypes;
+			this.problems = problems;
+			long size = 0;
+			for (final byte[] classFile : classFiles.values()) {
+				size += classFile.length;
+			}
+			this.size = size;
+		}
+
+	}
+
+	/**
+	 * The name, source file, API hash, and referenced types of a class file.
+	 */
+	static final class ClassInfo {
+
+		final String name;
+		final String sourceKey;
+		final String apiHash;
+		final Set<String> references;
+		final byte[] classFile;
+
+		private ClassInfo(String name, String sourceKey, String apiHash, Set<String> references, byte[] classFile) {
+			this.name = name;
+			this.sourceKey = sourceKey;
+			this.apiHash = apiHash;
+			this.references = references;
+			this.classFile = classFile;
+		}
+
+	}
+
+	private static final String PROBLEM_SEPARATOR = "----------";
+	private static final String PATH_PLACEHOLDER = "\u0000";
+
+	private static final Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([\\w.\\s]+?)\\s*;", Pattern.MULTILINE);
+	private static final Pattern COMMENT_PATTERN = Pattern.compile("/\\*.*?\\*/|//[^\\n]*", Pattern.DOTALL);
+	private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*");
+	private static final Pattern DESCRIPTOR_PATTERN = Pattern.compile("L([^;<>()\\[\\]]+)[;<]");
+	private static final Pattern PROBLEM_PATTERN = Pattern.compile("\\S*\\s(\\w+)\\sin\\s(\\S.*[.]java)\\s[(]at line (\\d+)[)]");
+
+	private static final int ACC_PRIVATE = 0x0002;
+
+	private final long maxSize;
+	private long size = 0;
+
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param maxSize the maximal size of all cached class files in bytes. The least recently used entries are removed first.
+	 */
+	public CompilationCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Compiles a product into the given output folder, reusing the class files of all unchanged source files.
+	 *
+	 * @param sources all source files of the product
+	 * @param outputFolder the folder for the class files (its content is replaced)
+	 * @param compiler compiles the source files that cannot be reused
+	 * @return the compiler output for all source files
+	 */
+	public String compile(List<Source> sources, File outputFolder, ICompiler compiler) throws Exception {
+		final Map<Source, CacheEntry> reused = new LinkedHashMap<>();
+		final List<Source> compiled = new ArrayList<>();
+		for (final Source source : sources) {
+			final CacheEntry entry = get(source.hash);
+			if (entry != null) {
+				reused.put(source, entry);
+			} else {
+				compiled.add(source);
+			}
+		}
+
+		delete(outputFolder);
+		outputFolder.mkdirs();
+		final Set<String> reusedClassFiles = new HashSet<>();
+		for (final CacheEntry entry : reused.values()) {
+			for (final Entry<String, byte[]> classFile : entry.classFiles.entrySet()) {
+				final File file = new File(outputFolder, classFile.getKey() + ".class");
+				file.getParentFile().mkdirs();
+				Files.write(file.toPath(), classFile.getValue());
+				reusedClassFiles.add(classFile.getKey());
+			}
+		}
+
+		final StringBuilder compilerOutput = new StringBuilder();
+		List<Source> toCompile = new ArrayList<>(compiled);
+		Map<String, ClassInfo> compiledClasses;
+		while (true) {
+			if (!toCompile.isEmpty()) {
+				compilerOutput.append(compiler.compile(toCompile));
+			}
+			compiledClasses = readClasses(outputFolder, "", reusedClassFiles, new HashMap<String, ClassInfo>());
+
+			final Map<String, String> types = new HashMap<>();
+			for (final CacheEntry entry : reused.values()) {
+				types.putAll(entry.types);
+			}
+			for (final ClassInfo classInfo : compiledClasses.values()) {
+				types.put(classInfo.name, classInfo.apiHash);
+			}
+			toCompile = getInvalidSources(reused, types);
+			if (toCompile.isEmpty()) {
+				break;
+			}
+			for (final Source source : toCompile) {
+				for (final String classFile : reused.remove(source).classFiles.keySet()) {
+					new File(outputFolder, classFile + ".class").delete();
+					reusedClassFiles.remove(classFile);
+				}
+				compiled.add(source);
+			}
+		}
+		final String output = compilerOutput.toString();
+		hits.addAndGet(reused.size());
+		misses.addAndGet(compiled.size());
+
+		final Map<String, List<String>> problems = getProblems(output, sources);
+		if (!compiled.isEmpty() && !hasErrors(output)) {
+			store(compiled, compiledClasses, reused, problems);
+		}
+
+		final StringBuilder sb = new StringBuilder(output);
+		for (final Source source : reused.keySet()) {
+			for (final String problem : reused.get(source).problems) {
+				sb.append(PROBLEM_SEPARATOR).append('\n').append(problem.replace(PATH_PLACEHOLDER, source.path)).append('\n');
+			}
+		}
+		if (sb.length() > output.length()) {
+			sb.append(PROBLEM_SEPARATOR).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Finds all reused source files whose dependency signature does not hold for the given product types, including all files that depend on types of
+	 * such a file.
+	 */
+	private List<Source> getInvalidSources(Map<Source, CacheEntry> reused, Map<String, String> types) {
+		final Map<String, Set<String>> typesBySimpleName = new HashMap<>();
+		for (final String type : types.keySet()) {
+			if (type.indexOf('$') < 0) {
+				final String simpleName = type.substring(type.lastIndexOf('/') + 1);
+				Set<String> namedTypes = typesBySimpleName.get(simpleName);
+				if (namedTypes == null) {
+					namedTypes = new HashSet<>();
+					typesBySimpleName.put(simpleName, namedTypes);
+				}
+				namedTypes.add(type);
+			}
+		}
+
+		final List<Source> invalid = new ArrayList<>();
+		final Set<String> invalidTypes = new HashSet<>();
+		for (final Entry<Source, CacheEntry> reusedEntry : reused.entrySet()) {
+			if (!isValid(reusedEntry.getKey(), reusedEntry.getValue(), types, typesBySimpleName)) {
+				invalid.add(reusedEntry.getKey());
+				invalidTypes.addAll(reusedEntry.getValue().types.keySet());
+			}
+		}
+		boolean changed = !invalid.isEmpty();
+		while (changed) {
+			changed = false;
+			for (final Entry<Source, CacheEntry> reusedEntry : reused.entrySet()) {
+				if (!invalid.contains(reusedEntry.getKey()) && !Collections.disjoint(reusedEntry.getValue().dependencies.keySet(), invalidTypes)) {
+					invalid.add(reusedEntry.getKey());
+					invalidTypes.addAll(reusedEntry.getValue().types.keySet());
+					changed = true;
+				}
+			}
+		}
+		return invalid;
+	}
+
+	private boolean isValid(Source source, CacheEntry entry, Map<String, String> types, Map<String, Set<String>> typesBySimpleName) {
+		for (final Entry<String, String> dependency : entry.dependencies.entrySet()) {
+			if (!dependency.getValue().equals(types.get(dependency.getKey()))) {
+				return false;
+			}
+		}
+		for (final String externalType : entry.externalTypes) {
+			if (types.containsKey(externalType)) {
+				return false;
+			}
+		}
+		for (final String identifier : getIdentifiers(source.content)) {
+			final Set<String> namedTypes = typesBySimpleName.get(identifier);
+			if (namedTypes != null) {
+				for (final String type : namedTypes) {
+					if (!entry.types.containsKey(type) && !entry.dependencies.containsKey(type)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the class files and dependency signatures of the compiled source files.
+	 */
+	private void store(List<Source> compiled, Map<String, ClassInfo> compiledClasses, Map<Source, CacheEntry> reused, Map<String, List<String>> problems)
+			throws IOException {
+		final Map<String, String> types = new HashMap<>();
+		final Map<String, Set<String>> typesBySimpleName = new HashMap<>();
+		for (final CacheEntry entry : reused.values()) {
+			types.putAll(entry.types);
+		}
+		final Map<String, List<ClassInfo>> classesBySource = new HashMap<>();
+		for (final ClassInfo classInfo : compiledClasses.values()) {
+			types.put(classInfo.name, classInfo.apiHash);
+			List<ClassInfo> classes = classesBySource.get(classInfo.sourceKey);
+			if (classes == null) {
+				classes = new ArrayList<>();
+				classesBySource.put(classInfo.sourceKey, classes);
+			}
+			classes.add(classInfo);
+		}
+		for (final String type : types.keySet()) {
+			if (type.indexOf('$') < 0) {
+				final String simpleName = type.substring(type.lastIndexOf('/') + 1);
+				Set<String> namedTypes = typesBySimpleName.get(simpleName);
+				if (namedTypes == null) {
+					namedTypes = new HashSet<>();
+					typesBySimpleName.put(simpleName, namedTypes);
+				}
+				namedTypes.add(type);
+			}
+		}
+
+		final Map<String, Integer> keyCount = new HashMap<>();
+		for (final Source source : compiled) {
+			final Integer count = keyCount.get(source.key);
+			keyCount.put(source.key, count == null ? 1 : count + 1);
+		}
+		for (final Source source : compiled) {
+			final List<ClassInfo> classes = classesBySource.get(source.key);
+			if ((classes == null) || (keyCount.get(source.key) > 1)) {
+				continue;
+			}
+			final Map<String, byte[]> classFiles = new HashMap<>();
+			final Map<String, String> ownTypes = new HashMap<>();
+			final Set<String> references = new HashSet<>();
+			for (final ClassInfo classInfo : classes) {
+				classFiles.put(classInfo.name, classInfo.classFile);
+				ownTypes.put(classInfo.name, classInfo.apiHash);
+				references.addAll(classInfo.references);
+			}
+			for (final String identifier : getIdentifiers(source.content)) {
+				final Set<String> namedTypes = typesBySimpleName.get(identifier);
+				if (namedTypes != null) {
+					references.addAll(namedTypes);
+				}
+			}
+			final Map<String, String> dependencies = new HashMap<>();
+			final Set<String> externalTypes = new HashSet<>();
+			for (final String reference : references) {
+				if (!ownTypes.containsKey(reference)) {
+					final String apiHash = types.get(reference);
+					if (apiHash != null) {
+						dependencies.put(reference, apiHash);
+					} else {
+						externalTypes.add(reference);
+					}
+				}
+			}
+			final List<String> sourceProblems = problems.get(source.key);
+			put(source.hash, new CacheEntry(classFiles, ownTypes, dependencies, externalTypes,
+					sourceProblems == null ? Collections.<String> emptyList() : sourceProblems));
+		}
+	}
+
+	private synchronized CacheEntry get(String hash) {
+		return entries.get(hash);
+	}
+
+	private synchronized void put(String hash, CacheEntry entry) {
+		if (entry.size > maxSize) {
+			return;
+		}
+		final CacheEntry oldEntry = entries.put(hash, entry);
+		if (oldEntry != null) {
+			size -= oldEntry.size;
+		}
+		size += entry.size;
+		for (final Iterator<CacheEntry> it = entries.values().iterator(); (size > maxSize) && it.hasNext();) {
+			size -= it.next().size;
+			it.remove();
+		}
+	}
+
+	/**
+	 * @return the number of source files whose class files were reused
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of source files that were compiled
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the fraction of reused source files
+	 */
+	public double getHitRate() {
+		final long hits = this.hits.get();
+		final long total = hits + misses.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ENGLISH, "Compilation cache: %d of %d source files reused (%.1f%%), %d entries", getHits(), getHits() + getMisses(),
+				getHitRate() * 100, size());
+	}
+
+	/**
+	 * Splits the compiler output into single problems and assigns them to the source files (by key).
+	 */
+	private static Map<String, List<String>> getProblems(String output, List<Source> sources) {
+		final Map<String, String> keysByPath = new HashMap<>();
+		for (final Source source : sources) {
+			keysByPath.put(source.path, source.key);
+		}
+		final Map<String, List<String>> problems = new HashMap<>();
+		for (final String problem : output.split("\\r?\\n" + PROBLEM_SEPARATOR + "\\r?\\n|^" + PROBLEM_SEPARATOR + "\\r?\\n")) {
+			final Matcher matcher = PROBLEM_PATTERN.matcher(problem);
+			if (matcher.find()) {
+				final String key = keysByPath.get(matcher.group(2));
+				if (key != null) {
+					List<String> sourceProblems = problems.get(key);
+					if (sourceProblems == null) {
+						sourceProblems = new ArrayList<>();
+						problems.put(key, sourceProblems);
+					}
+					sourceProblems.add(problem.substring(0, matcher.start(2)) + PATH_PLACEHOLDER + problem.substring(matcher.end(2)));
+				}
+			}
+		}
+		return problems;
+	}
+
+	private static boolean hasErrors(String output) {
+		final Matcher matcher = PROBLEM_PATTERN.matcher(output);
+		while (matcher.find()) {
+			if ("ERROR".equals(matcher.group(1))) {
+				return true;
+			}
+		}
+		return output.contains("ERROR");
+	}
+
+	private static Set<String> getIdentifiers(String content) {
+		final Set<String> identifiers = new HashSet<>();
+		final Matcher matcher = IDENTIFIER_PATTERN.matcher(content);
+		while (matcher.find()) {
+			identifiers.add(matcher.group());
+		}
+		return identifiers;
+	}
+
+	private static String getKey(String fileName, String content) {
+		final Matcher matcher = PACKAGE_PATTERN.matcher(COMMENT_PATTERN.matcher(content).replaceAll(" "));
+		if (matcher.find()) {
+			return matcher.group(1).replaceAll("\\s", "").replace('.', '/') + "/" + fileName;
+		}
+		return fileName;
+	}
+
+	private static String getHash(String key, byte[] content) {
+		final MessageDigest digest = createDigest();
+		digest.update(key.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(content);
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		final StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (final byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	private static void delete(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				delete(child);
+				child.delete();
+			}
+		}
+	}
+
+	/**
+	 * Reads all class files in the given folder except the given ones.
+	 */
+	private static Map<String, ClassInfo> readClasses(File folder, String prefix, Collection<String> ignored, Map<String, ClassInfo> classes)
+			throws IOException {
+		final File[] children = folder.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				final String name = child.getName();
+				if (child.isDirectory()) {
+					readClasses(child, prefix + name + "/", ignored, classes);
+				} else if (name.endsWith(".class") && !ignored.contains(prefix + name.substring(0, name.length() - 6))) {
+					final ClassInfo classInfo = readClass(Files.readAllBytes(child.toPath()));
+					classes.put(classInfo.name, classInfo);
+				}
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Parses the given class file. The API hash covers the access flags, super types, and generic signature of the class as well as the access flags,
+	 * names, descriptors, signatures, exceptions, and constant values of all non-private members.
+	 */
+	static ClassInfo readClass(byte[] classFile) throws IOException {
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+		if (in.readInt() != 0xCAFEBABE) {
+			throw new IOException("Invalid class file");
+		}
+		in.readUnsignedShort();
+		in.readUnsignedShort();
+		final int poolSize = in.readUnsignedShort();
+		final Object[] pool = new Object[poolSize];
+		final int[] tags = new int[poolSize];
+		for (int i = 1; i < poolSize; i++) {
+			final int tag = in.readUnsignedByte();
+			tags[i] = tag;
+			switch (tag) {
+			case 1:
+				pool[i] = in.readUTF();
+				break;
+			case 3:
+				pool[i] = in.readInt();
+				break;
+			case 4:
+				pool[i] = in.readFloat();
+				break;
+			case 5:
+				pool[i++] = in.readLong();
+				break;
+			case 6:
+				pool[i++] = in.readDouble();
+				break;
+			case 7:
+			case 8:
+			case 16:
+			case 19:
+			case 20:
+				pool[i] = in.readUnsignedShort();
+				break;
+			case 9:
+			case 10:
+			case 11:
+			case 12:
+			case 17:
+			case 18:
+				in.readInt();
+				break;
+			case 15:
+				in.readUnsignedByte();
+				in.readUnsignedShort();
+				break;
+			default:
+				throw new IOException("Invalid constant pool tag " + tag);
+			}
+		}
+
+		final Set<String> references = new HashSet<>();
+		for (int i = 1; i < poolSize; i++) {
+			if (tags[i] == 7) {
+				final String name = (String) pool[(Integer) pool[i]];
+				if (name.startsWith("[")) {
+					addDescriptorTypes(name, references);
+				} else {
+					references.add(name);
+				}
+			} else if (tags[i] == 1) {
+				addDescriptorTypes((String) pool[i], references);
+			}
+		}
+
+		final StringBuilder api = new StringBuilder();
+		final int access = in.readUnsignedShort();
+		final String name = getClassName(pool, in.readUnsignedShort());
+		references.remove(name);
+		api.append(access).append(' ').append(name).append(" extends ").append(getClassName(pool, in.readUnsignedShort()));
+		final int interfaces = in.readUnsignedShort();
+		for (int i = 0; i < interfaces; i++) {
+			api.append(i == 0 ? " implements " : ",").append(getClassName(pool, in.readUnsignedShort()));
+		}
+		api.append('\n');
+		final List<String> members = new ArrayList<>();
+		for (int kind = 0; kind < 2; kind++) {
+			final int count = in.readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				final int memberAccess = in.readUnsignedShort();
+				final StringBuilder member = new StringBuilder();
+				member.append(kind == 0 ? "field " : "method ").append(memberAccess).append(' ').append(pool[in.readUnsignedShort()]).append(' ')
+						.append(pool[in.readUnsignedShort()]);
+				readAttributes(in, pool, tags, member);
+				if ((memberAccess & ACC_PRIVATE) == 0) {
+					members.add(member.toString());
+				}
+			}
+		}
+		final StringBuilder classAttributes = new StringBuilder();
+		final String sourceFile = readAttributes(in, pool, tags, classAttributes);
+		api.append(classAttributes).append('\n');
+		Collections.sort(members);
+		for (final String member : members) {
+			api.append(member).append('\n');
+		}
+
+		final int packageEnd = name.lastIndexOf('/');
+		final String sourceKey;
+		if (sourceFile != null) {
+			sourceKey = packageEnd < 0 ? sourceFile : name.substring(0, packageEnd + 1) + sourceFile;
+		} else {
+			final int nestedStart = name.indexOf('$', packageEnd + 1);
+			sourceKey = (nestedStart < 0 ? name : name.substring(0, nestedStart)) + ".java";
+		}
+		final MessageDigest digest = createDigest();
+		final String apiHash = toHex(digest.digest(api.toString().getBytes(StandardCharsets.UTF_8)));
+		return new ClassInfo(name, sourceKey, apiHash, references, classFile);
+	}
+
+	/**
+	 * Appends the API relevant attributes to the given string builder.
+	 *
+	 * @return the value of the SourceFile attribute or {@code null}
+	 */
+	private static String readAttributes(DataInputStream in, Object[] pool, int[] tags, StringBuilder api) throws IOException {
+		String sourceFile = null;
+		final int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			final String attribute = (String) pool[in.readUnsignedShort()];
+			final int length = in.readInt();
+			switch (attribute) {
+			case "ConstantValue":
+				final int index = in.readUnsignedShort();
+				final Object value = tags[index] == 8 ? pool[(Integer) pool[index]] : pool[index];
+				api.append(" = ").append(value);
+				break;
+			case "Signature":
+				api.append(" signature ").append(pool[in.readUnsignedShort()]);
+				break;
+			case "Exceptions":
+				final int exceptions = in.readUnsignedShort();
+				for (int j = 0; j < exceptions; j++) {
+					api.append(j == 0 ? " throws " : ",").append(getClassName(pool, in.readUnsignedShort()));
+				}
+				break;
+			case "InnerClasses":
+				final int innerClasses = in.readUnsignedShort();
+				for (int j = 0; j < innerClasses; j++) {
+					final int inner = in.readUnsignedShort();
+					in.readUnsignedShort();
+					in.readUnsignedShort();
+					api.append(" inner ").append(getClassName(pool, inner)).append(' ').append(in.readUnsignedShort());
+				}
+				break;
+			case "SourceFile":
+				sourceFile = (String) pool[in.readUnsignedShort()];
+				break;
+			default:
+				in.skipBytes(length);
+				break;
+			}
+		}
+		return sourceFile;
+	}
+
+	private static String getClassName(Object[] pool, int index) {
+		return index == 0 ? "" : (String) pool[(Integer) pool[index]];
+	}
+
+	private static void addDescriptorTypes(String descriptor, Set<String> references) {
+		if (descriptor.indexOf(';') >= 0) {
+			final Matcher matcher = DESCRIPTOR_PATTERN.matcher(descriptor);
+			while (matcher.find()) {
+				references.add(matcher.group(1));
+			}
+		}
+	}
+
+}
@@ -21,13 +21,12 @@
 package de.ovgu.featureide.ui.actions.generator;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.COUNTING___;
+import static de.ovgu.featureide.fm.core.localization.StringTable.ERROR_IN_CONFIGURATION;
 import static de.ovgu.featureide.fm.core.localization.StringTable.INCLING;
 import static de.ovgu.featureide.fm.core.localization.StringTable.OF;
 import static de.ovgu.featureide.fm.core.localization.StringTable.RESTRICTION;
 
-import java.security.KeyStore.Builder;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.CheckForNull;
 
@@ -55,6 +54,7 @@ import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 import de.ovgu.featureide.fm.core.job.monitor.ProgressMonitor;
 import de.ovgu.featureide.fm.core.localization.StringTable;
 import de.ovgu.featureide.ui.UIPlugin;
+import de.ovgu.featureide.ui.actions.generator.Pipeline.StageStatistics;
 import de.ovgu.featureide.ui.actions.generator.configuration.AConfigurationGenerator;
 import de.ovgu.featureide.ui.actions.generator.configuration.AllConfigrationsGenerator;
 import de.ovgu.featureide.ui.actions.generator.configuration.CurrentConfigurationsGenerator;
@@ -114,30 +114,25 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 	 */
 	private int built;
 
-	/**
-	 * This flag indicates that all jobs should be aborted.
-	 */
-	boolean cancelGeneratorJobs = false;
-
 	/**
 	 * Saves the time of start.
 	 */
 	protected long time;
 
 	/**
-	 * This flag indicates that no more configurations will be added and the {@link Generator} jobs can finish.
+	 * <code>true</code>: all valid configurations should be built.<br> <code>false</code>: all configurations at the configurations folder should be built.
 	 */
-	boolean finish = false;
+	BuildType buildType;
 
 	/**
-	 * <code>true</code>: all valid configurations should be built.<br> <code>false</code>: all configurations at the configurations folder should be built.
+	 * Builds the configurations of the {@link #sorter}.
 	 */
-	BuildType buildType;
+	private volatile Pipeline<BuilderConfiguration> pipeline;
 
 	/**
-	 * This list contains all {@link Generator} jobs.
+	 * Reuses the class files of unchanged source files across all compiled products.
 	 */
-	final List<Generator> generatorJobs = new ArrayList<>();
+	private final CompilationCache compilationCache = new CompilationCache(COMPILATION_CACHE_SIZE);
 
 	public AbstractConfigurationSorter sorter;
 
@@ -241,7 +236,7 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 			break;
 		case T_WISE:
 			if (algorithm.equals(INCLING)) {
-				configurationBuilder = new IncLingConfigurationGenerator(this, featureModel, featureProject);
+				configurationBuilder = new IncLingConfigurationGenerator(this, featureModel, featureProject, t);
 			} else {
 				configurationBuilder = new SPLCAToolConfigurationGenerator(this, featureModel, featureProject, algorithm, t);
 			}
@@ -275,19 +270,8 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 
 					time = System.currentTimeMillis();
 
-					if (featureProject.getComposer().canGeneratInParallelJobs()) {
-						if (buildType != BuildType.ALL_CURRENT) {
-							newgeneratorJobs(Runtime.getRuntime().availableProcessors() * 2);
-						} else {
-							int contJobs = Runtime.getRuntime().availableProcessors() * 2;
-							if (configurationNumber < contJobs) {
-								contJobs = (int) configurationNumber;
-							}
-							newgeneratorJobs(contJobs);
-						}
-					} else {
-						newgeneratorJobs(1);
-					}
+					pipeline = createPipeline();
+					pipeline.start();
 					configurationBuilderJob = LongRunningWrapper.getRunner(configurationBuilder, "Create Configurations " + id++);
 					configurationBuilderJob.schedule();
 					showStatistics(monitor);
@@ -299,84 +283,70 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 						}
 					}
 				} finally {
-					configurationBuilderJob.cancel();
-					cancelGenerationJobs();
-					for (final Thread g : generatorJobs) {
-						g.interrupt();
+					if (configurationBuilderJob != null) {
+						configurationBuilderJob.cancel();
 					}
+					cancelGenerationJobs();
 					monitor.done();
 				}
 				return Status.OK_STATUS;
 			}
 
 			private void showStatistics(IProgressMonitor monitor) {
-				try {
-					while (configurationBuilderJob.getStatus() == JobStatus.NOT_STARTED) {
-						try {
-							Thread.sleep(150);
-						} catch (final InterruptedException e) {
-							LOGGER.logError(e);
-						}
+				while (configurationBuilderJob.getStatus() == JobStatus.NOT_STARTED) {
+					try {
+						Thread.sleep(150);
+					} catch (final InterruptedException e) {
+						LOGGER.logError(e);
 					}
-					while (configurationBuilderJob.getStatus() == JobStatus.RUNNING) {
-						monitor.setTaskName(getTaskName());
-						if (monitor.isCanceled()) {
-							cancelGenerationJobs();
-							configurationBuilderJob.cancel();
-							return;
-						}
-						try {
-							Thread.sleep(150);
-						} catch (final InterruptedException e) {
-							LOGGER.logError(e);
-						}
+				}
+				while (configurationBuilderJob.getStatus() == JobStatus.RUNNING) {
+					monitor.setTaskName(getTaskName());
+					if (monitor.isCanceled()) {
+						cancelGenerationJobs();
+						configurationBuilderJob.cancel();
+						return;
 					}
-					System.err.println(configurationBuilderJob.getStatus());
-
-					if (!sorter.isSorted()) {
-						final IMonitor workMonitor = new ProgressMonitor(getTaskName(), monitor);
-						configurationNumber = Math.min(configurationNumber, sorter.sortConfigurations(workMonitor));
+					try {
+						Thread.sleep(150);
+					} catch (final InterruptedException e) {
+						LOGGER.logError(e);
 					}
-					finish();
+				}
+				if (!sorter.isSorted()) {
+					final IMonitor workMonitor = new ProgressMonitor(getTaskName(), monitor);
+					configurationNumber = Math.min(configurationNumber, sorter.sortConfigurations(workMonitor));
+				}
+				finish();
 
-					((SubMonitor) monitor).setWorkRemaining((int) configurationNumber - built);
-					while (!generatorJobs.isEmpty()) {
-						try {
-							if (monitor.isCanceled()) {
-								cancelGenerationJobs();
-								break;
-							}
-							final Generator generator = generatorJobs.get(0);
-							if (generator == null) {
-								// generator can never be null, however see #416
-								generatorJobs.remove(0);
-							} else if (generator.getState() == Thread.State.TERMINATED) {
-								generatorJobs.remove(generator);
-								if (sorter.getBufferSize() != 0) {
-									createNewGenerator(generator.nr);
-								}
-							}
-							monitor.setTaskName(getTaskName());
-							Thread.sleep(150);
-						} catch (final InterruptedException e) {
-							LOGGER.logError(e);
-						} catch (final IndexOutOfBoundsException e) {
-							// nothing here
+				((SubMonitor) monitor).setWorkRemaining((int) configurationNumber - built);
+				try {
+					while (!pipeline.await(150, TimeUnit.MILLISECONDS)) {
+						if (monitor.isCanceled()) {
+							cancelGenerationJobs();
+							break;
 						}
+						monitor.setTaskName(getTaskName());
 					}
+				} catch (final InterruptedException e) {
+					LOGGER.logError(e);
+				}
 
-					final long duration = System.currentTimeMillis() - time;
-					final long s = (duration / 1000) % 60;
-					final long min = (duration / (60 * 1000)) % 60;
-					final long h = duration / (60 * 60 * 1000);
-					final String t = h + "h " + (min < 10 ? "0" + min : min) + "min " + (s < 10 ? "0" + s : s) + "s.";
+				final long duration = System.currentTimeMillis() - time;
+				final long s = (duration / 1000) % 60;
+				final long min = (duration / (60 * 1000)) % 60;
+				final long h = duration / (60 * 60 * 1000);
+				final String t = h + "h " + (min < 10 ? "0" + min : min) + "min " + (s < 10 ? "0" + s : s) + "s.";
 
-					if (built > configurationNumber) {
-						built = (int) configurationNumber;
-					}
-					LOGGER.logInfo(built + (configurationNumber != 0 ? OF + configurationNumber : "") + " configurations built in " + t);
-				} finally {
-					generatorJobs.clear();
+				if (built > configurationNumber) {
+					built = (int) configurationNumber;
+				}
+				LOGGER.logInfo(built + (configurationNumber != 0 ? OF + configurationNumber : "") + " configurations built in " + t);
+				for (final StageStatistics statistics : pipeline.getStatistics()) {
+					LOGGER.logInfo(statistics.toString());
+				}
+				if ((compilationCache.getHits() + compilationCache.getMisses()) > 0) {
+					LOGGER.logInfo(compilationCache.toString());
 				}
 			}
 
@@ -489,48 +459,74 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 	}
 
 	/**
-	 * Creates new {@link Generator}s
-	 *
-	 * @param count The amount of Generators that will be created.
+	 * Creates the build pipeline: sample -> compose -> compile -> test.<br> The compose stage is processed in parallel only if the composer supports it.
+	 * The compile and test stages are only added for Java projects whose products are built into the folder of this builder.
 	 */
-	private void newgeneratorJobs(int count) {
-		if (count < 1) {
-			return;
+	private Pipeline<BuilderConfiguration> createPipeline() {
+		final int workers = Math.max(1, Integer.getInteger(PIPELINE_WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+		final boolean runTestStage = runTests && Generator.JUNIT_INSTALLED;
+		JavaCompiler javaCompiler = null;
+		if (!createNewProjects) {
+			try {
+				if (featureProject.getProject().hasNature(Generator.JAVA_NATURE)) {
+					javaCompiler = new JavaCompiler(this, runTestStage ? 2 * workers : workers, compilationCache);
+				}
+			} catch (final CoreException e) {
+				LOGGER.logError(e);
+			}
 		}
+		final JavaCompiler compiler = javaCompiler;
 
-		if (count == 1) {
-			createNewGenerator(0);
-			return;
-		}
+		final Pipeline<BuilderConfiguration> pipeline = new Pipeline<BuilderConfiguration>(STAGE_SAMPLE, new Pipeline.ISource<BuilderConfiguration>() {
 
-		for (; count > 0; count--) {
-			createNewGenerator(count);
-		}
-	}
+			@Override
+			public BuilderConfiguration next() throws InterruptedException {
+				return sorter.takeConfiguration();
+			}
+		}, PIPELINE_CAPACITY) {
 
-	/**
-	 * Created a new {@link Generator} with the given number
-	 *
-	 * @param nr
-	 */
-	void createNewGenerator(int nr) {
-		final Generator g = new Generator(nr, this);
-		generatorJobs.add(g);
-		g.start();
+			@Override
+			protected void completed(BuilderConfiguration configuration) {
+				if (compiler != null) {
+					compiler.release(configuration);
+				}
+				builtConfiguration();
+			}
+
+			@Override
+			protected void failed(String stage, BuilderConfiguration configuration, Exception exception) {
+				if (compiler != null) {
+					compiler.release(configuration);
+				}
+				LOGGER.logError(ERROR_IN_CONFIGURATION + configuration, exception);
+			}
+		};
+		pipeline.addStage(STAGE_COMPOSE, featureProject.getComposer().canGeneratInParallelJobs() ? workers : 1, new Generator(this));
+		if (compiler != null) {
+			pipeline.addStage(STAGE_COMPILE, workers, compiler);
+			if (runTestStage) {
+				final TestRunner testRunner = new TestRunner(testResults, this);
+				pipeline.addStage(STAGE_TEST, testRunner.getParallelism(), testRunner);
+			}
+		}
+		return pipeline;
 	}
 
 	/**
-	 * This is called if the main job is canceled and all {@link Builder} and {@link JavaCompiler} should finish.
+	 * This is called if the main job is canceled and all stages of the {@link Pipeline} should finish.
 	 */
 	public void cancelGenerationJobs() {
-		cancelGeneratorJobs = true;
+		final Pipeline<BuilderConfiguration> pipeline = this.pipeline;
+		if (pipeline != null) {
+			pipeline.cancel();
+		}
 	}
 
 	/**
 	 * This is called if the main job has finished and no more configurations will be added.
 	 */
 	public void finish() {
-		finish = true;
+		sorter.finish();
 	}
 
 	/**
@@ -20,16 +20,11 @@
  */
 package de.ovgu.featureide.ui.actions.generator;
 
-import static de.ovgu.featureide.fm.core.localization.StringTable.ERROR_IN_CONFIGURATION;
 import static de.ovgu.featureide.fm.core.localization.StringTable.RESTRICTION;
-import static de.ovgu.featureide.fm.core.localization.StringTable.THE_GENERATOR_NR_;
-import static de.ovgu.featureide.fm.core.localization.StringTable.WILL_BE_RESTARTED_;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.annotation.CheckForNull;
-
 import org.eclipse.core.internal.resources.Workspace;
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IContainer;
@@ -42,7 +37,6 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.core.ClasspathEntry;
@@ -56,144 +50,61 @@ import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.ui.UIPlugin;
 
 /**
- * This {@link Job} builds all configurations of the corresponding {@link ConfigurationBuilder}
+ * Composes the products of the corresponding {@link ConfigurationBuilder}.<br> This is the compose stage of the build {@link Pipeline}.
  *
  * @author Jens Meinicke
  */
 @SuppressWarnings(RESTRICTION)
-public class Generator extends Thread implements IConfigurationBuilderBasics {
+public class Generator implements IConfigurationBuilderBasics, Pipeline.IStage<BuilderConfiguration> {
 
 	protected static final String JAVA_NATURE = "org.eclipse.jdt.core.javanature";
 
-	/**
-	 * A counter that shows how many configurations are built by this job
-	 */
-	int generated = 0;
-
 	/**
 	 * The builder containing this job
 	 */
 	ConfigurationBuilder builder;
 
-	/**
-	 * The number of this job.
-	 */
-	public int nr;
-
-	@CheckForNull
-	private JavaCompiler compiler;
-
-	private TestRunner testRunner;
-
-	private BuilderConfiguration configuration;
-
-	private static boolean JUNIT_INSTALLED = Platform.getBundle("org.junit") != null;
+	static final boolean JUNIT_INSTALLED = Platform.getBundle("org.junit") != null;
 
 	/**
-	 *
-	 * @param nr The number of the job
 	 * @param builder The {@link ConfigurationBuilder} containing the {@link Generator}
 	 */
-	public Generator(int nr, ConfigurationBuilder builder) {
-		this.nr = nr;
+	public Generator(ConfigurationBuilder builder) {
 		this.builder = builder;
-		if (!builder.createNewProjects) {
-			try {
-				if (builder.featureProject.getProject().hasNature(JAVA_NATURE)) {
-					compiler = new JavaCompiler(nr, this);
-					if (JUNIT_INSTALLED) {
-						testRunner = new TestRunner(compiler.tmp, builder.testResults, builder);
-					}
-				}
-			} catch (final CoreException e) {
-				UIPlugin.getDefault().logError(e);
-			} catch (final Exception e2) {
-				System.out.println(e2);
-			} catch (final Error e3) {
-				System.out.println(e3);
-			}
-		}
 	}
 
 	/**
-	 * Generates the configurations of CongfigurationBuilder.configurations
+	 * Generates the given configuration either into the folder of the builder or into a new project.
 	 */
 	@Override
-	public void run() {
-		try {
-			while (true) {
-				synchronized (this) {
-					if (builder.cancelGeneratorJobs) {
-						builder.generatorJobs.remove(this);
-						return;
-					}
-					if (builder.sorter.getBufferSize() == 0) {
-						while ((builder.sorter.getBufferSize() == 0) || !builder.sorter.isSorted()) {
-							/** the job waits for a new configuration to build **/
-							try {
-								Thread.sleep(1000);
-								if (((builder.sorter.getBufferSize() == 0) && builder.finish) || builder.cancelGeneratorJobs) {
-									return;
-								}
-							} catch (final InterruptedException e) {
-								UIPlugin.getDefault().logError(e);
-							}
-						}
-					}
-				}
-				configuration = builder.getConfiguration();
-				if (configuration == null) {
-					continue;
-				}
-				final String name = configuration.getName();
-				if (builder.createNewProjects) {
-					final String separator;
-					switch (builder.buildType) {
-					case ALL_CURRENT:
-						separator = SEPARATOR_CONFIGURATION;
-						break;
-					case ALL_VALID:
-						separator = SEPARATOR_VARIANT;
-						break;
-					case INTEGRATION:
-						separator = SEPARATOR_INTEGRATION;
-						break;
-					case RANDOM:
-						separator = SEPARATOR_RANDOM;
-						break;
-					case T_WISE:
-						separator = SEPARATOR_T_WISE;
-						break;
-					default:
-						throw new RuntimeException(builder.buildType + " not supported");
-					}
-					buildConfiguration(builder.featureProject.getProjectName() + separator + name, configuration);
-				} else {
-					builder.featureProject.getComposer().buildConfiguration(builder.folder.getFolder(name), configuration, name);
-				}
-
-				if (compiler != null) {
-					compiler.compile(configuration);
-					if (builder.runTests) {
-						if (JUNIT_INSTALLED) {
-							testRunner.runTests(configuration);
-						}
-					}
-				}
-
-				builder.builtConfiguration();
+	public boolean process(BuilderConfiguration configuration) {
+		final String name = configuration.getName();
+		if (builder.createNewProjects) {
+			final String separator;
+			switch (builder.buildType) {
+			case ALL_CURRENT:
+				separator = SEPARATOR_CONFIGURATION;
+				break;
+			case ALL_VALID:
+				separator = SEPARATOR_VARIANT;
+				break;
+			case INTEGRATION:
+				separator = SEPARATOR_INTEGRATION;
+				break;
+			case RANDOM:
+				separator = SEPARATOR_RANDOM;
+				break;
+			case T_WISE:
+				separator = SEPARATOR_T_WISE;
+				break;
+			default:
+				throw new RuntimeException(builder.buildType + " not supported");
 			}
-		} catch (final Exception e) {
-			UIPlugin.getDefault().logError(ERROR_IN_CONFIGURATION + configuration, e);
-			/**
-			 * If there is any build error the configuration will be built again. And because this job is terminated a new one will be created.
-			 */
-			UIPlugin.getDefault().logWarning(THE_GENERATOR_NR_ + nr + WILL_BE_RESTARTED_);
-			builder.createNewGenerator(nr);
-		} finally {
-			builder.generatorJobs.remove(this);
+			buildConfiguration(builder.featureProject.getProjectName() + separator + name, configuration);
+		} else {
+			builder.featureProject.getComposer().buildConfiguration(builder.folder.getFolder(name), configuration, name);
 		}
-		return;
+		return true;
 	}
 
 	/**
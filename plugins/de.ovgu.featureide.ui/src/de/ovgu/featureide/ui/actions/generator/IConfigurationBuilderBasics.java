@@ -108,6 +108,40 @@ public interface IConfigurationBuilderBasics {
 	String SEPARATOR_RANDOM = "_r.";
 	String SEPARATOR_INTEGRATION = "_i.";
 
+	/**
+	 * Names of the stages of the build {@link Pipeline}.
+	 */
+	String STAGE_SAMPLE = "sample";
+	String STAGE_COMPOSE = "compose";
+	String STAGE_COMPILE = "compile";
+	String STAGE_TEST = "test";
+
+	/**
+	 * The capacity of the queues between the stages of the build {@link Pipeline}.
+	 */
+	int PIPELINE_CAPACITY = 16;
+
+	/**
+	 * System property to set the number of workers per stage of the build {@link Pipeline} (default: number of available processors).
+	 */
+	String PIPELINE_WORKERS_PROPERTY = "de.ovgu.featureide.ui.build.workers";
+
+	/**
+	 * The maximal size of the class files kept by the {@link CompilationCache} of a build (in bytes).
+	 */
+	long COMPILATION_CACHE_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * System property to set the number of configurations whose tests are run at the same time (default: number of available processors).
+	 */
+	String TEST_WORKERS_PROPERTY = "de.ovgu.featureide.ui.test.workers";
+
+	/**
+	 * System property to set the timeout for a single test in milliseconds (default: {@link #DEFAULT_TEST_TIMEOUT}).
+	 */
+	String TEST_TIMEOUT_PROPERTY = "de.ovgu.featureide.ui.test.timeout";
+	long DEFAULT_TEST_TIMEOUT = 60000;
+
 	/**
 	 * Basics for the SPLCATool.
 	 */
@@ -115,4 +149,9 @@ public interface IConfigurationBuilderBasics {
 	int ICPL_MAX = 3;
 	int CASA_MAX = 6;
 	int MASK_MAX = 2;
+
+	/**
+	 * Maximal interaction strength of the IncLing t-wise sampling.
+	 */
+	int INCLING_MAX = 4;
 }
@@ -24,13 +24,20 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.CANNOT_FIND_SY
 import static de.ovgu.featureide.fm.core.localization.StringTable.COMPILER;
 import static de.ovgu.featureide.fm.core.localization.StringTable.SYMBOL;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Scanner;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,96 +46,136 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.compiler.batch.BatchCompiler;
 
 import de.ovgu.featureide.ui.UIPlugin;
+import de.ovgu.featureide.ui.actions.generator.CompilationCache.ICompiler;
+import de.ovgu.featureide.ui.actions.generator.CompilationCache.Source;
 
 /**
- * This {@link Job} compiles all configurations of the corresponding {@link Generator}
+ * Compiles the generated products of the corresponding {@link ConfigurationBuilder}.<br> This is the compile stage of the build {@link Pipeline}. The
+ * binary files are placed into one of several temporary folders that is kept by the configuration until it is {@link #release(BuilderConfiguration)
+ * released}, e.g., after its tests were run.<br> Source files that did not change since a previous product are not compiled again, instead their class
+ * files are taken from the {@link CompilationCache} shared by all workers.
  *
  * @author Jens Meinicke
  */
-public class JavaCompiler implements IConfigurationBuilderBasics {
+public class JavaCompiler implements IConfigurationBuilderBasics, Pipeline.IStage<BuilderConfiguration> {
 
-	private final Generator generator;
+	private final ConfigurationBuilder builder;
 
 	/**
-	 * The parent folder of the generated variants
+	 * The temporary folders that are currently not used by any configuration.
 	 */
-	final IFolder tmp;
+	private final BlockingQueue<IFolder> folders;
+
+	private final CompilationCache cache;
 
 	/**
 	 *
-	 * @param nr The number of the compiler
-	 * @param generator The generator holding this compiler
+	 * @param builder The builder holding this compiler
+	 * @param numberOfFolders The number of temporary folders, i.e., the maximal number of configurations that keep compiled classes at the same time
+	 * @param cache The cache for the class files of all products
 	 */
-	public JavaCompiler(int nr, Generator generator) {
-		this.generator = generator;
-
-		tmp = generator.builder.tmp.getFolder(COMPILER + nr);
-		if (!tmp.exists()) {
-			try {
-				tmp.create(true, true, null);
-			} catch (final CoreException e) {
-				UIPlugin.getDefault().logError(e);
+	public JavaCompiler(ConfigurationBuilder builder, int numberOfFolders, CompilationCache cache) {
+		this.builder = builder;
+		this.cache = cache;
+		folders = new ArrayBlockingQueue<>(numberOfFolders);
+		for (int nr = 0; nr < numberOfFolders; nr++) {
+			final IFolder tmp = builder.tmp.getFolder(COMPILER + nr);
+			if (!tmp.exists()) {
+				try {
+					tmp.create(true, true, null);
+				} catch (final CoreException e) {
+					UIPlugin.getDefault().logError(e);
+				}
 			}
+			folders.add(tmp);
 		}
-
 	}
 
 	/**
-	 * Compiles the given configuration.
+	 * Compiles the given configuration into a free temporary folder. Waits if all folders are in use.
 	 *
 	 * @param configuration The configuration to build
-	 * @throws CoreException
 	 */
-	protected void compile(BuilderConfiguration configuration) throws CoreException {
+	@Override
+	public boolean process(BuilderConfiguration configuration) throws CoreException, InterruptedException {
+		final IFolder tmp = folders.take();
+		configuration.binFolder = tmp;
 		try {
-			generator.builder.folder.getFolder(configuration.getName()).refreshLocal(IResource.DEPTH_INFINITE, null);
+			builder.folder.getFolder(configuration.getName()).refreshLocal(IResource.DEPTH_INFINITE, null);
 		} catch (final CoreException e) {
 			UIPlugin.getDefault().logError(e);
 		}
-		for (final IResource file : tmp.members()) {
-			file.delete(true, null);
+		compile(configuration.getName(), tmp);
+		tmp.refreshLocal(IResource.DEPTH_INFINITE, null);
+		return true;
+	}
+
+	/**
+	 * Returns the temporary folder of the given configuration.
+	 */
+	void release(BuilderConfiguration configuration) {
+		final IFolder tmp = configuration.binFolder;
+		if (tmp != null) {
+			configuration.binFolder = null;
+			folders.add(tmp);
 		}
-		compile(configuration.getName());
 	}
 
 	/**
-	 * Compiles the built configuration to create error markers. The binary files will be placed into an temporary folder.
+	 * Compiles the built configuration to create error markers. The binary files will be placed into the given temporary folder.
 	 *
 	 * @param confName
+	 * @param tmp
 	 */
-	private void compile(String confName) {
-		final LinkedList<IFile> files = getJavaFiles(generator.builder.folder.getFolder(confName));
-		final LinkedList<String> options = new LinkedList<>();
-		for (final IFile file : files) {
-			options.add(setupPath(file));
+	private void compile(String confName, IFolder tmp) {
+		final LinkedList<IFile> files = getJavaFiles(builder.folder.getFolder(confName));
+		final List<Source> sources = new ArrayList<>(files.size());
+		try {
+			for (final IFile file : files) {
+				final String location = file.getRawLocation().toOSString();
+				sources.add(new Source(location, Files.readAllBytes(Paths.get(location))));
+			}
+		} catch (final IOException e) {
+			UIPlugin.getDefault().logError(e);
+			return;
 		}
-		options.add("-g");
-		options.add("-Xlint");
-		options.add("-source");
-		options.add("1.7");
-		options.add("-d");
-		options.add(setupPath(tmp.getRawLocation().toOSString()));
-		options.add("-classpath");
-		options.add(generator.builder.classpath);
+		final String outputFolder = tmp.getRawLocation().toOSString();
+		final String classpath = builder.classpath.isEmpty() ? setupPath(outputFolder) : builder.classpath + File.pathSeparator + setupPath(outputFolder);
+
+		final String output;
+		try {
+			output = cache.compile(sources, new File(outputFolder), new ICompiler() {
 
-		final String output = process(options);
+				@Override
+				public String compile(List<Source> sources) {
+					final LinkedList<String> options = new LinkedList<>();
+					for (final Source source : sources) {
+						options.add(setupPath(source.getPath()));
+					}
+					options.add("-g");
+					options.add("-Xlint");
+					options.add("-source");
+					options.add("1.7");
+					options.add("-d");
+					options.add(setupPath(outputFolder));
+					options.add("-classpath");
+					options.add(classpath);
+					return process(options);
+				}
+			});
+		} catch (final Exception e) {
+			UIPlugin.getDefault().logError(e);
+			return;
+		}
 		final LinkedList<IFile> errorFiles = parseJavacOutput(output, files, confName);
 		for (final IFile file : errorFiles) {
-			generator.builder.featureProject.getComposer().postCompile(null, file);
+			builder.featureProject.getComposer().postCompile(null, file);
 		}
 	}
 
-	/**
-	 * Adds quotation marks to the path name if it contains white spaces.
-	 */
-	private String setupPath(IFile file) {
-		return setupPath(file.getRawLocation().toOSString());
-	}
-
 	/**
 	 * Adds quotation marks to the path name if it contains white spaces.
 	 */
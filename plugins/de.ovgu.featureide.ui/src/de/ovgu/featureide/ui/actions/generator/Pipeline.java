@@ -0,0 +1,403 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * A sequence of stages that process elements concurrently.<br> The elements are taken from a {@link ISource source} and passed through all stages in
+ * the order in which the stages were added. Consecutive stages are connected by bounded queues, so a slow stage blocks its predecessors instead of
+ * buffering an arbitrary number of elements. Each stage is processed by a fixed number of workers of one thread pool. Idle workers block on their
+ * queue and are woken up as soon as there is something to do.
+ *
+ * @param <T> the type of the processed elements
+ *
+ * @see ConfigurationBuilder
+ */
+public class Pipeline<T> {
+
+	/**
+	 * Provides the elements of a pipeline.
+	 */
+	public static interface ISource<T> {
+
+		/**
+		 * Blocks until the next element is available.
+		 *
+		 * @return the next element or {@code null} if there are no more elements
+		 */
+		@CheckForNull
+		T next() throws InterruptedException;
+
+	}
+
+	/**
+	 * Processes the elements of one stage. Must be thread safe if the stage has more than one worker.
+	 */
+	public static interface IStage<T> {
+
+		/**
+		 * @return {@code true} if the element should be passed to the next stage
+		 */
+		boolean process(T element) throws Exception;
+
+	}
+
+	/**
+	 * Throughput and latency of one stage.
+	 */
+	public static class StageStatistics {
+
+		private final String name;
+		private final int workers;
+
+		private final AtomicLong processed = new AtomicLong();
+		private final AtomicLong failed = new AtomicLong();
+		private final AtomicLong processingTime = new AtomicLong();
+		private final AtomicLong latency = new AtomicLong();
+		private final AtomicLong maxLatency = new AtomicLong();
+
+		private volatile long startTime = 0;
+		private volatile long endTime = 0;
+
+		StageStatistics(String name, int workers) {
+			this.name = name;
+			this.workers = workers;
+		}
+
+		void record(long processingTime, long latency, boolean success) {
+			processed.incrementAndGet();
+			if (!success) {
+				failed.incrementAndGet();
+			}
+			this.processingTime.addAndGet(processingTime);
+			this.latency.addAndGet(latency);
+			long max = maxLatency.get();
+			while ((latency > max) && !maxLatency.compareAndSet(max, latency)) {
+				max = maxLatency.get();
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getWorkers() {
+			return workers;
+		}
+
+		/**
+		 * @return the number of elements processed by this stage (including failed elements)
+		 */
+		public long getProcessed() {
+			return processed.get();
+		}
+
+		public long getFailed() {
+			return failed.get();
+		}
+
+		/**
+		 * @return processed elements per second since the start of the pipeline
+		 */
+		public double getThroughput() {
+			if (startTime == 0) {
+				return 0;
+			}
+			final long time = (endTime == 0 ? System.nanoTime() : endTime) - startTime;
+			return time <= 0 ? 0 : (processed.get() * 1e9) / time;
+		}
+
+		/**
+		 * @return the average time in milliseconds a worker spent on one element
+		 */
+		public double getAverageProcessingTime() {
+			final long count = processed.get();
+			return count == 0 ? 0 : processingTime.get() / (count * 1e6);
+		}
+
+		/**
+		 * @return the average time in milliseconds from the arrival of an element in the queue of this stage until it was processed
+		 */
+		public double getAverageLatency() {
+			final long count = processed.get();
+			return count == 0 ? 0 : latency.get() / (count * 1e6);
+		}
+
+		/**
+		 * @return the maximal time in milliseconds from the arrival of an element in the queue of this stage until it was processed
+		 */
+		public double getMaxLatency() {
+			return maxLatency.get() / 1e6;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ENGLISH, "%s (%d workers): %d processed, %d failed, %.2f/s, latency avg %.1f ms / max %.1f ms, processing avg %.1f ms",
+					name, workers, getProcessed(), getFailed(), getThroughput(), getAverageLatency(), getMaxLatency(), getAverageProcessingTime());
+		}
+
+	}
+
+	private static final class Item<T> {
+
+		private final T element;
+		private long enqueueTime;
+
+		private Item(T element) {
+			this.element = element;
+		}
+
+	}
+
+	private final class Stage {
+
+		private final IStage<T> stage;
+		private final StageStatistics statistics;
+		private final BlockingQueue<Item<T>> queue;
+		private final AtomicInteger activeWorkers;
+
+		private Stage next = null;
+
+		private Stage(String name, int workers, IStage<T> stage) {
+			this.stage = stage;
+			statistics = new StageStatistics(name, workers);
+			queue = new ArrayBlockingQueue<>(capacity);
+			activeWorkers = new AtomicInteger(workers);
+		}
+
+		private void work() throws InterruptedException {
+			while (!canceled) {
+				final Item<T> item = queue.take();
+				if (item.element == null) {
+					queue.put(item);
+					if (activeWorkers.decrementAndGet() == 0) {
+						statistics.endTime = System.nanoTime();
+						forward(next, item);
+					}
+					return;
+				}
+				final long startTime = System.nanoTime();
+				boolean success = false;
+				boolean pass = false;
+				try {
+					pass = stage.process(item.element);
+					success = true;
+				} catch (final InterruptedException e) {
+					throw e;
+				} catch (final Exception e) {
+					failed(statistics.getName(), item.element, e);
+				}
+				final long endTime = System.nanoTime();
+				statistics.record(endTime - startTime, endTime - item.enqueueTime, success);
+				if (pass) {
+					forward(next, item);
+				}
+			}
+		}
+
+	}
+
+	private final Item<T> end = new Item<>(null);
+
+	private final ISource<T> source;
+	private final StageStatistics sourceStatistics;
+	private final int capacity;
+	private final List<Stage> stages = new ArrayList<>();
+
+	private final CountDownLatch terminated = new CountDownLatch(1);
+
+	private ExecutorService executor = null;
+	private volatile boolean canceled = false;
+
+	/**
+	 * @param name the name of the source stage
+	 * @param source provides the elements to process
+	 * @param capacity the capacity of the queue in front of each stage
+	 */
+	public Pipeline(String name, ISource<T> source, int capacity) {
+		this.source = source;
+		this.capacity = capacity;
+		sourceStatistics = new StageStatistics(name, 1);
+	}
+
+	/**
+	 * Appends a new stage. Must be called before {@link #start()}.
+	 *
+	 * @param name the name of the stage
+	 * @param workers the number of threads that process this stage (values less than 1 are treated as 1)
+	 * @param stage processes the elements
+	 * @return this pipeline
+	 */
+	public Pipeline<T> addStage(String name, int workers, IStage<T> stage) {
+		if (executor != null) {
+			throw new IllegalStateException("Pipeline already started");
+		}
+		final Stage newStage = new Stage(name, Math.max(1, workers), stage);
+		if (!stages.isEmpty()) {
+			stages.get(stages.size() - 1).next = newStage;
+		}
+		stages.add(newStage);
+		return this;
+	}
+
+	/**
+	 * Starts the source and all workers.
+	 */
+	public synchronized void start() {
+		if (executor != null) {
+			throw new IllegalStateException("Pipeline already started");
+		}
+		int threads = 1;
+		for (final Stage stage : stages) {
+			threads += stage.statistics.getWorkers();
+		}
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "Pipeline worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		final long startTime = System.nanoTime();
+		sourceStatistics.startTime = startTime;
+		for (final Stage stage : stages) {
+			stage.statistics.startTime = startTime;
+		}
+
+		final Stage first = stages.isEmpty() ? null : stages.get(0);
+		executor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					long startTime = System.nanoTime();
+					for (T element = source.next(); element != null; element = source.next()) {
+						final Item<T> item = new Item<>(element);
+						final long endTime = System.nanoTime();
+						sourceStatistics.record(endTime - startTime, endTime - startTime, true);
+						forward(first, item);
+						startTime = System.nanoTime();
+					}
+					sourceStatistics.endTime = System.nanoTime();
+					forward(first, end);
+				} catch (final InterruptedException e) {
+					// canceled
+				}
+			}
+		});
+		for (final Stage stage : stages) {
+			for (int i = 0; i < stage.statistics.getWorkers(); i++) {
+				executor.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							stage.work();
+						} catch (final InterruptedException e) {
+							// canceled
+						}
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * Passes the item to the given stage or completes it if there is no further stage.
+	 */
+	private void forward(@CheckForNull Stage stage, Item<T> item) throws InterruptedException {
+		if (stage != null) {
+			item.enqueueTime = System.nanoTime();
+			stage.queue.put(item);
+		} else if (item.element != null) {
+			completed(item.element);
+		} else {
+			terminated.countDown();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Waits until all elements are processed or the pipeline is canceled.
+	 *
+	 * @return {@code true} if the pipeline has terminated, {@code false} if the timeout elapsed before
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		return terminated.await(timeout, unit);
+	}
+
+	/**
+	 * Stops the source and all workers. Elements that are currently processed are not passed to the next stage.
+	 */
+	public synchronized void cancel() {
+		canceled = true;
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		terminated.countDown();
+	}
+
+	public boolean isCanceled() {
+		return canceled;
+	}
+
+	/**
+	 * @return the statistics of the source and of all stages in the order of the pipeline
+	 */
+	public List<StageStatistics> getStatistics() {
+		final List<StageStatistics> statistics = new ArrayList<>(stages.size() + 1);
+		statistics.add(sourceStatistics);
+		for (final Stage stage : stages) {
+			statistics.add(stage.statistics);
+		}
+		return Collections.unmodifiableList(statistics);
+	}
+
+	/**
+	 * Called after the element has passed the last stage.
+	 */
+	protected void completed(T element) {}
+
+	/**
+	 * Called if a stage throws an exception for the given element. The element is not passed to the next stage.
+	 */
+	protected void failed(String stage, T element, Exception exception) {}
+
+}
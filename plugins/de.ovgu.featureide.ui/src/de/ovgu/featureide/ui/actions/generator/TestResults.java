@@ -28,7 +28,8 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
- * Representation of all test runs.
+ * Representation of all test runs.<br> Tests of several configurations may be added concurrently, the {@link TestXMLWriter} reads the results while holding
+ * the lock of this object.
  *
  * @author Jens Meinicke
  */
@@ -52,7 +53,20 @@ public class TestResults {
 		this.name = name;
 	}
 
-	public void addTest(String klass, String configuration, Test test) {
+	/**
+	 * Registers a module test, which is only run for the first configuration.
+	 *
+	 * @return {@code true} iff the test was not registered before
+	 */
+	public synchronized boolean addModuleTest(String klass) {
+		return modulTests.add(klass);
+	}
+
+	public synchronized void addIgnored() {
+		ignored++;
+	}
+
+	public synchronized void addTest(String klass, String configuration, Test test) {
 		if (test.failure != null) {
 			failures++;
 		}
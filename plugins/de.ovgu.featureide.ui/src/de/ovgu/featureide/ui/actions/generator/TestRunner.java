@@ -22,16 +22,12 @@ package de.ovgu.featureide.ui.actions.generator;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.IS_NO_XML_FILE;
 import static de.ovgu.featureide.fm.core.localization.StringTable.OPEN;
-import static de.ovgu.featureide.fm.core.localization.StringTable.RESOURCE;
 import static de.ovgu.featureide.fm.core.localization.StringTable.RESTRICTION;
-import static de.ovgu.featureide.fm.core.localization.StringTable.SERIAL;
 
 import java.io.File;
 import java.lang.annotation.Annotation;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
-import java.security.Permission;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -58,9 +54,7 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.FileEditorInput;
 import org.eclipse.ui.progress.UIJob;
 import org.junit.runner.Description;
-import org.junit.runner.JUnitCore;
 import org.junit.runner.notification.Failure;
-import org.junit.runner.notification.RunListener;
 
 import de.ovgu.featureide.core.CorePlugin;
 import de.ovgu.featureide.core.IFeatureProject;
@@ -68,99 +62,75 @@ import de.ovgu.featureide.ui.UIPlugin;
 import de.ovgu.featureide.ui.actions.generator.IConfigurationBuilderBasics.BuildType;
 
 /**
- * Runs test cases of the generated product.
+ * Runs test cases of the generated product.<br> This is the test stage of the build {@link Pipeline}. The tests are loaded from the folder the
+ * {@link JavaCompiler} compiled the configuration into and executed by a {@link VariantTestExecutor}, so that the tests of several configurations run
+ * concurrently. The results are added to the {@link TestResults} as soon as a test is finished.
  *
  * @author Jens Meinicke
  */
 @SuppressWarnings(RESTRICTION)
-public class TestRunner {
+public class TestRunner implements IConfigurationBuilderBasics, Pipeline.IStage<BuilderConfiguration> {
 
-	private static final Object KEY = new Object();
 	private final TestResults testResults;
 	private static final UIPlugin LOGGER = UIPlugin.getDefault();
 	int compiled = 0;
 
-	private final IFolder tmp;
 	private final ConfigurationBuilder builder;
 
-	public TestRunner(IFolder tmp, TestResults testResults, final ConfigurationBuilder builder) {
-		this.tmp = tmp;
+	private final VariantTestExecutor executor;
+
+	public TestRunner(TestResults testResults, final ConfigurationBuilder builder) {
 		this.testResults = testResults;
 		this.builder = builder;
-
+		executor = new VariantTestExecutor(Integer.getInteger(TEST_WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+				Long.getLong(TEST_TIMEOUT_PROPERTY, DEFAULT_TEST_TIMEOUT), Thread.currentThread().getContextClassLoader());
 	}
 
-	@SuppressWarnings(RESOURCE)
-	public void runTests(final BuilderConfiguration configuration) {
-		final URL[] url = getURLs();
-		final URLClassLoader classLoader = new URLClassLoader(url, Thread.currentThread().getContextClassLoader());
-		for (final String file : getFiles(tmp)) {
-			try {
-				final Class<?> clazz = classLoader.loadClass(file);
-
-				if (isModuleTest(clazz)) {
-					synchronized (KEY) {
-						if (testResults.modulTests.contains(clazz.getName())) {
-							continue;
-						} else {
-							testResults.modulTests.add(clazz.getName());
-						}
-					}
-				}
-
-				final JUnitCore core = new JUnitCore();
-				core.addListener(new RunListener() {
-
-					long time = 0;
-
-					@Override
-					public void testStarted(Description description) throws Exception {
-						if (description.toString().startsWith("initializationError")) {
-							return;
-						}
-						time = System.currentTimeMillis();
-					}
+	/**
+	 * @return the maximal number of configurations whose tests are run at the same time
+	 */
+	public int getParallelism() {
+		return executor.getParallelism();
+	}
 
-					@Override
-					public void testFinished(Description description) throws Exception {
-						if (time == -1) {
-							return;
-						}
-						time = System.currentTimeMillis() - time;
-						testResults.addTest(file,
-								(builder.buildType == BuildType.ALL_CURRENT ? "" : IConfigurationBuilderBasics.FOLDER_NAME + "\\") + configuration.getName(),
-								new Test(description.toString(), time, file));
-					}
+	@Override
+	public boolean process(BuilderConfiguration configuration) throws InterruptedException {
+		final IFolder tmp = configuration.binFolder;
+		if (tmp != null) {
+			runTests(configuration, tmp);
+		}
+		return true;
+	}
 
-					@Override
-					public void testFailure(Failure failure) throws Exception {
-						if (failure.getDescription().toString().startsWith("initializationError") || "No runnable methods".equals(failure.getMessage())) {
-							time = -1;
-							return;
-						}
-						time = System.currentTimeMillis() - time;
-						testResults.addTest(file,
-								(builder.buildType == BuildType.ALL_CURRENT ? "" : IConfigurationBuilderBasics.FOLDER_NAME + "\\") + configuration.getName(),
-								new Test(failure.getTestHeader(), time, file, failure));
-						time = -1;
-					}
+	/**
+	 * Runs the tests of the given configuration and writes the results so far into the test.xml file of the project.
+	 */
+	public void runTests(final BuilderConfiguration configuration, IFolder tmp) throws InterruptedException {
+		final String variant = (builder.buildType == BuildType.ALL_CURRENT ? "" : IConfigurationBuilderBasics.FOLDER_NAME + "\\") + configuration.getName();
+		final boolean completed = executor.run(variant, getURLs(tmp), getFiles(tmp), new VariantTestExecutor.ITestListener() {
 
-					@Override
-					public void testIgnored(Description description) throws Exception {
-						testResults.ignored++;
-					}
+			@Override
+			public boolean accept(String variant, Class<?> testClass) {
+				return !isModuleTest(testClass) || testResults.addModuleTest(testClass.getName());
+			}
 
-				});
-				final SecurityManager originalManager = System.getSecurityManager();
-				try {
-					System.setSecurityManager(NO_EXIT_MANAGER);
-					core.run(clazz);
-				} finally {
-					System.setSecurityManager(originalManager);
+			@Override
+			public void testFinished(String variant, String testClass, Description description, long time, Failure failure) {
+				if (description.toString().startsWith("initializationError")
+					|| ((failure != null) && "No runnable methods".equals(failure.getMessage()))) {
+					return;
 				}
-			} catch (final ClassNotFoundException e) {
-				LOGGER.logError(e);
+				testResults.addTest(testClass, variant,
+						failure == null ? new Test(description.toString(), time, testClass) : new Test(failure.getTestHeader(), time, testClass, failure));
+			}
+
+			@Override
+			public void testIgnored(String variant, String testClass, Description description) {
+				testResults.addIgnored();
 			}
+		});
+		if (!completed) {
+			LOGGER.logWarning("Tests of " + variant + " aborted after a test could not be stopped.");
 		}
 
 		final IFeatureProject project = CorePlugin.getFeatureProject(tmp);
@@ -171,7 +141,7 @@ public class TestRunner {
 
 	}
 
-	private URL[] getURLs() {
+	private URL[] getURLs(IFolder tmp) {
 		final ArrayList<URL> urls = new ArrayList<>();
 		try {
 			URL url = tmp.getLocationURI().toURL();
@@ -210,35 +180,6 @@ public class TestRunner {
 		return false;
 	}
 
-	private static final NoExitSecurityManager NO_EXIT_MANAGER = new NoExitSecurityManager();
-
-	private static class NoExitSecurityManager extends SecurityManager {
-
-		@Override
-		public void checkPermission(Permission perm) {
-			// allow anything.
-		}
-
-		@Override
-		public void checkPermission(Permission perm, Object context) {
-			// allow anything.
-		}
-
-		@Override
-		public void checkExit(int status) {
-			super.checkExit(status);
-			throw new SystemExitException(status);
-		}
-	}
-
-	@SuppressWarnings(SERIAL)
-	private static class SystemExitException extends RuntimeException {
-
-		public SystemExitException(int status) {
-			super("Systen.exit: " + status);
-		}
-	}
-
 	private List<String> getFiles(IFolder folder) {
 		try {
 			folder.refreshLocal(IResource.DEPTH_INFINITE, null);
@@ -84,6 +84,21 @@ public class TestXMLWriter implements XMLCoverage {
 	}
 
 	private String createXMLDocument(Document doc) throws TransformerException {
+		synchronized (testResults) {
+			createTestRun(doc);
+		}
+
+		// Transform the Xml Representation into a String
+		final Transformer transfo = TransformerFactory.newInstance().newTransformer();
+		transfo.setOutputProperty(OutputKeys.METHOD, "xml");
+		transfo.setOutputProperty(OutputKeys.INDENT, YES);
+		final StreamResult result = new StreamResult(new StringWriter());
+		final DOMSource source = new DOMSource(doc);
+		transfo.transform(source, result);
+		return prettyPrint(result.getWriter().toString());
+	}
+
+	private void createTestRun(Document doc) {
 		final Element root = doc.createElement(TESTRUN);
 		root.setAttribute(IGNORED, Integer.valueOf(testResults.ignored).toString());
 		root.setAttribute(ERRORS, Integer.valueOf(testResults.errors).toString());
@@ -126,15 +141,6 @@ public class TestXMLWriter implements XMLCoverage {
 			root.appendChild(suite);
 		}
 		doc.appendChild(root);
-
-		// Transform the Xml Representation into a String
-		final Transformer transfo = TransformerFactory.newInstance().newTransformer();
-		transfo.setOutputProperty(OutputKeys.METHOD, "xml");
-		transfo.setOutputProperty(OutputKeys.INDENT, YES);
-		final StreamResult result = new StreamResult(new StringWriter());
-		final DOMSource source = new DOMSource(doc);
-		transfo.transform(source, result);
-		return prettyPrint(result.getWriter().toString());
 	}
 
 	public void writeToFile(File file) throws ParserConfigurationException, TransformerException {
@@ -0,0 +1,381 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import static de.ovgu.featureide.fm.core.localization.StringTable.SERIAL;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Runs the test classes of generated variants.<br> Each variant is loaded by its own class loader and its test classes are run one after another by a
+ * worker of a shared pool, so that the tests of up to {@link #getParallelism()} variants are executed at the same time. A test that runs longer than the
+ * timeout is reported as failed and interrupted. If it does not terminate either, the worker is abandoned and the remaining test classes of the variant are
+ * skipped. Calls to {@link System#exit(int)} are turned into exceptions while tests are running.
+ *
+ * @see TestRunner
+ */
+public class VariantTestExecutor {
+
+	/**
+	 * Receives the results of the tests of a variant as soon as they are available. The methods may be called from different threads concurrently.
+	 */
+	public static interface ITestListener {
+
+		/**
+		 * @return {@code true} iff the given class of the variant should be run
+		 */
+		boolean accept(String variant, Class<?> testClass);
+
+		/**
+		 * @param failure the failure of the test or {@code null} if it succeeded
+		 */
+		void testFinished(String variant, String testClass, Description description, long time, Failure failure);
+
+		void testIgnored(String variant, String testClass, Description description);
+
+	}
+
+	/**
+	 * Runs the test classes of one variant and keeps track of the currently running test.
+	 */
+	private final class VariantRun extends RunListener implements Runnable {
+
+		private final String variant;
+		private final URLClassLoader classLoader;
+		private final Collection<String> testClasses;
+		private final ITestListener listener;
+
+		private String testClass;
+		private Description currentTest;
+		private Failure currentFailure;
+		private long startTime;
+		private boolean timedOut;
+		private volatile boolean abandoned;
+		private boolean finished;
+		private Thread thread;
+
+		private VariantRun(String variant, URLClassLoader classLoader, Collection<String> testClasses, ITestListener listener) {
+			this.variant = variant;
+			this.classLoader = classLoader;
+			this.testClasses = testClasses;
+			this.listener = listener;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				thread = Thread.currentThread();
+			}
+			installExitGuard();
+			try {
+				for (final String className : testClasses) {
+					synchronized (this) {
+						if (abandoned) {
+							return;
+						}
+						testClass = className;
+					}
+					final Class<?> clazz;
+					try {
+						clazz = classLoader.loadClass(className);
+					} catch (ClassNotFoundException | LinkageError e) {
+						continue;
+					}
+					if (listener.accept(variant, clazz)) {
+						final JUnitCore core = new JUnitCore();
+						core.addListener(this);
+						core.run(clazz);
+					}
+				}
+			} finally {
+				uninstallExitGuard();
+				synchronized (this) {
+					finished = true;
+					thread = null;
+					Thread.interrupted();
+					notifyAll();
+				}
+			}
+		}
+
+		@Override
+		public synchronized void testStarted(Description description) {
+			currentTest = description;
+			currentFailure = null;
+			startTime = System.currentTimeMillis();
+			timedOut = false;
+		}
+
+		@Override
+		public void testFailure(Failure failure) {
+			final String className;
+			synchronized (this) {
+				if (failure.getDescription().equals(currentTest)) {
+					if (currentFailure == null) {
+						currentFailure = failure;
+					}
+					return;
+				}
+				if (abandoned) {
+					return;
+				}
+				className = testClass;
+			}
+			// failures outside of a test, e.g., in the initialization of the test class
+			listener.testFinished(variant, className, failure.getDescription(), 0, failure);
+		}
+
+		@Override
+		public void testFinished(Description description) {
+			final String className;
+			final long time;
+			final Failure failure;
+			synchronized (this) {
+				if (!description.equals(currentTest) || abandoned) {
+					return;
+				}
+				className = testClass;
+				time = System.currentTimeMillis() - startTime;
+				failure = currentFailure;
+				currentTest = null;
+			}
+			listener.testFinished(variant, className, description, time, failure);
+		}
+
+		@Override
+		public void testIgnored(Description description) {
+			final String className;
+			synchronized (this) {
+				if (abandoned) {
+					return;
+				}
+				className = testClass;
+			}
+			listener.testIgnored(variant, className, description);
+		}
+
+		/**
+		 * Waits until all test classes were run, interrupting tests that exceed the timeout.
+		 */
+		private void await() throws InterruptedException {
+			Description timedOutTest = null;
+			String timedOutClass = null;
+			synchronized (this) {
+				while (!finished) {
+					final long now = System.currentTimeMillis();
+					if (currentTest == null) {
+						wait(timeout);
+						continue;
+					}
+					final long runningTime = now - startTime;
+					if (!timedOut) {
+						if (runningTime < timeout) {
+							wait(timeout - runningTime);
+							continue;
+						}
+						// report the test once and ask it to stop
+						timedOut = true;
+						currentFailure = new Failure(currentTest, new TimeoutException("Test timed out after " + timeout + " ms"));
+						if (thread != null) {
+							thread.interrupt();
+						}
+					} else if (runningTime < (2 * timeout)) {
+						wait((2 * timeout) - runningTime);
+					} else {
+						timedOutTest = currentTest;
+						timedOutClass = testClass;
+						abandoned = true;
+						break;
+					}
+				}
+			}
+			if (timedOutTest != null) {
+				listener.testFinished(variant, timedOutClass, timedOutTest, 2 * timeout,
+						new Failure(timedOutTest, new TimeoutException("Test timed out after " + timeout + " ms and could not be stopped")));
+			}
+		}
+
+		/**
+		 * Stops reporting results and interrupts the current test.
+		 */
+		private synchronized void abandon() {
+			abandoned = true;
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+
+	}
+
+	private static final NoExitSecurityManager NO_EXIT_MANAGER = new NoExitSecurityManager();
+
+	private static final Object EXIT_GUARD_LOCK = new Object();
+	private static int exitGuardUsers = 0;
+	private static SecurityManager originalManager = null;
+
+	private final int parallelism;
+	private final long timeout;
+	private final ClassLoader parent;
+
+	private final Semaphore permits;
+	private final ExecutorService pool;
+
+	/**
+	 * @param parallelism the maximal number of variants whose tests are run at the same time
+	 * @param timeout the timeout for a single test in milliseconds
+	 * @param parent the parent of the class loaders of the variants, which has to provide JUnit
+	 */
+	public VariantTestExecutor(int parallelism, long timeout, ClassLoader parent) {
+		this.parallelism = Math.max(1, parallelism);
+		this.timeout = Math.max(1, timeout);
+		this.parent = parent;
+		permits = new Semaphore(this.parallelism);
+		pool = Executors.newCachedThreadPool(new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "VariantTestExecutor-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Runs the given test classes of a variant and waits until they are finished. Blocks while the tests of {@link #getParallelism()} other variants
+	 * are running.
+	 *
+	 * @param variant the name of the variant
+	 * @param classpath the class path of the variant
+	 * @param testClasses the names of the classes to run
+	 * @param listener receives the results
+	 * @return {@code false} if the tests were aborted because of a test that could not be stopped
+	 */
+	public boolean run(String variant, URL[] classpath, Collection<String> testClasses, ITestListener listener) throws InterruptedException {
+		permits.acquire();
+		final URLClassLoader classLoader = new URLClassLoader(classpath, parent);
+		final VariantRun run = new VariantRun(variant, classLoader, new ArrayList<>(testClasses), listener);
+		try {
+			pool.execute(run);
+			run.await();
+		} catch (final InterruptedException e) {
+			run.abandon();
+			throw e;
+		} finally {
+			permits.release();
+			if (!run.abandoned) {
+				try {
+					classLoader.close();
+				} catch (final IOException e) {
+					// the loaded classes are released with the class loader anyway
+				}
+			}
+		}
+		return !run.abandoned;
+	}
+
+	/**
+	 * Stops all workers after their current tests.
+	 */
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	private static void installExitGuard() {
+		synchronized (EXIT_GUARD_LOCK) {
+			if (exitGuardUsers++ == 0) {
+				originalManager = System.getSecurityManager();
+				try {
+					System.setSecurityManager(NO_EXIT_MANAGER);
+				} catch (final UnsupportedOperationException e) {
+					// the security manager is not supported by the JVM
+				}
+			}
+		}
+	}
+
+	private static void uninstallExitGuard() {
+		synchronized (EXIT_GUARD_LOCK) {
+			if (--exitGuardUsers == 0) {
+				try {
+					System.setSecurityManager(originalManager);
+				} catch (final UnsupportedOperationException e) {
+					// the security manager is not supported by the JVM
+				}
+				originalManager = null;
+			}
+		}
+	}
+
+	private static class NoExitSecurityManager extends SecurityManager {
+
+		@Override
+		public void checkPermission(Permission perm) {
+			// allow anything.
+		}
+
+		@Override
+		public void checkPermission(Permission perm, Object context) {
+			// allow anything.
+		}
+
+		@Override
+		public void checkExit(int status) {
+			super.checkExit(status);
+			throw new SystemExitException(status);
+		}
+	}
+
+	@SuppressWarnings(SERIAL)
+	private static class SystemExitException extends RuntimeException {
+
+		public SystemExitException(int status) {
+			super("Systen.exit: " + status);
+		}
+	}
+
+}
@@ -20,13 +20,16 @@
  */
 package de.ovgu.featureide.ui.actions.generator.configuration;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 
 import org.eclipse.core.runtime.jobs.Job;
-import org.prop4j.And;
-import org.prop4j.Literal;
 import org.prop4j.Node;
-import org.prop4j.SatSolver;
+import org.prop4j.analyses.AllConfigurationsGenerator;
+import org.prop4j.solver.SatInstance;
 
 import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.fm.core.base.IFeature;
@@ -36,25 +39,26 @@ import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.configuration.Selection;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+import de.ovgu.featureide.fm.core.editing.FormulaCache;
 import de.ovgu.featureide.fm.core.filter.AbstractFeatureFilter;
 import de.ovgu.featureide.fm.core.job.LongRunningJob;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
-import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
 import de.ovgu.featureide.fm.core.localization.StringTable;
 import de.ovgu.featureide.ui.UIPlugin;
 import de.ovgu.featureide.ui.actions.generator.ConfigurationBuilder;
 import de.ovgu.featureide.ui.actions.generator.IConfigurationBuilderBasics;
 
 /**
- * Configuration generator that creates all configurations of the feature model.<br> Exploits the structure of the feature model.
+ * Configuration generator that creates all configurations of the feature model.<br> The configurations are enumerated by one incremental solver (see
+ * {@link AllConfigurationsGenerator}) and streamed to the {@link ConfigurationBuilder}.
  *
  * @author Jens Meinicke
  */
 public class AllConfigrationsGenerator extends AConfigurationGenerator {
 
-	private LongRunningJob<Boolean> number;
+	private final LongRunningJob<Boolean> number;
 
 	/**
 	 * @param builder
@@ -66,10 +70,12 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 
 			@Override
 			public Boolean execute(IMonitor workMonitor) throws Exception {
-				builder.configurationNumber = Math.min(new Configuration(featureModel, false, false).number(1000000), builder.configurationNumber);
-				if (builder.configurationNumber < 0) {
+				final long configurationNumber = new Configuration(featureModel, false, false).number(1000000);
+				if (configurationNumber < 0) {
 					UIPlugin.getDefault().logWarning(StringTable.SATSOLVER_COMPUTATION_TIMEOUT);
 					builder.configurationNumber = Math.min(Integer.MAX_VALUE, builder.configurationNumber);
+				} else {
+					builder.configurationNumber = Math.min(configurationNumber, builder.configurationNumber);
 				}
 				return true;
 			}
@@ -78,9 +84,6 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 		number.schedule();
 	}
 
-	private Node rootNode;
-	private LinkedList<Node> children;
-
 	/**
 	 * The max size of <code>>configurations</code>
 	 */
@@ -89,7 +92,7 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 	@Override
 	public Void execute(IMonitor monitor) throws Exception {
 		try {
-			buildAll(featureModel.getStructure().getRoot().getFeature(), monitor);
+			buildAll(monitor);
 		} finally {
 			number.cancel();
 		}
@@ -97,249 +100,76 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 	}
 
 	/**
-	 * Builds all possible valid configurations for the feature project.<br> Iterates through the structure of the feature model and ignores constraints, to get
-	 * a linear expenditure.<br> After collecting a configurations the satsolver tests its validity.<br> Then the found configuration will be build into the
-	 * folder for all valid products.
+	 * Builds all possible valid configurations for the feature project.<br> The solutions of the feature model are projected onto all features that can
+	 * be selected manually (i.e., concrete and not hidden). The consumer thread turns them into configurations and waits while the buffer of the builder
+	 * is full, which in turn blocks the solver as soon as its queue is full.
 	 *
-	 * @param root The root feature of the feature model
 	 * @param monitor
 	 */
-	private void buildAll(IFeature root, IMonitor monitor) {
-		final LinkedList<IFeature> selectedFeatures2 = new LinkedList<IFeature>();
-		selectedFeatures2.add(root);
-		rootNode = AdvancedNodeCreator.createNodes(featureModel, new AbstractFeatureFilter(), CNFType.Compact, ModelType.All, true);
-		children = new LinkedList<Node>();
-		build(root, "", selectedFeatures2, monitor);
-	}
+	private void buildAll(IMonitor monitor) {
+		final AdvancedNodeCreator advancedNodeCreator = new AdvancedNodeCreator(featureModel, new AbstractFeatureFilter());
+		advancedNodeCreator.setCnfType(CNFType.Regular);
+		advancedNodeCreator.setIncludeBooleanValues(false);
+		final FormulaCache.Formula formula = FormulaCache.getInstance().getFormula(advancedNodeCreator);
+		final Node cnf = formula.getCnf();
 
-	private void build(IFeature currentFeature, String selected, LinkedList<IFeature> selectedFeatures2, IMonitor monitor) {
-		try {
-			monitor.checkCancel();
-		} catch (final MethodCancelException e) {
-			number.cancel();
-			cancelGenerationJobs();
-			return;
-		}
-		if (confs >= maxConfigs()) {
-			return;
-		}
-
-		if (featureModel.getConstraintCount() > 0) {
-			children.clear();
-			for (final String feature : selected.split("\"")) {
-				children.add(new Literal(feature, true));
-			}
-			try {
-				if (!(new SatSolver(new And(rootNode.clone(), new And(children)), 1000)).isSatisfiable()) {
-					return;
-				}
-			} catch (final org.sat4j.specs.TimeoutException e) {
-				UIPlugin.getDefault().logError(e);
+		final Set<Object> variables = new LinkedHashSet<>();
+		for (final IFeature feature : featureModel.getFeatures()) {
+			if (isSelectable(feature)) {
+				variables.add(feature.getName());
 			}
 		}
+		final int numberOfSelectableFeatures = variables.size();
+		variables.addAll(SatInstance.getDistinctVariableObjects(cnf));
+		final SatInstance satInstance = formula.getSatInstance(new ArrayList<>(variables));
 
-		if (selectedFeatures2.isEmpty()) {
-			configuration.resetValues();
+		final int[] selectableVariables = new int[numberOfSelectableFeatures];
+		for (int i = 0; i < selectableVariables.length; i++) {
+			selectableVariables[i] = i + 1;
+		}
+		final AllConfigurationsGenerator generator =
+			new AllConfigurationsGenerator(satInstance, selectableVariables, maxConfigs(), AllConfigurationsGenerator.DEFAULT_BUFFER_SIZE);
 
-			if (!selected.isEmpty()) {
-				for (final String feature : selected.split("\"")) {
-					configuration.setManual((feature), Selection.SELECTED);
-				}
+		final Thread consumer = new Thread() {
 
-			}
-			if (configuration.isValid()) {
-				final LinkedList<String> selectedFeatures3 = new LinkedList<String>();
-				for (final String f : selected.split("\"")) {
-					if (!"".equals(f)) {
-						selectedFeatures3.add(f);
-					}
-				}
-				for (final IFeature f : configuration.getSelectedFeatures()) {
-					if (isSelectable(f)) {
-						if (!selectedFeatures3.contains(f.getName())) {
-							return;
-						}
-					}
-				}
-				for (final String f : selectedFeatures3) {
-					if (configuration.getSelectablefeature(f).getSelection() != Selection.SELECTED) {
-						return;
+			@Override
+			public void run() {
+				final BlockingQueue<int[]> q = generator.q;
+				try {
+					while (true) {
+						generateConfiguration(satInstance.convertToString(q.take()));
+						builder.sorter.awaitBufferSpace(maxBufferSize);
 					}
-				}
-
-				addConfiguration(configuration);
-
-				if (builder.sorter.getBufferSize() >= maxBufferSize) {
-					synchronized (this) {
-						while (builder.sorter.getBufferSize() >= maxBufferSize) {
-							try {
-								monitor.checkCancel();
-							} catch (final MethodCancelException e) {
-								number.cancel();
-								return;
-							}
-							try {
-								wait(1000);
-							} catch (final InterruptedException e) {
-								UIPlugin.getDefault().logError(e);
-							}
-						}
+				} catch (final InterruptedException e) {
+					for (int[] solution = q.poll(); solution != null; solution = q.poll()) {
+						generateConfiguration(satInstance.convertToString(solution));
 					}
 				}
 			}
-			return;
-		}
-
-		if (currentFeature.getStructure().isAnd()) {
-			buildAnd(selected, selectedFeatures2, monitor);
-		} else if (currentFeature.getStructure().isOr()) {
-			buildOr(selected, selectedFeatures2, monitor);
-		} else if (currentFeature.getStructure().isAlternative()) {
-			buildAlternative(selected, selectedFeatures2, monitor);
-		}
-	}
 
-	private void buildAlternative(String selected, LinkedList<IFeature> selectedFeatures2, IMonitor monitor) {
-		IFeature currentFeature = selectedFeatures2.getFirst();
-		selectedFeatures2.removeFirst();
-		LinkedList<IFeature> selectedFeatures3 = new LinkedList<IFeature>();
-		if (isSelectable(currentFeature)) {
-			if ("".equals(selected)) {
-				selected = currentFeature.getName();
-			} else {
-				selected += "\"" + currentFeature.getName();
-			}
-		}
-		if (!currentFeature.getStructure().hasChildren()) {
-			if (selectedFeatures2.isEmpty()) {
-				currentFeature = null;
-			} else {
-				currentFeature = selectedFeatures2.getFirst();
-			}
-			selectedFeatures3.addAll(selectedFeatures2);
-			build(currentFeature, selected, selectedFeatures3, monitor);
-			return;
-		}
-		for (int i2 = 0; i2 < getChildren(currentFeature).size(); i2++) {
-			selectedFeatures3 = new LinkedList<IFeature>();
-			selectedFeatures3.add(getChildren(currentFeature).get(i2));
-			selectedFeatures3.addAll(selectedFeatures2);
-			build(selectedFeatures3.isEmpty() ? null : selectedFeatures3.getFirst(), selected, selectedFeatures3, monitor);
-		}
-	}
-
-	private void buildOr(String selected, LinkedList<IFeature> selectedFeatures2, IMonitor monitor) {
-		IFeature currentFeature = selectedFeatures2.getFirst();
-		selectedFeatures2.removeFirst();
-		LinkedList<IFeature> selectedFeatures3 = new LinkedList<IFeature>();
-		if (isSelectable(currentFeature)) {
-			if ("".equals(selected)) {
-				selected = currentFeature.getName();
-			} else {
-				selected += "\"" + currentFeature.getName();
-			}
-		}
-		if (!currentFeature.getStructure().hasChildren()) {
-			if (selectedFeatures2.isEmpty()) {
-				currentFeature = null;
-			} else {
-				currentFeature = selectedFeatures2.getFirst();
-			}
-			selectedFeatures3.addAll(selectedFeatures2);
-			build(currentFeature, selected, selectedFeatures3, monitor);
-			return;
-		}
-		final LinkedList<IFeature> children2 = getChildren(currentFeature);
-		for (int i2 = (int) java.lang.Math.pow(2, children2.size()) - 1; i2 > 0; i2--) {
-			int k2 = i2;
-			selectedFeatures3 = new LinkedList<IFeature>();
-			for (int j = 0; j < children2.size(); j++) {
-				if ((k2 % 2) != 0) {
-					selectedFeatures3.add(children2.get(j));
+			private void generateConfiguration(List<String> solution) {
+				configuration.resetValues();
+				for (final String selection : solution) {
+					configuration.setManual(selection, Selection.SELECTED);
 				}
-				k2 = k2 / 2;
-			}
-			selectedFeatures3.addAll(selectedFeatures2);
-			build(selectedFeatures3.isEmpty() ? null : selectedFeatures3.getFirst(), selected, selectedFeatures3, monitor);
-		}
-	}
-
-	private void buildAnd(String selected, LinkedList<IFeature> selectedFeatures2, IMonitor monitor) {
-		IFeature currentFeature = selectedFeatures2.removeFirst();
-		LinkedList<IFeature> selectedFeatures3 = new LinkedList<IFeature>();
-		if (isSelectable(currentFeature)) {
-			if ("".equals(selected)) {
-				selected = currentFeature.getName();
-			} else {
-				selected += "\"" + currentFeature.getName();
-			}
-		}
-		if (!currentFeature.getStructure().hasChildren()) {
-			if (selectedFeatures2.isEmpty()) {
-				currentFeature = null;
-			} else {
-				currentFeature = selectedFeatures2.getFirst();
-			}
-			selectedFeatures3.addAll(selectedFeatures2);
-			build(currentFeature, selected, selectedFeatures3, monitor);
-			return;
-		}
-		int k2;
-		final LinkedList<IFeature> optionalFeatures = new LinkedList<IFeature>();
-		for (final IFeature f : getChildren(currentFeature)) {
-			if (f.getStructure().isMandatory()) {
-				selectedFeatures2.add(f);
-			} else {
-				optionalFeatures.add(f);
-			}
-		}
-
-		for (int i2 = 0; i2 < (int) java.lang.Math.pow(2, optionalFeatures.size()); i2++) {
-			k2 = i2;
-			selectedFeatures3 = new LinkedList<IFeature>();
-			for (int j = 0; j < optionalFeatures.size(); j++) {
-				if ((k2 % 2) != 0) {
-					selectedFeatures3.add(optionalFeatures.get(j));
-				}
-				k2 = k2 / 2;
-			}
-			selectedFeatures3.addAll(selectedFeatures2);
-			build(selectedFeatures3.isEmpty() ? null : selectedFeatures3.getFirst(), selected, selectedFeatures3, monitor);
-		}
-
-	}
-
-	/**
-	 * Returns all children of a feature if it is a layer or if it has a child that is concrete.
-	 *
-	 * @param currentFeature The feature
-	 * @return The children
-	 */
-	private LinkedList<IFeature> getChildren(IFeature currentFeature) {
-		final LinkedList<IFeature> children = new LinkedList<IFeature>();
-		for (final IFeatureStructure childStructure : currentFeature.getStructure().getChildren()) {
-			final IFeature child = childStructure.getFeature();
-			if (isSelectable(child) || hasLayerChild(child)) {
-				children.add(child);
+				addConfiguration(configuration);
 			}
+		};
+		consumer.start();
+		final Long foundConfigurations = LongRunningWrapper.runMethod(generator, monitor);
+		if (foundConfigurations == null) {
+			generator.q.clear();
+			cancelGenerationJobs();
+		} else {
+			number.cancel();
+			builder.configurationNumber = foundConfigurations;
 		}
-		return children;
-	}
-
-	/**
-	 * @param feature The feature
-	 * @return <code>true</code> if the feature is a layer or if it has a child that is a concrete
-	 */
-	private boolean hasLayerChild(IFeature feature) {
-		if (feature.getStructure().hasChildren()) {
-			for (final IFeatureStructure childStructure : feature.getStructure().getChildren()) {
-				final IFeature child = childStructure.getFeature();
-				if (isSelectable(child) || hasLayerChild(child)) {
-					return true;
-				}
-			}
+		consumer.interrupt();
+		try {
+			consumer.join();
+		} catch (final InterruptedException e) {
+			UIPlugin.getDefault().logError(e);
 		}
-		return false;
 	}
 
 	/**
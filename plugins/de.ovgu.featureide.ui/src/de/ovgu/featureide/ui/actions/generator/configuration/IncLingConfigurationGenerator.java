@@ -21,34 +21,42 @@
 package de.ovgu.featureide.ui.actions.generator.configuration;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 
-import org.prop4j.Node;
-import org.prop4j.analyses.PairWiseConfigurationGenerator;
+import org.prop4j.analyses.PairWiseConfigurationGenerator.Configuration;
+import org.prop4j.analyses.TWiseConfigurationGenerator;
 import org.prop4j.solver.SatInstance;
 
 import de.ovgu.featureide.core.IFeatureProject;
-import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.configuration.Selection;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.FormulaCache;
 import de.ovgu.featureide.fm.core.filter.AbstractFeatureFilter;
-import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 import de.ovgu.featureide.ui.actions.generator.ConfigurationBuilder;
 
 /**
- * Executed the IncLing pairwise sorting algorithm to create configurations.
+ * Executed the IncLing t-wise sorting algorithm to create configurations.
  *
- * @see PairWiseConfigurationGenerator
+ * @see TWiseConfigurationGenerator
  *
  * @author Jens Meinicke
  */
 public class IncLingConfigurationGenerator extends AConfigurationGenerator {
 
+	private final int t;
+
 	public IncLingConfigurationGenerator(ConfigurationBuilder builder, IFeatureModel featureModel, IFeatureProject featureProject) {
+		this(builder, featureModel, featureProject, 2);
+	}
+
+	public IncLingConfigurationGenerator(ConfigurationBuilder builder, IFeatureModel featureModel, IFeatureProject featureProject, int t) {
 		super(builder, featureModel, featureProject);
+		this.t = t;
 	}
 
 	@Override
@@ -62,17 +70,16 @@ public class IncLingConfigurationGenerator extends AConfigurationGenerator {
 		advancedNodeCreator.setCnfType(CNFType.Regular);
 		advancedNodeCreator.setIncludeBooleanValues(false);
 
-		final Node createNodes = advancedNodeCreator.createNodes();
-		final SatInstance satInstance = new SatInstance(createNodes, Functional.toList(FeatureUtils.getConcreteFeatureNames(fm)));
-		final PairWiseConfigurationGenerator gen = getGenerator(satInstance, solutionCount);
-		exec(satInstance, gen, monitor);
+		final SatInstance satInstance = FormulaCache.getInstance().getFormula(advancedNodeCreator).getSatInstance();
+		exec(satInstance, solutionCount, monitor);
 	}
 
-	protected PairWiseConfigurationGenerator getGenerator(SatInstance solver, int solutionCount) {
-		return new PairWiseConfigurationGenerator(solver, solutionCount);
+	protected void exec(SatInstance satInstance, int solutionCount, IMonitor monitor) {
+		final TWiseConfigurationGenerator gen = new TWiseConfigurationGenerator(satInstance, t, solutionCount);
+		exec(satInstance, gen, gen.q, monitor);
 	}
 
-	protected void exec(final SatInstance satInstance, final PairWiseConfigurationGenerator as, IMonitor monitor) {
+	protected void exec(final SatInstance satInstance, final LongRunningMethod<?> as, final BlockingQueue<Configuration> q, IMonitor monitor) {
 		final Thread consumer = new Thread() {
 
 			@Override
@@ -80,15 +87,15 @@ public class IncLingConfigurationGenerator extends AConfigurationGenerator {
 				int foundConfigurations = 0;
 				while (true) {
 					try {
-						generateConfiguration(satInstance.convertToString(as.q.take().getModel()));
+						generateConfiguration(satInstance.convertToString(q.take().getModel()));
 						foundConfigurations++;
 					} catch (final InterruptedException e) {
 						break;
 					}
 				}
-				foundConfigurations += as.q.size();
+				foundConfigurations += q.size();
 				builder.configurationNumber = foundConfigurations;
-				for (final org.prop4j.analyses.PairWiseConfigurationGenerator.Configuration c : as.q) {
+				for (final Configuration c : q) {
 					generateConfiguration(satInstance.convertToString(c.getModel()));
 				}
 			}
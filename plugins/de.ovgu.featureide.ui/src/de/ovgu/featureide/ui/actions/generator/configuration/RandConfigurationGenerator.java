@@ -26,6 +26,7 @@ import org.prop4j.solver.SatInstance;
 
 import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 import de.ovgu.featureide.ui.actions.generator.ConfigurationBuilder;
 
 /**
@@ -42,8 +43,9 @@ public class RandConfigurationGenerator extends IncLingConfigurationGenerator {
 	}
 
 	@Override
-	protected PairWiseConfigurationGenerator getGenerator(SatInstance satInstance, int solutionCount) {
-		return new RandomConfigurationGenerator(satInstance, solutionCount);
+	protected void exec(SatInstance satInstance, int solutionCount, IMonitor monitor) {
+		final PairWiseConfigurationGenerator gen = new RandomConfigurationGenerator(satInstance, solutionCount);
+		exec(satInstance, gen, gen.q, monitor);
 	}
 
 }
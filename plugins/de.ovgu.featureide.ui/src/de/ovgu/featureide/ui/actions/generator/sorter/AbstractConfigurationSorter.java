@@ -44,13 +44,21 @@ public class AbstractConfigurationSorter {
 
 	protected boolean sorted = true;
 
+	/**
+	 * Indicates that no more configurations will be added.
+	 */
+	private boolean finished = false;
+
 	public AbstractConfigurationSorter(final IFeatureModel featureModel) {
 		concreteFeatures = FeatureUtils.extractConcreteFeaturesAsStringList(featureModel);// TODO move to implementations
 	}
 
 	public int sortConfigurations(final IMonitor monitor) {
 		final int numberOfConfigurations = sort(monitor);
-		sorted = true;
+		synchronized (this) {
+			sorted = true;
+			notifyAll();
+		}
 		return numberOfConfigurations;
 	}
 
@@ -60,13 +68,53 @@ public class AbstractConfigurationSorter {
 
 	public synchronized void addConfiguration(BuilderConfiguration configuration) {
 		configurations.add(configuration);
+		notifyAll();
 	}
 
 	public synchronized BuilderConfiguration getConfiguration() {
 		if (!sorted || configurations.isEmpty()) {
 			return null;
 		}
-		return configurations.pop();
+		final BuilderConfiguration configuration = configurations.pop();
+		notifyAll();
+		return configuration;
+	}
+
+	/**
+	 * Blocks until a sorted configuration is available.
+	 *
+	 * @return the next configuration or <code>null</code> if all configurations were taken and {@link #finish()} was called
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public synchronized BuilderConfiguration takeConfiguration() throws InterruptedException {
+		while (!sorted || configurations.isEmpty()) {
+			if (sorted && finished) {
+				return null;
+			}
+			wait();
+		}
+		return getConfiguration();
+	}
+
+	/**
+	 * Notification that no more configurations will be added.
+	 */
+	public synchronized void finish() {
+		finished = true;
+		notifyAll();
+	}
+
+	/**
+	 * Blocks until the buffer contains less than the given number of configurations.<br> Returns immediately if the configurations are not sorted yet,
+	 * because no configuration is taken from the buffer before all configurations are added and sorted.
+	 *
+	 * @param maxBufferSize the maximal number of buffered configurations
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public synchronized void awaitBufferSpace(int maxBufferSize) throws InterruptedException {
+		while (sorted && (configurations.size() >= maxBufferSize)) {
+			wait();
+		}
 	}
 
 	public int getBufferSize() {
@@ -0,0 +1,252 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator.sorter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores configurations as bit sets over the concrete features of a feature model.<br> An interaction of a configuration is a set of up to t
+ * features together with their selection in this configuration. The index tracks which configurations are already covered and counts the
+ * interactions of a configuration that none of them contains, without creating the interactions themselves.
+ */
+class InteractionIndex {
+
+	private final Map<String, Integer> featureIndex = new HashMap<>();
+	private final int numberOfFeatures;
+	private final int words;
+
+	private final List<long[]> selections = new ArrayList<>();
+
+	/**
+	 * For each feature and both of its selections, the bit set of covered configurations that agree with it.
+	 */
+	private long[][] coveredSelected = new long[0][], coveredUnselected = new long[0][];
+	private final List<long[]> coveredConfigurations = new ArrayList<>();
+	private int coveredCount = 0;
+
+	private long[][] extensionCounts = new long[0][];
+
+	InteractionIndex(Collection<String> concreteFeatures) {
+		for (final String feature : concreteFeatures) {
+			if (!featureIndex.containsKey(feature)) {
+				featureIndex.put(feature, featureIndex.size());
+			}
+		}
+		numberOfFeatures = featureIndex.size();
+		words = (numberOfFeatures + 63) >>> 6;
+	}
+
+	/**
+	 * @param selectedFeatures the names of the selected features of a configuration. Names of abstract features are ignored.
+	 * @return the index of the added configuration
+	 */
+	int add(Collection<String> selectedFeatures) {
+		final long[] selection = new long[words];
+		for (final String feature : selectedFeatures) {
+			final Integer index = featureIndex.get(feature);
+			if (index != null) {
+				selection[index >>> 6] |= 1L << index;
+			}
+		}
+		selections.add(selection);
+		return selections.size() - 1;
+	}
+
+	int size() {
+		return selections.size();
+	}
+
+	int getNumberOfFeatures() {
+		return numberOfFeatures;
+	}
+
+	boolean isSelected(int configuration, int feature) {
+		return (selections.get(configuration)[feature >>> 6] & (1L << feature)) != 0;
+	}
+
+	int countSelected(int configuration) {
+		int count = 0;
+		for (final long word : selections.get(configuration)) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of features that have the same selection in both configurations
+	 */
+	int countAgreements(int configuration1, int configuration2) {
+		final long[] selection1 = selections.get(configuration1);
+		final long[] selection2 = selections.get(configuration2);
+		int differences = 0;
+		for (int i = 0; i < words; i++) {
+			differences += Long.bitCount(selection1[i] ^ selection2[i]);
+		}
+		return numberOfFeatures - differences;
+	}
+
+	/**
+	 * Marks all interactions of the given configuration as covered.
+	 */
+	void cover(int configuration) {
+		final int bit = coveredCount++;
+		coveredConfigurations.add(selections.get(configuration));
+		final int coveredWords = (coveredCount + 63) >>> 6;
+		if ((coveredSelected.length == 0) || (coveredSelected[0].length < coveredWords)) {
+			final int capacity = Math.max(coveredWords, (selections.size() + 63) >>> 6);
+			coveredSelected = grow(coveredSelected, capacity);
+			coveredUnselected = grow(coveredUnselected, capacity);
+		}
+		for (int feature = 0; feature < numberOfFeatures; feature++) {
+			final long[][] covered = isSelected(configuration, feature) ? coveredSelected : coveredUnselected;
+			covered[feature][bit >>> 6] |= 1L << bit;
+		}
+	}
+
+	private long[][] grow(long[][] covered, int capacity) {
+		final long[][] grown = new long[numberOfFeatures][];
+		for (int feature = 0; feature < numberOfFeatures; feature++) {
+			grown[feature] = (covered.length == 0) ? new long[capacity] : Arrays.copyOf(covered[feature], capacity);
+		}
+		return grown;
+	}
+
+	/**
+	 * Counts the interactions of size 1 to t of the given configuration that are not contained in any covered configuration.<br> The subsets of
+	 * features are visited in lexicographic order while the covered configurations that agree on all features of the current subset are kept as
+	 * a bit set. As soon as this bit set is empty, the current subset and all of its extensions are uncovered and counted at once. The last feature
+	 * of a subset is not enumerated, instead the features that agree with any of the remaining covered configurations are collected as a bit set.
+	 */
+	long countUncovered(int configuration, int t) {
+		final int maxSize = Math.min(t, numberOfFeatures);
+		if (maxSize <= 0) {
+			return 0;
+		}
+		final long[][] extensions = getExtensionCounts(maxSize);
+		if (coveredCount == 0) {
+			return extensions[maxSize][numberOfFeatures] - 1;
+		}
+		final int coveredWords = (coveredCount + 63) >>> 6;
+		final long[][] agreeing = new long[maxSize][coveredWords];
+		Arrays.fill(agreeing[0], -1L);
+
+		final long[] selection = selections.get(configuration);
+		final int lastBits = numberOfFeatures & 63;
+		final long lastMask = (lastBits == 0) ? -1L : ((1L << lastBits) - 1);
+		final long[][] agreements = new long[coveredCount][words];
+		for (int i = 0; i < coveredCount; i++) {
+			final long[] coveredSelection = coveredConfigurations.get(i);
+			for (int j = 0; j < words; j++) {
+				agreements[i][j] = ~(selection[j] ^ coveredSelection[j]);
+			}
+			agreements[i][words - 1] &= lastMask;
+		}
+		return countUncovered(selection, maxSize, 0, 0, agreeing, agreements, new long[words], extensions);
+	}
+
+	private long countUncovered(long[] selection, int maxSize, int depth, int start, long[][] agreeing, long[][] agreements, long[] union,
+			long[][] extensions) {
+		final long[] parent = agreeing[depth];
+		if ((depth + 1) == maxSize) {
+			return countUncoveredFeatures(parent, start, agreements, union);
+		}
+		long count = 0;
+		final long[] current = agreeing[depth + 1];
+		for (int feature = start; feature < numberOfFeatures; feature++) {
+			final long[] covered = ((selection[feature >>> 6] & (1L << feature)) != 0) ? coveredSelected[feature] : coveredUnselected[feature];
+			boolean empty = true;
+			for (int i = 0; i < current.length; i++) {
+				current[i] = parent[i] & covered[i];
+				empty &= current[i] == 0;
+			}
+			if (empty) {
+				count += extensions[maxSize - depth - 1][numberOfFeatures - feature - 1];
+			} else {
+				count += countUncovered(selection, maxSize, depth + 1, feature + 1, agreeing, agreements, union, extensions);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the features from {@code start} on that do not have the same selection in any of the given covered configurations.
+	 */
+	private int countUncoveredFeatures(long[] configurations, int start, long[][] agreements, long[] union) {
+		if (start >= numberOfFeatures) {
+			return 0;
+		}
+		Arrays.fill(union, 0L);
+		for (int i = 0; i < configurations.length; i++) {
+			long word = configurations[i];
+			while (word != 0) {
+				final int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+				if (bit >= coveredCount) {
+					break;
+				}
+				final long[] agreement = agreements[bit];
+				for (int j = 0; j < words; j++) {
+					union[j] |= agreement[j];
+				}
+			}
+		}
+		final int startWord = start >>> 6;
+		int covered = Long.bitCount(union[startWord] & (-1L << start));
+		for (int j = startWord + 1; j < words; j++) {
+			covered += Long.bitCount(union[j]);
+		}
+		return numberOfFeatures - start - covered;
+	}
+
+	/**
+	 * @return a table where {@code [r][m]} is the number of subsets of at most r elements of a set of m elements
+	 */
+	private long[][] getExtensionCounts(int maxSize) {
+		if (extensionCounts.length == (maxSize + 1)) {
+			return extensionCounts;
+		}
+		final long[][] binomial = new long[numberOfFeatures + 1][maxSize + 1];
+		for (int m = 0; m <= numberOfFeatures; m++) {
+			binomial[m][0] = 1;
+			for (int k = 1; k <= Math.min(m, maxSize); k++) {
+				binomial[m][k] = binomial[m - 1][k - 1] + (k <= (m - 1) ? binomial[m - 1][k] : 0);
+			}
+		}
+		final long[][] extensions = new long[maxSize + 1][numberOfFeatures + 1];
+		for (int r = 0; r <= maxSize; r++) {
+			for (int m = 0; m <= numberOfFeatures; m++) {
+				long sum = 0;
+				for (int k = 0; k <= r; k++) {
+					sum += binomial[m][k];
+				}
+				extensions[r][m] = sum;
+			}
+		}
+		extensionCounts = extensions;
+		return extensions;
+	}
+
+}
@@ -21,14 +21,9 @@
 package de.ovgu.featureide.ui.actions.generator.sorter;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.PriorityQueue;
 
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
@@ -39,6 +34,8 @@ import de.ovgu.featureide.ui.actions.generator.BuilderConfiguration;
 /**
  * Sorts Configurations by interactions they cover.
  *
+ * @see InteractionIndex
+ *
  * @author Jens Meinicke
  */
 public class InteractionSorter extends AbstractConfigurationSorter {
@@ -47,10 +44,10 @@ public class InteractionSorter extends AbstractConfigurationSorter {
 
 	private final int t;
 
-	private final Map<BuilderConfiguration, Set<Interaction>> interactions = new HashMap<BuilderConfiguration, Set<Interaction>>();
-
 	private final boolean skippConfigurations;
 
+	private int unsortedConfigurations = 0;
+
 	public InteractionSorter(final int t, final IFeatureModel featureModel, final boolean skippConfigurations) {
 		super(featureModel);
 		super.sorted = false;
@@ -59,12 +56,44 @@ public class InteractionSorter extends AbstractConfigurationSorter {
 	}
 
 	/**
-	 * Sorts Configurations by interactions they cover.
+	 * A configuration together with the number of its uncovered interactions.<br> The number is only exact if it was computed in the current
+	 * round, otherwise it is an upper bound, because the uncovered interactions of a configuration can only decrease.
+	 */
+	private static class Candidate implements Comparable<Candidate> {
+
+		private final BuilderConfiguration configuration;
+		private final int index;
+		private long uncovered;
+		private int round = 0;
+		private boolean sorted = false;
+
+		Candidate(BuilderConfiguration configuration, int index, long uncovered) {
+			this.configuration = configuration;
+			this.index = index;
+			this.uncovered = uncovered;
+		}
+
+		@Override
+		public int compareTo(Candidate o) {
+			if (uncovered != o.uncovered) {
+				return uncovered > o.uncovered ? -1 : 1;
+			}
+			return configuration.getName().compareTo(o.configuration.getName());
+		}
+
+	}
+
+	/**
+	 * Sorts Configurations by interactions they cover.<br> Greedily takes the configuration that covers the most interactions that are left. The
+	 * candidates are kept in a priority queue and their number of uncovered interactions is only recomputed when they reach the head of the queue.
 	 *
 	 * @return number of configurations
 	 */
 	@Override
 	public int sort(final IMonitor monitor) {
+		final InteractionIndex index = new InteractionIndex(concreteFeatures);
+		final List<Candidate> candidates = new ArrayList<Candidate>(configurations.size());
+		unsortedConfigurations = configurations.size();
 		for (final BuilderConfiguration c : configurations) {
 			try {
 				monitor.checkCancel();
@@ -72,149 +101,65 @@ public class InteractionSorter extends AbstractConfigurationSorter {
 				configurations.clear();
 				return 0;
 			}
-			interactions.put(c, new HashSet<Interaction>(concreteFeatures.size() * (10 ^ t)));
-			getInteractions(interactions.get(c), c.getSelectedFeatureNames(), new ArrayList<String>(0), new ArrayList<String>(0), 1, null);
+			candidates.add(new Candidate(c, index.add(c.getSelectedFeatureNames()), 0));
 			monitor.worked();
 		}
 
+		final PriorityQueue<Candidate> queue = new PriorityQueue<Candidate>(Math.max(1, candidates.size()));
+		if (!candidates.isEmpty()) {
+			final long allInteractions = index.countUncovered(0, t);
+			for (final Candidate candidate : candidates) {
+				candidate.uncovered = allInteractions;
+				queue.add(candidate);
+			}
+		}
+
 		final LinkedList<BuilderConfiguration> sorted = new LinkedList<BuilderConfiguration>();
-		while (!interactions.isEmpty()) {
+		int round = 0;
+		while (!queue.isEmpty()) {
 			try {
 				monitor.checkCancel();
 			} catch (final MethodCancelException e) {
 				configurations.clear();
+				unsortedConfigurations = 0;
 				return 0;
 			}
 
-			final BuilderConfiguration mostCovering = getMostCoveringConfiguration(interactions);
-			final Set<Interaction> coveredInteractions = interactions.get(mostCovering);
-			if (coveredInteractions.isEmpty()) {
+			final Candidate mostCovering = queue.poll();
+			if (mostCovering.round != round) {
+				mostCovering.uncovered = index.countUncovered(mostCovering.index, t);
+				mostCovering.round = round;
+				queue.add(mostCovering);
+				continue;
+			}
+			if (mostCovering.uncovered == 0) {
+				queue.add(mostCovering);
 				if (skippConfigurations) {
-					LOGGER.logInfo(interactions.size() + " solutions skipped because interactions are already covered!");
+					LOGGER.logInfo(queue.size() + " solutions skipped because interactions are already covered!");
 				} else {
-					sorted.addAll(interactions.keySet());
+					for (final Candidate candidate : candidates) {
+						if (!candidate.sorted) {
+							sorted.add(candidate.configuration);
+						}
+					}
 				}
-				interactions.clear();
 				break;
 			}
-			sorted.add(mostCovering);
-			interactions.remove(mostCovering);
-			for (final Set<Interaction> interaction : interactions.values()) {
-				interaction.removeAll(coveredInteractions);
-			}
+			sorted.add(mostCovering.configuration);
+			mostCovering.sorted = true;
+			index.cover(mostCovering.index);
+			unsortedConfigurations--;
+			round++;
 			monitor.worked();
 		}
+		unsortedConfigurations = 0;
 		configurations = sorted;
 		return configurations.size();
 	}
 
 	@Override
 	public int getBufferSize() {
-		return interactions.size() + configurations.size();
-	}
-
-	/**
-	 * Gets the configuration that covers the most interactions that are left.<br> Basically, the configurations with the greatest set of interactions.
-	 */
-	private BuilderConfiguration getMostCoveringConfiguration(final Map<BuilderConfiguration, Set<Interaction>> interactions) {
-		BuilderConfiguration mostCovering = null;
-		int longest = -1;
-		for (final BuilderConfiguration config : interactions.keySet()) {
-			final int size = interactions.get(config).size();
-			if (size > longest) {
-				longest = size;
-				mostCovering = config;
-			} else if (size == longest) {
-				if (mostCovering.getName().compareTo(config.getName()) > 0) {
-					mostCovering = config;
-				}
-			}
-		}
-		return mostCovering;
-	}
-
-	/**
-	 * Calculate the interactions of one configuration.
-	 *
-	 * @param interactions The set where the interactions are stored
-	 * @param configSelectedFeatures The selected feature of the current configuration
-	 * @param selectedFeatures The selected features of the current interaction
-	 * @param unselectedFeatures The unselected feature of the current interaction
-	 * @param t The current size of the interaction
-	 * @param lastFeature A marker for the last feature
-	 */
-	private void getInteractions(final Set<Interaction> interactions, final Set<String> configSelectedFeatures, final List<String> selectedFeatures,
-			final List<String> unselectedFeatures, final int t, final String lastFeature) {
-		if (t > this.t) {
-			return;
-		}
-
-		boolean marker = lastFeature == null;
-		for (final String feature : concreteFeatures) {
-			if (!marker && feature.equals(lastFeature)) {
-				// skip all features until the feature of the last iteration is found
-				marker = true;
-				continue;
-			}
-			if (marker) {
-				List<String> selected = selectedFeatures;
-				List<String> unselected = unselectedFeatures;
-
-				if (configSelectedFeatures.contains(feature)) {
-					// CASE selected
-					selected = new ArrayList<String>(t);
-					selected.addAll(selectedFeatures);
-					selected.add(feature);
-					selected = Collections.unmodifiableList(selected);
-				} else {
-					// CASE unselected
-					unselected = new ArrayList<String>(t);
-					unselected.addAll(unselectedFeatures);
-					unselected.add(feature);
-					unselected = Collections.unmodifiableList(unselected);
-				}
-				interactions.add(new Interaction(selected, unselected));
-				getInteractions(interactions, configSelectedFeatures, selected, unselected, t + 1, feature);
-			}
-		}
-	}
-
-	private class Interaction {
-
-		private final Collection<String> selectedFeatures;
-		private final Collection<String> unselectedFeatures;
-		private final int hashCode;
-
-		/**
-		 * Represents an interaction between n selected features and m unselected features.
-		 */
-		Interaction(final Collection<String> selectedFeatures, final Collection<String> unselectedFeatures) {
-			this.selectedFeatures = selectedFeatures;
-			this.unselectedFeatures = unselectedFeatures;
-
-			// TODO _Sebastian Revise Hash Function
-			int hash = 0;
-			for (final String feature : selectedFeatures) {
-				hash = (hash * 3) + feature.hashCode();
-			}
-			for (final String feature : unselectedFeatures) {
-				hash += (hash * 7) + feature.hashCode();
-			}
-			hashCode = hash;
-		}
-
-		@Override
-		public boolean equals(final Object obj) {
-			if (obj.hashCode() != hashCode()) {
-				return false;
-			}
-			return selectedFeatures.equals(((Interaction) obj).selectedFeatures) && unselectedFeatures.equals(((Interaction) obj).unselectedFeatures);
-		}
-
-		@Override
-		public int hashCode() {
-			return hashCode;
-		}
+		return unsortedConfigurations + configurations.size();
 	}
 
 }
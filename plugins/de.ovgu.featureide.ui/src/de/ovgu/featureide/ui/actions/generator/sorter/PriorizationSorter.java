@@ -21,14 +21,9 @@
 package de.ovgu.featureide.ui.actions.generator.sorter;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.CREATE_CONFIGS;
-import static de.ovgu.featureide.fm.core.localization.StringTable.EMPTY___;
 import static de.ovgu.featureide.fm.core.localization.StringTable.OF;
-import static de.ovgu.featureide.fm.core.localization.StringTable.WE_SHOULDNT_GET_HERE_COMMA___HERE_IS_WRONG;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
@@ -40,13 +35,13 @@ import de.ovgu.featureide.ui.actions.generator.BuilderConfiguration;
 /**
  * Sorts configurations before they are generated based on their difference.
  *
+ * @see InteractionIndex
+ *
  * @author Mustafa Alhajjaj
  */
 public class PriorizationSorter extends AbstractConfigurationSorter {
 
-	private final List<List<String>> allconfigs = new ArrayList<List<String>>();
-	private final List<List<String>> allsortedconfigs = new ArrayList<List<String>>();
-	HashMap<String, Double> configsDistancesResult = new HashMap<String, Double>();
+	private int unsortedConfigurations = 0;
 
 	private final IFeatureModel featureModel;
 
@@ -84,125 +79,62 @@ public class PriorizationSorter extends AbstractConfigurationSorter {
 		return new BuilderConfiguration(configuration, i);
 	}
 
+	/**
+	 * Starts with the configuration that selects the most features and then repeatedly takes the configuration whose greatest similarity to the
+	 * already sorted configurations is the smallest.
+	 */
 	protected List<List<String>> sortConfigs(List<List<String>> configs, IMonitor monitor) {
-		// bring the first product with maximum number of optional feature.\
-		System.err.println("START sort");
-		allconfigs.addAll(configs);
-
-		System.err.println("getconfigsDistanceMap");
-		configsDistancesResult = getconfigsDistanceMap(allconfigs, monitor);
-		System.err.println("allyes");
-		allyesconfig();
-		while (!allconfigs.isEmpty()) {
-			monitor.checkCancel();
-			selectConfig();
-		}
-		return allsortedconfigs;
-	}
-
-	@Override
-	public int getBufferSize() {
-		return allconfigs.size() + configurations.size();
-	}
-
-	private HashMap<String, Double> getconfigsDistanceMap(List<List<String>> allConfig, IMonitor monitor) {
-		configsDistancesResult = new HashMap<String, Double>();
-		String mapKey;
-		for (int i = 0; i < allConfig.size(); i++) {
-			monitor.checkCancel();
-			for (int j = i + 1; j < allConfig.size(); j++) {
-				final int xHashCode = allConfig.get(i).hashCode();
-				final int yHashCode = allConfig.get(j).hashCode();
-
-				mapKey = xHashCode + EMPTY___ + yHashCode;
-
-				if (configsDistancesResult.get(mapKey) == null) {// not added before
-					configsDistancesResult.put(mapKey, clacDistance(allConfig.get(i), allConfig.get(j)));
-				}
-			}
+		final InteractionIndex index = new InteractionIndex(concreteFeatures);
+		for (final List<String> config : configs) {
+			index.add(config);
 		}
-		return configsDistancesResult;
-	}
-
-	private List<String> allyesconfig() {
-		// here add the first element to the allsortedconfig list
-		// and Remove the element from the original list which is already added
-		// to the new sorted list
-		int allYes = 0;
-		int index = 0;
-
-		for (final List<String> x : allconfigs) {
-			final int tempAllYes = x.size();
-			if (tempAllYes > allYes) {
-				allYes = tempAllYes;
-				index = allconfigs.indexOf(x);
+		final int numberOfConfigs = configs.size();
+		unsortedConfigurations = numberOfConfigs;
+
+		final List<List<String>> allsortedconfigs = new ArrayList<List<String>>(numberOfConfigs);
+		final boolean[] sortedConfigs = new boolean[numberOfConfigs];
+		final double[] maxSimilarity = new double[numberOfConfigs];
+
+		// bring the first product with maximum number of optional feature.
+		int next = 0;
+		for (int i = 1; i < numberOfConfigs; i++) {
+			if (configs.get(i).size() > configs.get(next).size()) {
+				next = i;
 			}
 		}
 
-		allsortedconfigs.add(allconfigs.get(index));
-
-		return allconfigs.remove(index);
-
-	}
-
-	private List<String> selectConfig() {
-		double distance = 1.0;
-		int index = 0;
-
-		int xHashCode = 0;
-		int yHashCode = 0;
-
-		String mapKeyXY;
-		String mapKeyYX;
-
-		for (final List<String> x : allconfigs) {
-
-			double tempDistance = 0.0;
-			for (final List<String> y : allsortedconfigs) {
-				xHashCode = x.hashCode();
-				yHashCode = y.hashCode();
-
-				mapKeyXY = xHashCode + EMPTY___ + yHashCode;
-				mapKeyYX = yHashCode + EMPTY___ + xHashCode;
-				double tempDistanceLocal = 0.0;
-				if (configsDistancesResult.get(mapKeyXY) != null) {
-					tempDistanceLocal = configsDistancesResult.get(mapKeyXY);
-				} else if (configsDistancesResult.get(mapKeyYX) != null) {
-					tempDistanceLocal = configsDistancesResult.get(mapKeyYX);
-
-				} else {
-					System.out.println(WE_SHOULDNT_GET_HERE_COMMA___HERE_IS_WRONG);
-				}
-				if (tempDistanceLocal > tempDistance) {
-					tempDistance = tempDistanceLocal;
-
+		while (next >= 0) {
+			monitor.checkCancel();
+			allsortedconfigs.add(configs.get(next));
+			sortedConfigs[next] = true;
+			unsortedConfigurations--;
+
+			final int last = next;
+			next = -1;
+			double distance = 1.0;
+			for (int i = 0; i < numberOfConfigs; i++) {
+				if (!sortedConfigs[i]) {
+					maxSimilarity[i] = Math.max(maxSimilarity[i], getSimilarity(index, i, last));
+					if (next < 0) {
+						next = i;
+					}
+					if (maxSimilarity[i] < distance) {
+						distance = maxSimilarity[i];
+						next = i;
+					}
 				}
 			}
-			if (tempDistance < distance) {
-				distance = tempDistance;
-				index = allconfigs.indexOf(x);
-			}
 		}
-
-		allsortedconfigs.add(allconfigs.get(index));
-		return allconfigs.remove(index);
+		return allsortedconfigs;
 	}
 
-	private double clacDistance(List<String> x, List<String> y) {
-		final Collection<String> similar = new HashSet<String>(x);
-		final Collection<String> different = new HashSet<String>();
-
-		different.addAll(x);
-		different.addAll(y);
-		similar.retainAll(y);
-
-		different.removeAll(similar);
-
-		final double s = similar.size();
-		final double d = different.size();
-		final double t = concreteFeatures.size();
+	@Override
+	public int getBufferSize() {
+		return unsortedConfigurations + configurations.size();
+	}
 
-		return (s + (t - (s + d))) / t;
+	private double getSimilarity(InteractionIndex index, int x, int y) {
+		return (double) index.countAgreements(x, y) / concreteFeatures.size();
 	}
 
 }
@@ -33,7 +33,7 @@ import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.functional.Functional;
-import de.ovgu.featureide.fm.core.io.FeatureGraphFormat;
+import de.ovgu.featureide.fm.core.io.binary.BinaryFeatureGraphFormat;
 import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
 import de.ovgu.featureide.fm.core.job.IJob;
 import de.ovgu.featureide.fm.core.job.IRunner;
@@ -53,7 +53,7 @@ public class BuildFeatureGraphHandler extends AFeatureProjectHandler {
 	@Override
 	protected void endAction() {
 		for (final IFeatureProject project : projectList) {
-			final Path path = Paths.get(project.getProject().getFile("model.fg").getLocationURI());
+			final Path path = Paths.get(project.getProject().getFile("model.fgb").getLocationURI());
 			final IFeatureModel fm = project.getFeatureModel();
 			final SatInstance sat =
 				new SatInstance(AdvancedNodeCreator.createRegularCNF(fm), Functional.mapToList(fm.getFeatures(), FeatureUtils.GET_FEATURE_NAME));
@@ -62,7 +62,7 @@ public class BuildFeatureGraphHandler extends AFeatureProjectHandler {
 
 				@Override
 				public void jobFinished(IJob<IFeatureGraph> finishedJob) {
-					SimpleFileHandler.save(path, finishedJob.getResults(), new FeatureGraphFormat());
+					SimpleFileHandler.save(path, finishedJob.getResults(), new BinaryFeatureGraphFormat());
 				}
 			});
 			runner.schedule();
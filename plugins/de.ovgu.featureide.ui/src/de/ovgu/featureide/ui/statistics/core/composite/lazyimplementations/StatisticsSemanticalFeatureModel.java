@@ -23,6 +23,8 @@ package de.ovgu.featureide.ui.statistics.core.composite.lazyimplementations;
 import static de.ovgu.featureide.fm.core.localization.StringTable.CALCULATING;
 import static de.ovgu.featureide.fm.core.localization.StringTable.MORE_THAN;
 
+import java.math.BigInteger;
+
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
@@ -73,7 +75,12 @@ public class StatisticsSemanticalFeatureModel extends LazyParent {
 						return "1";
 					}
 
-					final long number = new Configuration(innerModel, false, ignoreAbstract).number(timeout);
+					final Configuration configuration = new Configuration(innerModel, false, ignoreAbstract);
+					final BigInteger exactNumber = configuration.numberExact(timeout);
+					if (exactNumber != null) {
+						return exactNumber.toString();
+					}
+					final long number = configuration.number(timeout);
 
 					return ((number < 0) ? MORE_THAN + (-number - 1) : String.valueOf(number));
 				}
@@ -0,0 +1,82 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.prop4j.analyses.AllConfigurationsGenerator;
+import org.prop4j.analyses.AtomicSetAnalysis;
+import org.prop4j.analyses.CoreDeadAnalysis;
+import org.prop4j.analyses.FGBuilder;
+import org.prop4j.analyses.PairWiseConfigurationGenerator;
+import org.prop4j.analyses.TWiseConfigurationGenerator;
+
+import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Measures the SAT-based analyses of {@code org.prop4j.analyses} on the CNF of a feature model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnalysisBenchmark {
+
+	/**
+	 * Upper bound for the number of configurations created by the sampling benchmarks.
+	 */
+	private static final int MAX_CONFIGURATIONS = 100;
+
+	@Benchmark
+	public int[] coreDeadAnalysis(FeatureModelState state) {
+		return LongRunningWrapper.runMethod(new CoreDeadAnalysis(state.satInstance));
+	}
+
+	@Benchmark
+	public List<int[]> atomicSetAnalysis(FeatureModelState state) {
+		return LongRunningWrapper.runMethod(new AtomicSetAnalysis(state.satInstance));
+	}
+
+	@Benchmark
+	public IFeatureGraph featureGraph(FeatureModelState state) {
+		return LongRunningWrapper.runMethod(new FGBuilder(state.satInstance));
+	}
+
+	@Benchmark
+	public List<List<String>> pairWiseSampling(FeatureModelState state) {
+		return LongRunningWrapper.runMethod(new PairWiseConfigurationGenerator(state.satInstance, MAX_CONFIGURATIONS));
+	}
+
+	@Benchmark
+	public List<List<String>> tWiseSampling(FeatureModelState state) {
+		return LongRunningWrapper.runMethod(new TWiseConfigurationGenerator(state.satInstance, 2, MAX_CONFIGURATIONS));
+	}
+
+	@Benchmark
+	public Long allConfigurations(FeatureModelState state) {
+		return LongRunningWrapper.runMethod(new AllConfigurationsGenerator(state.satInstance, MAX_CONFIGURATIONS));
+	}
+
+}
@@ -0,0 +1,81 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Measures the propagation of a single manual selection, as triggered by the configuration editor.<br> Before each invocation the configuration is reset and
+ * the next feature that is not decided by the feature model alone is selected. Only the following update is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ConfigurationPropagatorBenchmark {
+
+	private Configuration configuration;
+
+	private final List<SelectableFeature> openFeatures = new ArrayList<>();
+
+	private int nextFeature = 0;
+
+	@Setup(Level.Trial)
+	public void setUp(FeatureModelState state) {
+		configuration = new Configuration(state.featureModel);
+		openFeatures.clear();
+		for (final SelectableFeature feature : configuration.getFeatures()) {
+			if (feature.getAutomatic() == Selection.UNDEFINED) {
+				openFeatures.add(feature);
+			}
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void selectNextFeature() {
+		configuration.resetValues();
+		if (!openFeatures.isEmpty()) {
+			openFeatures.get(nextFeature++ % openFeatures.size()).setManual(Selection.SELECTED);
+		}
+	}
+
+	@Benchmark
+	public Configuration update() {
+		LongRunningWrapper.runMethod(configuration.getPropagator().update());
+		return configuration;
+	}
+
+}
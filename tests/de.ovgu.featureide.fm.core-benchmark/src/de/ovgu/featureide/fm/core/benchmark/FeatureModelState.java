@@ -0,0 +1,81 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.benchmark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.evaluation.Generator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.io.manager.FileHandler;
+
+/**
+ * Provides the feature model a benchmark runs on.<br> A model is either the {@code model.xml} of a folder in {@code /featuremodels} or, for names of the form
+ * {@code generated-<n>}, a synthetic model with {@code n} features created by {@link Generator#generateFeatureModel(long, int)}.<br> The folder containing
+ * the models can be changed with the system property {@value #MODEL_DIRECTORY_PROPERTY}.
+ */
+@State(Scope.Benchmark)
+public class FeatureModelState {
+
+	public static final String MODEL_DIRECTORY_PROPERTY = "featureide.benchmark.models";
+
+	private static final String DEFAULT_MODEL_DIRECTORY = "../../featuremodels";
+	private static final String GENERATED_PREFIX = "generated-";
+	private static final long GENERATOR_SEED = 0;
+
+	@Param({ "GPLmedium", "BerkeleyDB", "Violet", "E-Shop", "WaterlooGenerated", "generated-100", "generated-500" })
+	public String model;
+
+	public IFeatureModel featureModel;
+
+	public SatInstance satInstance;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		featureModel = loadFeatureModel(model);
+		satInstance = new SatInstance(AdvancedNodeCreator.createRegularCNF(featureModel),
+				Functional.mapToList(featureModel.getFeatures(), FeatureUtils.GET_FEATURE_NAME));
+	}
+
+	public static IFeatureModel loadFeatureModel(String name) {
+		if (name.startsWith(GENERATED_PREFIX)) {
+			return Generator.generateFeatureModel(GENERATOR_SEED, Integer.parseInt(name.substring(GENERATED_PREFIX.length())));
+		}
+		final Path path = Paths.get(System.getProperty(MODEL_DIRECTORY_PROPERTY, DEFAULT_MODEL_DIRECTORY), name, "model.xml");
+		final FileHandler<IFeatureModel> fileHandler = FeatureModelManager.load(path);
+		if (fileHandler.getLastProblems().containsError()) {
+			throw new IllegalArgumentException("Could not load feature model " + path.toAbsolutePath() + ": " + fileHandler.getLastProblems());
+		}
+		return fileHandler.getObject();
+	}
+
+}
@@ -0,0 +1,103 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.benchmark;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.ExtendedFeatureModelFactory;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.io.IFeatureModelFormat;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+import de.ovgu.featureide.fm.core.io.dimacs.DIMACSFormat;
+import de.ovgu.featureide.fm.core.io.velvet.VelvetFeatureModelFormat;
+import de.ovgu.featureide.fm.core.io.xml.XmlFeatureModelFormat;
+
+/**
+ * Measures the feature model readers. The input of each reader is created once per trial by writing the benchmark model with the same format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+	private static final String XML = "xml";
+	private static final String VELVET = "velvet";
+	private static final String DIMACS = "dimacs";
+
+	@Param({ XML, VELVET, DIMACS })
+	public String format;
+
+	private String source;
+
+	@Setup(Level.Trial)
+	public void setUp(FeatureModelState state) {
+		// Velvet would otherwise look up imported models in the Eclipse workspace
+		VelvetFeatureModelFormat.IS_USED_AS_API = true;
+		source = createFormat().write(state.featureModel);
+
+		final ProblemList problems = createFormat().read(createFeatureModel(), source);
+		if (problems.containsError()) {
+			throw new IllegalStateException("Could not read " + format + " output: " + problems);
+		}
+	}
+
+	@Benchmark
+	public IFeatureModel read() {
+		final IFeatureModel featureModel = createFeatureModel();
+		createFormat().read(featureModel, source);
+		return featureModel;
+	}
+
+	private IFeatureModelFormat createFormat() {
+		switch (format) {
+		case XML:
+			return new XmlFeatureModelFormat();
+		case VELVET:
+			return new VelvetFeatureModelFormat();
+		case DIMACS:
+			return new DIMACSFormat();
+		default:
+			throw new IllegalArgumentException("Unknown format: " + format);
+		}
+	}
+
+	private IFeatureModel createFeatureModel() {
+		if (VELVET.equals(format)) {
+			final IFeatureModel featureModel = ExtendedFeatureModelFactory.getInstance().createFeatureModel();
+			featureModel.setSourceFile(Paths.get("model." + VELVET));
+			return featureModel;
+		}
+		return FMFactoryManager.getEmptyFeatureModel();
+	}
+
+}
@@ -0,0 +1,76 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.prop4j.Node;
+
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+
+/**
+ * Measures the translation of feature models into propositional formulas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NodeBenchmark {
+
+	/**
+	 * Holds a fresh copy of the non-CNF formula of the model for every invocation, as {@link Node#toCNF()} may modify its input.
+	 */
+	@State(Scope.Thread)
+	public static class FormulaState {
+
+		private Node formula;
+
+		private Node copy;
+
+		@Setup(Level.Trial)
+		public void createFormula(FeatureModelState state) {
+			formula = AdvancedNodeCreator.createNodes(state.featureModel);
+		}
+
+		@Setup(Level.Invocation)
+		public void copyFormula() {
+			copy = formula.clone();
+		}
+
+	}
+
+	@Benchmark
+	public Node createNodes(FeatureModelState state) {
+		return AdvancedNodeCreator.createNodes(state.featureModel);
+	}
+
+	@Benchmark
+	public Node toCNF(FormulaState formulaState) {
+		return formulaState.copy.toCNF();
+	}
+
+}
@@ -0,0 +1,89 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.SatSolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+
+/**
+ * Tests for {@link FeatureDependencies}. The dependencies are compared with a separate satisfiability check for each pair of features.
+ */
+public class TFeatureDependencies {
+
+	@Test
+	public void testGPL() throws TimeoutException {
+		testModel("gpl_medium_model.xml");
+	}
+
+	@Test
+	public void testBerkeleyDB() throws TimeoutException {
+		testModel("berkeley_db_model.xml");
+	}
+
+	@Test
+	public void testDeadAndFalseOptionalFeatures() throws TimeoutException {
+		testModel("false_optional_test.xml");
+	}
+
+	private static void testModel(String fileName) throws TimeoutException {
+		final IFeatureModel fm = Commons.loadTestFeatureModelFromFile(fileName);
+		final Node cnf = AdvancedNodeCreator.createCNF(fm);
+		final FeatureDependencies dependencies = new FeatureDependencies(fm);
+		final FeatureDependencies lazyDependencies = new FeatureDependencies(fm, false);
+
+		for (final IFeature feature : fm.getFeatures()) {
+			final SatSolver solver = new SatSolver(new And(cnf.clone(), new Literal(feature.getName())), 2500);
+			final Set<IFeature> always = new LinkedHashSet<>();
+			final Set<IFeature> never = new LinkedHashSet<>();
+			final Set<IFeature> maybe = new LinkedHashSet<>();
+			for (final IFeature otherFeature : fm.getFeatures()) {
+				if (!otherFeature.equals(feature)) {
+					if (!solver.isSatisfiable(new Node[] { new Literal(otherFeature.getName(), false) })) {
+						always.add(otherFeature);
+					} else if (!solver.isSatisfiable(new Node[] { new Literal(otherFeature.getName(), true) })) {
+						never.add(otherFeature);
+					} else {
+						maybe.add(otherFeature);
+					}
+					assertEquals(feature + " => " + otherFeature, always.contains(otherFeature), lazyDependencies.isAlways(feature, otherFeature));
+				}
+			}
+			assertEquals(feature.getName(), always, dependencies.always(feature));
+			assertEquals(feature.getName(), never, dependencies.never(feature));
+			assertEquals(feature.getName(), maybe, dependencies.maybe(feature));
+		}
+	}
+
+}
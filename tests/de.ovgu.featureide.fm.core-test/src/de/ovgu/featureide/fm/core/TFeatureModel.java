@@ -21,14 +21,22 @@
 package de.ovgu.featureide.fm.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
 import java.util.LinkedList;
 
 import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
 
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.IFeatureModelFactory;
@@ -91,4 +99,32 @@ public class TFeatureModel {
 		assertEquals(expectedOrder, actualOrder);
 	}
 
+	@Test
+	public void constraintCnfTest() {
+		final IFeatureModel fm = factory.createFeatureModel();
+		final IFeature root = factory.createFeature(fm, "root");
+		fm.addFeature(root);
+		fm.getStructure().setRoot(root.getStructure());
+		for (final String name : new String[] { "A", "B", "C" }) {
+			final IFeature feature = factory.createFeature(fm, name);
+			fm.addFeature(feature);
+			FeatureUtils.addChild(root, feature);
+		}
+		final IConstraint constraint = factory.createConstraint(fm, new Implies("A", new And("B", "C")));
+		fm.addConstraint(constraint);
+
+		final Node cnf = constraint.getCNF();
+		assertEquals(constraint.getNode().toRegularCNF(), cnf);
+		assertSame(cnf, constraint.getCNF());
+
+		// renaming changes the formula in place
+		assertTrue(fm.getRenamingsManager().renameFeature("B", "D"));
+		final Node renamedCnf = constraint.getCNF();
+		assertNotSame(cnf, renamedCnf);
+		assertEquals(new Implies("A", new And("D", "C")).toRegularCNF(), renamedCnf);
+
+		constraint.setNode(new Not(new Literal("A")));
+		assertEquals(new Not(new Literal("A")).toRegularCNF(), constraint.getCNF());
+	}
+
 }
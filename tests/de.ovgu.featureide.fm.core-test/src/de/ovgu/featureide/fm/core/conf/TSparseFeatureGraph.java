@@ -0,0 +1,159 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.conf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.analyses.FGBuilder;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.binary.BinaryFeatureGraphFormat;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link SparseFeatureGraph} and {@link BinaryFeatureGraphFormat}.
+ */
+public class TSparseFeatureGraph {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static final byte[] EDGE_TYPES = { AFeatureGraph.EDGE_NONE, AFeatureGraph.EDGE_00Q, AFeatureGraph.EDGE_00, AFeatureGraph.EDGE_01Q,
+		AFeatureGraph.EDGE_10Q, AFeatureGraph.EDGE_10, AFeatureGraph.EDGE_11Q };
+
+	private static IFeatureGraph buildFeatureGraph(String name) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		final SatInstance satInstance =
+			new SatInstance(AdvancedNodeCreator.createRegularCNF(fm), Functional.mapToList(fm.getFeatures(), FeatureUtils.GET_FEATURE_NAME));
+		return LongRunningWrapper.runMethod(new FGBuilder(satInstance));
+	}
+
+	private static SatInstance createSatInstance(int size) {
+		final List<String> names = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			names.add("F" + i);
+		}
+		return new SatInstance(new And(), names);
+	}
+
+	private static void assertSameEdges(IFeatureGraph expected, IFeatureGraph actual) {
+		assertEquals(expected.getSize(), actual.getSize());
+		assertArrayEquals(expected.getIndex(), actual.getIndex());
+		for (int i = 0; i < expected.getSize(); i++) {
+			for (int j = 0; j < expected.getSize(); j++) {
+				assertEquals(i + " -> " + j, expected.getEdge(i, j), actual.getEdge(i, j));
+				assertEquals(expected.getValue(i, j, true), actual.getValue(i, j, true));
+				assertEquals(expected.getValue(i, j, false), actual.getValue(i, j, false));
+			}
+		}
+	}
+
+	@Test
+	public void testRandomEdges() {
+		final int size = 50;
+		final SatInstance satInstance = createSatInstance(size);
+		final int[] index = new int[size];
+		for (int i = 0; i < size; i++) {
+			index[i] = i;
+		}
+		final MatrixFeatureGraph matrixGraph = new MatrixFeatureGraph(satInstance, index);
+		final SparseFeatureGraph sparseGraph = new SparseFeatureGraph(satInstance, index);
+		final Random random = new Random(0);
+		for (int k = 0; k < 5000; k++) {
+			// the first rows get many edges, so that they are stored as dense arrays
+			final int from = random.nextInt(random.nextBoolean() ? 3 : size);
+			final int to = random.nextInt(size);
+			final byte edgeType = EDGE_TYPES[random.nextInt(EDGE_TYPES.length)];
+			assertEquals(matrixGraph.setEdge(from, to, edgeType), sparseGraph.setEdge(from, to, edgeType));
+		}
+		assertSameEdges(matrixGraph, sparseGraph);
+
+		final SparseFeatureGraph copy = new SparseFeatureGraph();
+		copy.copyValues(matrixGraph);
+		assertSameEdges(matrixGraph, copy);
+	}
+
+	@Test
+	public void testBinaryFormat() throws Exception {
+		final IFeatureGraph featureGraph = buildFeatureGraph("gpl_medium_model.xml");
+		assertNotNull(featureGraph);
+		assertTrue(featureGraph instanceof SparseFeatureGraph);
+
+		final Path file = Files.createTempFile("model", ".fgb");
+		try {
+			assertFalse(SimpleFileHandler.save(file, featureGraph, new BinaryFeatureGraphFormat()).containsError());
+
+			final SparseFeatureGraph loadedGraph = new SparseFeatureGraph();
+			assertFalse(SimpleFileHandler.load(file, loadedGraph, new BinaryFeatureGraphFormat()).containsError());
+			assertTrue(loadedGraph.isMapped());
+			assertSameEdges(featureGraph, loadedGraph);
+			assertArrayEquals(FeatureUtils.getFeaturesFromFeatureGraph(featureGraph), FeatureUtils.getFeaturesFromFeatureGraph(loadedGraph));
+			for (final String name : FeatureUtils.getFeaturesFromFeatureGraph(featureGraph)) {
+				assertEquals(featureGraph.getFeatureIndex(name), loadedGraph.getFeatureIndex(name));
+			}
+
+			final MatrixFeatureGraph matrixGraph = new MatrixFeatureGraph();
+			assertFalse(SimpleFileHandler.load(file, matrixGraph, new BinaryFeatureGraphFormat()).containsError());
+			assertSameEdges(featureGraph, matrixGraph);
+
+			// the loaded graph does not depend on the file, which can be overwritten (e.g., when the graph is built again)
+			assertFalse(SimpleFileHandler.save(file, buildFeatureGraph("apl_model.xml"), new BinaryFeatureGraphFormat()).containsError());
+			assertSameEdges(featureGraph, loadedGraph);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testModifyMappedGraph() {
+		final IFeatureGraph featureGraph = buildFeatureGraph("gpl_medium_model.xml");
+		final BinaryFeatureGraphFormat format = new BinaryFeatureGraphFormat();
+		final SparseFeatureGraph mappedGraph = BinaryFeatureGraphFormat.map(ByteBuffer.wrap(format.writeBytes(featureGraph)));
+		assertEquals(((SparseFeatureGraph) featureGraph).getNumberOfEdges(), mappedGraph.getNumberOfEdges());
+
+		final int last = featureGraph.getSize() - 1;
+		assertEquals(featureGraph.setEdge(0, last, AFeatureGraph.EDGE_NONE), mappedGraph.setEdge(0, last, AFeatureGraph.EDGE_NONE));
+		assertFalse(mappedGraph.isMapped());
+		assertSameEdges(featureGraph, mappedGraph);
+	}
+
+}
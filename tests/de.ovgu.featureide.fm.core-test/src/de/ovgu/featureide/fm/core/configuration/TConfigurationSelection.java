@@ -23,9 +23,14 @@ package de.ovgu.featureide.fm.core.configuration;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.functional.Functional.IConsumer;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
 
 /**
  * Tests about feature selection.
@@ -83,4 +88,26 @@ public class TConfigurationSelection extends AbstractConfigurationTest {
 		assertTrue(exception);
 	}
 
+	/**
+	 * The configuration editor locks all features during an update and unlocks each feature when it is passed to the monitor.
+	 */
+	@Test
+	public void testUpdateInvokesAllFeatures() throws Exception {
+		final Configuration c = new Configuration(fm, true);
+		for (final String name : new String[] { "A", "C" }) {
+			c.setManual(name, Selection.SELECTED);
+			final Set<Object> updatedFeatures = new HashSet<>();
+			final NullMonitor monitor = new NullMonitor();
+			monitor.setIntermediateFunction(new IConsumer<Object>() {
+
+				@Override
+				public void invoke(Object t) {
+					updatedFeatures.add(t);
+				}
+			});
+			c.getPropagator().update().execute(monitor);
+			assertTrue(updatedFeatures.containsAll(c.getFeatures()));
+		}
+	}
+
 }
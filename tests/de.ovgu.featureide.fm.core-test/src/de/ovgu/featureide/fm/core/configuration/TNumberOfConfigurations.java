@@ -22,6 +22,8 @@ package de.ovgu.featureide.fm.core.configuration;
 
 import static org.junit.Assert.assertEquals;
 
+import java.math.BigInteger;
+
 import org.junit.Test;
 
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
@@ -99,6 +101,18 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		assertEquals(3, c.number());
 	}
 
+	@Test
+	public void testOverflow() {
+		final StringBuilder features = new StringBuilder("<and mandatory=\"true\" name=\"S\">");
+		for (int i = 0; i < 64; i++) {
+			features.append("<feature name=\"F").append(i).append("\"/>");
+		}
+		features.append("</and>");
+		final Configuration c = new Configuration(loadXML(features.toString()));
+		assertEquals(-1 - Long.MAX_VALUE, c.number());
+		assertEquals(BigInteger.ONE.shiftLeft(64), c.numberExact(250));
+	}
+
 	@Test
 	public void testAlternativeGroup() {
 		final IFeatureModel fm =
@@ -0,0 +1,225 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ClauseDatabase;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+import de.ovgu.featureide.fm.core.filter.AbstractFeatureFilter;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * Tests for {@link FormulaCache}.
+ */
+public class FormulaCacheTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static IFeatureModel loadModel(String name) {
+		return FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+	}
+
+	private static AdvancedNodeCreator createNodeCreator(IFeatureModel fm) {
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setIncludeBooleanValues(false);
+		return nodeCreator;
+	}
+
+	@Test
+	public void testHit() {
+		final IFeatureModel fm = loadModel("gpl_medium_model.xml");
+		final FormulaCache cache = new FormulaCache(4);
+
+		final FormulaCache.Formula formula = cache.getFormula(createNodeCreator(fm));
+		assertSame(formula, cache.getFormula(createNodeCreator(fm)));
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(createNodeCreator(fm).createNodes(), formula.getCnf());
+	}
+
+	@Test
+	public void testCopy() {
+		final IFeatureModel fm = loadModel("gpl_medium_model.xml");
+		final FormulaCache cache = new FormulaCache(4);
+
+		final Node cnf = cache.getCnf(createNodeCreator(fm));
+		final Node expected = cnf.clone();
+		cnf.getChildren()[0] = new Literal("NotAFeature");
+
+		final Node newCnf = cache.getCnf(createNodeCreator(fm));
+		assertNotSame(cnf, newCnf);
+		assertEquals(expected, newCnf);
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testModification() {
+		final IFeatureModel fm = loadModel("gpl_medium_model.xml");
+		final FormulaCache cache = new FormulaCache(4);
+
+		final Node cnf = cache.getCnf(createNodeCreator(fm));
+		final long modificationCount = fm.getModificationCount();
+		final IFeature feature = fm.getFeatures().iterator().next();
+		fm.addConstraint(FMFactoryManager.getFactory(fm).createConstraint(fm, new Literal(feature.getName())));
+		assertTrue(modificationCount != fm.getModificationCount());
+
+		final Node newCnf = cache.getCnf(createNodeCreator(fm));
+		assertNotSame(cnf, newCnf);
+		assertEquals(createNodeCreator(fm).createNodes(), newCnf);
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.size());
+
+		// a newer revision replaces the older ones
+		final IFeatureModel clone = fm.clone();
+		assertTrue(fm.getModificationCount() != clone.getModificationCount());
+		cache.getCnf(createNodeCreator(clone));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testModificationWithoutEvent() {
+		final IFeatureModel fm = loadModel("gpl_medium_model.xml");
+		final FormulaCache cache = new FormulaCache(4);
+
+		Node cnf = cache.getCnf(createNodeCreator(fm));
+		for (final IFeature feature : fm.getFeatures()) {
+			if (feature.getStructure().isAlternative()) {
+				feature.getStructure().setAnd();
+				break;
+			}
+		}
+		cnf = assertNewFormula(cache, fm, cnf);
+
+		final IConstraint constraint = fm.getConstraints().get(0);
+		constraint.setNode(new Not(constraint.getNode()));
+		cnf = assertNewFormula(cache, fm, cnf);
+
+		fm.getFeatures().iterator().next().setName("Renamed");
+		assertNewFormula(cache, fm, cnf);
+	}
+
+	private static Node assertNewFormula(FormulaCache cache, IFeatureModel fm, Node oldCnf) {
+		final Node cnf = cache.getCnf(createNodeCreator(fm));
+		assertFalse(oldCnf.equals(cnf));
+		assertEquals(createNodeCreator(fm).createNodes(), cnf);
+		return cnf;
+	}
+
+	@Test
+	public void testDifferentSettings() {
+		final IFeatureModel fm = loadModel("gpl_medium_model.xml");
+		final FormulaCache cache = new FormulaCache(4);
+
+		final AdvancedNodeCreator nodeCreator = createNodeCreator(fm);
+		final Node cnf = cache.getCnf(nodeCreator);
+		nodeCreator.setModelType(ModelType.OnlyStructure);
+		final Node structureCnf = cache.getCnf(nodeCreator);
+		final AdvancedNodeCreator filteredNodeCreator = new AdvancedNodeCreator(fm, new AbstractFeatureFilter());
+		filteredNodeCreator.setCnfType(CNFType.Regular);
+		filteredNodeCreator.setIncludeBooleanValues(false);
+		final Node filteredCnf = cache.getCnf(filteredNodeCreator);
+
+		assertNotSame(cnf, structureCnf);
+		assertNotSame(cnf, filteredCnf);
+		assertEquals(3, cache.size());
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void testEviction() {
+		final FormulaCache cache = new FormulaCache(2);
+		final IFeatureModel fm1 = loadModel("gpl_medium_model.xml");
+		final IFeatureModel fm2 = loadModel("berkeley_db_model.xml");
+		final IFeatureModel fm3 = loadModel("apl_model.xml");
+
+		final FormulaCache.Formula formula1 = cache.getFormula(createNodeCreator(fm1));
+		cache.getCnf(createNodeCreator(fm2));
+		assertSame(formula1, cache.getFormula(createNodeCreator(fm1)));
+		cache.getCnf(createNodeCreator(fm3));
+		assertEquals(2, cache.size());
+
+		// fm2 was the least recently used entry
+		assertSame(formula1, cache.getFormula(createNodeCreator(fm1)));
+		final long misses = cache.getMisses();
+		cache.getCnf(createNodeCreator(fm2));
+		assertEquals(misses + 1, cache.getMisses());
+	}
+
+	@Test
+	public void testSatInstance() throws Exception {
+		final IFeatureModel fm = loadModel("berkeley_db_model.xml");
+		final FormulaCache cache = new FormulaCache(4);
+		final FormulaCache.Formula formula = cache.getFormula(createNodeCreator(fm));
+
+		final SatInstance satInstance = formula.getSatInstance();
+		assertSame(satInstance, cache.getFormula(createNodeCreator(fm)).getSatInstance());
+		assertEquals(fm.getNumberOfFeatures(), satInstance.getNumberOfVariables());
+
+		final Node[] clauses = formula.getCnf().getChildren();
+		final ClauseDatabase clauseDatabase = formula.getClauseDatabase();
+		assertEquals(clauses.length, clauseDatabase.getNumberOfClauses());
+		for (int i = 0; i < clauses.length; i++) {
+			final Node[] literals = clauses[i] instanceof Or ? clauses[i].getChildren() : new Node[] { clauses[i] };
+			final int[] expected = new int[literals.length];
+			for (int j = 0; j < literals.length; j++) {
+				final Literal literal = (Literal) literals[j];
+				final int variable = satInstance.getVariable(literal.var);
+				expected[j] = literal.positive ? variable : -variable;
+			}
+			assertArrayEquals(Arrays.toString(expected), expected, clauseDatabase.getClause(i));
+		}
+
+		final BasicSolver solver1 = formula.createSolver();
+		final BasicSolver solver2 = formula.createSolver();
+		assertNotSame(solver1, solver2);
+		assertSame(satInstance, solver1.getSatInstance());
+		final int root = satInstance.getVariable(fm.getStructure().getRoot().getFeature().getName());
+		solver1.assignmentPush(-root);
+		assertEquals(SatResult.FALSE, solver1.isSatisfiable());
+		assertEquals(SatResult.TRUE, solver2.isSatisfiable());
+	}
+
+}
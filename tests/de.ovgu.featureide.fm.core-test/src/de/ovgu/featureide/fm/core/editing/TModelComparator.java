@@ -21,18 +21,26 @@
 package de.ovgu.featureide.fm.core.editing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Test;
+import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.NodeReader;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
@@ -269,12 +277,110 @@ public class TModelComparator {
 
 	private Comparison compare(String fm1, String fm2) throws UnsupportedModelException {
 		final ModelComparator comperator = new ModelComparator(TIMEOUT);
-		final IFeatureModel oldModel = FMFactoryManager.getDefaultFactory().createFeatureModel();
-		final GuidslFormat reader = new GuidslFormat();
-		reader.read(oldModel, fm1);
-		final IFeatureModel newModel = FMFactoryManager.getDefaultFactory().createFeatureModel();
-		reader.read(newModel, fm2);
-		return comperator.compare(oldModel, newModel);
+		return comperator.compare(read(fm1), read(fm2));
+	}
+
+	private IFeatureModel read(String fm) {
+		final IFeatureModel model = FMFactoryManager.getDefaultFactory().createFeatureModel();
+		new GuidslFormat().read(model, fm);
+		return model;
+	}
+
+	/**
+	 * Compares a history of revisions at once and checks that the results equal the single comparisons.
+	 */
+	@Test
+	public void testHistory() throws TimeoutException, UnsupportedModelException {
+		final String[] revisions = { "S : A | B;", "S : A | B | C;", "S : [A] [B] :: _S;", "S : [A] B :: _S;", "S : A | B;" };
+		final List<IFeatureModel> models = new ArrayList<>();
+		for (final String revision : revisions) {
+			models.add(read(revision));
+		}
+		final ModelComparator comparator = new ModelComparator(TIMEOUT);
+
+		final List<Comparison> history = comparator.compareHistory(models);
+		assertEquals(revisions.length - 1, history.size());
+		assertEquals(Comparison.GENERALIZATION, history.get(0));
+		for (int i = 0; i < history.size(); i++) {
+			assertEquals(compare(revisions[i], revisions[i + 1]), history.get(i));
+		}
+
+		final Comparison[][] all = comparator.compareAll(models);
+		for (int i = 0; i < revisions.length; i++) {
+			for (int j = 0; j < revisions.length; j++) {
+				assertEquals(i + " -> " + j, compare(revisions[i], revisions[j]), all[i][j]);
+			}
+		}
+		assertEquals(Comparison.REFACTORING, all[4][0]);
+	}
+
+	/**
+	 * Checks that the examples are taken from the right model and are not repeated.
+	 */
+	@Test
+	public void testExamples() throws TimeoutException, UnsupportedModelException {
+		final ModelComparator comparator = new ModelComparator(TIMEOUT);
+		assertEquals(Comparison.GENERALIZATION, comparator.compare(read("S : [A] B :: _S;"), read("S : [A] [B] :: _S;")));
+		assertNull(comparator.calculateExample(false));
+
+		final Set<String> addedProducts = new HashSet<String>();
+		Configuration c;
+		while ((c = comparator.calculateExample(true)) != null) {
+			assertTrue(c.toString(), addedProducts.add(c.toString()));
+			assertFalse(c.toString(), c.getSelectedFeatureNames().contains("B"));
+		}
+		assertEquals(2, addedProducts.size());
+	}
+
+	/**
+	 * Abstract features in an alternative group are replaced by formulas within the group constraints.
+	 */
+	@Test
+	public void testAbstractFeaturesInAlternativeGroup() throws TimeoutException, UnsupportedModelException {
+		assertEquals(Comparison.REFACTORING, compare("S : T | U; T : A | B; U : C | D;", "S : T | U; T : A | B; U : C | D;"));
+		assertEquals(Comparison.GENERALIZATION, compare("S : T | U; T : A | B; U : C | D; %% not A;", "S : T | U; T : A | B; U : C | D;"));
+		assertEquals(Comparison.SPECIALIZATION, compare("S : T | U; T : A | B; U : C | D;", "S : T | U; T : A | B; U : C | D; %% not A;"));
+
+		final IFeatureModel fm = Commons.loadTestFeatureModelFromFile("berkeley_db_model.xml");
+		final IFeatureModel generalization = fm.clone();
+		final List<IConstraint> constraints = generalization.getConstraints();
+		generalization.removeConstraint(constraints.get(constraints.size() - 1));
+		assertEquals(Comparison.GENERALIZATION, new ModelComparator(TIMEOUT).compare(fm, generalization));
+	}
+
+	/**
+	 * Abstract features with the same replacement in both models are kept. The results must equal the comparisons of models without abstract features.
+	 */
+	@Test
+	public void testSharedAbstractFeatures() throws TimeoutException, UnsupportedModelException {
+		final String[] revisions = { "S : T U; T : V | W; V : A | B; W : C | D; U : [E] [F] :: _U;",
+			"S : T U; T : V | W; V : A | B; W : C | D; U : [E] F :: _U;", "S : T U; T : V | W; V : A | B; W : C | D; U : [E] [F] :: _U; %% E implies A;",
+			"S : T U; T : V | W; V : A | B | E; W : C | D; U : [F] :: _U;" };
+		for (final String oldRevision : revisions) {
+			for (final String newRevision : revisions) {
+				assertSharedAbstractFeatures(read(oldRevision), read(newRevision));
+			}
+		}
+
+		final IFeatureModel fm = Commons.loadTestFeatureModelFromFile("berkeley_db_model.xml");
+		final IFeatureModel specialization = fm.clone();
+		IFeature feature = null;
+		for (final IFeature f : specialization.getFeatures()) {
+			if (f.getStructure().isConcrete() && !f.getStructure().isMandatory()) {
+				feature = f;
+				break;
+			}
+		}
+		specialization.addConstraint(FMFactoryManager.getFactory(specialization).createConstraint(specialization, new Literal(feature.getName())));
+		assertSharedAbstractFeatures(fm, specialization);
+		assertSharedAbstractFeatures(specialization, fm);
+	}
+
+	private static void assertSharedAbstractFeatures(IFeatureModel oldModel, IFeatureModel newModel) {
+		final ModelComparator comparator = new ModelComparator(TIMEOUT);
+		final Comparison expected = comparator.compare(new ComparisonModel(oldModel, TIMEOUT), new ComparisonModel(newModel, TIMEOUT));
+		assertEquals(expected, comparator.compare(oldModel, newModel));
+		assertEquals(Arrays.asList(expected), comparator.compareHistory(Arrays.asList(oldModel, newModel)));
 	}
 
 	@Test
@@ -0,0 +1,149 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing.remove;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.SatSolver;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link VariableEliminator}. The sliced formulas must be equivalent to the ones of the {@link FeatureRemover}.
+ */
+public class VariableEliminatorTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static final int TIMEOUT = 10000;
+
+	private static List<String> getRandomFeatures(IFeatureModel fm, long seed) {
+		final List<String> features = new ArrayList<>(FeatureUtils.getFeatureNames(fm));
+		final Random random = new Random(seed);
+		final List<String> removedFeatures = new ArrayList<>();
+		for (final String feature : features) {
+			if (random.nextInt(3) > 0) {
+				removedFeatures.add(feature);
+			}
+		}
+		return removedFeatures;
+	}
+
+	private static void assertImplies(Node premise, Node conclusion) {
+		final SatSolver solver = new SatSolver(premise, TIMEOUT, false);
+		for (final Node clause : conclusion.getChildren()) {
+			assertTrue(clause.toString(), solver.isImplied(clause.getChildren()));
+		}
+	}
+
+	private static void assertEquivalent(Node cnf1, Node cnf2) {
+		assertImplies(cnf1, cnf2);
+		assertImplies(cnf2, cnf1);
+	}
+
+	private static Node eliminate(Node cnf, List<String> removedFeatures, int growthLimit, int parallelism) {
+		final VariableEliminator eliminator = new VariableEliminator(cnf, removedFeatures, true, true);
+		eliminator.setGrowthLimit(growthLimit);
+		eliminator.setParallelism(parallelism);
+		return eliminator.createNewClauseList(LongRunningWrapper.runMethod(eliminator));
+	}
+
+	private static void testModel(String modelName) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, modelName).toPath()).getObject();
+		final Node cnf = AdvancedNodeCreator.createRegularCNF(fm);
+		for (long seed = 0; seed < 3; seed++) {
+			final List<String> removedFeatures = getRandomFeatures(fm, seed);
+			final FeatureRemover remover = new FeatureRemover(cnf, removedFeatures, true, true);
+			final Node expected = remover.createNewClauseList(LongRunningWrapper.runMethod(remover));
+			final Node actual = eliminate(cnf, removedFeatures, VariableEliminator.DEFAULT_GROWTH_LIMIT, 1);
+			assertEquivalent(expected, actual);
+			for (final Node clause : actual.getChildren()) {
+				for (final Node literal : clause.getChildren()) {
+					assertTrue(literal.toString(), !removedFeatures.contains(((Literal) literal).var));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testChain() {
+		// a v b, -b v c, -c v d, e
+		final Node cnf = new And(new Or(new Literal("a"), new Literal("b")), new Or(new Literal("b", false), new Literal("c")),
+				new Or(new Literal("c", false), new Literal("d")), new Or(new Literal("e")));
+		final VariableEliminator eliminator = new VariableEliminator(cnf, Arrays.asList("b", "c"), false, true);
+		final List<? extends Clause> clauses = LongRunningWrapper.runMethod(eliminator);
+		assertEquals(2, clauses.size());
+		final Node result = eliminator.createNewClauseList(clauses);
+		assertEquivalent(new And(new Or(new Literal("a"), new Literal("d")), new Or(new Literal("e"))), result);
+	}
+
+	@Test
+	public void testSubsumption() {
+		// a v b, a v -b, a v c: eliminating b yields a, which subsumes a v c
+		final Node cnf = new And(new Or(new Literal("a"), new Literal("b")), new Or(new Literal("a"), new Literal("b", false)),
+				new Or(new Literal("a"), new Literal("c")));
+		final VariableEliminator eliminator = new VariableEliminator(cnf, Arrays.asList("b"), false, true);
+		final List<? extends Clause> clauses = LongRunningWrapper.runMethod(eliminator);
+		assertEquals(1, clauses.size());
+		assertEquals(1, clauses.get(0).getLiterals().length);
+	}
+
+	@Test
+	public void testGPL() {
+		testModel("gpl_medium_model.xml");
+	}
+
+	@Test
+	public void testBerkeleyDB() {
+		testModel("berkeley_db_model.xml");
+	}
+
+	@Test
+	public void testParallel() {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, "berkeley_db_model.xml").toPath()).getObject();
+		final Node cnf = AdvancedNodeCreator.createRegularCNF(fm);
+		final List<String> removedFeatures = getRandomFeatures(fm, 42);
+		final Node sequential = eliminate(cnf, removedFeatures, VariableEliminator.DEFAULT_GROWTH_LIMIT, 1);
+		final Node parallel = eliminate(cnf, removedFeatures, VariableEliminator.DEFAULT_GROWTH_LIMIT, 4);
+		assertEquals(new HashSet<>(Arrays.asList(sequential.getChildren())), new HashSet<>(Arrays.asList(parallel.getChildren())));
+		assertEquivalent(sequential, eliminate(cnf, removedFeatures, 16, 4));
+	}
+
+}
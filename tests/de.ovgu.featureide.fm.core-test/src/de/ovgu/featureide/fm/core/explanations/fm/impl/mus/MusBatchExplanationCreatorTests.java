@@ -0,0 +1,158 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.explanations.fm.impl.mus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.SatSolver;
+import org.prop4j.analyses.FeatureModelAnalysis;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelElement;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.NodeCreator;
+import de.ovgu.featureide.fm.core.explanations.Explanation;
+import de.ovgu.featureide.fm.core.explanations.Reason;
+import de.ovgu.featureide.fm.core.explanations.fm.FeatureModelReason;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests for {@link MusBatchExplanationCreator}. Each explanation must be an unsatisfiable subset of the feature model under the assumptions of its defect.
+ */
+public class MusBatchExplanationCreatorTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static final int TIMEOUT = 10000;
+
+	/**
+	 * Loads a feature model and adds constraints that make several optional features dead or false-optional. Constraints that would void the feature model are
+	 * skipped.
+	 */
+	private static IFeatureModel loadDefectModel(String name) throws Exception {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		final List<IFeature> features = Functional.toList(fm.getFeatures());
+		for (int i = 1; i < features.size(); i += 5) {
+			final IFeature feature = features.get(i);
+			if (feature.getStructure().isMandatory()) {
+				continue;
+			}
+			final Node node = (i % 2) == 0 ? new Not(new Literal(feature.getName())) : new Literal(feature.getName());
+			final IConstraint constraint = FMFactoryManager.getFactory(fm).createConstraint(fm, node);
+			fm.addConstraint(constraint);
+			if (!new SatSolver(AdvancedNodeCreator.createRegularCNF(fm), TIMEOUT).isSatisfiable()) {
+				fm.removeConstraint(constraint);
+			}
+		}
+		return fm;
+	}
+
+	private static FeatureModelAnalysis analyze(IFeatureModel fm) {
+		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setCalculateConstraints(false);
+		LongRunningWrapper.runMethod(analysis);
+		assertTrue(analysis.isValid());
+		return analysis;
+	}
+
+	private static void assertUnsatisfiable(Explanation explanation, Node... assumptions) throws Exception {
+		assertNotNull(explanation);
+		final List<Node> nodes = new ArrayList<>();
+		Collections.addAll(nodes, assumptions);
+		for (final Reason reason : explanation.getReasons()) {
+			nodes.add(((FeatureModelReason) reason).getTrace().getNode());
+		}
+		assertFalse(explanation.toString(), new SatSolver(new And(nodes.toArray(new Node[0])), TIMEOUT).isSatisfiable());
+	}
+
+	private static void testExplanations(String name, int parallelism) throws Exception {
+		final IFeatureModel fm = loadDefectModel(name);
+		final FeatureModelAnalysis analysis = analyze(fm);
+		final List<IFeature> deadFeatures = analysis.getDeadFeatures();
+		final List<IFeature> falseOptionalFeatures = new ArrayList<>(analysis.getFalseOptionalFeatures());
+		falseOptionalFeatures.removeAll(deadFeatures);
+		assertFalse(deadFeatures.isEmpty());
+		assertFalse(falseOptionalFeatures.isEmpty());
+
+		final MusBatchExplanationCreator creator = new MusBatchExplanationCreator(fm, parallelism);
+		final Map<IFeatureModelElement, Explanation> explanations =
+			creator.getExplanations(deadFeatures, falseOptionalFeatures, Collections.<IConstraint> emptyList(), new NullMonitor());
+		assertEquals(deadFeatures.size() + falseOptionalFeatures.size(), explanations.size());
+		for (final IFeature feature : deadFeatures) {
+			assertUnsatisfiable(explanations.get(feature), new Literal(NodeCreator.getVariable(feature)));
+		}
+		for (final IFeature feature : falseOptionalFeatures) {
+			assertUnsatisfiable(explanations.get(feature), new Literal(NodeCreator.getVariable(feature), false),
+					new Literal(NodeCreator.getVariable(FeatureUtils.getParent(feature))));
+		}
+		if (parallelism == 1) {
+			// the explanations of the dead children reuse the clauses that explain the dead parent
+			assertTrue(creator.getNumberOfSeededExplanations() > 0);
+		}
+	}
+
+	@Test
+	public void testSequential() throws Exception {
+		testExplanations("gpl_medium_model.xml", 1);
+		testExplanations("berkeley_db_model.xml", 1);
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		testExplanations("gpl_medium_model.xml", 4);
+		testExplanations("berkeley_db_model.xml", 4);
+	}
+
+	@Test
+	public void testSatisfiable() throws Exception {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, "gpl_medium_model.xml").toPath()).getObject();
+		final IFeature root = FeatureUtils.getRoot(fm);
+		final MusBatchExplanationCreator creator = new MusBatchExplanationCreator(fm, 2);
+		final Map<IFeatureModelElement, Explanation> explanations = creator.getExplanations(Collections.singletonList(root),
+				Collections.<IFeature> emptyList(), Collections.<IConstraint> emptyList(), new NullMonitor());
+		assertTrue(explanations.containsKey(root));
+		assertEquals(null, explanations.get(root));
+	}
+
+}
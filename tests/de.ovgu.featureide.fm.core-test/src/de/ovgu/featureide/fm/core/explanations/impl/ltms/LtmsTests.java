@@ -0,0 +1,149 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.explanations.impl.ltms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.SatSolver;
+import org.prop4j.analyses.FeatureModelAnalysis;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.NodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link Ltms}. Every explanation must be a set of clauses that contradicts the premises.
+ */
+public class LtmsTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static final int TIMEOUT = 10000;
+
+	private static void assertContradiction(Node cnf, Set<Integer> explanation, Node... premises) throws Exception {
+		final List<Node> nodes = new ArrayList<>();
+		Collections.addAll(nodes, premises);
+		for (final Integer clauseIndex : explanation) {
+			nodes.add(cnf.getChildren()[clauseIndex].clone());
+		}
+		assertFalse(explanation.toString(), new SatSolver(new And(nodes.toArray(new Node[0])), TIMEOUT).isSatisfiable());
+	}
+
+	@Test
+	public void testChain() throws Exception {
+		// a => b, b => c, c => !a
+		final Node cnf = new And(new Or(new Literal("a", false), new Literal("b")), new Or(new Literal("b", false), new Literal("c")),
+				new Or(new Literal("c", false), new Literal("a", false)), new Or(new Literal("d"), new Literal("e")));
+		final Ltms ltms = new Ltms(cnf);
+		ltms.addPremise("a", true);
+		final List<Set<Integer>> explanations = ltms.getExplanations();
+		assertFalse(explanations.isEmpty());
+		for (final Set<Integer> explanation : explanations) {
+			assertContradiction(cnf, explanation, new Literal("a"));
+			assertFalse(explanation.contains(3));
+		}
+
+		ltms.setPremises(Collections.<Object, Boolean> singletonMap("a", false));
+		assertTrue(ltms.getExplanations().isEmpty());
+
+		ltms.clearPremises();
+		ltms.addPremise("c", true);
+		ltms.addPremise("a", true);
+		final List<Set<Integer>> immediateExplanations = ltms.getExplanations();
+		assertEquals(1, immediateExplanations.size());
+		assertEquals(Collections.singleton(2), immediateExplanations.get(0));
+	}
+
+	@Test
+	public void testUnitClauses() throws Exception {
+		final Node cnf = new And(new Literal("a"), new Or(new Literal("a", false), new Literal("b", false)), new Or(new Literal("b"), new Literal("c")));
+		final Ltms ltms = new Ltms(cnf);
+		ltms.addPremise("c", false);
+		final List<Set<Integer>> explanations = ltms.getExplanations();
+		assertFalse(explanations.isEmpty());
+		for (final Set<Integer> explanation : explanations) {
+			assertEquals(3, explanation.size());
+			assertContradiction(cnf, explanation, new Literal("c", false));
+		}
+	}
+
+	/**
+	 * Explains the dead features of a feature model with one instance and compares the results to new instances for each feature.
+	 */
+	@Test
+	public void testReuse() throws Exception {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, "gpl_medium_model.xml").toPath()).getObject();
+		assertNotNull(fm);
+		final List<IFeature> features = Functional.toList(fm.getFeatures());
+		for (int i = 2; i < features.size(); i += 6) {
+			if (!features.get(i).getStructure().isMandatory()) {
+				fm.addConstraint(FMFactoryManager.getFactory(fm).createConstraint(fm, new Not(new Literal(features.get(i).getName()))));
+			}
+		}
+		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setCalculateConstraints(false);
+		LongRunningWrapper.runMethod(analysis);
+		assertFalse(analysis.getDeadFeatures().isEmpty());
+
+		final AdvancedNodeCreator nc = new AdvancedNodeCreator(fm);
+		nc.setIncludeBooleanValues(false);
+		nc.setCnfType(CNFType.Regular);
+		final Node cnf = nc.createNodes();
+		final Ltms ltms = new Ltms(cnf);
+		for (final IFeature feature : analysis.getDeadFeatures()) {
+			final Object variable = NodeCreator.getVariable(feature);
+			ltms.clearPremises();
+			ltms.addPremise(variable, true);
+			final List<Set<Integer>> explanations = ltms.getExplanations();
+			assertFalse(feature.getName(), explanations.isEmpty());
+			for (final Set<Integer> explanation : explanations) {
+				assertContradiction(cnf, explanation, new Literal(variable));
+			}
+
+			final Ltms newLtms = new Ltms(cnf);
+			newLtms.addPremise(variable, true);
+			assertEquals(feature.getName(), newLtms.getExplanations(), explanations);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.io.IFeatureModelFormat;
+import de.ovgu.featureide.fm.core.io.TAbstractFeatureModelReaderWriter;
+import de.ovgu.featureide.fm.core.io.UnsupportedModelException;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
+import de.ovgu.featureide.fm.core.io.xml.XmlFeatureModelFormat;
+
+/**
+ * Tests for {@link BinaryFeatureModelFormat} and {@link BinaryFeatureModel}.
+ */
+public class TBinaryReaderWriter extends TAbstractFeatureModelReaderWriter {
+
+	public TBinaryReaderWriter(IFeatureModel fm, String s) throws UnsupportedModelException {
+		super(fm, s);
+	}
+
+	@Override
+	protected IFeatureModelFormat getFormat() {
+		return new BinaryFeatureModelFormat();
+	}
+
+	@Test
+	public void testXmlRoundTrip() throws IOException {
+		final Path file = Files.createTempFile("model", ".fmb");
+		try {
+			assertFalse(failureMessage, SimpleFileHandler.save(file, origFm, new BinaryFeatureModelFormat()).containsError());
+			final IFeatureModel loadedFm = FeatureModelManager.load(file).getObject();
+			assertNotNull(failureMessage, loadedFm);
+
+			final XmlFeatureModelFormat xmlFormat = new XmlFeatureModelFormat();
+			assertEquals(failureMessage, xmlFormat.write(origFm), xmlFormat.write(loadedFm));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testLazyAccess() {
+		final byte[] content = new BinaryFeatureModelFormat().writeBytes(origFm);
+		final BinaryFeatureModel binaryModel = new BinaryFeatureModel(ByteBuffer.wrap(content));
+
+		final List<String> featureNames = FeatureUtils.getFeatureNamesPreorder(origFm);
+		assertEquals(failureMessage, featureNames.size(), binaryModel.getNumberOfFeatures());
+		assertEquals(failureMessage, origFm.getConstraintCount(), binaryModel.getNumberOfConstraints());
+
+		// materializes a leaf and its ancestors only
+		final int leaf = featureNames.size() - 1;
+		final IFeature feature = binaryModel.getFeature(leaf);
+		assertEquals(failureMessage, featureNames.get(leaf), feature.getName());
+		int depth = 0;
+		for (IFeature parent = FeatureUtils.getParent(feature); parent != null; parent = FeatureUtils.getParent(parent)) {
+			depth++;
+		}
+		assertEquals(failureMessage, depth + 1, binaryModel.getFeatureModel().getNumberOfFeatures());
+
+		for (int i = 0; i < featureNames.size(); i++) {
+			final IFeature origFeature = origFm.getFeature(featureNames.get(i));
+			assertEquals(failureMessage, featureNames.get(i), binaryModel.getFeatureName(i));
+			assertEquals(failureMessage, i, binaryModel.getFeatureIndex(featureNames.get(i)));
+			assertEquals(failureMessage, origFeature.getStructure().getChildrenCount(), binaryModel.getChildren(i).length);
+			assertEquals(failureMessage, origFeature.getStructure().isAbstract(), binaryModel.isAbstract(i));
+		}
+		for (int i = 0; i < origFm.getConstraintCount(); i++) {
+			assertEquals(failureMessage, origFm.getConstraints().get(i).getNode(), binaryModel.getConstraintNode(i));
+			final List<int[]> clauses = binaryModel.getClauses(i);
+			final int clauseCount = origFm.getConstraints().get(i).getNode().toRegularCNF().getChildren().length;
+			assertEquals(failureMessage, clauseCount, clauses.size());
+			for (final int[] clause : clauses) {
+				for (final int literal : clause) {
+					assertTrue(failureMessage, (literal != 0) && (Math.abs(literal) <= featureNames.size()));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.io.Problem;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+
+/**
+ * Tests the streaming reader and writer of {@link XmlFeatureModelFormat}, i.e., error positions, section order, and the written layout.
+ */
+public class XMLStreamingFormatTest {
+
+	private static final String MODEL = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n" //
+		+ "\t<featureModel>\n" //
+		+ "\t\t<properties/>\n" //
+		+ "\t\t<struct>\n" //
+		+ "\t\t\t<and abstract=\"true\" mandatory=\"true\" name=\"Root\">\n" //
+		+ "\t\t\t\t<description>\n" //
+		+ "\t\t\t\t\tFirst line\n" //
+		+ "\t\t\t\t\tSecond line\n" //
+		+ "\t\t\t\t</description>\n" //
+		+ "\t\t\t\t<or name=\"Group\">\n" //
+		+ "\t\t\t\t\t<feature name=\"B\"/>\n" //
+		+ "\t\t\t\t\t<feature name=\"A\">\n" //
+		+ "\t\t\t\t\t\t<description>\n" //
+		+ "\t\t\t\t\t\t\tA &amp; B\n" //
+		+ "\t\t\t\t\t\t</description>\n" //
+		+ "\t\t\t\t\t</feature>\n" //
+		+ "\t\t\t\t</or>\n" //
+		+ "\t\t\t\t<feature hidden=\"true\" name=\"C\"/>\n" //
+		+ "\t\t\t</and>\n" //
+		+ "\t\t</struct>\n" //
+		+ "\t\t<constraints>\n" //
+		+ "\t\t\t<rule>\n" //
+		+ "\t\t\t\t<imp>\n" //
+		+ "\t\t\t\t\t<var>A</var>\n" //
+		+ "\t\t\t\t\t<not>\n" //
+		+ "\t\t\t\t\t\t<var>C</var>\n" //
+		+ "\t\t\t\t\t</not>\n" //
+		+ "\t\t\t\t</imp>\n" //
+		+ "\t\t\t</rule>\n" //
+		+ "\t\t</constraints>\n" //
+		+ "\t\t<calculations Auto=\"true\" Constraints=\"true\" Features=\"true\" Redundant=\"true\" Tautology=\"true\"/>\n" //
+		+ "\t\t<comments>\n" //
+		+ "\t\t\t<c>a comment</c>\n" //
+		+ "\t\t</comments>\n" //
+		+ "\t\t<featureOrder userDefined=\"false\"/>\n" //
+		+ "\t</featureModel>\n";
+
+	private static ProblemList read(IFeatureModel fm, String source) {
+		return new XmlFeatureModelFormat().read(fm, source);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testWriteIsIdentical() {
+		final IFeatureModel fm = FMFactoryManager.getEmptyFeatureModel();
+		assertTrue(read(fm, MODEL).isEmpty());
+		assertEquals(MODEL, new XmlFeatureModelFormat().write(fm));
+		assertEquals(MODEL, new XmlFeatureModelWriter(fm).writeToString());
+	}
+
+	@Test
+	public void testReadStructure() {
+		final IFeatureModel fm = FMFactoryManager.getEmptyFeatureModel();
+		assertTrue(read(fm, MODEL).isEmpty());
+
+		final IFeature group = fm.getFeature("Group");
+		assertTrue(group.getStructure().isOr());
+		assertEquals(2, group.getStructure().getChildrenCount());
+		assertEquals("First line\nSecond line", fm.getFeature("Root").getProperty().getDescription());
+		assertEquals("A & B", fm.getFeature("A").getProperty().getDescription());
+		assertTrue(fm.getFeature("C").getStructure().isHidden());
+		assertEquals(1, fm.getConstraintCount());
+		assertEquals("A => -C", fm.getConstraints().get(0).getNode().toString());
+	}
+
+	@Test
+	public void testConstraintsBeforeStruct() {
+		final String source = "<featureModel>\n" //
+			+ "<constraints><rule><var>A</var></rule></constraints>\n" //
+			+ "<struct><and name=\"Root\"><feature name=\"A\"/></and></struct>\n" //
+			+ "</featureModel>";
+		final IFeatureModel fm = FMFactoryManager.getEmptyFeatureModel();
+		assertTrue(read(fm, source).isEmpty());
+		assertEquals(1, fm.getConstraintCount());
+	}
+
+	@Test
+	public void testOrGroupWithNestedFirstChild() {
+		// the or-group is checked after each nested feature, so it is still read as and-group, like by the former DOM reader
+		final String source = MODEL.replace("<feature name=\"B\"/>\n", "").replace("</feature>\n", "</feature>\n\t\t\t\t\t<feature name=\"B\"/>\n");
+		final IFeatureModel fm = FMFactoryManager.getEmptyFeatureModel();
+		assertTrue(read(fm, source).isEmpty());
+		final IFeature group = fm.getFeature("Group");
+		assertTrue(group.getStructure().isAnd());
+		assertEquals(2, group.getStructure().getChildrenCount());
+
+		// without nested elements in the first child, the or-group is kept
+		final IFeatureModel fm2 = FMFactoryManager.getEmptyFeatureModel();
+		assertTrue(read(fm2, MODEL).isEmpty());
+		assertTrue(fm2.getFeature("Group").getStructure().isOr());
+	}
+
+	@Test
+	public void testErrorLines() {
+		final String unknownAttribute = MODEL.replace("<feature name=\"B\"/>", "<feature name=\"B\" color=\"red\"/>");
+		assertError(unknownAttribute, 11);
+
+		final String unknownFeature = MODEL.replace("<var>C</var>", "<var>D</var>");
+		assertError(unknownFeature, 26);
+
+		final String malformed = MODEL.replace("</rule>", "</rul>");
+		assertError(malformed, 29);
+	}
+
+	private static void assertError(String source, int line) {
+		final ProblemList problems = read(FMFactoryManager.getEmptyFeatureModel(), source);
+		assertTrue(problems.containsError());
+		final Problem problem = problems.get(0);
+		assertEquals(problem.getMessage(), line, problem.getLine());
+		assertFalse(problem.getMessage().isEmpty());
+	}
+
+}
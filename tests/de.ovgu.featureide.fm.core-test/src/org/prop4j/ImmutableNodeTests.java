@@ -0,0 +1,150 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * Tests for {@link ImmutableNode} and {@link ImmutableNodeFactory}.
+ */
+public class ImmutableNodeTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static Node createFormula() {
+		return new And(new Implies("a", new Or("b", new Literal("c", false))), new Equals("a", "d"), new Choose(1, new Literal("b"), new Literal("c")),
+				new AtMost(1, new Literal("a"), new Literal("b"), new Literal("d")), new AtLeast(2, new Literal("a"), new Literal("c"), new Literal("d")),
+				new Not(new ErrorLiteral("e")));
+	}
+
+	@Test
+	public void testSharing() {
+		final ImmutableNodeFactory factory = new ImmutableNodeFactory();
+		final ImmutableNode a = factory.createLiteral("a");
+		assertSame(a, factory.createLiteral("a"));
+		assertNotSame(a, factory.createLiteral("a", false));
+
+		final ImmutableNode clause = factory.createOr(a, factory.createLiteral("b", false));
+		assertSame(clause, factory.create(new Or("a", new Literal("b", false))));
+		assertSame(factory.createAnd(clause, a), factory.create(new And(new Or("a", new Literal("b", false)), "a")));
+		assertNotSame(clause, factory.create(new Or(new Literal("b", false), "a")));
+		assertEquals(6, factory.size());
+
+		final ImmutableNode formula = factory.create(createFormula());
+		assertSame(formula, factory.create(createFormula()));
+		assertSame(formula.getChild(0).getChild(0), formula.getChild(1).getChild(0));
+	}
+
+	@Test
+	public void testCommutative() {
+		final ImmutableNodeFactory factory = new ImmutableNodeFactory(true);
+		final ImmutableNode clause = factory.create(new Or("a", new Literal("b", false), "c"));
+		assertSame(clause, factory.create(new Or("c", "a", new Literal("b", false))));
+		assertEquals(new Or("c", "a", new Literal("b", false)), clause.toNode());
+		assertNotSame(factory.create(new Implies("a", "b")), factory.create(new Implies("b", "a")));
+	}
+
+	@Test
+	public void testFind() {
+		final ImmutableNodeFactory factory = new ImmutableNodeFactory();
+		final ImmutableNode clause = factory.create(new Or("a", "b"));
+		final int size = factory.size();
+		assertSame(clause, factory.find(new Or("a", "b")));
+		assertSame(clause.getChild(1), factory.find(new Literal("b")));
+		assertNull(factory.find(new Or("a", "c")));
+		assertNull(factory.find(new And(new Or("a", "b"), "a")));
+		assertEquals(size, factory.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignChild() {
+		new ImmutableNodeFactory().createNot(new ImmutableNodeFactory().createLiteral("a"));
+	}
+
+	@Test
+	public void testConversion() {
+		final Node formula = createFormula();
+		final ImmutableNode immutableFormula = new ImmutableNodeFactory().create(formula);
+		final Node node = immutableFormula.toNode();
+		assertEquals(formula, node);
+		assertEquals(formula.toString(), immutableFormula.toString());
+		assertSame(ErrorLiteral.class, node.getChildren()[5].getChildren()[0].getClass());
+		assertEquals(2, ((AtLeast) node.getChildren()[4]).min);
+
+		final String[] variables = { "a", "b", "c", "d", "e" };
+		final Map<Object, Boolean> assignment = new HashMap<>();
+		for (int i = 0; i < (1 << variables.length); i++) {
+			for (int j = 0; j < variables.length; j++) {
+				assignment.put(variables[j], ((i >> j) & 1) != 0);
+			}
+			for (final Node child : formula.getChildren()) {
+				assertEquals(child.toString(), child.getValue(assignment), new ImmutableNodeFactory().create(child).getValue(assignment));
+			}
+		}
+	}
+
+	@Test
+	public void testFeatureModel() {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, "berkeley_db_model.xml").toPath()).getObject();
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		final Node cnf = nodeCreator.createNodes();
+
+		final ImmutableNodeFactory factory = new ImmutableNodeFactory();
+		final ImmutableNode immutableCnf = factory.create(cnf);
+		assertEquals(cnf.getChildren().length, immutableCnf.getNumberOfChildren());
+		assertEquals(cnf, immutableCnf.toNode());
+		assertEquals(immutableCnf.hashCode(), factory.create(cnf.clone()).hashCode());
+		assertSame(immutableCnf, factory.create(cnf.clone()));
+
+		// all literals are shared
+		final Set<ImmutableNode> literals = Collections.newSetFromMap(new IdentityHashMap<ImmutableNode, Boolean>());
+		int numberOfLiterals = 0;
+		for (final ImmutableNode clause : immutableCnf.getChildren()) {
+			for (final ImmutableNode literal : clause.isLiteral() ? Collections.singletonList(clause) : clause.getChildren()) {
+				literals.add(literal);
+				numberOfLiterals++;
+			}
+		}
+		assertTrue(literals.size() <= (2 * fm.getNumberOfFeatures()));
+		assertTrue(literals.size() < numberOfLiterals);
+	}
+
+}
@@ -0,0 +1,105 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+/**
+ * Tests for {@link TseitinTransformer}.
+ */
+public class TseitinTransformerTests {
+
+	@Test
+	public void testDisjunctionOfConjunctions() throws ContradictionException {
+		assertEquisatisfiable(new Or(new And("a", "b"), new And("c", "d"), new And("e", "f")));
+	}
+
+	@Test
+	public void testNegatedFormula() throws ContradictionException {
+		assertEquisatisfiable(new Not(new Or(new And("a", new Not("b")), new Implies("c", new And("a", "d")))));
+	}
+
+	@Test
+	public void testEquals() throws ContradictionException {
+		assertEquisatisfiable(new Equals("a", new Or("b", new And("c", new Not("d")))));
+		assertEquisatisfiable(new Not(new Equals(new Equals("a", "b"), new Equals("c", "d"))));
+	}
+
+	@Test
+	public void testCardinality() throws ContradictionException {
+		assertEquisatisfiable(new And(new AtMost(1, "a", new And("b", "c"), "d"), new AtLeast(2, "a", "b", new Or("c", "d"))));
+		assertEquisatisfiable(new Implies("e", new AtMost(1, "a", "b", new Not("c"))));
+	}
+
+	@Test
+	public void testLinearClauseCount() {
+		Node formula = new Literal("x0");
+		for (int i = 1; i < 30; i++) {
+			formula = new Or(new And(formula, "y" + i), new And("x" + i, "z" + i));
+		}
+		final Node cnf = TseitinTransformer.transform(formula);
+		assertTrue(cnf.getChildren().length <= (30 * 7));
+		for (final Node clause : cnf.getChildren()) {
+			assertTrue(clause instanceof Or);
+		}
+	}
+
+	@Test
+	public void testAuxiliaryVariablesAreHidden() throws ContradictionException {
+		final Node cnf = TseitinTransformer.transform(new Or(new And("a", "b"), new And("c", "d")));
+		final SatInstance satInstance = new SatInstance(cnf);
+		assertEquals(4, satInstance.getNumberOfFeatureVariables());
+		assertTrue(satInstance.getNumberOfVariables() > 4);
+
+		final BasicSolver solver = new BasicSolver(satInstance);
+		final int[] model = solver.findModel();
+		for (final String name : satInstance.convertToString(model, true, true)) {
+			assertTrue(name.matches("-?[abcd]"));
+		}
+	}
+
+	private static void assertEquisatisfiable(Node formula) throws ContradictionException {
+		final Node cnf = TseitinTransformer.transform(formula);
+		final Set<Object> variableSet = formula.getUniqueVariables();
+		final List<Object> variables = new ArrayList<>(variableSet);
+		final BasicSolver solver = new BasicSolver(new SatInstance(cnf, variables));
+		for (final Map<Object, Boolean> assignment : formula.getAssignments()) {
+			for (int i = 0; i < variables.size(); i++) {
+				solver.assignmentPush(assignment.get(variables.get(i)) ? (i + 1) : -(i + 1));
+			}
+			assertEquals(assignment.toString(), formula.getValue(assignment), solver.isSatisfiable() == SatResult.TRUE);
+			solver.assignmentClear(0);
+		}
+	}
+
+}
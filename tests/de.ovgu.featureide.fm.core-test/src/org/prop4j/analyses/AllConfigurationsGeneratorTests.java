@@ -0,0 +1,162 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link AllConfigurationsGenerator}.
+ */
+public class AllConfigurationsGeneratorTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static SatInstance load(String name) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		return new SatInstance(AdvancedNodeCreator.createRegularCNF(fm), Functional.mapToList(fm.getFeatures(), FeatureUtils.GET_FEATURE_NAME));
+	}
+
+	/**
+	 * Runs the generator in a separate thread and consumes its queue.
+	 */
+	private static List<int[]> enumerate(final AllConfigurationsGenerator generator) throws InterruptedException {
+		final Thread producer = new Thread() {
+
+			@Override
+			public void run() {
+				LongRunningWrapper.runMethod(generator);
+			}
+		};
+		producer.start();
+		final List<int[]> solutions = new ArrayList<>();
+		while (producer.isAlive() || !generator.q.isEmpty()) {
+			final int[] solution = generator.q.poll(10, TimeUnit.MILLISECONDS);
+			if (solution != null) {
+				solutions.add(solution);
+			}
+		}
+		return solutions;
+	}
+
+	/**
+	 * Counts all projected solutions by adding a blocking clause for each solution.
+	 */
+	private static Set<String> enumerateWithBlockingClauses(SatInstance satInstance, int[] variables) throws ContradictionException {
+		final BasicSolver solver = new BasicSolver(satInstance);
+		final Set<String> solutions = new HashSet<>();
+		while (solver.isSatisfiable() == SatResult.TRUE) {
+			final int[] model = solver.getModel();
+			final int[] solution = new int[variables.length];
+			for (int i = 0; i < variables.length; i++) {
+				solution[i] = model[variables[i] - 1];
+			}
+			assertTrue(solutions.add(toString(solution)));
+			solver.getInternalSolver().addBlockingClause(new VecInt(SatInstance.negateModel(solution)));
+		}
+		return solutions;
+	}
+
+	private static Set<String> toSet(List<int[]> solutions) {
+		final Set<String> set = new HashSet<>();
+		for (final int[] solution : solutions) {
+			assertTrue("duplicate solution", set.add(toString(solution)));
+		}
+		return set;
+	}
+
+	private static String toString(int[] solution) {
+		final StringBuilder sb = new StringBuilder();
+		for (final int literal : solution) {
+			sb.append(literal > 0 ? '1' : '0');
+		}
+		return sb.toString();
+	}
+
+	private static int[] range(int from, int to) {
+		final int[] variables = new int[to - from];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = from + i;
+		}
+		return variables;
+	}
+
+	@Test
+	public void testAllSolutions() throws Exception {
+		final SatInstance satInstance = load("gpl_medium_model.xml");
+		final AllConfigurationsGenerator generator = new AllConfigurationsGenerator(satInstance, Long.MAX_VALUE);
+		final List<int[]> solutions = enumerate(generator);
+		assertEquals(enumerateWithBlockingClauses(satInstance, generator.getVariables()), toSet(solutions));
+		assertEquals(solutions.size(), generator.getNumberOfConfigurations());
+	}
+
+	@Test
+	public void testProjection() throws Exception {
+		final SatInstance satInstance = load("gpl_medium_model.xml");
+		final int[] variables = range(3, satInstance.getNumberOfFeatureVariables() / 2);
+		final AllConfigurationsGenerator generator = new AllConfigurationsGenerator(satInstance, variables, Long.MAX_VALUE, 1);
+		assertEquals(enumerateWithBlockingClauses(satInstance, variables), toSet(enumerate(generator)));
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		final SatInstance satInstance = load("gpl_medium_model.xml");
+		final AllConfigurationsGenerator generator = new AllConfigurationsGenerator(satInstance, Long.MAX_VALUE);
+		generator.setParallelism(4);
+		assertEquals(enumerateWithBlockingClauses(satInstance, generator.getVariables()), toSet(enumerate(generator)));
+	}
+
+	@Test
+	public void testMaxNumber() throws Exception {
+		final AllConfigurationsGenerator generator = new AllConfigurationsGenerator(load("gpl_medium_model.xml"), 7);
+		assertEquals(7, LongRunningWrapper.runMethod(generator).longValue());
+		assertEquals(7, toSet(new ArrayList<>(generator.q)).size());
+
+		final AllConfigurationsGenerator parallelGenerator = new AllConfigurationsGenerator(load("gpl_medium_model.xml"), 7);
+		parallelGenerator.setParallelism(4);
+		assertEquals(7, enumerate(parallelGenerator).size());
+	}
+
+}
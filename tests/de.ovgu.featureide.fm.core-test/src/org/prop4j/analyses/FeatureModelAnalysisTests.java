@@ -0,0 +1,151 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.AMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor.MethodCancelException;
+
+/**
+ * Tests for the parallel mode of {@link FeatureModelAnalysis}.
+ */
+public class FeatureModelAnalysisTests {
+
+	private static final File MODEL_FILE_FOLDER = Commons.getRemoteOrLocalFolder("analyzefeaturemodels/");
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static IFeatureModel load(File folder, String name) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(folder, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		return fm;
+	}
+
+	private static void assertSameResult(IFeatureModel fm) {
+		final FeatureModelAnalysis sequential = new FeatureModelAnalysis(fm);
+		final HashMap<Object, Object> expected = LongRunningWrapper.runMethod(sequential);
+		final List<String> expectedConstraints = getConstraintResults(fm);
+
+		final FeatureModelAnalysis parallel = new FeatureModelAnalysis(fm);
+		parallel.setParallelism(4);
+		final HashMap<Object, Object> actual = LongRunningWrapper.runMethod(parallel);
+
+		assertEquals(expected, actual);
+		assertEquals(sequential.isValid(), parallel.isValid());
+		assertEquals(sequential.getCoreFeatures(), parallel.getCoreFeatures());
+		assertEquals(sequential.getDeadFeatures(), parallel.getDeadFeatures());
+		assertEquals(sequential.getFalseOptionalFeatures(), parallel.getFalseOptionalFeatures());
+		assertEquals(expectedConstraints, getConstraintResults(fm));
+	}
+
+	private static List<String> getConstraintResults(IFeatureModel fm) {
+		final List<String> results = new ArrayList<>();
+		for (final IConstraint constraint : fm.getConstraints()) {
+			results.add(constraint.getConstraintAttribute() + " " + constraint.getDeadFeatures() + " " + constraint.getFalseOptional());
+		}
+		return results;
+	}
+
+	@Test
+	public void testSmallModels() {
+		for (int i = 1; i <= 8; i++) {
+			assertSameResult(load(MODEL_FILE_FOLDER, "test_" + i + ".xml"));
+		}
+	}
+
+	@Test
+	public void testGPL() {
+		assertSameResult(load(TEST_MODEL_FOLDER, "gpl_medium_model.xml"));
+	}
+
+	@Test
+	public void testBerkeleyDB() {
+		assertSameResult(load(TEST_MODEL_FOLDER, "berkeley_db_model.xml"));
+	}
+
+	/**
+	 * Cancels itself as soon as it is checked by another thread than the one that created it.
+	 */
+	private static final class WorkerCancelMonitor extends AMonitor {
+
+		private final Thread owner = Thread.currentThread();
+		private volatile boolean cancel = false;
+
+		@Override
+		public void cancel() {
+			cancel = true;
+		}
+
+		@Override
+		public void checkCancel() throws MethodCancelException {
+			if (Thread.currentThread() != owner) {
+				cancel = true;
+			}
+			if (cancel) {
+				throw new MethodCancelException();
+			}
+		}
+
+		@Override
+		public IMonitor subTask(int size) {
+			return this;
+		}
+
+		@Override
+		public void done() {}
+
+		@Override
+		public void worked() {}
+
+		@Override
+		public void setRemainingWork(int work) {}
+
+		@Override
+		public void setTaskName(String name) {}
+
+		@Override
+		public String getTaskName() {
+			return "";
+		}
+	}
+
+	@Test(expected = MethodCancelException.class)
+	public void testCancelWorkers() throws Exception {
+		final FeatureModelAnalysis parallel = new FeatureModelAnalysis(load(TEST_MODEL_FOLDER, "berkeley_db_model.xml"));
+		parallel.setParallelism(4);
+		parallel.execute(new WorkerCancelMonitor());
+	}
+
+}
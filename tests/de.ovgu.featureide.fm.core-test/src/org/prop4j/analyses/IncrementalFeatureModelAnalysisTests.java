@@ -0,0 +1,189 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link IncrementalFeatureModelAnalysis}. After each random edit, the results are compared to a complete {@link FeatureModelAnalysis}.
+ */
+public class IncrementalFeatureModelAnalysisTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static IFeatureModel load(String name) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		return fm;
+	}
+
+	private static void assertSameResult(String message, IFeatureModel fm, IncrementalFeatureModelAnalysis incrementalAnalysis) {
+		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setCalculateConstraints(false);
+		LongRunningWrapper.runMethod(analysis);
+
+		final boolean valid = incrementalAnalysis.update();
+		assertEquals(message, analysis.isValid(), valid);
+		if (valid) {
+			assertEquals(message, analysis.getCoreFeatures(), incrementalAnalysis.getCoreFeatures());
+			assertEquals(message, analysis.getDeadFeatures(), incrementalAnalysis.getDeadFeatures());
+			assertEquals(message, analysis.getFalseOptionalFeatures(), incrementalAnalysis.getFalseOptionalFeatures());
+		}
+	}
+
+	private static Node createRandomConstraint(Random random, List<IFeature> features) {
+		final Literal a = new Literal(features.get(random.nextInt(features.size())).getName());
+		final Literal b = new Literal(features.get(random.nextInt(features.size())).getName());
+		return random.nextBoolean() ? new Implies(a, b) : new Implies(a, new Not(b));
+	}
+
+	private static void testRandomEdits(String name, long seed) {
+		final IFeatureModel fm = load(name);
+		final List<IFeature> features = Functional.toList(fm.getFeatures());
+		final Random random = new Random(seed);
+		final IncrementalFeatureModelAnalysis incrementalAnalysis = new IncrementalFeatureModelAnalysis(fm);
+		assertSameResult(name, fm, incrementalAnalysis);
+
+		for (int i = 0; i < 30; i++) {
+			final IFeature feature = features.get(random.nextInt(features.size()));
+			final IFeatureStructure structure = feature.getStructure();
+			final String message;
+			switch (fm.getConstraintCount() == 0 ? 0 : random.nextInt(5)) {
+			case 0:
+				final IConstraint newConstraint = FMFactoryManager.getFactory(fm).createConstraint(fm, createRandomConstraint(random, features));
+				fm.addConstraint(newConstraint);
+				incrementalAnalysis.addConstraint(newConstraint);
+				message = "add " + newConstraint.getNode();
+				break;
+			case 1:
+				final IConstraint oldConstraint = fm.getConstraints().get(random.nextInt(fm.getConstraintCount()));
+				fm.removeConstraint(oldConstraint);
+				incrementalAnalysis.removeConstraint(oldConstraint);
+				message = "remove " + oldConstraint.getNode();
+				break;
+			case 2:
+				final IConstraint constraint = fm.getConstraints().get(random.nextInt(fm.getConstraintCount()));
+				constraint.setNode(createRandomConstraint(random, features));
+				incrementalAnalysis.modifyConstraint(constraint);
+				message = "modify " + constraint.getNode();
+				break;
+			case 3:
+				if (random.nextBoolean()) {
+					structure.changeToOr();
+				} else {
+					structure.changeToAlternative();
+				}
+				incrementalAnalysis.changeGroup(feature);
+				message = "group " + feature.getName();
+				break;
+			default:
+				if (structure.isRoot()) {
+					continue;
+				}
+				structure.setMandatory(!structure.isMandatorySet());
+				incrementalAnalysis.changeGroup(FeatureUtils.getParent(feature));
+				message = "mandatory " + feature.getName();
+				break;
+			}
+			assertSameResult(message, fm, incrementalAnalysis);
+		}
+	}
+
+	@Test
+	public void testGPL() {
+		testRandomEdits("gpl_medium_model.xml", 1);
+		testRandomEdits("gpl_medium_model.xml", 2);
+	}
+
+	@Test
+	public void testAPL() {
+		testRandomEdits("apl_model.xml", 1);
+	}
+
+	@Test
+	public void testBerkeleyDB() {
+		testRandomEdits("berkeley_db_model.xml", 1);
+	}
+
+	@Test
+	public void testRecordWhileUpdating() throws InterruptedException {
+		final IFeatureModel fm = load("gpl_medium_model.xml");
+		final List<IFeature> features = Functional.toList(fm.getFeatures());
+		final IncrementalFeatureModelAnalysis incrementalAnalysis = new IncrementalFeatureModelAnalysis(fm);
+		assertSameResult("initial", fm, incrementalAnalysis);
+
+		final IConstraint constraint = FMFactoryManager.getFactory(fm).createConstraint(fm, new Not(new Literal(features.get(1).getName())));
+		fm.addConstraint(constraint);
+		final Thread listener = new Thread() {
+
+			@Override
+			public void run() {
+				incrementalAnalysis.addConstraint(constraint);
+				constraint.setNode(new Implies(new Literal(features.get(2).getName()), new Literal(features.get(3).getName())));
+				incrementalAnalysis.modifyConstraint(constraint);
+			}
+		};
+		// the lock is held during an update
+		synchronized (incrementalAnalysis) {
+			listener.start();
+			listener.join(10000);
+			assertFalse(listener.isAlive());
+		}
+		assertSameResult("modify " + constraint.getNode(), fm, incrementalAnalysis);
+	}
+
+	@Test
+	public void testReset() {
+		final IFeatureModel fm = load("gpl_medium_model.xml");
+		final IncrementalFeatureModelAnalysis incrementalAnalysis = new IncrementalFeatureModelAnalysis(fm);
+		assertSameResult("initial", fm, incrementalAnalysis);
+
+		// changes that are not recorded are taken into account after a reset
+		final IFeature feature = Functional.toList(fm.getFeatures()).get(1);
+		fm.addConstraint(FMFactoryManager.getFactory(fm).createConstraint(fm, new Not(new Literal(feature.getName()))));
+		incrementalAnalysis.reset();
+		assertSameResult("reset", fm, incrementalAnalysis);
+	}
+
+}
@@ -0,0 +1,175 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.prop4j.analyses.PairWiseConfigurationGenerator.Configuration;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link TWiseConfigurationGenerator}.
+ */
+public class TWiseConfigurationGeneratorTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static SatInstance load(String name) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		return new SatInstance(AdvancedNodeCreator.createRegularCNF(fm), Functional.mapToList(fm.getFeatures(), FeatureUtils.GET_FEATURE_NAME));
+	}
+
+	private static List<int[]> getModels(TWiseConfigurationGenerator generator) {
+		final List<int[]> models = new ArrayList<>();
+		for (final Configuration configuration : generator.q) {
+			models.add(configuration.getModel());
+		}
+		return models;
+	}
+
+	private static void assertCoverage(SatInstance satInstance, int t) throws ContradictionException {
+		final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(satInstance, t, Integer.MAX_VALUE);
+		final List<List<String>> configurations = LongRunningWrapper.runMethod(generator);
+		final List<int[]> models = getModels(generator);
+		assertEquals(configurations.size(), models.size());
+
+		final BasicSolver solver = new BasicSolver(satInstance);
+		for (final int[] model : models) {
+			for (final int literal : model) {
+				solver.assignmentPush(literal);
+			}
+			assertEquals(SatResult.TRUE, solver.isSatisfiable());
+			solver.assignmentClear(0);
+		}
+
+		final int n = satInstance.getNumberOfVariables();
+		final int[] variables = new int[t];
+		for (int i = 0; i < t; i++) {
+			variables[i] = i;
+		}
+		final int[] literals = new int[t];
+		// the number of interactions that are covered first by each configuration
+		final int[] newlyCovered = new int[models.size()];
+		while (true) {
+			for (int pattern = 0; pattern < (1 << t); pattern++) {
+				for (int i = 0; i < t; i++) {
+					literals[i] = ((pattern >> i) & 1) == 0 ? -(variables[i] + 1) : (variables[i] + 1);
+				}
+				final int firstModel = getFirstCoveringModel(models, literals);
+				if (firstModel >= 0) {
+					newlyCovered[firstModel]++;
+				} else {
+					for (final int literal : literals) {
+						solver.assignmentPush(literal);
+					}
+					assertEquals("uncovered valid interaction", SatResult.FALSE, solver.isSatisfiable());
+					solver.assignmentClear(0);
+				}
+			}
+			int i = t - 1;
+			while ((i >= 0) && (variables[i] == ((n - t) + i))) {
+				i--;
+			}
+			if (i < 0) {
+				break;
+			}
+			variables[i]++;
+			for (int j = i + 1; j < t; j++) {
+				variables[j] = variables[j - 1] + 1;
+			}
+		}
+
+		// each configuration contains all interactions it was built for
+		int totalCoverage = 0;
+		int index = 0;
+		for (final Configuration configuration : generator.q) {
+			totalCoverage += configuration.getDeltaCoverage();
+			assertEquals(totalCoverage, configuration.getTotalCoverage());
+			assertTrue(configuration.getDeltaCoverage() + " > " + newlyCovered[index], configuration.getDeltaCoverage() <= newlyCovered[index]);
+			index++;
+		}
+	}
+
+	private static int getFirstCoveringModel(List<int[]> models, int[] literals) {
+		modelLoop: for (int i = 0; i < models.size(); i++) {
+			final int[] model = models.get(i);
+			for (final int literal : literals) {
+				if (model[Math.abs(literal) - 1] != literal) {
+					continue modelLoop;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	@Test
+	public void testOneWise() throws ContradictionException {
+		assertCoverage(load("gpl_medium_model.xml"), 1);
+	}
+
+	@Test
+	public void testPairWise() throws ContradictionException {
+		assertCoverage(load("gpl_medium_model.xml"), 2);
+	}
+
+	@Test
+	public void testThreeWise() throws ContradictionException {
+		assertCoverage(load("gpl_medium_model.xml"), 3);
+	}
+
+	@Test
+	public void testFourWise() throws ContradictionException {
+		assertCoverage(load("apl_model.xml"), 4);
+	}
+
+	@Test
+	public void testMaxNumber() {
+		final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(load("gpl_medium_model.xml"), 2, 3);
+		assertEquals(3, LongRunningWrapper.runMethod(generator).size());
+		assertEquals(3, generator.q.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidT() {
+		new TWiseConfigurationGenerator(load("gpl_medium_model.xml"), 5, 10);
+	}
+
+}
@@ -0,0 +1,187 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.SatSolver;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link WhatIfAnalysis}. The results are compared to a complete {@link FeatureModelAnalysis} of a copy of the feature model that contains the
+ * candidate constraint.
+ */
+public class WhatIfAnalysisTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	private static final int TIMEOUT = 10000;
+
+	private static IFeatureModel load(String name) {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, name).toPath()).getObject();
+		assertNotNull(name, fm);
+		return fm;
+	}
+
+	private static FeatureModelAnalysis analyze(IFeatureModel fm) {
+		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		analysis.setCalculateConstraints(false);
+		LongRunningWrapper.runMethod(analysis);
+		return analysis;
+	}
+
+	private static Set<String> getNames(List<IFeature> features) {
+		return new HashSet<>(Functional.toList(Functional.map(features, FeatureUtils.GET_FEATURE_NAME)));
+	}
+
+	private static void assertSameResult(IFeatureModel fm, int replacedIndex, Node constraint, WhatIfAnalysis.Result result) throws Exception {
+		final String message = constraint.toString();
+		final IFeatureModel before = fm.clone(null);
+		if (replacedIndex >= 0) {
+			before.removeConstraint(before.getConstraints().get(replacedIndex));
+		}
+		final IFeatureModel after = before.clone(null);
+		after.addConstraint(FMFactoryManager.getFactory(after).createConstraint(after, constraint.clone()));
+		final FeatureModelAnalysis analysisBefore = analyze(before);
+		final FeatureModelAnalysis analysisAfter = analyze(after);
+
+		assertEquals(message, !new SatSolver(new Not(constraint.clone()), TIMEOUT).isSatisfiable(), result.isTautology());
+		assertEquals(message, new SatSolver(constraint.clone(), TIMEOUT).isSatisfiable(), result.isSatisfiable());
+		assertEquals(message, analysisBefore.isValid() && !analysisAfter.isValid(), result.isVoidModel());
+		final Node redundancy = new Not(new Implies(AdvancedNodeCreator.createRegularCNF(before), constraint.clone()));
+		assertEquals(message, !new SatSolver(redundancy, TIMEOUT).isSatisfiable(), result.isRedundant());
+
+		if (analysisAfter.isValid()) {
+			final Set<String> deadBefore = getNames(analysisBefore.getDeadFeatures());
+			final Set<String> deadAfter = getNames(analysisAfter.getDeadFeatures());
+			final Set<String> expectedDead = new HashSet<>(deadAfter);
+			expectedDead.removeAll(deadBefore);
+			assertEquals(message, expectedDead, getNames(result.getDeadFeatures()));
+
+			final Set<String> expectedFalseOptional = getNames(analysisAfter.getFalseOptionalFeatures());
+			expectedFalseOptional.removeAll(getNames(analysisBefore.getFalseOptionalFeatures()));
+			expectedFalseOptional.removeAll(deadAfter);
+			assertEquals(message, expectedFalseOptional, getNames(result.getFalseOptionalFeatures()));
+		} else {
+			assertTrue(message, result.getDeadFeatures().isEmpty());
+			assertTrue(message, result.getFalseOptionalFeatures().isEmpty());
+		}
+	}
+
+	private static Node createRandomConstraint(Random random, List<IFeature> features) {
+		final Literal a = new Literal(features.get(random.nextInt(features.size())).getName());
+		final Literal b = new Literal(features.get(random.nextInt(features.size())).getName());
+		switch (random.nextInt(4)) {
+		case 0:
+			return new Implies(a, b);
+		case 1:
+			return new Implies(a, new Not(b));
+		case 2:
+			return new Or(a, b);
+		default:
+			return new Not(a);
+		}
+	}
+
+	private static void testRandomConstraints(String name, long seed, boolean replace) throws Exception {
+		final IFeatureModel fm = load(name);
+		final List<IFeature> features = Functional.toList(fm.getFeatures());
+		final Random random = new Random(seed);
+		final int replacedIndex = replace && (fm.getConstraintCount() > 0) ? random.nextInt(fm.getConstraintCount()) : -1;
+		final IConstraint replacedConstraint = replacedIndex < 0 ? null : fm.getConstraints().get(replacedIndex);
+		final WhatIfAnalysis whatIfAnalysis = new WhatIfAnalysis(fm, replacedConstraint);
+		for (int i = 0; i < 20; i++) {
+			final Node constraint = createRandomConstraint(random, features);
+			assertSameResult(fm, replacedIndex, constraint, whatIfAnalysis.analyze(constraint, TIMEOUT));
+		}
+	}
+
+	@Test
+	public void testGPL() throws Exception {
+		testRandomConstraints("gpl_medium_model.xml", 1, false);
+	}
+
+	@Test
+	public void testReplacedConstraint() throws Exception {
+		testRandomConstraints("gpl_medium_model.xml", 2, true);
+		testRandomConstraints("berkeley_db_model.xml", 1, true);
+	}
+
+	@Test
+	public void testSpecialConstraints() throws Exception {
+		final IFeatureModel fm = load("gpl_medium_model.xml");
+		final WhatIfAnalysis whatIfAnalysis = new WhatIfAnalysis(fm, null);
+		final String root = FeatureUtils.getRoot(fm).getName();
+		final String feature = Functional.toList(fm.getFeatures()).get(3).getName();
+
+		final WhatIfAnalysis.Result tautology = whatIfAnalysis.analyze(new Or(new Literal(feature), new Not(new Literal(feature))), TIMEOUT);
+		assertTrue(tautology.isTautology());
+		assertTrue(tautology.isRedundant());
+
+		final WhatIfAnalysis.Result contradiction = whatIfAnalysis.analyze(new And(new Literal(feature), new Not(new Literal(feature))), TIMEOUT);
+		assertFalse(contradiction.isSatisfiable());
+		assertTrue(contradiction.isVoidModel());
+
+		final WhatIfAnalysis.Result voidModel = whatIfAnalysis.analyze(new Not(new Literal(root)), TIMEOUT);
+		assertTrue(voidModel.isSatisfiable());
+		assertTrue(voidModel.isVoidModel());
+		assertFalse(voidModel.isRedundant());
+
+		final WhatIfAnalysis.Result redundant = whatIfAnalysis.analyze(new Literal(root), TIMEOUT);
+		assertFalse(redundant.isTautology());
+		assertTrue(redundant.isRedundant());
+		assertFalse(redundant.isVoidModel());
+
+		// the same candidate is answered by the same selector
+		final WhatIfAnalysis.Result dead = whatIfAnalysis.analyze(new Not(new Literal(feature)), TIMEOUT);
+		assertEquals(new ArrayList<>(dead.getDeadFeatures()), whatIfAnalysis.analyze(new Not(new Literal(feature)), TIMEOUT).getDeadFeatures());
+		assertTrue(getNames(dead.getDeadFeatures()).contains(feature));
+		assertSameResult(fm, -1, new Not(new Literal(feature)), dead);
+	}
+
+}
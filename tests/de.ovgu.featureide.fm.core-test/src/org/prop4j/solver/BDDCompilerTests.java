@@ -0,0 +1,197 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Equals;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.TseitinTransformer;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link BDDCompiler} and {@link BDD}. All counts are compared with an enumeration of all assignments.
+ */
+public class BDDCompilerTests {
+
+	private static final int VARIABLES = 10;
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(0);
+		for (int i = 0; i < 50; i++) {
+			final SatInstance satInstance = new SatInstance(createRandomCNF(random, 4 + random.nextInt(20)), getVariables());
+			final BDD bdd = LongRunningWrapper.runMethod(new BDDCompiler(satInstance));
+			final int[] assumptions = { 1 + random.nextInt(VARIABLES), -(1 + random.nextInt(VARIABLES)) };
+
+			assertEquals(BigInteger.valueOf(countSolutions(satInstance)), bdd.countSolutions());
+			assertEquals(BigInteger.valueOf(countSolutions(satInstance, assumptions)), bdd.countSolutions(assumptions));
+			assertArrayEquals(getCommonality(satInstance), bdd.getCommonality());
+			assertArrayEquals(getCommonality(satInstance, assumptions), bdd.getCommonality(assumptions));
+		}
+	}
+
+	@Test
+	public void testContradiction() {
+		final SatInstance satInstance = new SatInstance(new And(new Or("x1"), new Or(new Literal("x1", false))), getVariables());
+		final BDD bdd = LongRunningWrapper.runMethod(new BDDCompiler(satInstance));
+		assertEquals(BigInteger.ZERO, bdd.countSolutions());
+		assertEquals(BigInteger.ZERO, bdd.getCommonality()[2]);
+	}
+
+	@Test
+	public void testUnconstrainedVariables() {
+		final SatInstance satInstance = new SatInstance(new And(new Or("x1", "x2")), getVariables());
+		final BDD bdd = LongRunningWrapper.runMethod(new BDDCompiler(satInstance));
+		assertEquals(BigInteger.valueOf(3L << (VARIABLES - 2)), bdd.countSolutions());
+		assertEquals(BigInteger.valueOf(1L << (VARIABLES - 2)), bdd.countSolutions(1, -2));
+		assertEquals(BigInteger.ZERO, bdd.countSolutions(1, -1));
+	}
+
+	@Test
+	public void testAuxiliaryVariablesAreQuantified() {
+		final Node formula = new Or(new And("x1", "x2"), new And("x3", new Equals("x4", "x5")), new And("x6", "x7", "x8"));
+		final SatInstance tseitinInstance = new SatInstance(TseitinTransformer.transform(formula), getVariables());
+		final SatInstance regularInstance = new SatInstance(formula.toRegularCNF(), getVariables());
+		final BDD tseitinBDD = LongRunningWrapper.runMethod(new BDDCompiler(tseitinInstance));
+
+		assertEquals(VARIABLES, tseitinBDD.getNumberOfVariables());
+		assertEquals(BigInteger.valueOf(countSolutions(regularInstance)), tseitinBDD.countSolutions());
+		assertArrayEquals(getCommonality(regularInstance), tseitinBDD.getCommonality());
+	}
+
+	@Test
+	public void testCache() throws TimeoutException {
+		final Random random = new Random(1);
+		final Node cnf = createRandomCNF(random, 10);
+		final BDD bdd = BDDCompiler.getBDD(new SatInstance(cnf, getVariables()), 0);
+		assertSame(bdd, BDDCompiler.getBDD(new SatInstance(cnf.clone(), getVariables()), 0));
+
+		BDDCompiler.clearCache();
+		final BDD recompiledBDD = BDDCompiler.getBDD(new SatInstance(cnf, getVariables()), 0);
+		assertNotSame(bdd, recompiledBDD);
+		assertEquals(bdd.countSolutions(), recompiledBDD.countSolutions());
+	}
+
+	@Test(expected = TimeoutException.class)
+	public void testNodeLimit() throws TimeoutException {
+		final BDDCompiler compiler = new BDDCompiler(new SatInstance(createRandomCNF(new Random(2), 20), getVariables()));
+		compiler.setNodeLimit(4);
+		compiler.execute(null);
+	}
+
+	private static List<String> getVariables() {
+		final List<String> variables = new ArrayList<>(VARIABLES);
+		for (int i = 1; i <= VARIABLES; i++) {
+			variables.add("x" + i);
+		}
+		return variables;
+	}
+
+	private static Node createRandomCNF(Random random, int numberOfClauses) {
+		final Node[] clauses = new Node[numberOfClauses];
+		for (int i = 0; i < numberOfClauses; i++) {
+			final Node[] literals = new Node[1 + random.nextInt(3)];
+			for (int j = 0; j < literals.length; j++) {
+				literals[j] = new Literal("x" + (1 + random.nextInt(VARIABLES)), random.nextBoolean());
+			}
+			clauses[i] = new Or(literals);
+		}
+		return new And(clauses);
+	}
+
+	private static long countSolutions(SatInstance satInstance, int... assumptions) {
+		final int[][] clauses = getClauses(satInstance);
+		long count = 0;
+		for (int assignment = 0; assignment < (1 << VARIABLES); assignment++) {
+			if (isSolution(assignment, clauses, assumptions)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static BigInteger[] getCommonality(SatInstance satInstance, int... assumptions) {
+		final int[][] clauses = getClauses(satInstance);
+		final BigInteger[] commonality = new BigInteger[VARIABLES + 1];
+		Arrays.fill(commonality, BigInteger.ZERO);
+		for (int variable = 1; variable <= VARIABLES; variable++) {
+			long count = 0;
+			for (int assignment = 0; assignment < (1 << VARIABLES); assignment++) {
+				if (getValue(assignment, variable) && isSolution(assignment, clauses, assumptions)) {
+					count++;
+				}
+			}
+			commonality[variable] = BigInteger.valueOf(count);
+		}
+		return commonality;
+	}
+
+	private static int[][] getClauses(SatInstance satInstance) {
+		final Node[] children = satInstance.getCnf().getChildren();
+		final int[][] clauses = new int[children.length][];
+		for (int i = 0; i < children.length; i++) {
+			final Node[] literals = children[i].getChildren();
+			clauses[i] = new int[literals.length];
+			for (int j = 0; j < literals.length; j++) {
+				clauses[i][j] = satInstance.getSignedVariable((Literal) literals[j]);
+			}
+		}
+		return clauses;
+	}
+
+	private static boolean isSolution(int assignment, int[][] clauses, int[] assumptions) {
+		for (final int literal : assumptions) {
+			if (getValue(assignment, Math.abs(literal)) != (literal > 0)) {
+				return false;
+			}
+		}
+		clauseLoop: for (final int[] clause : clauses) {
+			for (final int literal : clause) {
+				if (getValue(assignment, Math.abs(literal)) == (literal > 0)) {
+					continue clauseLoop;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean getValue(int assignment, int variable) {
+		return (assignment & (1 << (variable - 1))) != 0;
+	}
+
+}
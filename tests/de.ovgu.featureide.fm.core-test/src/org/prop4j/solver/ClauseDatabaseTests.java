@@ -0,0 +1,149 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.SatSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * Tests for {@link ClauseDatabase} and {@link VariableTable}.
+ */
+public class ClauseDatabaseTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	@Test
+	public void testVariableTable() {
+		final VariableTable variables = new VariableTable(0);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i + 1, variables.add("v" + i));
+		}
+		assertEquals(1000, variables.size());
+		assertEquals(42, variables.add("v41"));
+		assertEquals(1000, variables.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i + 1, variables.getIndex("v" + i));
+			assertEquals("v" + i, variables.getVariable(-(i + 1)));
+		}
+		assertEquals(0, variables.getIndex("v1000"));
+		assertFalse(variables.contains("v1000"));
+		assertNull(variables.toArray()[0]);
+		assertEquals("v999", variables.toArray()[1000]);
+	}
+
+	@Test
+	public void testClauses() {
+		final ClauseDatabase clauseDatabase = new ClauseDatabase(new VariableTable(), 1, 1);
+		clauseDatabase.addClauses(new And("a", new Implies("b", "c"), new Not(new And("c", "d"))).toRegularCNF());
+		clauseDatabase.addClause(new int[] { 2, 4, 0 }, 2);
+		clauseDatabase.addClause();
+
+		assertEquals(5, clauseDatabase.getNumberOfClauses());
+		assertEquals(7, clauseDatabase.getNumberOfLiterals());
+		assertEquals(2, clauseDatabase.getMaxClauseLength());
+		assertEquals(4, clauseDatabase.getVariables().size());
+		assertArrayEquals(new int[] { 1 }, clauseDatabase.getClause(0));
+		assertArrayEquals(new int[] { 2, 4 }, clauseDatabase.getClause(3));
+		assertEquals(0, clauseDatabase.getClauseLength(4));
+
+		final Node cnf = clauseDatabase.toNode();
+		assertEquals(5, cnf.getChildren().length);
+		assertEquals(new Literal("a"), cnf.getChildren()[0].getChildren()[0]);
+		assertEquals(new Literal("b"), cnf.getChildren()[3].getChildren()[0]);
+	}
+
+	@Test
+	public void testSolvers() throws Exception {
+		final VariableTable variables = new VariableTable();
+		for (final String name : Arrays.asList("a", "b", "c", "d")) {
+			variables.add(name);
+		}
+		final ClauseDatabase clauseDatabase = new ClauseDatabase(variables);
+		clauseDatabase.addClauses(new And("a", new Implies("b", "c"), new Not(new And("c", "d"))).toRegularCNF());
+
+		final BasicSolver basicSolver = new BasicSolver(clauseDatabase);
+		basicSolver.assignmentPush(2);
+		basicSolver.assignmentPush(4);
+		assertEquals(SatResult.FALSE, basicSolver.isSatisfiable());
+		basicSolver.assignmentPop();
+		assertEquals(SatResult.TRUE, basicSolver.isSatisfiable());
+
+		final ModifiableSolver modifiableSolver = new ModifiableSolver(clauseDatabase);
+		assertEquals(3, modifiableSolver.constrList.size());
+		modifiableSolver.assignmentPush(-1);
+		assertEquals(SatResult.FALSE, modifiableSolver.isSatisfiable());
+		assertEquals(SatResult.FALSE, modifiableSolver.clone().isSatisfiable());
+
+		final MultiSolver multiSolver = new MultiSolver(clauseDatabase);
+		multiSolver.initSolutionList(1);
+		assertNotNull(multiSolver.findModel());
+		multiSolver.assignmentPush(-1);
+		assertEquals(SatResult.FALSE, multiSolver.clone().isSatisfiable());
+	}
+
+	@Test
+	public void testFeatureModel() throws Exception {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, "berkeley_db_model.xml").toPath()).getObject();
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Regular);
+		final ClauseDatabase clauseDatabase = nodeCreator.createClauseDatabase();
+
+		int index = 0;
+		for (final IFeature feature : fm.getFeatures()) {
+			assertEquals(++index, clauseDatabase.getVariables().getIndex(feature.getName()));
+		}
+		final Node cnf = nodeCreator.createNodes();
+		assertEquals(cnf.getChildren().length, clauseDatabase.getNumberOfClauses());
+
+		final SatInstance satInstance = new SatInstance(clauseDatabase);
+		assertEquals(satInstance.getNumberOfVariables(), satInstance.getNumberOfFeatureVariables());
+		final SatSolver satSolver = new SatSolver(satInstance.getCnf(), 1000, false);
+		for (final Node clause : cnf.getChildren()) {
+			assertTrue(clause.toString(), satSolver.isImplied(clause.getChildren()));
+		}
+		final BasicSolver solver = new BasicSolver(satInstance);
+		assertEquals(SatResult.TRUE, solver.isSatisfiable());
+	}
+
+}
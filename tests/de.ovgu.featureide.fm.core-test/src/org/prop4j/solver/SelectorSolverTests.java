@@ -0,0 +1,126 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.SatSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * Tests for {@link SelectorSolver}, which checks preprocessor expressions for contradictions and tautologies.
+ */
+public class SelectorSolverTests {
+
+	private static final File TEST_MODEL_FOLDER = Commons.getRemoteOrLocalFolder("testFeatureModels/");
+
+	/**
+	 * A => B, not (B and C)
+	 */
+	private static Node createFormula() {
+		return new And(new Or(new Literal("A", false), "B"), new Or(new Literal("B", false), new Literal("C", false)));
+	}
+
+	@Test
+	public void testContradictionAndTautology() {
+		final SelectorSolver solver = new SelectorSolver(createFormula());
+
+		// #if A && C is a contradiction
+		final int aAndC = solver.getSelector(new And("A", "C"));
+		assertEquals(SatResult.FALSE, solver.isSatisfiable(aAndC));
+
+		// #if A ... #if B: B is a tautology within A
+		final int a = solver.getSelector(new Literal("A"));
+		final int b = solver.getSelector(new Literal("B"));
+		assertEquals(SatResult.TRUE, solver.isSatisfiable(a, b));
+		assertEquals(SatResult.FALSE, solver.isSatisfiable(a, -b));
+
+		// #if B ... #if A: A is neither
+		assertEquals(SatResult.TRUE, solver.isSatisfiable(b, a));
+		assertEquals(SatResult.TRUE, solver.isSatisfiable(b, -a));
+
+		// selectors are disabled without assumption
+		assertEquals(SatResult.TRUE, solver.isSatisfiable());
+	}
+
+	@Test
+	public void testSelectors() {
+		final SelectorSolver solver = new SelectorSolver(createFormula());
+		final int selector = solver.getSelector(new Or("A", new Not("C")));
+		assertEquals(selector, solver.getSelector(new Or("A", new Not("C"))));
+		assertEquals(1, solver.getNumberOfSelectors());
+
+		// unknown variables are added
+		final int d = solver.getSelector(new Implies("D", "C"));
+		assertEquals(SatResult.TRUE, solver.isSatisfiable(d, solver.getVariable("D")));
+		assertTrue(solver.getValue(solver.getVariable("C")));
+		assertFalse(solver.getValue(solver.getVariable("B")));
+		assertEquals(2, solver.getNumberOfSelectors());
+	}
+
+	@Test
+	public void testContradictoryBaseFormula() {
+		final SelectorSolver solver = new SelectorSolver(new And("A", new Literal("A", false)));
+		assertEquals(SatResult.FALSE, solver.isSatisfiable());
+		assertEquals(SatResult.FALSE, solver.isSatisfiable(solver.getSelector(new Literal("B"))));
+	}
+
+	/**
+	 * Compares the results for all pairs of features with the results of a new solver for each check.
+	 */
+	@Test
+	public void testFeatureModel() throws Exception {
+		final IFeatureModel fm = FeatureModelManager.load(new File(TEST_MODEL_FOLDER, "gpl_medium_model.xml").toPath()).getObject();
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm);
+		nodeCreator.setCnfType(CNFType.Tseitin);
+		final Node cnf = nodeCreator.createNodes();
+		final SelectorSolver solver = new SelectorSolver(cnf);
+
+		for (final IFeature feature1 : fm.getFeatures()) {
+			for (final IFeature feature2 : fm.getFeatures()) {
+				final Node context = new Literal(feature1.getName());
+				final Node expression = new Not(feature2.getName());
+				final int[] assumptions = { solver.getSelector(context), solver.getSelector(expression) };
+				final boolean expected = new SatSolver(new And(cnf.clone(), context.clone(), expression.clone()), 1000).isSatisfiable();
+				assertEquals(context + " & " + expression, expected ? SatResult.TRUE : SatResult.FALSE, solver.isSatisfiable(assumptions));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SolverSession.Delta;
+
+/**
+ * Tests for {@link SolverSession}.
+ */
+public class SolverSessionTests {
+
+	/**
+	 * a is core, b implies c, c excludes d.
+	 */
+	private static SolverSession createSession() {
+		final Node formula = new And("a", new Implies("b", "c"), new Not(new And("c", "d")));
+		return new SolverSession(new SatInstance(formula.toRegularCNF(), Arrays.asList("a", "b", "c", "d")));
+	}
+
+	@Test
+	public void testImpliedLiterals() {
+		final SolverSession session = createSession();
+		assertArrayEquals(new int[] { 1 }, sorted(session.getImpliedLiterals()));
+		assertArrayEquals(new int[] { -4, 1, 3 }, sorted(session.getImpliedLiterals(2)));
+		assertArrayEquals(new int[0], session.getImpliedLiterals(2, 4));
+		assertEquals(SatResult.FALSE, session.isSatisfiable(2, 4));
+		assertEquals(SatResult.TRUE, session.isSatisfiable(-2, 4));
+	}
+
+	@Test
+	public void testDeltas() {
+		final SolverSession session = createSession();
+		session.getImpliedLiterals();
+
+		Delta delta = session.select(2);
+		assertArrayEquals(new int[] { -4, 3 }, delta.getAddedLiterals());
+		assertArrayEquals(new int[0], delta.getRemovedLiterals());
+
+		delta = session.deselect(1);
+		assertFalse(session.isAssignmentSatisfiable());
+		assertArrayEquals(new int[] { -4, 1, 3 }, delta.getRemovedLiterals());
+
+		delta = session.unassign(1);
+		assertTrue(session.isAssignmentSatisfiable());
+		assertArrayEquals(new int[] { -4, 1, 3 }, delta.getAddedLiterals());
+
+		delta = session.unassign(2);
+		assertArrayEquals(new int[0], delta.getAddedLiterals());
+		assertArrayEquals(new int[] { -4, 3 }, delta.getRemovedLiterals());
+
+		delta = session.setAssignment(1);
+		assertArrayEquals(new int[0], delta.getAddedLiterals());
+		assertArrayEquals(new int[] { 1 }, delta.getRemovedLiterals());
+		assertArrayEquals(new int[] { 1 }, session.getAssignment());
+		assertArrayEquals(new int[0], session.getImpliedLiterals());
+	}
+
+	@Test
+	public void testContradiction() {
+		final SolverSession session = new SolverSession(new SatInstance(new And(new Or("a"), new Or(new Literal("a", false))), Arrays.asList("a")));
+		assertEquals(SatResult.FALSE, session.isSatisfiable(new int[0]));
+		assertNull(session.getImpliedLiterals(new int[0]));
+		assertFalse(session.isAssignmentSatisfiable());
+	}
+
+	private static int[] sorted(int[] array) {
+		Arrays.sort(array);
+		return array;
+	}
+
+}
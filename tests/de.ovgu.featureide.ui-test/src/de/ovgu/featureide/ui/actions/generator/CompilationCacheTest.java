@@ -0,0 +1,173 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.ovgu.featureide.ui.actions.generator.CompilationCache.ICompiler;
+import de.ovgu.featureide.ui.actions.generator.CompilationCache.Source;
+
+/**
+ * Tests for {@link CompilationCache}.
+ */
+public class CompilationCacheTest {
+
+	private static final String A = "package p;\npublic class A {\n\tpublic static final int X = %d;\n\tpublic static int get() { return %d; }\n}\n";
+	private static final String B = "package p;\npublic class B {\n\tpublic static int get() { return A.X + A.get(); }\n}\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Compiles with the compiler of the running JDK and records the compiled files.
+	 */
+	private static final class RecordingCompiler implements ICompiler {
+
+		private final File outputFolder;
+		private final List<String> compiled = new ArrayList<>();
+		private final String output;
+
+		private RecordingCompiler(File outputFolder, String output) {
+			this.outputFolder = outputFolder;
+			this.output = output;
+		}
+
+		@Override
+		public String compile(List<Source> sources) {
+			final List<String> arguments = new ArrayList<>(Arrays.asList("-d", outputFolder.getPath(), "-cp", outputFolder.getPath(), "-g"));
+			for (final Source source : sources) {
+				arguments.add(source.getPath());
+				compiled.add(source.getKey());
+			}
+			final int result = ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments.toArray(new String[0]));
+			return result == 0 ? output : "1. ERROR in compiler";
+		}
+
+	}
+
+	private List<Source> createProduct(String name, String... classes) throws IOException {
+		final File sourceFolder = new File(folder.newFolder(name), "p");
+		sourceFolder.mkdir();
+		final List<Source> sources = new ArrayList<>();
+		for (int i = 0; i < classes.length; i += 2) {
+			final File file = new File(sourceFolder, classes[i] + ".java");
+			final byte[] content = classes[i + 1].getBytes(StandardCharsets.UTF_8);
+			Files.write(file.toPath(), content);
+			sources.add(new Source(file.getPath(), content));
+		}
+		return sources;
+	}
+
+	private static int invoke(File outputFolder, String className) throws Exception {
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { outputFolder.toURI().toURL() }, null)) {
+			return (Integer) loader.loadClass(className).getMethod("get").invoke(null);
+		}
+	}
+
+	private RecordingCompiler compile(CompilationCache cache, String name, List<Source> product, String output) throws Exception {
+		final File outputFolder = folder.newFolder(name + "_bin");
+		final RecordingCompiler compiler = new RecordingCompiler(outputFolder, output);
+		cache.compile(product, outputFolder, compiler);
+		return compiler;
+	}
+
+	@Test
+	public void testUnchangedProduct() throws Exception {
+		final CompilationCache cache = new CompilationCache(Long.MAX_VALUE);
+		assertEquals(Arrays.asList("p/A.java", "p/B.java"), compile(cache, "c1", createProduct("c1", "A", String.format(A, 1, 1), "B", B), "").compiled);
+		final RecordingCompiler compiler = compile(cache, "c2", createProduct("c2", "A", String.format(A, 1, 1), "B", B), "");
+		assertTrue(compiler.compiled.isEmpty());
+		assertEquals(2, invoke(compiler.outputFolder, "p.B"));
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void testChangedImplementation() throws Exception {
+		final CompilationCache cache = new CompilationCache(Long.MAX_VALUE);
+		compile(cache, "c1", createProduct("c1", "A", String.format(A, 1, 1), "B", B), "");
+		final RecordingCompiler compiler = compile(cache, "c2", createProduct("c2", "A", String.format(A, 1, 5), "B", B), "");
+		assertEquals(Arrays.asList("p/A.java"), compiler.compiled);
+		assertEquals(6, invoke(compiler.outputFolder, "p.B"));
+	}
+
+	@Test
+	public void testChangedApi() throws Exception {
+		final CompilationCache cache = new CompilationCache(Long.MAX_VALUE);
+		compile(cache, "c1", createProduct("c1", "A", String.format(A, 1, 1), "B", B), "");
+		// the constant is inlined into B, so B has to be compiled again
+		final RecordingCompiler compiler = compile(cache, "c2", createProduct("c2", "A", String.format(A, 3, 1), "B", B), "");
+		assertEquals(Arrays.asList("p/A.java", "p/B.java"), compiler.compiled);
+		assertEquals(4, invoke(compiler.outputFolder, "p.B"));
+	}
+
+	@Test
+	public void testNewTypeWithReferencedName() throws Exception {
+		final CompilationCache cache = new CompilationCache(Long.MAX_VALUE);
+		final String c = "package p;\npublic class C {\n\tpublic static int get() { return Integer.MAX_VALUE; }\n}\n";
+		compile(cache, "c1", createProduct("c1", "C", c), "");
+		// p.Integer shadows java.lang.Integer
+		final String integer = "package p;\npublic class Integer {\n\tpublic static final int MAX_VALUE = 7;\n}\n";
+		final RecordingCompiler compiler = compile(cache, "c2", createProduct("c2", "C", c, "Integer", integer), "");
+		assertEquals(Arrays.asList("p/Integer.java", "p/C.java"), compiler.compiled);
+		assertEquals(7, invoke(compiler.outputFolder, "p.C"));
+	}
+
+	@Test
+	public void testReplayedProblems() throws Exception {
+		final CompilationCache cache = new CompilationCache(Long.MAX_VALUE);
+		final List<Source> product1 = createProduct("c1", "A", String.format(A, 1, 1), "B", B);
+		final String problem = "1. WARNING in %s (at line 3)\n\tpublic static int get() { return A.X + A.get(); }\n\t                  ^^^\nwarning\n";
+		compile(cache, "c1", product1, "----------\n" + String.format(problem, product1.get(1).getPath()) + "----------\n1 problem (1 warning)\n");
+
+		final List<Source> product2 = createProduct("c2", "A", String.format(A, 1, 1), "B", B);
+		final File outputFolder = folder.newFolder("c2_bin");
+		final String output = cache.compile(product2, outputFolder, new RecordingCompiler(outputFolder, ""));
+		assertEquals("----------\n" + String.format(problem, product2.get(1).getPath()) + "----------\n", output);
+	}
+
+	@Test
+	public void testSizeLimit() throws Exception {
+		final CompilationCache cache = new CompilationCache(0);
+		compile(cache, "c1", createProduct("c1", "A", String.format(A, 1, 1)), "");
+		assertEquals(0, cache.size());
+		assertEquals(Arrays.asList("p/A.java"), compile(cache, "c2", createProduct("c2", "A", String.format(A, 1, 1)), "").compiled);
+	}
+
+}
@@ -0,0 +1,188 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.ui.actions.generator.Pipeline.StageStatistics;
+
+/**
+ * Tests for {@link Pipeline}.
+ */
+public class PipelineTest {
+
+	private static final class CountingSource implements Pipeline.ISource<StringBuffer> {
+
+		private final int numberOfElements;
+		private final AtomicInteger count = new AtomicInteger();
+
+		private CountingSource(int numberOfElements) {
+			this.numberOfElements = numberOfElements;
+		}
+
+		@Override
+		public StringBuffer next() {
+			final int i = count.getAndIncrement();
+			return i < numberOfElements ? new StringBuffer(Integer.toString(i)).append(':') : null;
+		}
+
+	}
+
+	private static Pipeline.IStage<StringBuffer> append(final String name) {
+		return new Pipeline.IStage<StringBuffer>() {
+
+			@Override
+			public boolean process(StringBuffer element) {
+				element.append(name);
+				return true;
+			}
+		};
+	}
+
+	private static final class CollectingPipeline extends Pipeline<StringBuffer> {
+
+		private final ConcurrentLinkedQueue<String> completed = new ConcurrentLinkedQueue<>();
+		private final ConcurrentLinkedQueue<String> failed = new ConcurrentLinkedQueue<>();
+
+		private CollectingPipeline(ISource<StringBuffer> source, int capacity) {
+			super("source", source, capacity);
+		}
+
+		@Override
+		protected void completed(StringBuffer element) {
+			completed.add(element.toString());
+		}
+
+		@Override
+		protected void failed(String stage, StringBuffer element, Exception exception) {
+			failed.add(stage + "/" + element);
+		}
+
+	}
+
+	@Test
+	public void testAllStages() throws InterruptedException {
+		final CollectingPipeline pipeline = new CollectingPipeline(new CountingSource(200), 4);
+		pipeline.addStage("a", 3, append("a")).addStage("b", 1, append("b")).addStage("c", 2, append("c"));
+		pipeline.start();
+		assertTrue(pipeline.await(10, TimeUnit.SECONDS));
+
+		assertEquals(200, pipeline.completed.size());
+		for (final String element : pipeline.completed) {
+			assertTrue(element, element.endsWith(":abc"));
+		}
+		final List<StageStatistics> statistics = pipeline.getStatistics();
+		assertEquals(4, statistics.size());
+		assertEquals("source", statistics.get(0).getName());
+		assertEquals("b", statistics.get(2).getName());
+		assertEquals(3, statistics.get(1).getWorkers());
+		for (final StageStatistics stageStatistics : statistics) {
+			assertEquals(200, stageStatistics.getProcessed());
+			assertEquals(0, stageStatistics.getFailed());
+		}
+		assertFalse(pipeline.isCanceled());
+	}
+
+	@Test
+	public void testDroppedAndFailedElements() throws InterruptedException {
+		final CollectingPipeline pipeline = new CollectingPipeline(new CountingSource(100), 2);
+		pipeline.addStage("filter", 2, new Pipeline.IStage<StringBuffer>() {
+
+			@Override
+			public boolean process(StringBuffer element) throws Exception {
+				final int i = Integer.parseInt(element.substring(0, element.indexOf(":")));
+				if ((i % 10) == 0) {
+					throw new Exception();
+				}
+				return (i % 2) == 1;
+			}
+		}).addStage("end", 1, append("end"));
+		pipeline.start();
+		assertTrue(pipeline.await(10, TimeUnit.SECONDS));
+
+		assertEquals(50, pipeline.completed.size());
+		assertEquals(10, pipeline.failed.size());
+		assertTrue(pipeline.failed.contains("filter/0:"));
+		assertEquals(100, pipeline.getStatistics().get(1).getProcessed());
+		assertEquals(10, pipeline.getStatistics().get(1).getFailed());
+		assertEquals(50, pipeline.getStatistics().get(2).getProcessed());
+	}
+
+	@Test
+	public void testBoundedQueues() throws InterruptedException {
+		final CountingSource source = new CountingSource(Integer.MAX_VALUE);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CollectingPipeline pipeline = new CollectingPipeline(source, 3);
+		pipeline.addStage("a", 1, append("a")).addStage("blocking", 1, new Pipeline.IStage<StringBuffer>() {
+
+			@Override
+			public boolean process(StringBuffer element) throws InterruptedException {
+				blocked.countDown();
+				new CountDownLatch(1).await();
+				return true;
+			}
+		});
+		pipeline.start();
+		assertTrue(blocked.await(10, TimeUnit.SECONDS));
+		assertFalse(pipeline.await(200, TimeUnit.MILLISECONDS));
+
+		// source -> queue (3) -> a -> queue (3) -> blocking worker
+		assertTrue(Integer.toString(source.count.get()), source.count.get() <= 10);
+
+		pipeline.cancel();
+		assertTrue(pipeline.await(10, TimeUnit.SECONDS));
+		assertTrue(pipeline.isCanceled());
+		assertTrue(pipeline.completed.isEmpty());
+	}
+
+	@Test
+	public void testCancelBlockedSource() throws InterruptedException {
+		final BlockingQueue<StringBuffer> elements = new LinkedBlockingQueue<>();
+		final CollectingPipeline pipeline = new CollectingPipeline(new Pipeline.ISource<StringBuffer>() {
+
+			@Override
+			public StringBuffer next() throws InterruptedException {
+				return elements.take();
+			}
+		}, 2);
+		pipeline.addStage("a", 2, append("a"));
+		pipeline.start();
+		elements.add(new StringBuffer("0:"));
+		assertFalse(pipeline.await(200, TimeUnit.MILLISECONDS));
+		assertEquals("[0:a]", pipeline.completed.toString());
+
+		pipeline.cancel();
+		assertTrue(pipeline.await(10, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,176 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+
+/**
+ * Tests for {@link VariantTestExecutor}.
+ */
+public class VariantTestExecutorTest {
+
+	private static final String TESTS = "package p;\n" //
+		+ "import org.junit.*;\n" //
+		+ "public class Tests {\n" //
+		+ "\t@Test public void pass() {}\n" //
+		+ "\t@Test public void fail() { Assert.fail(); }\n" //
+		+ "\t@Ignore @Test public void ignore() {}\n" //
+		+ "}\n";
+
+	private static final String SLEEP = "package p;\n" //
+		+ "public class Sleep {\n" //
+		+ "\t@org.junit.Test public void sleep() throws Exception { Thread.sleep(%d); }\n" //
+		+ "}\n";
+
+	private static final String STUBBORN = "package p;\n" //
+		+ "public class Stubborn {\n" //
+		+ "\t@org.junit.Test public void run() {\n" //
+		+ "\t\tfinal long end = System.currentTimeMillis() + 2000;\n" //
+		+ "\t\twhile (System.currentTimeMillis() < end) {\n" //
+		+ "\t\t\ttry { Thread.sleep(10); } catch (InterruptedException e) {}\n" //
+		+ "\t\t}\n" //
+		+ "\t}\n" //
+		+ "}\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final class RecordingListener implements VariantTestExecutor.ITestListener {
+
+		private final Map<String, Failure> results = new ConcurrentHashMap<>();
+		private final AtomicInteger ignored = new AtomicInteger();
+
+		@Override
+		public boolean accept(String variant, Class<?> testClass) {
+			return true;
+		}
+
+		@Override
+		public void testFinished(String variant, String testClass, Description description, long time, Failure failure) {
+			results.put(variant + ":" + description.getMethodName(), failure == null ? new Failure(description, new Exception("passed")) : failure);
+		}
+
+		@Override
+		public void testIgnored(String variant, String testClass, Description description) {
+			ignored.incrementAndGet();
+		}
+
+		private boolean passed(String test) {
+			return "passed".equals(results.get(test).getMessage());
+		}
+
+	}
+
+	private URL[] compile(String name, String className, String source) throws Exception {
+		final File sourceFile = new File(folder.newFolder(name + "_src"), className + ".java");
+		Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+		final File outputFolder = folder.newFolder(name);
+		final String classpath = new File(org.junit.Test.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+		assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", outputFolder.getPath(), "-cp", classpath, sourceFile.getPath()));
+		return new URL[] { outputFolder.toURI().toURL() };
+	}
+
+	private static VariantTestExecutor createExecutor(int parallelism, long timeout) {
+		return new VariantTestExecutor(parallelism, timeout, VariantTestExecutorTest.class.getClassLoader());
+	}
+
+	@Test
+	public void testResults() throws Exception {
+		final RecordingListener listener = new RecordingListener();
+		assertTrue(createExecutor(1, 10000).run("v1", compile("v1", "Tests", TESTS), Arrays.asList("p.Tests"), listener));
+		assertEquals(2, listener.results.size());
+		assertTrue(listener.passed("v1:pass"));
+		assertTrue(listener.results.get("v1:fail").getException() instanceof AssertionError);
+		assertEquals(1, listener.ignored.get());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		final RecordingListener listener = new RecordingListener();
+		final long start = System.currentTimeMillis();
+		assertTrue(createExecutor(1, 200).run("v1", compile("v1", "Sleep", String.format(SLEEP, 60000)), Arrays.asList("p.Sleep"), listener));
+		assertTrue((System.currentTimeMillis() - start) < 10000);
+		assertTrue(listener.results.get("v1:sleep").getException() instanceof TimeoutException);
+	}
+
+	@Test
+	public void testAbandonedTest() throws Exception {
+		final RecordingListener listener = new RecordingListener();
+		final List<String> classes = Arrays.asList("p.Stubborn", "p.Tests");
+		assertFalse(createExecutor(1, 200).run("v1", compile("v1", "Stubborn", STUBBORN), classes, listener));
+		assertEquals(1, listener.results.size());
+		assertTrue(listener.results.get("v1:run").getException() instanceof TimeoutException);
+	}
+
+	@Test
+	public void testParallelVariants() throws Exception {
+		final VariantTestExecutor executor = createExecutor(4, 10000);
+		final RecordingListener listener = new RecordingListener();
+		final Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final String variant = "v" + i;
+			final URL[] classpath = compile(variant, "Sleep", String.format(SLEEP, 1000));
+			threads[i] = new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						executor.run(variant, classpath, Arrays.asList("p.Sleep"), listener);
+					} catch (final InterruptedException e) {}
+				}
+			};
+		}
+		final long compiled = System.currentTimeMillis();
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue((System.currentTimeMillis() - compiled) < 3000);
+		for (int i = 0; i < threads.length; i++) {
+			assertTrue(listener.passed("v" + i + ":sleep"));
+		}
+		executor.shutdown();
+	}
+
+}
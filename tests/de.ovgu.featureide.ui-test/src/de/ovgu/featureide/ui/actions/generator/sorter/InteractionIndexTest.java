@@ -0,0 +1,143 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator.sorter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link InteractionIndex}.
+ */
+public class InteractionIndexTest {
+
+	private static List<String> createFeatures(int numberOfFeatures) {
+		final List<String> features = new ArrayList<>(numberOfFeatures);
+		for (int i = 0; i < numberOfFeatures; i++) {
+			features.add("F" + i);
+		}
+		return features;
+	}
+
+	private static Set<String> createConfiguration(List<String> features, Random random) {
+		final Set<String> selected = new HashSet<>();
+		for (final String feature : features) {
+			if (random.nextBoolean()) {
+				selected.add(feature);
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Counts the uncovered interactions by enumerating all subsets of at most t features.
+	 */
+	private static long countUncovered(List<String> features, Set<String> configuration, List<Set<String>> covered, int t) {
+		long count = 0;
+		final int n = features.size();
+		for (int subset = 1; subset < (1 << n); subset++) {
+			if (Integer.bitCount(subset) > t) {
+				continue;
+			}
+			boolean isCovered = false;
+			for (final Set<String> coveredConfiguration : covered) {
+				boolean agrees = true;
+				for (int i = 0; (i < n) && agrees; i++) {
+					if ((subset & (1 << i)) != 0) {
+						final String feature = features.get(i);
+						agrees = configuration.contains(feature) == coveredConfiguration.contains(feature);
+					}
+				}
+				if (agrees) {
+					isCovered = true;
+					break;
+				}
+			}
+			if (!isCovered) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testCountUncovered() {
+		final Random random = new Random(0);
+		for (int run = 0; run < 50; run++) {
+			final List<String> features = createFeatures(1 + random.nextInt(12));
+			final int t = 1 + random.nextInt(4);
+			final InteractionIndex index = new InteractionIndex(features);
+			final List<Set<String>> configurations = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				configurations.add(createConfiguration(features, random));
+				index.add(configurations.get(i));
+			}
+			final List<Set<String>> covered = new ArrayList<>();
+			for (int i = 0; i < configurations.size(); i++) {
+				for (int j = 0; j < configurations.size(); j++) {
+					assertEquals(countUncovered(features, configurations.get(j), covered, t), index.countUncovered(j, t));
+				}
+				covered.add(configurations.get(i));
+				index.cover(i);
+			}
+		}
+	}
+
+	@Test
+	public void testLargeIndex() {
+		final Random random = new Random(1);
+		final List<String> features = createFeatures(130);
+		final InteractionIndex index = new InteractionIndex(features);
+		for (int i = 0; i < 70; i++) {
+			index.add(createConfiguration(features, random));
+		}
+		final long pairs = 130 + ((130 * 129) / 2);
+		assertEquals(pairs, index.countUncovered(0, 2));
+		index.cover(0);
+		assertEquals(0, index.countUncovered(0, 2));
+		for (int i = 1; i < 70; i++) {
+			index.cover(i);
+		}
+		for (int i = 0; i < 70; i++) {
+			assertEquals(0, index.countUncovered(i, 3));
+		}
+	}
+
+	@Test
+	public void testAgreements() {
+		final List<String> features = createFeatures(4);
+		final InteractionIndex index = new InteractionIndex(features);
+		index.add(Arrays.asList("F0", "F1", "Abstract"));
+		index.add(Arrays.asList("F1", "F2"));
+		assertEquals(4, index.getNumberOfFeatures());
+		assertEquals(2, index.countSelected(0));
+		assertEquals(2, index.countAgreements(0, 1));
+		assertEquals(4, index.countAgreements(1, 1));
+	}
+
+}